@@ -0,0 +1,223 @@
+package com.tcl.mybatislearning.async;
+
+import com.tcl.mybatislearning.datasource.PoolSizes;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.page.KeysetPage;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * BlogMapper 的异步门面，每个方法返回 CompletableFuture，调用线程（如 Web 请求线程）不再阻塞在 JDBC 上。
+ * <p>
+ * 每次调用在执行线程上独立打开并关闭一个 SqlSession：读操作自动提交，写操作执行后提交、失败回滚。
+ * {@link #create(SqlSessionFactory)} 按数据源的最大连接数建固定大小的线程池；
+ * 运行在 JDK 21 及以上时改用虚拟线程，此时并发度由连接池本身限制。
+ * <p>
+ * 背压：同时在途（执行中 + 排队）的调用不超过 maxInFlight，超出时立即返回以
+ * RejectedExecutionException 失败的 future，而不是无限排队耗尽内存或让请求超时。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 17:50
+ */
+public class AsyncBlogMapper implements Closeable {
+
+    /**
+     * 默认允许的在途调用数为连接数的倍数
+     */
+    public static final int DEFAULT_IN_FLIGHT_PER_CONNECTION = 4;
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final SqlSessionFactory sessionFactory;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    /**
+     * @param executor    执行 SQL 的线程池，由调用方管理生命周期
+     * @param maxInFlight 同时在途的调用上限
+     */
+    public AsyncBlogMapper(SqlSessionFactory sessionFactory, Executor executor, int maxInFlight) {
+        this(sessionFactory, executor, null, maxInFlight);
+    }
+
+    private AsyncBlogMapper(SqlSessionFactory sessionFactory, Executor executor, ExecutorService ownedExecutor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.sessionFactory = sessionFactory;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 按数据源的最大连接数创建，close() 时关闭内部线程池
+     */
+    public static AsyncBlogMapper create(SqlSessionFactory sessionFactory) {
+        int poolSize = PoolSizes.maximumPoolSize(sessionFactory.getConfiguration().getEnvironment().getDataSource(),
+                DEFAULT_POOL_SIZE);
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(poolSize, daemonThreads());
+        }
+        return new AsyncBlogMapper(sessionFactory, executor, executor, poolSize * DEFAULT_IN_FLIGHT_PER_CONNECTION);
+    }
+
+    public CompletableFuture<Blog> selectById(Long id) {
+        return read(mapper -> mapper.selectById(id));
+    }
+
+    public CompletableFuture<List<Blog>> selectByIds(List<Long> ids) {
+        return read(mapper -> mapper.selectByIds(ids));
+    }
+
+    public CompletableFuture<List<Blog>> selectAll() {
+        return read(BlogMapper::selectAll);
+    }
+
+    public CompletableFuture<KeysetPage<Blog>> selectAllPage(String token, int limit) {
+        return read(mapper -> mapper.selectAllPage(token, limit));
+    }
+
+    public CompletableFuture<List<Blog>> selectBlogLike(String title, Author author) {
+        return read(mapper -> mapper.selectBlogLike(title, author));
+    }
+
+    public CompletableFuture<KeysetPage<Blog>> selectBlogLikePage(String title, Author author, String token, int limit) {
+        return read(mapper -> mapper.selectBlogLikePage(title, author, token, limit));
+    }
+
+    public CompletableFuture<Integer> count() {
+        return read(BlogMapper::count);
+    }
+
+    /**
+     * @return 回填了自增 id 的同一个 blog
+     */
+    public CompletableFuture<Blog> insertBlog(Blog blog) {
+        return write(mapper -> {
+            mapper.insertBlog(blog);
+            return blog;
+        });
+    }
+
+    public CompletableFuture<Void> updateBlog(Blog blog) {
+        return write(mapper -> {
+            mapper.updateBlog(blog);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteBlogById(Long id) {
+        return write(mapper -> {
+            mapper.deleteBlogById(id);
+            return null;
+        });
+    }
+
+    /**
+     * 在自动提交的独立会话里执行任意只读调用
+     */
+    public <T> CompletableFuture<T> read(Function<BlogMapper, T> call) {
+        return submit(call, true);
+    }
+
+    /**
+     * 在独立事务里执行任意写调用，正常返回后提交
+     */
+    public <T> CompletableFuture<T> write(Function<BlogMapper, T> call) {
+        return submit(call, false);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private <T> CompletableFuture<T> submit(Function<BlogMapper, T> call, boolean autoCommit) {
+        if (!inFlight.tryAcquire()) {
+            return rejected(new RejectedExecutionException("Too many BlogMapper calls in flight (max " + maxInFlight + ")"));
+        }
+        try {
+            // 在任务内部先归还许可再完成 future，调用方 get() 返回时许可一定已经可用
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return execute(call, autoCommit);
+                } finally {
+                    inFlight.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return rejected(e);
+        }
+    }
+
+    private <T> T execute(Function<BlogMapper, T> call, boolean autoCommit) {
+        try (SqlSession session = sessionFactory.openSession(autoCommit)) {
+            T result = call.apply(session.getMapper(BlogMapper.class));
+            if (!autoCommit) {
+                session.commit();
+            }
+            return result;
+        }
+    }
+
+    private static <T> CompletableFuture<T> rejected(RejectedExecutionException e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * JDK 21+ 的 Executors.newVirtualThreadPerTaskExecutor()；项目按 Java 8 编译，只能反射调用
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "async-blog-mapper-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tcl.mybatislearning.batch;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.entity.BlogColumn;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BlogMapper#updateBatch 的实现：按变更列分组，每组按块执行 updateColumnsByIds。
+ * <p>
+ * 每行只发送 {@link Blog#changedColumns()} 里的列，没有变更的行不发送；变更列相同的行合成一条
+ * {@code update ... set col = case id when ? then ? ... end where id in (...)}，
+ * 10 万行只改标签时是几百条语句而不是 10 万条，未改动的 content 也不会写进 redo log。
+ * 块按 {@link #BUCKETS} 补齐（重复最后一行），SQL 文本只有有限几种。
+ * <p>
+ * 在 BATCH 执行器的会话里调用时这些语句再合成一次 JDBC 批量执行。
+ * 同一个 id 出现多次时以最后一次为准。写入的值由 ChangeTrackingInterceptor 在提交成功后设为新的基准，
+ * 回滚后各行仍然是变更状态，可以重新调用。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:40
+ */
+public final class BlogBatchUpdater {
+
+    public static final int[] BUCKETS = {1, 4, 16, 64, 256};
+
+    private BlogBatchUpdater() {
+    }
+
+    /**
+     * @return 各语句影响行数之和；BATCH 执行器下语句尚未执行，结果没有意义
+     */
+    public static int updateBatch(BlogMapper mapper, List<? extends Blog> blogs) {
+        Map<Long, Blog> latest = new LinkedHashMap<>(blogs.size() * 4 / 3 + 1);
+        for (Blog blog : blogs) {
+            if (blog.getId() == null) {
+                throw new IllegalArgumentException("Cannot update a blog without id: " + blog);
+            }
+            latest.remove(blog.getId());
+            latest.put(blog.getId(), blog);
+        }
+        Map<Set<BlogColumn>, List<Blog>> groups = new LinkedHashMap<>();
+        for (Blog blog : latest.values()) {
+            Set<BlogColumn> columns = blog.changedColumns();
+            if (!columns.isEmpty()) {
+                groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(blog);
+            }
+        }
+        int updated = 0;
+        for (Map.Entry<Set<BlogColumn>, List<Blog>> group : groups.entrySet()) {
+            Set<BlogColumn> columns = group.getKey();
+            for (List<Blog> chunk : chunks(group.getValue())) {
+                updated += mapper.updateColumnsByIds(chunk, columns.contains(BlogColumn.TITLE),
+                        columns.contains(BlogColumn.CONTENT), columns.contains(BlogColumn.AUTHOR));
+            }
+        }
+        return updated;
+    }
+
+    static List<List<Blog>> chunks(List<Blog> blogs) {
+        int maxChunk = BUCKETS[BUCKETS.length - 1];
+        List<List<Blog>> chunks = new ArrayList<>(blogs.size() / maxChunk + 1);
+        for (int from = 0; from < blogs.size(); from += maxChunk) {
+            List<Blog> chunk = new ArrayList<>(blogs.subList(from, Math.min(blogs.size(), from + maxChunk)));
+            int padded = bucketFor(chunk.size());
+            Blog last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < padded) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static int bucketFor(int size) {
+        for (int bucket : BUCKETS) {
+            if (bucket >= size) {
+                return bucket;
+            }
+        }
+        return BUCKETS[BUCKETS.length - 1];
+    }
+}
@@ -0,0 +1,199 @@
+package com.tcl.mybatislearning.batch;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.loader.AuthorBatchLoader;
+import com.tcl.mybatislearning.mapper.AuthorMapper;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 ExecutorType.BATCH 的分块批量写入器，用来替代一次性展开的 insertBatch。
+ * <p>
+ * 每条记录都走同一条 insertBlog 语句，因此SQL形状固定；记录先攒够 chunkSize 条，执行一次 executeBatch，
+ * 每 chunksPerCommit 块提交一次事务，内存中最多只保留一个块的参数对象。
+ * 执行后由 Jdbc3KeyGenerator 把自增主键回填到各个 Blog 上。
+ * <p>
+ * 执行一块之前先用 {@link AuthorBatchLoader#resolve} 把块内只有名字的作者补进 author 表并取回 id（一次插入加一次 in 查询），
+ * 逐条 insertBlog 时就不会再由 AuthorAssociationInterceptor 按行查询、打断攒好的批。
+ * <p>
+ * MySQL 需要开启 rewriteBatchedStatements=true（见 hikariCP.properties），
+ * 驱动才会把一个块改写成多值 insert，一次往返发送。
+ * <p>
+ * 执行或提交失败后写入器进入失败状态：失败的块已丢弃，部分语句可能已经生效，
+ * 在调用 {@link #rollback()} 之前 write/flush/commit 都会抛出 IllegalStateException，close 只回滚、不提交。
+ * <p>
+ * 非线程安全，一个写入器独占一个 SqlSession。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:40
+ */
+public class BlogBatchWriter implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    public static final int DEFAULT_CHUNKS_PER_COMMIT = 10;
+
+    private final SqlSession session;
+
+    private final BlogMapper mapper;
+
+    private final AuthorMapper authors;
+
+    private final int chunkSize;
+
+    private final int chunksPerCommit;
+
+    private final List<Blog> pending;
+
+    private int chunksSinceCommit;
+
+    private long written;
+
+    private long committed;
+
+    private boolean failed;
+
+    public BlogBatchWriter(SqlSessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNKS_PER_COMMIT);
+    }
+
+    public BlogBatchWriter(SqlSessionFactory sessionFactory, int chunkSize, int chunksPerCommit) {
+        if (chunkSize <= 0 || chunksPerCommit <= 0) {
+            throw new IllegalArgumentException("chunkSize and chunksPerCommit must be positive");
+        }
+        this.session = sessionFactory.openSession(ExecutorType.BATCH, false);
+        this.mapper = session.getMapper(BlogMapper.class);
+        this.authors = session.getMapper(AuthorMapper.class);
+        this.chunkSize = chunkSize;
+        this.chunksPerCommit = chunksPerCommit;
+        this.pending = new ArrayList<>(chunkSize);
+    }
+
+    public void write(Blog blog) {
+        checkNotFailed();
+        pending.add(blog);
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    public void writeAll(Iterable<Blog> blogs) {
+        for (Blog blog : blogs) {
+            write(blog);
+        }
+    }
+
+    /**
+     * 执行当前块，执行完成后块内 Blog 的 id 已回填；达到提交间隔时顺带提交
+     */
+    public List<BatchResult> flush() {
+        checkNotFailed();
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<BatchResult> results = execute();
+        if (++chunksSinceCommit >= chunksPerCommit) {
+            commit();
+        }
+        return results;
+    }
+
+    public void commit() {
+        checkNotFailed();
+        if (!pending.isEmpty()) {
+            execute();
+        }
+        try {
+            session.commit(true);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        committed = written;
+        chunksSinceCommit = 0;
+    }
+
+    /**
+     * 放弃自上次提交以来写入的数据，并清除失败状态
+     */
+    public void rollback() {
+        pending.clear();
+        written = committed;
+        chunksSinceCommit = 0;
+        session.rollback(true);
+        failed = false;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * 失败时块内部分语句可能已经执行，不能原样重试，丢弃整块并标记失败
+     */
+    private List<BatchResult> execute() {
+        try {
+            // 作者查询会先执行批里已有的语句，所以放在本块的insert加入批之前
+            AuthorBatchLoader.resolve(pending, names -> {
+                authors.insertNames(names);
+                return authors.selectByNames(names);
+            });
+            for (Blog blog : pending) {
+                mapper.insertBlog(blog);
+            }
+            List<BatchResult> results = session.flushStatements();
+            written += pending.size();
+            return results;
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        } finally {
+            pending.clear();
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failed) {
+            throw new IllegalStateException("A previous batch failed; call rollback() before writing again");
+        }
+    }
+
+    /**
+     * 已执行（但不一定已提交）的记录数
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    public long getCommittedCount() {
+        return committed;
+    }
+
+    /**
+     * 提交剩余数据并关闭会话；提交失败时回滚。已处于失败状态时只回滚，不提交也不抛出异常
+     */
+    @Override
+    public void close() {
+        try {
+            if (failed) {
+                session.rollback(true);
+                return;
+            }
+            commit();
+        } catch (RuntimeException e) {
+            session.rollback(true);
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+}
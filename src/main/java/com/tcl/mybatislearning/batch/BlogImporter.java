@@ -0,0 +1,443 @@
+package com.tcl.mybatislearning.batch;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.handler.AuthorCache;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 把 CSV/JSONL 格式的 blog 导出文件流式导入 blog 表。
+ * <p>
+ * 三级流水线，级间是有界队列，慢的一级会把上游阻塞住，内存占用与文件大小无关：
+ * <ol>
+ *     <li>读取线程：{@link FileChunker} 分段内存映射文件，按记录边界切成约 chunkBytes 的块</li>
+ *     <li>parsers 个解析线程：解码、解析、校验，作者名经本次导入私有的 {@link AuthorCache} 转成共享的 Author</li>
+ *     <li>writers 个写入线程：各自持有一个 {@link BlogBatchWriter}，按 chunkSize 执行批量 insert、按 chunksPerCommit 提交</li>
+ * </ol>
+ * 导入不是原子的：失败时各写入线程回滚未提交的部分，已提交的行保留，结果里的 committedRows 即为已落库的行数。
+ * 不合法的行不会中断导入，只计数并保留前 maxRejectedSamples 条样本。
+ * <p>
+ * 每次 {@link #run(Path)} 创建并销毁自己的线程；同一个实例可以顺序复用，不能并发调用 run。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:45
+ */
+public class BlogImporter {
+
+    public static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+
+    public static final int DEFAULT_WRITERS = 2;
+
+    public static final int DEFAULT_MAX_REJECTED_SAMPLES = 100;
+
+    /**
+     * CSV 列名行的长度上限
+     */
+    private static final int MAX_HEADER_BYTES = 64 << 10;
+
+    /**
+     * 写入队列的结束标记，解析线程不会放入空列表
+     */
+    private static final List<Blog> NO_MORE = Collections.emptyList();
+
+    private final SqlSessionFactory sessionFactory;
+
+    private ImportFormat format;
+
+    private int parsers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private int writers = DEFAULT_WRITERS;
+
+    private int chunkSize = BlogBatchWriter.DEFAULT_CHUNK_SIZE;
+
+    private int chunksPerCommit = BlogBatchWriter.DEFAULT_CHUNKS_PER_COMMIT;
+
+    private int chunkBytes = DEFAULT_CHUNK_BYTES;
+
+    private int window = FileChunker.DEFAULT_WINDOW;
+
+    private int queueCapacity;
+
+    private int maxRejectedSamples = DEFAULT_MAX_REJECTED_SAMPLES;
+
+    private Consumer<ImportProgress> progressListener;
+
+    private long progressIntervalMillis;
+
+    public BlogImporter(SqlSessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * 指定文件格式，不指定时按扩展名判断
+     */
+    public BlogImporter format(ImportFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    public BlogImporter parsers(int parsers) {
+        this.parsers = positive(parsers, "parsers");
+        return this;
+    }
+
+    /**
+     * 写入线程数，每个线程占用一个连接
+     */
+    public BlogImporter writers(int writers) {
+        this.writers = positive(writers, "writers");
+        return this;
+    }
+
+    public BlogImporter chunkSize(int chunkSize) {
+        this.chunkSize = positive(chunkSize, "chunkSize");
+        return this;
+    }
+
+    public BlogImporter chunksPerCommit(int chunksPerCommit) {
+        this.chunksPerCommit = positive(chunksPerCommit, "chunksPerCommit");
+        return this;
+    }
+
+    /**
+     * 读取线程切块的目标大小，也是解析的粒度
+     */
+    public BlogImporter chunkBytes(int chunkBytes) {
+        this.chunkBytes = positive(chunkBytes, "chunkBytes");
+        return this;
+    }
+
+    /**
+     * 每次内存映射的文件区间大小，单条记录不能超过它
+     */
+    public BlogImporter window(int window) {
+        this.window = positive(window, "window");
+        return this;
+    }
+
+    /**
+     * 每个队列的容量，默认是下游线程数的两倍
+     */
+    public BlogImporter queueCapacity(int queueCapacity) {
+        this.queueCapacity = positive(queueCapacity, "queueCapacity");
+        return this;
+    }
+
+    public BlogImporter maxRejectedSamples(int maxRejectedSamples) {
+        if (maxRejectedSamples < 0) {
+            throw new IllegalArgumentException("maxRejectedSamples must not be negative");
+        }
+        this.maxRejectedSamples = maxRejectedSamples;
+        return this;
+    }
+
+    /**
+     * 每 intervalMillis 在后台线程上回调一次进度，结束时再回调一次最终进度
+     */
+    public BlogImporter progress(Consumer<ImportProgress> listener, long intervalMillis) {
+        this.progressListener = listener;
+        this.progressIntervalMillis = positive(intervalMillis, "intervalMillis");
+        return this;
+    }
+
+    private static <T extends Number> T positive(T value, String name) {
+        if (value.longValue() <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    public ImportResult run(Path path) {
+        ImportFormat format = this.format != null ? this.format : ImportFormat.forPath(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Import(format, channel).run();
+        } catch (IOException e) {
+            throw ExceptionFactory.wrapException("Error importing blogs from " + path + ".", e);
+        } finally {
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 一次导入的状态
+     */
+    private final class Import {
+
+        private final ImportFormat format;
+
+        private final FileChannel channel;
+
+        private final long startNanos = System.nanoTime();
+
+        private long totalBytes;
+
+        private final AtomicLong parsedBytes = new AtomicLong();
+
+        private final AtomicLong parsedRows = new AtomicLong();
+
+        private final AtomicLong rejectedRows = new AtomicLong();
+
+        /**
+         * 每个写入线程一个槽，写入线程只写自己的槽
+         */
+        private final AtomicLongArray writtenRows = new AtomicLongArray(writers);
+
+        private final AtomicLongArray committedRows = new AtomicLongArray(writers);
+
+        private final List<RejectedRow> rejectedSamples = new ArrayList<>();
+
+        private final AtomicInteger runningParsers = new AtomicInteger(parsers);
+
+        private final BlockingQueue<RecordChunk> chunks =
+                new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : parsers * 2);
+
+        private final BlockingQueue<List<Blog>> batches =
+                new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : writers * 2);
+
+        Import(ImportFormat format, FileChannel channel) {
+            this.format = format;
+            this.channel = channel;
+        }
+
+        ImportResult run() throws IOException {
+            totalBytes = channel.size();
+            long start = bom();
+            long firstLine = 1;
+            BlogRecordParser parser;
+            AuthorCache authors = new AuthorCache(AuthorCache.DEFAULT_MAXIMUM_SIZE);
+            if (format == ImportFormat.CSV) {
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(MAX_HEADER_BYTES, totalBytes - start));
+                int end = indexOf(header, (byte) '\n');
+                if (end < 0 && totalBytes - start > MAX_HEADER_BYTES) {
+                    throw new IOException("CSV header is longer than " + MAX_HEADER_BYTES + " bytes");
+                }
+                int length = end < 0 ? header.limit() : end;
+                header.limit(length);
+                try {
+                    parser = BlogRecordParser.csv(authors,
+                            BlogRecordParser.header(StandardCharsets.UTF_8.decode(header).toString()));
+                } catch (IllegalArgumentException e) {
+                    // 空文件、只有 BOM 或列名不对
+                    throw new IOException(e.getMessage(), e);
+                }
+                start += end < 0 ? length : length + 1;
+                firstLine = 2;
+            } else {
+                parser = BlogRecordParser.jsonl(authors);
+            }
+            parsedBytes.set(start);
+            execute(parser, start, firstLine);
+            ImportProgress progress = snapshot();
+            if (progressListener != null) {
+                progressListener.accept(progress);
+            }
+            synchronized (rejectedSamples) {
+                return new ImportResult(progress, Collections.unmodifiableList(new ArrayList<>(rejectedSamples)));
+            }
+        }
+
+        private long bom() throws IOException {
+            if (totalBytes < 3) {
+                return 0;
+            }
+            ByteBuffer head = ByteBuffer.allocate(3);
+            channel.read(head, 0);
+            return head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF ? 3 : 0;
+        }
+
+        private void execute(BlogRecordParser parser, long start, long firstLine) throws IOException {
+            ExecutorService pool = Executors.newFixedThreadPool(1 + parsers + writers, daemonThreads("blog-import-"));
+            ScheduledExecutorService reporter = null;
+            if (progressListener != null) {
+                reporter = Executors.newSingleThreadScheduledExecutor(daemonThreads("blog-import-progress-"));
+                reporter.scheduleAtFixedRate(() -> progressListener.accept(snapshot()),
+                        progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            CompletionService<Void> stages = new ExecutorCompletionService<>(pool);
+            int submitted = 0;
+            try {
+                stages.submit(() -> read(start, firstLine));
+                submitted++;
+                for (int i = 0; i < parsers; i++) {
+                    stages.submit(() -> parse(parser));
+                    submitted++;
+                }
+                for (int i = 0; i < writers; i++) {
+                    int slot = i;
+                    stages.submit(() -> write(slot));
+                    submitted++;
+                }
+                for (int i = 0; i < submitted; i++) {
+                    // 任何一级失败都立即返回，finally 里中断其余阻塞在队列上的线程
+                    stages.take().get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ExceptionFactory.wrapException("Interrupted while importing blogs; "
+                        + committed() + " rows committed.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw ExceptionFactory.wrapException("Error importing blogs; " + committed() + " rows committed.",
+                        cause instanceof Exception ? (Exception) cause : e);
+            } finally {
+                pool.shutdownNow();
+                if (reporter != null) {
+                    reporter.shutdownNow();
+                }
+                awaitTermination(pool);
+            }
+        }
+
+        private Void read(long start, long firstLine) throws IOException, InterruptedException {
+            new FileChunker(channel, format == ImportFormat.CSV, chunkBytes, window).split(start, firstLine, chunks::put);
+            for (int i = 0; i < parsers; i++) {
+                chunks.put(RecordChunk.END);
+            }
+            return null;
+        }
+
+        private Void parse(BlogRecordParser parser) throws InterruptedException {
+            while (true) {
+                RecordChunk chunk = chunks.take();
+                if (chunk == RecordChunk.END) {
+                    // 最后一个结束的解析线程通知所有写入线程
+                    if (runningParsers.decrementAndGet() == 0) {
+                        for (int i = 0; i < writers; i++) {
+                            batches.put(NO_MORE);
+                        }
+                    }
+                    return null;
+                }
+                int bytes = chunk.bytes.remaining();
+                BlogRecordParser.Parsed parsed = parser.parse(chunk);
+                if (!parsed.rejected.isEmpty()) {
+                    rejectedRows.addAndGet(parsed.rejected.size());
+                    synchronized (rejectedSamples) {
+                        for (RejectedRow row : parsed.rejected) {
+                            if (rejectedSamples.size() >= maxRejectedSamples) {
+                                break;
+                            }
+                            rejectedSamples.add(row);
+                        }
+                    }
+                }
+                parsedRows.addAndGet(parsed.blogs.size());
+                parsedBytes.addAndGet(bytes);
+                if (!parsed.blogs.isEmpty()) {
+                    batches.put(parsed.blogs);
+                }
+            }
+        }
+
+        private Void write(int slot) throws InterruptedException {
+            BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, chunkSize, chunksPerCommit);
+            boolean completed = false;
+            try {
+                while (true) {
+                    List<Blog> blogs = batches.take();
+                    if (blogs == NO_MORE) {
+                        break;
+                    }
+                    writer.writeAll(blogs);
+                    writtenRows.set(slot, writer.getWrittenCount());
+                    committedRows.set(slot, writer.getCommittedCount());
+                }
+                writer.close();
+                completed = true;
+                writtenRows.set(slot, writer.getWrittenCount());
+                committedRows.set(slot, writer.getCommittedCount());
+                return null;
+            } finally {
+                if (!completed) {
+                    abort(writer);
+                }
+            }
+        }
+
+        private void abort(BlogBatchWriter writer) {
+            try {
+                writer.rollback();
+            } catch (RuntimeException ignored) {
+                // 连接可能已经坏了，关闭会话时连接池会处理
+            }
+            try {
+                writer.close();
+            } catch (RuntimeException ignored) {
+                // rollback 之后没有待提交的数据
+            }
+        }
+
+        private long committed() {
+            return sum(committedRows);
+        }
+
+        ImportProgress snapshot() {
+            return new ImportProgress(totalBytes, parsedBytes.get(), parsedRows.get(), rejectedRows.get(),
+                    sum(writtenRows), sum(committedRows), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    private static long sum(AtomicLongArray counters) {
+        long sum = 0;
+        for (int i = 0; i < counters.length(); i++) {
+            sum += counters.get(i);
+        }
+        return sum;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value) {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void awaitTermination(ExecutorService pool) {
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
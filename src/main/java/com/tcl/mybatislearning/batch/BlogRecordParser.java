@@ -0,0 +1,337 @@
+package com.tcl.mybatislearning.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.handler.AuthorCache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把一个 {@link RecordChunk} 解析成 Blog，不合法的记录转成 {@link RejectedRow}。
+ * <p>
+ * 作者名按 AuthorTypeHandler 的约定转换：列里存的就是 Author.name，空值对应 null；
+ * 同名作者通过 {@link AuthorCache} 共享一个只读实例，百万行导入不会分配百万个 Author。
+ * 长度限制与 blog 表的列定义（varchar(255)、text、varchar(64)）一致，超长的行在这里拒绝，而不是让整批 insert 失败。
+ * CSV 里不带引号的空字段为 null，{@code ""} 为空字符串。
+ * <p>
+ * 无状态（AuthorCache 线程安全），多个解析线程共用一个实例。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:35
+ */
+final class BlogRecordParser {
+
+    static final int MAX_TITLE_LENGTH = 255;
+
+    static final int MAX_AUTHOR_LENGTH = 64;
+
+    /**
+     * MySQL TEXT 的上限
+     */
+    static final int MAX_CONTENT_BYTES = 65_535;
+
+    private static final int MAX_REJECTED_TEXT = 200;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    static final class Parsed {
+
+        final List<Blog> blogs = new ArrayList<>();
+
+        final List<RejectedRow> rejected = new ArrayList<>();
+    }
+
+    private final ImportFormat format;
+
+    private final AuthorCache authors;
+
+    /**
+     * CSV 列名行里 title、content、author 的位置，-1 表示没有这一列
+     */
+    private final int titleColumn;
+
+    private final int contentColumn;
+
+    private final int authorColumn;
+
+    private final int columnCount;
+
+    private BlogRecordParser(ImportFormat format, AuthorCache authors, List<String> header) {
+        this.format = format;
+        this.authors = authors;
+        if (header == null) {
+            titleColumn = contentColumn = authorColumn = -1;
+            columnCount = 0;
+            return;
+        }
+        List<String> names = new ArrayList<>(header.size());
+        for (String name : header) {
+            names.add(name == null ? "" : name.trim().toLowerCase(Locale.ROOT));
+        }
+        titleColumn = names.indexOf("title");
+        contentColumn = names.indexOf("content");
+        authorColumn = names.indexOf("author");
+        columnCount = names.size();
+        if (titleColumn < 0 && contentColumn < 0 && authorColumn < 0) {
+            throw new IllegalArgumentException("CSV header has none of title, content, author: " + header);
+        }
+    }
+
+    static BlogRecordParser jsonl(AuthorCache authors) {
+        return new BlogRecordParser(ImportFormat.JSONL, authors, null);
+    }
+
+    static BlogRecordParser csv(AuthorCache authors, List<String> header) {
+        return new BlogRecordParser(ImportFormat.CSV, authors, header);
+    }
+
+    /**
+     * 解析 CSV 列名行，列名里不能有换行
+     */
+    static List<String> header(String line) {
+        String text = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        List<String> names = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                if (inQuotes && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    name.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else if (c == ',' && !inQuotes) {
+                names.add(name.toString());
+                name.setLength(0);
+            } else {
+                name.append(c);
+            }
+        }
+        names.add(name.toString());
+        return names;
+    }
+
+    Parsed parse(RecordChunk chunk) {
+        String text = StandardCharsets.UTF_8.decode(chunk.bytes.duplicate()).toString();
+        Parsed parsed = new Parsed();
+        if (format == ImportFormat.CSV) {
+            parseCsv(text, chunk.firstLine, parsed);
+        } else {
+            parseJsonl(text, chunk.firstLine, parsed);
+        }
+        return parsed;
+    }
+
+    private void parseJsonl(String text, long firstLine, Parsed parsed) {
+        long line = firstLine;
+        int pos = 0;
+        while (pos < text.length()) {
+            int end = text.indexOf('\n', pos);
+            if (end < 0) {
+                end = text.length();
+            }
+            String record = text.substring(pos, end).trim();
+            if (!record.isEmpty()) {
+                try {
+                    JsonNode node = JSON.readTree(record);
+                    if (node == null || !node.isObject()) {
+                        reject(parsed, line, "not a JSON object", record);
+                    } else {
+                        String author = authorName(node.get("author"));
+                        accept(parsed, line, record, string(node, "title"), string(node, "content"), author);
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    reject(parsed, line, e.getMessage(), record);
+                }
+            }
+            pos = end + 1;
+            line++;
+        }
+    }
+
+    private static String string(JsonNode object, String field) {
+        JsonNode node = object.get(field);
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (!node.isTextual()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return node.textValue();
+    }
+
+    private static String authorName(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isObject()) {
+            return string(node, "name");
+        }
+        throw new IllegalArgumentException("author must be a string or an object with name");
+    }
+
+    private void parseCsv(String text, long firstLine, Parsed parsed) {
+        List<String> fields = new ArrayList<>(columnCount);
+        StringBuilder field = new StringBuilder();
+        long line = firstLine;
+        int pos = 0;
+        int length = text.length();
+        while (pos < length) {
+            int start = pos;
+            long startLine = line;
+            fields.clear();
+            String error = null;
+            boolean endOfRecord = false;
+            while (!endOfRecord && error == null) {
+                field.setLength(0);
+                if (pos < length && text.charAt(pos) == '"') {
+                    pos++;
+                    while (true) {
+                        int quote = text.indexOf('"', pos);
+                        if (quote < 0) {
+                            error = "unterminated quoted field";
+                            pos = length;
+                            break;
+                        }
+                        line += count(text, pos, quote);
+                        field.append(text, pos, quote);
+                        if (quote + 1 < length && text.charAt(quote + 1) == '"') {
+                            field.append('"');
+                            pos = quote + 2;
+                        } else {
+                            pos = quote + 1;
+                            break;
+                        }
+                    }
+                    if (error == null) {
+                        fields.add(field.toString());
+                    }
+                } else {
+                    int end = pos;
+                    while (end < length && text.charAt(end) != ',' && text.charAt(end) != '\n') {
+                        end++;
+                    }
+                    int valueEnd = end > pos && text.charAt(end - 1) == '\r' && (end == length || text.charAt(end) == '\n') ? end - 1 : end;
+                    String value = text.substring(pos, valueEnd);
+                    if (value.indexOf('"') >= 0) {
+                        error = "unexpected quote in unquoted field";
+                    }
+                    fields.add(value.isEmpty() ? null : value);
+                    pos = end;
+                }
+                if (error != null) {
+                    break;
+                }
+                if (pos < length && text.charAt(pos) == '\r' && pos + 1 < length && text.charAt(pos + 1) == '\n') {
+                    pos++;
+                }
+                if (pos >= length) {
+                    endOfRecord = true;
+                } else if (text.charAt(pos) == ',') {
+                    pos++;
+                    if (pos >= length) {
+                        fields.add(null);
+                        endOfRecord = true;
+                    }
+                } else if (text.charAt(pos) == '\n') {
+                    pos++;
+                    line++;
+                    endOfRecord = true;
+                } else {
+                    error = "unexpected character after quoted field";
+                }
+            }
+            if (error != null) {
+                // 跳到下一行继续
+                int next = text.indexOf('\n', pos);
+                pos = next < 0 ? length : next + 1;
+                line += next < 0 ? 0 : 1;
+                reject(parsed, startLine, error, text.substring(start, Math.min(pos, length)));
+                continue;
+            }
+            if (fields.size() == 1 && fields.get(0) == null) {
+                // 空行
+                continue;
+            }
+            String record = text.substring(start, pos);
+            if (fields.size() != columnCount) {
+                reject(parsed, startLine, "expected " + columnCount + " fields but was " + fields.size(), record);
+                continue;
+            }
+            accept(parsed, startLine, record, column(fields, titleColumn), column(fields, contentColumn),
+                    column(fields, authorColumn));
+        }
+    }
+
+    private static String column(List<String> fields, int index) {
+        return index < 0 ? null : fields.get(index);
+    }
+
+    private static int count(String text, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private void accept(Parsed parsed, long line, String record, String title, String content, String author) {
+        if (title != null && title.length() > MAX_TITLE_LENGTH) {
+            reject(parsed, line, "title longer than " + MAX_TITLE_LENGTH, record);
+            return;
+        }
+        if (author != null && author.length() > MAX_AUTHOR_LENGTH) {
+            reject(parsed, line, "author longer than " + MAX_AUTHOR_LENGTH, record);
+            return;
+        }
+        if (content != null && utf8Length(content) > MAX_CONTENT_BYTES) {
+            reject(parsed, line, "content longer than " + MAX_CONTENT_BYTES + " bytes", record);
+            return;
+        }
+        Blog blog = new Blog();
+        blog.setTitle(title);
+        blog.setContent(content);
+        blog.setAuthor(author == null ? null : authors.get(author));
+        parsed.blogs.add(blog);
+    }
+
+    private static void reject(Parsed parsed, long line, String reason, String record) {
+        String text = record.length() > MAX_REJECTED_TEXT ? record.substring(0, MAX_REJECTED_TEXT) + "..." : record;
+        parsed.rejected.add(new RejectedRow(line, reason, text));
+    }
+
+    private static int utf8Length(String value) {
+        // 大多数内容远小于上限，先按最坏情况（每个 char 3 字节）排除
+        if (value.length() * 3 <= MAX_CONTENT_BYTES) {
+            return value.length();
+        }
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,165 @@
+package com.tcl.mybatislearning.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 把文件按记录边界切成 {@link RecordChunk}。
+ * <p>
+ * 文件按 window 大小分段内存映射，只做一遍顺序扫描：数换行、跟踪 CSV 引号状态，
+ * 在引号外的换行处、累计超过 chunkBytes 时切一块。块是映射区的切片，不复制字节，解码和解析留给解析线程。
+ * UTF-8 中多字节字符的各字节都不等于换行和引号，所以按字节切分是安全的。
+ * <p>
+ * 引号状态按 BlogRecordParser 的规则跟踪：只有字段开头的引号才开始带引号字段，{@code ""} 是转义，
+ * 未加引号的字段里出现引号、或闭合引号后跟着其他字符时，解析器拒绝该记录并跳到下一个换行，这里同样跳过。
+ * 这样切出的边界与解析器看到的记录边界一致，一个多余的引号只影响它所在的记录。
+ * 字段开头的引号一直到窗口或文件末尾都没有闭合时，在引号后的第一个换行处切开，
+ * 这条记录由解析器作为未闭合的引号拒绝，之后从下一行重新同步。
+ * 一条记录超过 window 且无法这样切开时，抛出 IOException。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:25
+ */
+final class FileChunker {
+
+    static final int DEFAULT_WINDOW = 256 << 20;
+
+    private static final int FIELD_START = 0;
+
+    private static final int UNQUOTED = 1;
+
+    private static final int QUOTED = 2;
+
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private static final int AFTER_QUOTED_CR = 4;
+
+    /**
+     * 解析器会拒绝的记录，跳到下一个换行
+     */
+    private static final int SKIP = 5;
+
+    @FunctionalInterface
+    interface Sink {
+
+        void accept(RecordChunk chunk) throws InterruptedException;
+    }
+
+    private final FileChannel channel;
+
+    private final boolean quoted;
+
+    private final int chunkBytes;
+
+    private final int window;
+
+    FileChunker(FileChannel channel, boolean quoted, int chunkBytes, int window) {
+        this.channel = channel;
+        this.quoted = quoted;
+        this.chunkBytes = chunkBytes;
+        this.window = window;
+    }
+
+    /**
+     * @param position  从这里开始切分，必须位于记录开头
+     * @param firstLine position 所在的物理行号
+     */
+    void split(long position, long firstLine, Sink sink) throws IOException, InterruptedException {
+        long size = channel.size();
+        long line = firstLine;
+        while (position < size) {
+            int length = (int) Math.min(window, size - position);
+            boolean last = position + length == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int state = FIELD_START;
+            int chunkStart = 0;
+            long chunkLine = line;
+            int boundary = 0;
+            long boundaryLine = line;
+            long lines = line;
+            // 当前带引号字段里第一个换行之后的位置，-1 表示还没有
+            int quotedNewline = -1;
+            long quotedNewlineLine = line;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    lines++;
+                }
+                if (!quoted) {
+                    state = b == '\n' ? FIELD_START : UNQUOTED;
+                } else {
+                    int previous = state;
+                    state = next(state, b);
+                    if (state == QUOTED && previous == FIELD_START) {
+                        quotedNewline = -1;
+                    } else if (state == QUOTED && b == '\n' && quotedNewline < 0) {
+                        quotedNewline = i + 1;
+                        quotedNewlineLine = lines;
+                    }
+                }
+                if (b == '\n' && state == FIELD_START) {
+                    boundary = i + 1;
+                    boundaryLine = lines;
+                    if (boundary - chunkStart >= chunkBytes) {
+                        sink.accept(new RecordChunk(slice(buffer, chunkStart, boundary), chunkLine));
+                        chunkStart = boundary;
+                        chunkLine = boundaryLine;
+                    }
+                }
+            }
+            if (state == QUOTED && quotedNewline > 0 && (last || boundary == 0)) {
+                // 未闭合的引号：在它之后的第一个换行处切开，从下一行重新同步
+                sink.accept(new RecordChunk(slice(buffer, chunkStart, quotedNewline), chunkLine));
+                position += quotedNewline;
+                line = quotedNewlineLine;
+                continue;
+            }
+            if (last) {
+                if (chunkStart < length) {
+                    sink.accept(new RecordChunk(slice(buffer, chunkStart, length), chunkLine));
+                }
+                return;
+            }
+            if (boundary == 0) {
+                throw new IOException("Record at line " + line + " is longer than " + window + " bytes");
+            }
+            if (chunkStart < boundary) {
+                sink.accept(new RecordChunk(slice(buffer, chunkStart, boundary), chunkLine));
+            }
+            // 窗口末尾不完整的记录留到下一个窗口
+            position += boundary;
+            line = boundaryLine;
+        }
+    }
+
+    /**
+     * 与 BlogRecordParser.parseCsv 一致的状态转移；换行使状态回到 FIELD_START 时即为记录边界
+     */
+    private static int next(int state, byte b) {
+        switch (state) {
+            case FIELD_START:
+                return b == '"' ? QUOTED : b == ',' || b == '\n' ? FIELD_START : UNQUOTED;
+            case UNQUOTED:
+                return b == ',' || b == '\n' ? FIELD_START : b == '"' ? SKIP : UNQUOTED;
+            case QUOTED:
+                return b == '"' ? QUOTE_IN_QUOTED : QUOTED;
+            case QUOTE_IN_QUOTED:
+                // "" 是转义，否则引号已闭合，后面只能是逗号或换行
+                return b == '"' ? QUOTED : b == ',' || b == '\n' ? FIELD_START : b == '\r' ? AFTER_QUOTED_CR : SKIP;
+            case AFTER_QUOTED_CR:
+                return b == '\n' ? FIELD_START : SKIP;
+            default:
+                return b == '\n' ? FIELD_START : SKIP;
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(from);
+        duplicate.limit(to);
+        return duplicate.slice();
+    }
+}
@@ -0,0 +1,32 @@
+package com.tcl.mybatislearning.batch;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 导入文件格式
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:10
+ */
+public enum ImportFormat {
+
+    /**
+     * RFC 4180：首行为列名（title、content、author，其余列忽略），字段可用双引号包裹，引号内可以换行，"" 表示一个引号
+     */
+    CSV,
+
+    /**
+     * 每行一个 JSON 对象：{"title": ..., "content": ..., "author": "name" 或 {"name": ...}}
+     */
+    JSONL;
+
+    /**
+     * 按扩展名判断，.csv 以外都按 JSONL 处理
+     */
+    public static ImportFormat forPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") ? CSV : JSONL;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tcl.mybatislearning.batch;
+
+import lombok.Value;
+
+/**
+ * 导入进度快照
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:15
+ */
+@Value
+public class ImportProgress {
+
+    long totalBytes;
+
+    /**
+     * 已解析完的字节数
+     */
+    long parsedBytes;
+
+    long parsedRows;
+
+    long rejectedRows;
+
+    /**
+     * 已执行（但不一定已提交）的行数
+     */
+    long writtenRows;
+
+    long committedRows;
+
+    long elapsedMillis;
+
+    public double getFraction() {
+        return totalBytes == 0 ? 1 : (double) parsedBytes / totalBytes;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : writtenRows * 1000.0 / elapsedMillis;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedMillis == 0 ? 0 : parsedBytes * 1000.0 / elapsedMillis / (1 << 20);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f%% parsed=%d rejected=%d written=%d committed=%d %.0f rows/s %.1f MB/s",
+                getFraction() * 100, parsedRows, rejectedRows, writtenRows, committedRows,
+                getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,23 @@
+package com.tcl.mybatislearning.batch;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 一次导入的最终结果
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:15
+ */
+@Value
+public class ImportResult {
+
+    ImportProgress progress;
+
+    /**
+     * 被拒绝行的样本，最多 {@link BlogImporter#maxRejectedSamples(int)} 条；总数见 progress
+     */
+    List<RejectedRow> rejected;
+}
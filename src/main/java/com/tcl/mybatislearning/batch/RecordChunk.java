@@ -0,0 +1,30 @@
+package com.tcl.mybatislearning.batch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件里以完整记录结尾的一段字节，是读取线程交给解析线程的单位
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:20
+ */
+final class RecordChunk {
+
+    /**
+     * 队列结束标记
+     */
+    static final RecordChunk END = new RecordChunk(ByteBuffer.allocate(0), 0);
+
+    final ByteBuffer bytes;
+
+    /**
+     * 第一条记录所在的物理行号，从 1 开始
+     */
+    final long firstLine;
+
+    RecordChunk(ByteBuffer bytes, long firstLine) {
+        this.bytes = bytes;
+        this.firstLine = firstLine;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tcl.mybatislearning.batch;
+
+import lombok.Value;
+
+/**
+ * 导入时被拒绝的一行
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 10:10
+ */
+@Value
+public class RejectedRow {
+
+    /**
+     * 记录起始的物理行号，从 1 开始（CSV 含列名行）
+     */
+    long line;
+
+    String reason;
+
+    /**
+     * 原始内容，过长时截断
+     */
+    String text;
+}
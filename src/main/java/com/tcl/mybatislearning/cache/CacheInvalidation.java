@@ -0,0 +1,82 @@
+package com.tcl.mybatislearning.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个事务内某个缓存命名空间需要失效的实体 id。
+ * <p>
+ * MyBatis 在提交时只会调用 Cache.clear()，拿不到是哪些行被修改了；CacheInvalidationInterceptor
+ * 在执行增删改时收集受影响的 id，提交期间通过 {@link #bind(Map)} 放到当前线程上，
+ * TinyLfuCache.clear() 据此只驱逐相关条目。没有绑定时 clear() 仍然清空整个缓存。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:40
+ */
+public final class CacheInvalidation {
+
+    private static final ThreadLocal<Map<String, CacheInvalidation>> CURRENT = new ThreadLocal<>();
+
+    private final Set<Object> ids = new HashSet<>();
+
+    private boolean full;
+
+    /**
+     * @param ids 受影响的 id；null 表示无法确定，需要清空整个缓存
+     */
+    public void add(Collection<?> ids) {
+        if (ids == null) {
+            full = true;
+            return;
+        }
+        for (Object id : ids) {
+            this.ids.add(normalize(id));
+        }
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public Set<Object> getIds() {
+        return Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * 把本次提交的失效信息绑定到当前线程
+     *
+     * @return 之前绑定的内容，交给 {@link #restore(Map)} 恢复
+     */
+    public static Map<String, CacheInvalidation> bind(Map<String, CacheInvalidation> invalidations) {
+        Map<String, CacheInvalidation> previous = CURRENT.get();
+        CURRENT.set(invalidations);
+        return previous;
+    }
+
+    public static void restore(Map<String, CacheInvalidation> previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    static CacheInvalidation current(String cacheId) {
+        Map<String, CacheInvalidation> invalidations = CURRENT.get();
+        return invalidations == null ? null : invalidations.get(cacheId);
+    }
+
+    /**
+     * 整数 id 统一成 Long，避免 Integer 参数和 Long 属性对不上
+     */
+    static Object normalize(Object id) {
+        if (id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            return ((Number) id).longValue();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tcl.mybatislearning.cache;
+
+import lombok.Value;
+
+/**
+ * 二级缓存统计的只读快照
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:50
+ */
+@Value
+public class CacheStats {
+
+    String id;
+
+    int size;
+
+    int maximumSize;
+
+    long hits;
+
+    long misses;
+
+    double hitRate;
+
+    long evictions;
+
+    long expirations;
+
+    long invalidations;
+}
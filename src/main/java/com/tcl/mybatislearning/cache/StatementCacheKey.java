@@ -0,0 +1,29 @@
+package com.tcl.mybatislearning.cache;
+
+import org.apache.ibatis.cache.CacheKey;
+
+/**
+ * 带语句 id 的 CacheKey，由 CacheInvalidationInterceptor 在查询进入 CachingExecutor 之前包装。
+ * <p>
+ * MyBatis 的 CacheKey 不公开它由哪些值组成，TinyLfuCache 需要知道结果来自哪条语句才能给单行结果打 id 标签；
+ * 这里把原来的键整体作为唯一的组成部分，相等性和散列值与原来的键一一对应。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public final class StatementCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String statementId;
+
+    public StatementCacheKey(String statementId, CacheKey key) {
+        this.statementId = statementId;
+        update(key);
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+}
@@ -0,0 +1,601 @@
+package com.tcl.mybatislearning.cache;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按 W-TinyLFU 淘汰的二级缓存，在 Mapper XML 里用 {@code <cache type="...TinyLfuCache">} 启用。
+ * <p>
+ * 新条目先进入占容量 1% 的 LRU 窗口，被挤出窗口后与主区（SLRU：试用区 + 占 80% 的保护区）
+ * 最久未用的条目比较 {@link FrequencySketch} 估计的访问频率，频率高的留下，
+ * 一次性的大范围查询不会把热点 selectById 挤出去。写入超过 timeToLiveSeconds 的条目在读取时过期。
+ * <p>
+ * keyedStatements 列出的语句（默认 selectById）结果只有一行时，条目按该行的 id 打标签；
+ * keyedUpdates 列出的增删改（默认 updateBlog、deleteBlogById）提交时只驱逐对应 id 的条目（多行语句取集合参数各元素的 id）
+ * 和所有未打标签的查询结果，其余写操作仍清空整个命名空间。
+ * <p>
+ * 打标签需要知道结果来自哪条语句，由 CacheInvalidationInterceptor 把查询的键包装成 {@link StatementCacheKey}；
+ * 没有注册该插件时所有条目都不打标签，任何写操作提交时都会被驱逐。
+ * <p>
+ * 与 MyBatis 默认的 readOnly=false 一致，结果按序列化后的字节保存，每次命中反序列化出新的对象，
+ * 调用方修改结果不会影响缓存和其他会话，结果类型必须可序列化。
+ * 配置 readOnly=true 时直接保存并共享结果对象，省去复制的开销，调用方只能只读使用。
+ * <p>
+ * 同一个 JVM 里可能有多个 Configuration（分片、测试），同名命名空间各有自己的实例，
+ * 通过 {@link #unwrap(Cache)} 或 {@link #getInstances(Configuration)} 从 Configuration 找到它们。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:50
+ */
+public class TinyLfuCache implements Cache, InitializingObject {
+
+    private final String id;
+
+    private int size = 1024;
+
+    private boolean readOnly;
+
+    private long timeToLiveSeconds;
+
+    private String idProperty = "id";
+
+    private Set<String> keyedStatements = names("selectById");
+
+    private Set<String> keyedUpdates = names("updateBlog,deleteBlogById");
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<Object, Node> data = new HashMap<>();
+
+    private final Map<Object, Set<Node>> tags = new HashMap<>();
+
+    private final NodeList window = new NodeList();
+
+    private final NodeList probation = new NodeList();
+
+    private final NodeList protectedList = new NodeList();
+
+    private FrequencySketch sketch;
+
+    private int windowMaximum;
+
+    private int protectedMaximum;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    public TinyLfuCache(String id) {
+        this.id = id;
+        initialize();
+    }
+
+    @Override
+    public void initialize() {
+        lock.lock();
+        try {
+            clearAll();
+            sketch = new FrequencySketch(size);
+            windowMaximum = Math.max(1, size / 100);
+            protectedMaximum = (size - windowMaximum) * 80 / 100;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 剥掉 MyBatis 给自定义缓存套上的装饰器（LoggingCache 等），它们都把被装饰的缓存放在 delegate 字段里
+     *
+     * @return 不是 TinyLfuCache 时返回 null
+     */
+    public static TinyLfuCache unwrap(Cache cache) {
+        Object current = cache;
+        while (current != null && !(current instanceof TinyLfuCache)) {
+            MetaObject metaObject = SystemMetaObject.forObject(current);
+            current = metaObject.hasGetter("delegate") ? metaObject.getValue("delegate") : null;
+        }
+        return (TinyLfuCache) current;
+    }
+
+    /**
+     * 该 Configuration 中所有命名空间的 TinyLfuCache
+     */
+    public static List<TinyLfuCache> getInstances(Configuration configuration) {
+        // Configuration 的 StrictMap 还会以短名再存一份，按实例去重
+        Set<TinyLfuCache> caches = new LinkedHashSet<>();
+        for (Cache cache : configuration.getCaches()) {
+            TinyLfuCache tinyLfuCache = unwrap(cache);
+            if (tinyLfuCache != null) {
+                caches.add(tinyLfuCache);
+            }
+        }
+        return new ArrayList<>(caches);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        // TransactionalCache 会为未命中的键写回 null，只用来释放阻塞缓存的锁，这里不需要
+        if (value == null) {
+            return;
+        }
+        Object tag = tagOf(key, value);
+        Object stored = readOnly ? value : serialize(value);
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Node node = data.get(key);
+            if (node != null) {
+                untag(node);
+                node.value = stored;
+                node.writeTime = now;
+                tag(node, tag);
+                onAccess(node);
+                return;
+            }
+            node = new Node(key, stored, now);
+            data.put(key, node);
+            tag(node, tag);
+            window.addLast(node);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object stored;
+        lock.lock();
+        try {
+            sketch.increment(key);
+            Node node = data.get(key);
+            if (node == null) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(node, System.nanoTime())) {
+                remove(node);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            onAccess(node);
+            hits.increment();
+            stored = node.value;
+        } finally {
+            lock.unlock();
+        }
+        // 反序列化不占用锁
+        return readOnly ? stored : deserialize((byte[]) stored);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            Node node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            remove(node);
+            return readOnly ? node.value : deserialize((byte[]) node.value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 提交期间如果绑定了 {@link CacheInvalidation}，只驱逐受影响的条目；否则清空
+     */
+    @Override
+    public void clear() {
+        CacheInvalidation invalidation = CacheInvalidation.current(id);
+        lock.lock();
+        try {
+            if (invalidation == null || invalidation.isFull()) {
+                invalidations.add(data.size());
+                clearAll();
+                return;
+            }
+            List<Node> victims = new ArrayList<>();
+            for (Node node : data.values()) {
+                if (node.tag == null) {
+                    victims.add(node);
+                }
+            }
+            for (Object tagged : invalidation.getIds()) {
+                Set<Node> nodes = tags.get(tagged);
+                if (nodes != null) {
+                    victims.addAll(nodes);
+                }
+            }
+            for (Node node : victims) {
+                remove(node);
+            }
+            invalidations.add(victims.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return data.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写操作影响到的实体 id，由 CacheInvalidationInterceptor 在执行时调用
+     *
+     * @return insert 返回空集合（只影响未打标签的查询）；无法确定时返回 null，表示清空整个缓存
+     */
+    public Collection<Object> affectedIds(MappedStatement ms, Object parameter) {
+        if (ms.getSqlCommandType() == SqlCommandType.INSERT) {
+            return Collections.emptySet();
+        }
+        if (!keyedStatement(keyedUpdates, ms.getId()) || parameter == null) {
+            return null;
+        }
+        Object value;
+        if (parameter instanceof Number || parameter instanceof CharSequence) {
+            value = parameter;
+        } else if (parameter instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) parameter;
+            if (!map.containsKey(idProperty)) {
+                return collectionIds(map);
+            }
+            value = map.get(idProperty);
+        } else {
+            value = idOf(parameter);
+        }
+        return value == null ? null : Collections.singleton(value);
+    }
+
+    /**
+     * 多行语句（如 updateColumnsByIds）的参数里没有 id，取其中唯一一个集合参数各元素的 id
+     */
+    private Collection<Object> collectionIds(Map<?, ?> parameter) {
+        Collection<?> rows = null;
+        for (Object value : parameter.values()) {
+            // @Param 参数表里同一个集合还会以 param1 等名字出现
+            if (value instanceof Collection && value != rows) {
+                if (rows != null) {
+                    return null;
+                }
+                rows = (Collection<?>) value;
+            }
+        }
+        if (rows == null) {
+            return null;
+        }
+        Set<Object> ids = new HashSet<>();
+        for (Object row : rows) {
+            Object id = row == null ? null : idOf(row);
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private Object idOf(Object parameter) {
+        MetaObject metaObject = SystemMetaObject.forObject(parameter);
+        return metaObject.hasGetter(idProperty) ? metaObject.getValue(idProperty) : null;
+    }
+
+    public CacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStats(id, getSize(), size, hitCount, missCount, requests == 0 ? 0 : (double) hitCount / requests,
+                evictions.sum(), expirations.sum(), invalidations.sum());
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+        invalidations.reset();
+    }
+
+    public void setSize(int size) {
+        this.size = Math.max(1, size);
+    }
+
+    /**
+     * @param readOnly true 时共享缓存的结果对象，不再序列化复制
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+        this.timeToLiveSeconds = Math.max(0, timeToLiveSeconds);
+    }
+
+    public void setIdProperty(String idProperty) {
+        this.idProperty = idProperty;
+    }
+
+    /**
+     * @param keyedStatements 逗号分隔的语句 id，可以只写命名空间内的短名
+     */
+    public void setKeyedStatements(String keyedStatements) {
+        this.keyedStatements = names(keyedStatements);
+    }
+
+    public void setKeyedUpdates(String keyedUpdates) {
+        this.keyedUpdates = names(keyedUpdates);
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == window) {
+            window.moveToLast(node);
+        } else if (node.queue == probation) {
+            probation.remove(node);
+            protectedList.addLast(node);
+            if (protectedList.size > protectedMaximum) {
+                Node demoted = protectedList.first;
+                protectedList.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            protectedList.moveToLast(node);
+        }
+    }
+
+    /**
+     * 窗口溢出的条目进入试用区队尾作为候选，总量超限时与试用区队首比较频率，淘汰低频的一方
+     */
+    private void evict() {
+        while (window.size > windowMaximum) {
+            Node candidate = window.first;
+            window.remove(candidate);
+            probation.addLast(candidate);
+        }
+        while (data.size() > size) {
+            Node victim = probation.first != null ? probation.first
+                    : protectedList.first != null ? protectedList.first : window.first;
+            Node candidate = probation.last;
+            if (candidate != null && candidate != victim && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            remove(victim);
+            evictions.increment();
+        }
+    }
+
+    private boolean isExpired(Node node, long now) {
+        return timeToLiveSeconds > 0 && now - node.writeTime >= timeToLiveSeconds * 1_000_000_000L;
+    }
+
+    private void remove(Node node) {
+        data.remove(node.key);
+        node.queue.remove(node);
+        untag(node);
+    }
+
+    private void clearAll() {
+        data.clear();
+        tags.clear();
+        window.clear();
+        probation.clear();
+        protectedList.clear();
+    }
+
+    private void tag(Node node, Object tag) {
+        node.tag = tag;
+        if (tag != null) {
+            tags.computeIfAbsent(tag, k -> new HashSet<>()).add(node);
+        }
+    }
+
+    private void untag(Node node) {
+        if (node.tag == null) {
+            return;
+        }
+        Set<Node> nodes = tags.get(node.tag);
+        if (nodes != null && nodes.remove(node) && nodes.isEmpty()) {
+            tags.remove(node.tag);
+        }
+        node.tag = null;
+    }
+
+    /**
+     * keyedStatements 的单行结果以该行 id 作为标签；其他结果返回 null，任何写操作都会驱逐
+     */
+    private Object tagOf(Object key, Object value) {
+        if (!(key instanceof StatementCacheKey) || !(value instanceof List) || ((List<?>) value).size() != 1
+                || !keyedStatement(keyedStatements, ((StatementCacheKey) key).getStatementId())) {
+            return null;
+        }
+        Object row = ((List<?>) value).get(0);
+        if (row == null) {
+            return null;
+        }
+        MetaObject metaObject = SystemMetaObject.forObject(row);
+        if (!metaObject.hasGetter(idProperty)) {
+            return null;
+        }
+        Object rowId = metaObject.getValue(idProperty);
+        return rowId == null ? null : CacheInvalidation.normalize(rowId);
+    }
+
+    private static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                output.writeObject(value);
+            }
+            return bytes.toByteArray();
+        } catch (NotSerializableException e) {
+            throw new CacheException("Cached objects must be serializable unless readOnly=true: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new CacheException("Error serializing object: " + e, e);
+        }
+    }
+
+    private static Object deserialize(byte[] value) {
+        try (ObjectInputStream input = new ClassLoaderObjectInputStream(new ByteArrayInputStream(value))) {
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new CacheException("Error deserializing object: " + e, e);
+        }
+    }
+
+    /**
+     * 与 MyBatis 的 SerializedCache 一样按 Resources 的类加载器查找类
+     */
+    private static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        ClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws ClassNotFoundException {
+            return Resources.classForName(desc.getName());
+        }
+    }
+
+    private static boolean keyedStatement(Set<String> names, String statementId) {
+        return names.contains(statementId) || names.contains(statementId.substring(statementId.lastIndexOf('.') + 1));
+    }
+
+    private static Set<String> names(String value) {
+        Set<String> names = new HashSet<>();
+        if (value != null) {
+            for (String name : Arrays.asList(value.split(","))) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static final class Node {
+
+        final Object key;
+
+        Object value;
+
+        long writeTime;
+
+        Object tag;
+
+        NodeList queue;
+
+        Node prev;
+
+        Node next;
+
+        Node(Object key, Object value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * 侵入式双向链表，队首最久未访问
+     */
+    private static final class NodeList {
+
+        Node first;
+
+        Node last;
+
+        int size;
+
+        void addLast(Node node) {
+            node.queue = this;
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tcl.mybatislearning.cache;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * /actuator/mybatiscaches：查看各命名空间 TinyLfuCache 的命中率和淘汰次数（或清零统计）。
+ * 不用 caches 作为 id，它已被 Spring 的缓存端点占用。
+ * 缓存从容器里各个 SqlSessionFactory 的 Configuration 中查找，多个工厂可能有同名命名空间，按 id 查询时都会列出。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:55
+ */
+@Component
+@Endpoint(id = "mybatiscaches")
+public class TinyLfuCacheEndpoint {
+
+    private final ObjectProvider<SqlSessionFactory> sessionFactories;
+
+    public TinyLfuCacheEndpoint(ObjectProvider<SqlSessionFactory> sessionFactories) {
+        this.sessionFactories = sessionFactories;
+    }
+
+    @ReadOperation
+    public List<CacheStats> caches() {
+        return instances().map(TinyLfuCache::getStats).collect(Collectors.toList());
+    }
+
+    @ReadOperation
+    public List<CacheStats> cache(@Selector String id) {
+        return instances().filter(cache -> cache.getId().equals(id)).map(TinyLfuCache::getStats).collect(Collectors.toList());
+    }
+
+    @DeleteOperation
+    public void resetStats() {
+        instances().forEach(TinyLfuCache::resetStats);
+    }
+
+    private Stream<TinyLfuCache> instances() {
+        return sessionFactories.orderedStream()
+                .flatMap(sessionFactory -> TinyLfuCache.getInstances(sessionFactory.getConfiguration()).stream());
+    }
+}
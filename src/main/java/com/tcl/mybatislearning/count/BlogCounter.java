@@ -0,0 +1,166 @@
+package com.tcl.mybatislearning.count;
+
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * blog 表行数的三种取法，按次选择 {@link CountMode}。
+ * <p>
+ * MAINTAINED 模式的计数由 BlogCountInterceptor 在事务提交后加减，只反映已提交的数据；
+ * 绕过 BlogMapper 的写入会让它漂移，所以 {@link #start} 之后按固定周期用 count(id) 对账。
+ * 对账期间提交的增量不会丢：查询前记下已累计的增量，查询后把这段时间新增的增量补到数据库结果上，
+ * 与查询可见性之间的微小偏差在下一次对账时修正。
+ * 每个 BlogCountInterceptor 持有自己的计数器，即按 Configuration（数据库）各自计数；
+ * BlogMapper.countMaintained 由同一 Configuration 上的插件直接应答，不会读到别的数据库的计数。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 09:15
+ */
+public class BlogCounter {
+
+    public static final long DEFAULT_RECONCILE_SECONDS = 300;
+
+    private static final Log log = LogFactory.getLog(BlogCounter.class);
+
+    private final Object lock = new Object();
+
+    private long count;
+
+    /**
+     * 累计加减过的增量，对账时用来补上查询期间提交的变更
+     */
+    private long applied;
+
+    private volatile boolean ready;
+
+    private volatile long lastDrift;
+
+    private volatile long reconciliations;
+
+    private ScheduledExecutorService scheduler;
+
+    public static long count(BlogMapper mapper, CountMode mode) {
+        switch (mode) {
+            case MAINTAINED:
+                return mapper.countMaintained();
+            case APPROXIMATE:
+                try {
+                    Long estimate = mapper.countEstimate();
+                    if (estimate != null) {
+                        return estimate;
+                    }
+                } catch (BindingException e) {
+                    // 没有为当前 databaseId 定义 countEstimate
+                    log.debug("countEstimate unavailable, falling back to count(): " + e.getMessage());
+                }
+                return mapper.count();
+            default:
+                return mapper.count();
+        }
+    }
+
+    /**
+     * @return 维护的已提交行数；未启动或已失效时为 null
+     */
+    public Long current() {
+        if (!ready) {
+            return null;
+        }
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * 立即对账一次，之后每 reconcileSeconds 秒对账；重复调用会替换之前的周期任务
+     */
+    public synchronized void start(SqlSessionFactory sessionFactory, long reconcileSeconds) {
+        stop();
+        reconcile(sessionFactory);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "blog-counter-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile(sessionFactory);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile blog count: " + e);
+            }
+        }, reconcileSeconds, reconcileSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 用 count(id) 校准维护的计数
+     *
+     * @return 校准前后的差值（数据库 - 内存），首次对账为 0
+     */
+    public long reconcile(SqlSessionFactory sessionFactory) {
+        long appliedBefore;
+        synchronized (lock) {
+            appliedBefore = applied;
+        }
+        long exact;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            exact = session.getMapper(BlogMapper.class).count();
+        }
+        synchronized (lock) {
+            long reconciled = exact + (applied - appliedBefore);
+            long drift = ready ? reconciled - count : 0;
+            count = reconciled;
+            ready = true;
+            lastDrift = drift;
+            reconciliations++;
+            if (drift != 0) {
+                log.debug("Blog count drifted by " + drift + ", reconciled to " + reconciled);
+            }
+            return drift;
+        }
+    }
+
+    /**
+     * 已提交的插入（正数）或删除（负数）
+     */
+    public void add(long delta) {
+        synchronized (lock) {
+            count += delta;
+            applied += delta;
+        }
+    }
+
+    /**
+     * 出现无法计算增量的写入时调用，下次对账前 MAINTAINED 退回 EXACT
+     */
+    public void invalidate() {
+        ready = false;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getLastDrift() {
+        return lastDrift;
+    }
+
+    public long getReconciliations() {
+        return reconciliations;
+    }
+}
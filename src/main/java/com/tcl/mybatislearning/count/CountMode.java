@@ -0,0 +1,28 @@
+package com.tcl.mybatislearning.count;
+
+/**
+ * blog 表行数的取法，见 {@link BlogCounter#count(com.tcl.mybatislearning.mapper.BlogMapper, CountMode)}
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 09:10
+ */
+public enum CountMode {
+
+    /**
+     * select count(id)，精确但在 InnoDB 上要扫一遍索引
+     */
+    EXACT,
+
+    /**
+     * 内存中维护的已提交行数，插件在提交时加减，定期与数据库对账；需要在配置里注册 BlogCountInterceptor，
+     * 未注册、未启动或对账前退回 EXACT
+     */
+    MAINTAINED,
+
+    /**
+     * 表统计信息里的估算值（MySQL 的 information_schema.tables.table_rows），不扫描数据；
+     * 当前数据库没有对应语句时退回 EXACT
+     */
+    APPROXIMATE
+}
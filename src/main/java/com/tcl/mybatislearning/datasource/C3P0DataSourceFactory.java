@@ -1,14 +1,13 @@
 package com.tcl.mybatislearning.datasource;
 
 import com.mchange.v2.c3p0.ComboPooledDataSource;
-import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 
 /**
  * @author li
  * @version 1.0
  * @date 2020/8/11 20:35
  */
-public class C3P0DataSourceFactory extends UnpooledDataSourceFactory {
+public class C3P0DataSourceFactory extends ManagedPoolDataSourceFactory {
 
     public C3P0DataSourceFactory() {
         this.dataSource = new ComboPooledDataSource();
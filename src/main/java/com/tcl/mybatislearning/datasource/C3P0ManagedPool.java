@@ -0,0 +1,71 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import java.sql.SQLException;
+
+/**
+ * c3p0 的计数接口声明了 SQLException，读取失败时返回 -1
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:15
+ */
+class C3P0ManagedPool extends ManagedPool {
+
+    static final String TYPE = "c3p0";
+
+    private final ComboPooledDataSource pool;
+
+    C3P0ManagedPool(String name, ComboPooledDataSource pool) {
+        super(name, pool);
+        this.pool = pool;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public int getActive() {
+        try {
+            return pool.getNumBusyConnectionsDefaultUser();
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getIdle() {
+        try {
+            return pool.getNumIdleConnectionsDefaultUser();
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getWaiting() {
+        try {
+            return pool.getNumThreadsAwaitingCheckoutDefaultUser();
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int getMaximum() {
+        return pool.getMaxPoolSize();
+    }
+
+    @Override
+    public int getMinimumIdle() {
+        return Math.max(pool.getMinPoolSize(), pool.getInitialPoolSize());
+    }
+
+    @Override
+    protected void closePool() {
+        pool.close();
+    }
+}
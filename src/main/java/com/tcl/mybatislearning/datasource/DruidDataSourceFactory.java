@@ -1,7 +1,6 @@
 package com.tcl.mybatislearning.datasource;
 
 import com.alibaba.druid.pool.DruidDataSource;
-import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.io.Resources;
 
 import java.io.IOException;
@@ -13,7 +12,7 @@ import java.util.Properties;
  * @version 1.0
  * @date 2020/8/12 11:12
  */
-public class DruidDataSourceFactory extends UnpooledDataSourceFactory {
+public class DruidDataSourceFactory extends ManagedPoolDataSourceFactory {
 
     public DruidDataSourceFactory() throws IOException {
         InputStream inputStream = Resources.getResourceAsStream("druid.properties");
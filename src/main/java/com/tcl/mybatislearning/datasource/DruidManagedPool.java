@@ -0,0 +1,55 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:15
+ */
+class DruidManagedPool extends ManagedPool {
+
+    static final String TYPE = "druid";
+
+    private final DruidDataSource pool;
+
+    DruidManagedPool(String name, DruidDataSource pool) {
+        super(name, pool);
+        this.pool = pool;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public int getActive() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public int getIdle() {
+        return pool.getPoolingCount();
+    }
+
+    @Override
+    public int getWaiting() {
+        return pool.getWaitThreadCount();
+    }
+
+    @Override
+    public int getMaximum() {
+        return pool.getMaxActive();
+    }
+
+    @Override
+    public int getMinimumIdle() {
+        return Math.max(pool.getMinIdle(), pool.getInitialSize());
+    }
+
+    @Override
+    protected void closePool() {
+        pool.close();
+    }
+}
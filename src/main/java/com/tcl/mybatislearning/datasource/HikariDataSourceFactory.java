@@ -2,7 +2,6 @@ package com.tcl.mybatislearning.datasource;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
-import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.io.Resources;
 
 import java.io.IOException;
@@ -14,7 +13,7 @@ import java.util.Properties;
  * @version 1.0
  * @date 2020/8/12 10:19
  */
-public class HikariDataSourceFactory extends UnpooledDataSourceFactory {
+public class HikariDataSourceFactory extends ManagedPoolDataSourceFactory {
     public HikariDataSourceFactory() throws IOException {
         InputStream inputStream = Resources.getResourceAsStream("hikariCP.properties");
         Properties props = new Properties();
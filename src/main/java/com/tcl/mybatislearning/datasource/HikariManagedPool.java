@@ -0,0 +1,66 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:15
+ */
+class HikariManagedPool extends ManagedPool {
+
+    static final String TYPE = "hikari";
+
+    private final HikariDataSource pool;
+
+    HikariManagedPool(String name, HikariDataSource pool) {
+        super(name, pool);
+        this.pool = pool;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    /**
+     * 用无参构造、第一次借连接时才启动的连接池在启动前没有 MXBean
+     */
+    private HikariPoolMXBean mxBean() {
+        return pool.getHikariPoolMXBean();
+    }
+
+    @Override
+    public int getActive() {
+        HikariPoolMXBean mxBean = mxBean();
+        return mxBean == null ? 0 : mxBean.getActiveConnections();
+    }
+
+    @Override
+    public int getIdle() {
+        HikariPoolMXBean mxBean = mxBean();
+        return mxBean == null ? 0 : mxBean.getIdleConnections();
+    }
+
+    @Override
+    public int getWaiting() {
+        HikariPoolMXBean mxBean = mxBean();
+        return mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+    }
+
+    @Override
+    public int getMaximum() {
+        return pool.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getMinimumIdle() {
+        return pool.getMinimumIdle();
+    }
+
+    @Override
+    protected void closePool() {
+        pool.close();
+    }
+}
@@ -0,0 +1,139 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.tcl.mybatislearning.metrics.LatencyHistogram;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 记录从连接池借连接耗时的数据源包装，借出的仍是连接池自己的连接对象。
+ * 借连接失败（如等待超时）单独计数，不计入耗时分布。
+ * 由 {@link ManagedPool} 创建时，{@link #close()} 交给它关闭连接池并取消登记。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:10
+ */
+public class InstrumentedDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource delegate;
+
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+
+    private final LongAdder acquireErrors = new LongAdder();
+
+    private final Runnable closer;
+
+    public InstrumentedDataSource(DataSource delegate) {
+        this(delegate, null);
+    }
+
+    InstrumentedDataSource(DataSource delegate, Runnable closer) {
+        this.delegate = delegate;
+        this.closer = closer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = delegate.getConnection();
+            acquireLatency.record(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            acquireErrors.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = delegate.getConnection(username, password);
+            acquireLatency.record(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            acquireErrors.increment();
+            throw e;
+        }
+    }
+
+    public DataSource getDelegate() {
+        return delegate;
+    }
+
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    public long getAcquireErrors() {
+        return acquireErrors.sum();
+    }
+
+    /**
+     * 清空借连接耗时和失败次数
+     */
+    public void resetStats() {
+        acquireLatency.reset();
+        acquireErrors.reset();
+    }
+
+    /**
+     * 关闭底层连接池；没有 closer 时只关闭实现了 AutoCloseable 的 delegate
+     */
+    @Override
+    public void close() throws Exception {
+        if (closer != null) {
+            closer.run();
+        } else if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,147 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.tcl.mybatislearning.metrics.LatencyHistogram;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hikari、Druid、c3p0 连接池的统一抽象：活跃/空闲/等待连接数、最大连接数、借连接耗时，以及启动预热。
+ * <p>
+ * 交给 MyBatis 的是 {@link #getDataSource()} 返回的 InstrumentedDataSource，借连接耗时在这里统计；
+ * 各计数直接读连接池自身的状态。关闭应通过 {@link #close()} 或 InstrumentedDataSource 的 close，
+ * 这样连接池会从 {@link PoolRegistry} 中移除。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:15
+ */
+public abstract class ManagedPool {
+
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final String name;
+
+    private final InstrumentedDataSource dataSource;
+
+    private volatile PoolRegistry registry;
+
+    private volatile String id;
+
+    protected ManagedPool(String name, DataSource pool) {
+        this.name = name;
+        this.dataSource = new InstrumentedDataSource(pool, this::close);
+    }
+
+    /**
+     * 按数据源类型选择适配器
+     *
+     * @param name 为 null 时使用连接池类型，如 hikari
+     * @throws IllegalArgumentException 不支持的连接池
+     */
+    public static ManagedPool of(String name, DataSource pool) {
+        if (pool instanceof HikariDataSource) {
+            return new HikariManagedPool(name == null ? HikariManagedPool.TYPE : name, (HikariDataSource) pool);
+        }
+        if (pool instanceof DruidDataSource) {
+            return new DruidManagedPool(name == null ? DruidManagedPool.TYPE : name, (DruidDataSource) pool);
+        }
+        if (pool instanceof ComboPooledDataSource) {
+            return new C3P0ManagedPool(name == null ? C3P0ManagedPool.TYPE : name, (ComboPooledDataSource) pool);
+        }
+        throw new IllegalArgumentException("Unsupported pool: " + pool.getClass().getName());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 在 {@link PoolRegistry} 中的 id，未登记时为名称
+     */
+    public String getId() {
+        String registered = id;
+        return registered != null ? registered : name;
+    }
+
+    void registered(PoolRegistry registry, String id) {
+        this.registry = registry;
+        this.id = id;
+    }
+
+    public InstrumentedDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public abstract String getType();
+
+    public abstract int getActive();
+
+    public abstract int getIdle();
+
+    /**
+     * 正在等待借连接的线程数
+     */
+    public abstract int getWaiting();
+
+    public abstract int getMaximum();
+
+    /**
+     * 预热时要建立的连接数，取连接池配置的最小空闲数
+     */
+    public abstract int getMinimumIdle();
+
+    /**
+     * 同时借出 connections 个连接再归还，迫使连接池把物理连接建好。
+     * 直接从底层连接池借，不计入借连接耗时。
+     */
+    public void fill(int connections) throws SQLException {
+        List<Connection> borrowed = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(dataSource.getDelegate().getConnection());
+            }
+        } finally {
+            for (Connection connection : borrowed) {
+                connection.close();
+            }
+        }
+    }
+
+    public PoolSnapshot snapshot() {
+        LatencyHistogram latency = dataSource.getAcquireLatency();
+        return new PoolSnapshot(getId(), getType(), getActive(), getIdle(), getWaiting(), getMaximum(),
+                latency.getCount(), dataSource.getAcquireErrors(),
+                latency.getMean() / NANOS_PER_MICRO,
+                latency.getValueAtQuantile(0.5) / NANOS_PER_MICRO,
+                latency.getValueAtQuantile(0.99) / NANOS_PER_MICRO,
+                latency.getValueAtQuantile(0.999) / NANOS_PER_MICRO,
+                latency.getMax() / NANOS_PER_MICRO);
+    }
+
+    public void resetStats() {
+        dataSource.resetStats();
+    }
+
+    /**
+     * 关闭底层连接池并从登记它的 {@link PoolRegistry} 中移除，重复调用无副作用
+     */
+    public void close() {
+        try {
+            closePool();
+        } finally {
+            PoolRegistry owner = registry;
+            if (owner != null) {
+                owner.deregister(this);
+            }
+        }
+    }
+
+    protected abstract void closePool();
+}
@@ -0,0 +1,92 @@
+package com.tcl.mybatislearning.datasource;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Druid、Hikari、c3p0 数据源工厂的公共父类：子类在构造器里创建连接池并赋给 dataSource，
+ * 这里负责把它包装成 {@link ManagedPool}、登记到 {@link PoolRegistry} 并在第一次获取时预热。
+ * <p>
+ * 除连接池自身的属性外，mybatis-config.xml 中还可以配置：
+ * <ul>
+ *     <li>poolName：在 /actuator/pools 和 JMX 中显示的名称，缺省为连接池类型；与其他连接池重名时加上 -2 等后缀</li>
+ *     <li>warmUpConnections：预热时建立的连接数，缺省取连接池的最小空闲数（至少 1），0 表示不预热</li>
+ * </ul>
+ * 预热失败只记录日志，不影响启动，连接池之后会自行重试。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:25
+ */
+public abstract class ManagedPoolDataSourceFactory extends UnpooledDataSourceFactory {
+
+    private static final Log log = LogFactory.getLog(ManagedPoolDataSourceFactory.class);
+
+    private static final String POOL_NAME = "poolName";
+
+    private static final String WARM_UP_CONNECTIONS = "warmUpConnections";
+
+    private String poolName;
+
+    private Integer warmUpConnections;
+
+    private ManagedPool managedPool;
+
+    @Override
+    public void setProperties(Properties properties) {
+        Properties poolProperties = new Properties();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (POOL_NAME.equals(key)) {
+                poolName = value;
+            } else if (WARM_UP_CONNECTIONS.equals(key)) {
+                warmUpConnections = Integer.valueOf(value.trim());
+            } else {
+                poolProperties.setProperty(key, value);
+            }
+        }
+        if (!poolProperties.isEmpty()) {
+            super.setProperties(poolProperties);
+        }
+    }
+
+    @Override
+    public synchronized DataSource getDataSource() {
+        if (managedPool == null) {
+            ManagedPool pool = ManagedPool.of(poolName, dataSource);
+            PoolRegistry.getDefault().register(pool);
+            PoolRegistry.getDefault().registerMBean();
+            warmUp(pool);
+            managedPool = pool;
+        }
+        return managedPool.getDataSource();
+    }
+
+    public ManagedPool getManagedPool() {
+        getDataSource();
+        return managedPool;
+    }
+
+    private void warmUp(ManagedPool pool) {
+        int connections = warmUpConnections != null ? warmUpConnections : Math.max(1, pool.getMinimumIdle());
+        connections = Math.min(connections, pool.getMaximum());
+        if (connections <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            pool.fill(connections);
+            if (log.isDebugEnabled()) {
+                log.debug("Warmed up " + connections + " connections of pool " + pool.getId() + " in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Failed to warm up pool " + pool.getId() + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tcl.mybatislearning.datasource;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/pools：查看各连接池的连接数和借连接耗时分布（或清零耗时统计）
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:20
+ */
+@Component
+@Endpoint(id = "pools")
+public class PoolMetricsEndpoint {
+
+    private final PoolRegistry registry = PoolRegistry.getDefault();
+
+    @ReadOperation
+    public List<PoolSnapshot> pools() {
+        return registry.getPools();
+    }
+
+    @ReadOperation
+    public PoolSnapshot pool(@Selector String name) {
+        ManagedPool pool = registry.find(name);
+        return pool == null ? null : pool.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
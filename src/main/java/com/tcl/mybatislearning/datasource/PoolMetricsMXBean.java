@@ -0,0 +1,17 @@
+package com.tcl.mybatislearning.datasource;
+
+import java.util.List;
+
+/**
+ * 通过JMX暴露连接池状态：com.tcl.mybatislearning:type=ConnectionPools
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:20
+ */
+public interface PoolMetricsMXBean {
+
+    List<PoolSnapshot> getPools();
+
+    void reset();
+}
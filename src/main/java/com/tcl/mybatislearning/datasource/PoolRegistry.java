@@ -0,0 +1,102 @@
+package com.tcl.mybatislearning.datasource;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 登记中的连接池，按唯一 id 索引：id 取连接池名称，已被其他连接池占用时依次加上 -2、-3 等后缀，
+ * 因此两个默认同名的连接池可以同时存在。连接池关闭（{@link ManagedPool#close()}）时自动移除。
+ * 数据源工厂由 MyBatis 实例化、端点由 Spring 管理，两者通过默认实例 {@link #getDefault()} 共享。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:20
+ */
+public class PoolRegistry implements PoolMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.tcl.mybatislearning:type=ConnectionPools";
+
+    private static final PoolRegistry DEFAULT = new PoolRegistry();
+
+    private final ConcurrentMap<String, ManagedPool> pools = new ConcurrentHashMap<>();
+
+    public static PoolRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return 分配给 pool 的 id
+     * @throws IllegalStateException pool 已登记过
+     */
+    public synchronized String register(ManagedPool pool) {
+        if (pools.containsValue(pool)) {
+            throw new IllegalStateException("Pool " + pool.getId() + " is already registered");
+        }
+        String id = pool.getName();
+        for (int i = 2; pools.containsKey(id); i++) {
+            id = pool.getName() + "-" + i;
+        }
+        pool.registered(this, id);
+        pools.put(id, pool);
+        return id;
+    }
+
+    public void deregister(ManagedPool pool) {
+        pools.remove(pool.getId(), pool);
+    }
+
+    /**
+     * @param id 登记时分配的 id，名称未重复时即连接池名称
+     */
+    public ManagedPool find(String id) {
+        return pools.get(id);
+    }
+
+    /**
+     * @return dataSource 对应的连接池，不是登记过的 InstrumentedDataSource 时为 null
+     */
+    public ManagedPool find(DataSource dataSource) {
+        for (ManagedPool pool : pools.values()) {
+            if (pool.getDataSource() == dataSource) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<PoolSnapshot> getPools() {
+        List<PoolSnapshot> snapshots = new ArrayList<>(pools.size());
+        pools.values().forEach(pool -> snapshots.add(pool.snapshot()));
+        snapshots.sort(Comparator.comparing(PoolSnapshot::getName));
+        return snapshots;
+    }
+
+    @Override
+    public void reset() {
+        pools.values().forEach(ManagedPool::resetStats);
+    }
+
+    /**
+     * 注册到平台MBeanServer，重复调用无副作用
+     */
+    public synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+}
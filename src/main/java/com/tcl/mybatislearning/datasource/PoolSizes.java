@@ -0,0 +1,43 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * 读取各连接池实现配置的最大连接数，供需要按连接池大小限制并发的组件使用
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 17:45
+ */
+public final class PoolSizes {
+
+    private PoolSizes() {
+    }
+
+    /**
+     * @param fallback 无法识别的数据源（如 UnpooledDataSource）返回的值
+     */
+    public static int maximumPoolSize(DataSource dataSource, int fallback) {
+        if (dataSource instanceof InstrumentedDataSource) {
+            return maximumPoolSize(((InstrumentedDataSource) dataSource).getDelegate(), fallback);
+        }
+        if (dataSource instanceof HikariDataSource) {
+            return ((HikariDataSource) dataSource).getMaximumPoolSize();
+        }
+        if (dataSource instanceof DruidDataSource) {
+            return ((DruidDataSource) dataSource).getMaxActive();
+        }
+        if (dataSource instanceof ComboPooledDataSource) {
+            return ((ComboPooledDataSource) dataSource).getMaxPoolSize();
+        }
+        if (dataSource instanceof PooledDataSource) {
+            return ((PooledDataSource) dataSource).getPoolMaximumActiveConnections();
+        }
+        return fallback;
+    }
+}
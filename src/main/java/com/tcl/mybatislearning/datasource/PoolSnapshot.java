@@ -0,0 +1,40 @@
+package com.tcl.mybatislearning.datasource;
+
+import lombok.Value;
+
+/**
+ * 连接池状态的只读快照，各实现统一成同一格式；耗时单位为微秒，实现不支持的计数为 -1
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:10
+ */
+@Value
+public class PoolSnapshot {
+
+    String name;
+
+    String type;
+
+    int active;
+
+    int idle;
+
+    int waiting;
+
+    int maximum;
+
+    long acquires;
+
+    long acquireErrors;
+
+    double acquireMeanMicros;
+
+    double acquireP50Micros;
+
+    double acquireP99Micros;
+
+    double acquireP999Micros;
+
+    double acquireMaxMicros;
+}
@@ -0,0 +1,214 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.tcl.mybatislearning.batch.BlogBatchUpdater;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.loader.BlogIdsLoader;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 启动时在连接池的每个预热连接上预编译所有已映射语句，首批请求不用再付出冷语句的代价。
+ * <p>
+ * 只 prepare 不执行。MySQL 驱动开启 cachePrepStmts/useServerPrepStmts（见 hikariCP.properties）时，
+ * 关闭的 PreparedStatement 会留在该连接的语句缓存里，之后同样的 SQL 直接复用服务端预编译结果。
+ * <p>
+ * 语句缓存按 SQL 文本命中，预编译运行时根本不会发出的文本没有意义：静态语句直接预编译；
+ * 动态语句只预编译 {@link #representativeParameters()} 里登记过的，用运行时实际出现的参数形状生成——
+ * id/作者名列表按 {@link BlogIdsLoader#DEFAULT_BUCKETS} 的各档长度、updateColumnsByIds 按
+ * {@link BlogBatchUpdater#BUCKETS} 的各档长度和各种列组合、updateBlog 用所有字段都有值的 Blog；
+ * 文本随调用方参数变化的其他动态语句（如 insertBatch 的任意长度）跳过。个别语句 prepare 失败也只跳过该语句。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:30
+ */
+public final class PoolWarmer {
+
+    private static final Log log = LogFactory.getLog(PoolWarmer.class);
+
+    private static final String BLOG_NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private static final String AUTHOR_NAMESPACE = "com.tcl.mybatislearning.mapper.AuthorMapper.";
+
+    private PoolWarmer() {
+    }
+
+    /**
+     * @return 所有预热连接上成功预编译的语句总数；连接获取失败时为 0
+     */
+    public static int warmUp(SqlSessionFactory sessionFactory) {
+        Configuration configuration = sessionFactory.getConfiguration();
+        DataSource dataSource = configuration.getEnvironment().getDataSource();
+        ManagedPool pool = PoolRegistry.getDefault().find(dataSource);
+        int connections = 1;
+        if (pool != null) {
+            // 绕过借连接耗时统计
+            dataSource = pool.getDataSource().getDelegate();
+            connections = Math.min(Math.max(1, pool.getMinimumIdle()), pool.getMaximum());
+        }
+        List<String> sqls = preparableSql(configuration);
+        long start = System.nanoTime();
+        List<Connection> borrowed = new ArrayList<>(connections);
+        int prepared = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+            for (Connection connection : borrowed) {
+                prepared += prepare(connection, sqls);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to warm up statements: " + e);
+            return 0;
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to close connection after warm-up: " + e);
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Prepared " + prepared + " statements on " + connections + " connections in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return prepared;
+    }
+
+    private static int prepare(Connection connection, List<String> sqls) {
+        int prepared = 0;
+        for (String sql : sqls) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                prepared++;
+            } catch (SQLException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipped warm-up of [" + sql + "]: " + e);
+                }
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * 预热时会预编译的 SQL 文本，去重后按语句排列
+     */
+    public static List<String> preparableSql(Configuration configuration) {
+        Set<MappedStatement> statements = Collections.newSetFromMap(new IdentityHashMap<>());
+        // 短名冲突时 StrictMap 里存的是 Ambiguity 占位对象
+        for (Object value : configuration.getMappedStatements()) {
+            if (value instanceof MappedStatement && ((MappedStatement) value).getStatementType() == StatementType.PREPARED) {
+                statements.add((MappedStatement) value);
+            }
+        }
+        Map<String, List<Object>> representative = representativeParameters();
+        Set<String> sqls = new LinkedHashSet<>();
+        for (MappedStatement ms : statements) {
+            SqlSource sqlSource = ms.getSqlSource();
+            List<Object> parameters = sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource
+                    ? Collections.singletonList(null) : representative.get(ms.getId());
+            if (parameters == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipped warm-up of " + ms.getId() + ": SQL depends on runtime parameters");
+                }
+                continue;
+            }
+            try {
+                for (Object parameter : parameters) {
+                    sqls.add(ms.getBoundSql(parameter).getSql().trim());
+                }
+            } catch (RuntimeException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipped warm-up of " + ms.getId() + ": " + e);
+                }
+            }
+        }
+        return new ArrayList<>(sqls);
+    }
+
+    /**
+     * 动态语句 id -> 运行时会出现的参数，每个参数生成一种 SQL 文本
+     */
+    static Map<String, List<Object>> representativeParameters() {
+        Map<String, List<Object>> parameters = new HashMap<>();
+        List<Object> idLists = new ArrayList<>();
+        List<Object> nameLists = new ArrayList<>();
+        for (int size : BlogIdsLoader.DEFAULT_BUCKETS) {
+            List<Long> ids = new ArrayList<>(size);
+            List<String> names = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                ids.add((long) i);
+                names.add("warm-up-" + i);
+            }
+            idLists.add(Collections.singletonMap("ids", ids));
+            nameLists.add(Collections.singletonMap("names", names));
+        }
+        parameters.put(BLOG_NAMESPACE + "selectByIds", idLists);
+        parameters.put(BLOG_NAMESPACE + "selectContentByIds", idLists);
+        parameters.put(AUTHOR_NAMESPACE + "selectByIds", idLists);
+        parameters.put(AUTHOR_NAMESPACE + "selectByNames", nameLists);
+        parameters.put(AUTHOR_NAMESPACE + "insertNames", nameLists);
+
+        Blog blog = fullBlog();
+        parameters.put(BLOG_NAMESPACE + "updateBlog", Collections.singletonList(blog));
+        List<Object> columnUpdates = new ArrayList<>();
+        for (int size : BlogBatchUpdater.BUCKETS) {
+            List<Blog> blogs = Collections.nCopies(size, blog);
+            // title/content/author 三列的 7 种非空组合
+            for (int columns = 1; columns < 8; columns++) {
+                Map<String, Object> parameter = new HashMap<>();
+                parameter.put("blogs", blogs);
+                parameter.put("title", (columns & 1) != 0);
+                parameter.put("content", (columns & 2) != 0);
+                parameter.put("author", (columns & 4) != 0);
+                columnUpdates.add(parameter);
+            }
+        }
+        parameters.put(BLOG_NAMESPACE + "updateColumnsByIds", columnUpdates);
+
+        // 键集分页：第一页和之后的页
+        List<Object> pages = new ArrayList<>();
+        for (Long afterId : new Long[]{null, 1L}) {
+            Map<String, Object> parameter = new HashMap<>();
+            parameter.put("afterId", afterId);
+            parameter.put("limit", 1);
+            pages.add(parameter);
+        }
+        parameters.put(BLOG_NAMESPACE + "selectAllAfter", pages);
+        parameters.put(BLOG_NAMESPACE + "selectAllAfterWithAuthors", pages);
+        return parameters;
+    }
+
+    private static Blog fullBlog() {
+        Author author = new Author();
+        author.setId(1L);
+        author.setName("warm-up");
+        Blog blog = new Blog();
+        blog.setId(1L);
+        blog.setTitle("warm-up");
+        blog.setContent("warm-up");
+        blog.setAuthor(author);
+        return blog;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tcl.mybatislearning.datasource;
+
+/**
+ * 当前线程上正在执行的语句是否可以读从库，由 ReadWriteRoutingInterceptor 在查询期间设置。
+ * 没有设置时一律视为写，走主库。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:30
+ */
+public final class ReadWriteRouting {
+
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private ReadWriteRouting() {
+    }
+
+    /**
+     * @return 之前的状态，交给 {@link #restore(Boolean)}
+     */
+    public static Boolean markRead() {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restore(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+
+    public static boolean isRead() {
+        return READ.get() != null;
+    }
+}
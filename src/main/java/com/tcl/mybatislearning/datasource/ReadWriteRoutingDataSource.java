@@ -0,0 +1,257 @@
+package com.tcl.mybatislearning.datasource;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * 一个主库连接池加 N 个从库连接池组成的读写分离数据源。
+ * <p>
+ * getConnection() 返回的是逻辑连接（见 RoutingConnection），每条语句按 {@link ReadWriteRouting} 的标记
+ * 在主库和从库之间选择。从库按权重平滑轮询；后台定时检查每个从库能否借出有效连接，
+ * 检查失败或借连接失败的从库暂时摘除，恢复后自动加回；没有可用从库时读也走主库。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:40
+ */
+public class ReadWriteRoutingDataSource implements DataSource, Closeable {
+
+    private static final Log log = LogFactory.getLog(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final int healthCheckTimeoutSeconds;
+
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param replicas                  从库名称 -> 数据源
+     * @param weights                   从库名称 -> 权重，缺省为 1
+     * @param healthCheckIntervalMillis 小于等于 0 时不做后台检查
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Map<String, Integer> weights,
+                                      long healthCheckIntervalMillis, int healthCheckTimeoutSeconds) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource, Math.max(1, weights.getOrDefault(name, 1)))));
+        this.replicas = Collections.unmodifiableList(list);
+        this.healthCheckTimeoutSeconds = healthCheckTimeoutSeconds;
+        checkHealth();
+        if (healthCheckIntervalMillis > 0 && !list.isEmpty()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "read-write-routing-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMillis, healthCheckIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            healthChecker = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class},
+                new RoutingConnection(this));
+    }
+
+    /**
+     * 各连接池共用同一组账号，不支持按调用指定
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * 从库名称 -> 是否健康
+     */
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        replicas.forEach(replica -> health.put(replica.name, replica.healthy));
+        return health;
+    }
+
+    /**
+     * 从库名称 -> 借出的连接数
+     */
+    public Map<String, Long> getReplicaBorrows() {
+        Map<String, Long> borrows = new LinkedHashMap<>();
+        replicas.forEach(replica -> borrows.put(replica.name, replica.borrows.sum()));
+        return borrows;
+    }
+
+    /**
+     * 依次尝试按轮询选出的从库，借连接失败的从库标记为不健康
+     *
+     * @return null 表示没有可用的从库
+     */
+    Connection borrowReplicaConnection() {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = nextReplica();
+            if (replica == null) {
+                return null;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.borrows.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 平滑加权轮询：每次给所有健康从库加上各自权重，选当前值最大的，再减去总权重
+     */
+    private synchronized Replica nextReplica() {
+        Replica selected = null;
+        int total = 0;
+        for (Replica replica : replicas) {
+            if (!replica.healthy) {
+                continue;
+            }
+            replica.current += replica.weight;
+            total += replica.weight;
+            if (selected == null || replica.current > selected.current) {
+                selected = replica;
+            }
+        }
+        if (selected != null) {
+            selected.current -= total;
+        }
+        return selected;
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    if (!replica.healthy) {
+                        log.debug("Replica " + replica.name + " is back");
+                    }
+                    replica.healthy = true;
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            log.warn("Replica " + replica.name + " is unavailable, reads fall back to other replicas or the primary"
+                    + (cause == null ? "" : ": " + cause));
+        }
+        replica.healthy = false;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Error closing " + dataSource + ": " + e);
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        final String name;
+
+        final DataSource dataSource;
+
+        final int weight;
+
+        int current;
+
+        volatile boolean healthy = true;
+
+        final LongAdder borrows = new LongAdder();
+
+        Replica(String name, DataSource dataSource, int weight) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.weight = weight;
+        }
+    }
+}
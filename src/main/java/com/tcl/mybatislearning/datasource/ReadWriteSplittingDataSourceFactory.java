@@ -0,0 +1,115 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.io.Resources;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 读写分离数据源工厂：一个主库 Hikari 连接池加若干从库连接池，配置取自 readwrite.properties。
+ * <pre>
+ * username=root                     # 不带前缀的键是各连接池共用的 Hikari 配置
+ * primary.jdbcUrl=jdbc:mysql://primary:3306/mybatis_learning
+ * replica.0.jdbcUrl=jdbc:mysql://replica0:3306/mybatis_learning
+ * replica.0.weight=2                # 从库轮询权重，缺省 1
+ * healthCheckIntervalMillis=5000
+ * healthCheckTimeoutSeconds=2
+ * </pre>
+ * 查询需要配合 ReadWriteRoutingInterceptor 标记才会走从库，BlogMapper 不需要任何改动；
+ * mybatis-config.xml 中 dataSource 下的 property 会覆盖文件中的同名配置。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:50
+ */
+public class ReadWriteSplittingDataSourceFactory extends UnpooledDataSourceFactory {
+
+    private static final Pattern REPLICA_KEY = Pattern.compile("replica\\.([^.]+)\\.(.+)");
+
+    private static final String PRIMARY_PREFIX = "primary.";
+
+    private static final String HEALTH_CHECK_INTERVAL = "healthCheckIntervalMillis";
+
+    private static final String HEALTH_CHECK_TIMEOUT = "healthCheckTimeoutSeconds";
+
+    private static final String WEIGHT = "weight";
+
+    private final Properties properties = new Properties();
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    public ReadWriteSplittingDataSourceFactory() throws IOException {
+        try (InputStream inputStream = Resources.getResourceAsStream("readwrite.properties")) {
+            properties.load(inputStream);
+        }
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        this.properties.putAll(properties);
+    }
+
+    /**
+     * 连接池在第一次获取时才创建，setProperties 的覆盖项才能生效
+     */
+    @Override
+    public synchronized DataSource getDataSource() {
+        if (routingDataSource == null) {
+            routingDataSource = build(properties);
+        }
+        return routingDataSource;
+    }
+
+    static ReadWriteRoutingDataSource build(Properties properties) {
+        Properties common = new Properties();
+        Properties primary = new Properties();
+        Map<String, Properties> replicas = new TreeMap<>();
+        Map<String, Integer> weights = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            Matcher matcher = REPLICA_KEY.matcher(key);
+            if (matcher.matches()) {
+                String name = "replica-" + matcher.group(1);
+                if (WEIGHT.equals(matcher.group(2))) {
+                    weights.put(name, Integer.valueOf(value.trim()));
+                } else {
+                    replicas.computeIfAbsent(name, k -> new Properties()).setProperty(matcher.group(2), value);
+                }
+            } else if (key.startsWith(PRIMARY_PREFIX)) {
+                primary.setProperty(key.substring(PRIMARY_PREFIX.length()), value);
+            } else if (!HEALTH_CHECK_INTERVAL.equals(key) && !HEALTH_CHECK_TIMEOUT.equals(key)) {
+                common.setProperty(key, value);
+            }
+        }
+        Map<String, DataSource> replicaPools = new TreeMap<>();
+        try {
+            replicas.forEach((name, props) -> replicaPools.put(name, pool(name, common, props)));
+            return new ReadWriteRoutingDataSource(pool("primary", common, primary), replicaPools, weights,
+                    Long.parseLong(properties.getProperty(HEALTH_CHECK_INTERVAL, "5000").trim()),
+                    Integer.parseInt(properties.getProperty(HEALTH_CHECK_TIMEOUT, "2").trim()));
+        } catch (RuntimeException e) {
+            replicaPools.values().forEach(pool -> ((HikariDataSource) pool).close());
+            throw e;
+        }
+    }
+
+    private static HikariDataSource pool(String name, Properties common, Properties own) {
+        Properties props = new Properties();
+        props.putAll(common);
+        props.putAll(own);
+        if (!props.containsKey("poolName")) {
+            props.setProperty("poolName", name);
+        }
+        return new HikariDataSource(new HikariConfig(props));
+    }
+}
@@ -0,0 +1,199 @@
+package com.tcl.mybatislearning.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * ReadWriteRoutingDataSource 返回的逻辑连接，主库和从库的物理连接都在第一次用到时才借出。
+ * <p>
+ * 创建语句时决定走哪边：标记为读、处于自动提交、且本连接还没有执行过写语句时走从库，
+ * 其余（写语句、事务内的读、写之后的读）都走主库，保证事务一致性和读己之写。
+ * 自动提交、只读和隔离级别在本地记录，借出物理连接时再同步过去。
+ * 元数据、警告、isValid 等其他调用交给当前已借出的连接，都没借时优先借从库；
+ * 只有写语句、保存点和会话状态的设置才会为此借主库，只读会话始终不占用主库连接。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:35
+ */
+class RoutingConnection implements InvocationHandler {
+
+    private final ReadWriteRoutingDataSource dataSource;
+
+    private Connection primary;
+
+    private Connection replica;
+
+    private boolean autoCommit = true;
+
+    private boolean readOnly;
+
+    private Integer transactionIsolation;
+
+    private boolean wrote;
+
+    private boolean closed;
+
+    RoutingConnection(ReadWriteRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "setAutoCommit":
+                autoCommit = (Boolean) args[0];
+                if (primary != null) {
+                    primary.setAutoCommit(autoCommit);
+                }
+                return null;
+            case "getAutoCommit":
+                return autoCommit;
+            case "setReadOnly":
+                readOnly = (Boolean) args[0];
+                if (primary != null) {
+                    primary.setReadOnly(readOnly);
+                }
+                return null;
+            case "isReadOnly":
+                return readOnly;
+            case "setTransactionIsolation":
+                transactionIsolation = (Integer) args[0];
+                if (primary != null) {
+                    primary.setTransactionIsolation(transactionIsolation);
+                }
+                return null;
+            case "getTransactionIsolation":
+                return transactionIsolation != null ? transactionIsolation : current().getTransactionIsolation();
+            case "commit":
+            case "rollback":
+                // 从库连接始终自动提交，只有主库上可能有未提交的事务
+                return primary == null ? null : forward(primary, method, args);
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "createStatement":
+            case "prepareStatement":
+            case "prepareCall":
+                return forward(route(), method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "RoutingConnection[primary=" + primary + ", replica=" + replica + "]";
+            case "setSavepoint":
+            case "releaseSavepoint":
+            case "setCatalog":
+            case "setSchema":
+            case "setHoldability":
+            case "setTypeMap":
+            case "setClientInfo":
+            case "setNetworkTimeout":
+                // 事务控制和会话状态只在主库上生效
+                return forward(primary(), method, args);
+            default:
+                return forward(current(), method, args);
+        }
+    }
+
+    /**
+     * 不影响路由的调用使用的连接：已借出主库时用主库，否则用从库，没有可用从库才借主库
+     */
+    private Connection current() throws SQLException {
+        if (primary != null) {
+            return primary;
+        }
+        Connection connection = replica();
+        return connection != null ? connection : primary();
+    }
+
+    private Connection route() throws SQLException {
+        if (ReadWriteRouting.isRead()) {
+            if (autoCommit && !wrote) {
+                Connection connection = replica();
+                if (connection != null) {
+                    return connection;
+                }
+            }
+        } else {
+            wrote = true;
+        }
+        return primary();
+    }
+
+    private Connection primary() throws SQLException {
+        checkOpen();
+        if (primary == null) {
+            Connection connection = dataSource.getPrimary().getConnection();
+            try {
+                if (connection.getAutoCommit() != autoCommit) {
+                    connection.setAutoCommit(autoCommit);
+                }
+                if (readOnly) {
+                    connection.setReadOnly(true);
+                }
+                if (transactionIsolation != null) {
+                    connection.setTransactionIsolation(transactionIsolation);
+                }
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            primary = connection;
+        }
+        return primary;
+    }
+
+    /**
+     * @return null 表示没有可用的从库，由调用方退回主库
+     */
+    private Connection replica() throws SQLException {
+        checkOpen();
+        if (replica == null) {
+            replica = dataSource.borrowReplicaConnection();
+        }
+        return replica;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SQLException failure = null;
+        for (Connection connection : new Connection[]{replica, primary}) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    failure = e;
+                }
+            }
+        }
+        replica = null;
+        primary = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Object forward(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
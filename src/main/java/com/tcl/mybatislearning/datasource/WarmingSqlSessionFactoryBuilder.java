@@ -0,0 +1,114 @@
+package com.tcl.mybatislearning.datasource;
+
+import com.tcl.mybatislearning.interceptor.BlogCountInterceptor;
+import com.tcl.mybatislearning.interceptor.SearchIndexInterceptor;
+import com.tcl.mybatislearning.session.StartupReport;
+import com.tcl.mybatislearning.session.TimedXMLConfigBuilder;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * 构建完成后立即用 {@link PoolWarmer} 预编译所有映射语句，构建已注册的 SearchIndexInterceptor 的索引、
+ * 启动 BlogCountInterceptor 的计数器，用法与 SqlSessionFactoryBuilder 相同。
+ * 两者都是可选的：搜索索引要读整表，计数器要 count(id) 并常驻对账线程，只有配置里特意注册了对应插件才会构建或启动，
+ * 默认的 mybatis-config.xml 都不注册。
+ * 连接池本身的预热由 ManagedPoolDataSourceFactory 在解析配置时完成。
+ * <p>
+ * 启动各阶段耗时记入 {@link #getStartupReport()}：从 XML 构建时经 {@link TimedXMLConfigBuilder} 分别记录配置解析、
+ * 构建 Configuration 和每个 mapper 的加载，之后是语句预编译、搜索索引和计数器。
+ * 应用里的 SqlSessionFactory 由 {@link com.tcl.mybatislearning.session.SqlSessionFactoryConfiguration} 用它构建，
+ * 报告可在 /actuator/mybatisstartup 查看。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:35
+ */
+public class WarmingSqlSessionFactoryBuilder extends SqlSessionFactoryBuilder {
+
+    private static final Log log = LogFactory.getLog(WarmingSqlSessionFactoryBuilder.class);
+
+    private final StartupReport report;
+
+    public WarmingSqlSessionFactoryBuilder() {
+        this(new StartupReport());
+    }
+
+    /**
+     * @param report 记录启动耗时；同一个 builder 多次构建时同名阶段累加
+     */
+    public WarmingSqlSessionFactoryBuilder(StartupReport report) {
+        this.report = report;
+    }
+
+    public StartupReport getStartupReport() {
+        return report;
+    }
+
+    @Override
+    public SqlSessionFactory build(Reader reader, String environment, Properties properties) {
+        Configuration configuration;
+        try {
+            configuration = new TimedXMLConfigBuilder(reader, environment, properties, report).parse();
+        } catch (Exception e) {
+            throw ExceptionFactory.wrapException("Error building SqlSession.", e);
+        } finally {
+            ErrorContext.instance().reset();
+            closeQuietly(reader);
+        }
+        return build(configuration);
+    }
+
+    @Override
+    public SqlSessionFactory build(InputStream inputStream, String environment, Properties properties) {
+        Configuration configuration;
+        try {
+            configuration = new TimedXMLConfigBuilder(inputStream, environment, properties, report).parse();
+        } catch (Exception e) {
+            throw ExceptionFactory.wrapException("Error building SqlSession.", e);
+        } finally {
+            ErrorContext.instance().reset();
+            closeQuietly(inputStream);
+        }
+        return build(configuration);
+    }
+
+    @Override
+    public SqlSessionFactory build(Configuration config) {
+        SqlSessionFactory sessionFactory = super.build(config);
+        timed("warm up statements", () -> PoolWarmer.warmUp(sessionFactory));
+        timed("build search indexes", () -> SearchIndexInterceptor.buildIndexes(sessionFactory));
+        timed("start blog counters", () -> BlogCountInterceptor.startCounters(sessionFactory));
+        if (log.isDebugEnabled()) {
+            log.debug(report.toString());
+        }
+        return sessionFactory;
+    }
+
+    private void timed(String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            report.record(phase, System.nanoTime() - start);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // 与 SqlSessionFactoryBuilder 相同，忽略关闭失败
+        }
+    }
+}
@@ -2,13 +2,16 @@ package com.tcl.mybatislearning.entity;
 
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * @author li
  * @version 1.0
  * @date 2020/8/11 17:03
  */
 @Data
-public class Author {
+public class Author implements Serializable {
+    private static final long serialVersionUID = 1L;
     private Long id;
     private String name;
 
@@ -1,8 +1,16 @@
 package com.tcl.mybatislearning.entity;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.io.Serializable;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author li
@@ -10,7 +18,9 @@ import java.util.Date;
  * @date 2020/8/11 11:44
  */
 @Data
-public class Blog {
+public class Blog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long id;
 
@@ -23,4 +33,98 @@ public class Blog {
     private Date createTime;
 
     private Date updateTime;
+
+    /**
+     * 加载时的列值，null 表示没有跟踪变更；transient 字段不参与 equals/hashCode
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient Snapshot snapshot;
+
+    /**
+     * 以当前值为基准开始跟踪变更，查询结果由 ChangeTrackingInterceptor 调用
+     */
+    public void trackChanges() {
+        snapshot = new Snapshot(title, content, authorName(author));
+    }
+
+    public boolean tracksChanges() {
+        return snapshot != null;
+    }
+
+    /**
+     * 与基准值不同的列；没有跟踪变更的对象（比如自己 new 的）返回所有非 null 的列，与 updateBlog 的 if 条件一致。
+     * 作者只比较 name，数据库里只存了 name。
+     */
+    public Set<BlogColumn> changedColumns() {
+        Set<BlogColumn> changed = EnumSet.noneOf(BlogColumn.class);
+        // 直接读字段：LazyContentBlog 的 getContent() 会触发加载
+        if (snapshot == null) {
+            if (title != null) {
+                changed.add(BlogColumn.TITLE);
+            }
+            if (content != null) {
+                changed.add(BlogColumn.CONTENT);
+            }
+            if (author != null) {
+                changed.add(BlogColumn.AUTHOR);
+            }
+            return changed;
+        }
+        if (!Objects.equals(title, snapshot.title)) {
+            changed.add(BlogColumn.TITLE);
+        }
+        if (!Objects.equals(content, snapshot.content)) {
+            changed.add(BlogColumn.CONTENT);
+        }
+        if (!Objects.equals(authorName(author), snapshot.author)) {
+            changed.add(BlogColumn.AUTHOR);
+        }
+        return changed;
+    }
+
+    /**
+     * 记下 columns 此刻的值（即语句写入的值），返回的任务把它们设为新的基准，其余列保持原来的基准。
+     * 由 ChangeTrackingInterceptor 在语句执行时调用、提交成功后执行，回滚时丢弃，变更仍然保留。
+     */
+    public Runnable trackWritten(Set<BlogColumn> columns) {
+        String writtenTitle = title;
+        String writtenContent = content;
+        String writtenAuthor = authorName(author);
+        return () -> {
+            Snapshot base = snapshot == null ? new Snapshot(null, null, null) : snapshot;
+            snapshot = new Snapshot(columns.contains(BlogColumn.TITLE) ? writtenTitle : base.title,
+                    columns.contains(BlogColumn.CONTENT) ? writtenContent : base.content,
+                    columns.contains(BlogColumn.AUTHOR) ? writtenAuthor : base.author);
+        };
+    }
+
+    /**
+     * 把 content 的当前值当作加载时的值，供延迟加载 content 的子类使用
+     */
+    protected void resetContentChange() {
+        if (snapshot != null) {
+            snapshot = new Snapshot(snapshot.title, content, snapshot.author);
+        }
+    }
+
+    private static String authorName(Author author) {
+        return author == null ? null : author.getName();
+    }
+
+    private static final class Snapshot {
+
+        private final String title;
+
+        private final String content;
+
+        private final String author;
+
+        Snapshot(String title, String content, String author) {
+            this.title = title;
+            this.content = content;
+            this.author = author;
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package com.tcl.mybatislearning.entity;
+
+/**
+ * Blog 中可修改的列，{@link Blog#changedColumns()} 的元素
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:20
+ */
+public enum BlogColumn {
+
+    TITLE,
+
+    CONTENT,
+
+    AUTHOR
+}
@@ -0,0 +1,26 @@
+package com.tcl.mybatislearning.entity;
+
+/**
+ * 只读的 Author，供 AuthorCache 在多行结果之间共享同一个实例。
+ * 与同名的普通 Author 相等（equals/hashCode 继承自 Author）。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:10
+ */
+public final class ImmutableAuthor extends Author {
+
+    public ImmutableAuthor(String name) {
+        super.setName(name);
+    }
+
+    @Override
+    public void setId(Long id) {
+        throw new UnsupportedOperationException("Shared Author instance is read-only");
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException("Shared Author instance is read-only");
+    }
+}
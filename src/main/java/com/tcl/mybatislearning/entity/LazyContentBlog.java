@@ -0,0 +1,71 @@
+package com.tcl.mybatislearning.entity;
+
+/**
+ * 摘要查询返回的 Blog：查询时不取 content，第一次调用 {@link #getContent()} 时才回表加载。
+ * <p>
+ * 加载动作由 LazyContentInterceptor 绑定，同一次查询的所有行共用一个加载器，
+ * 任意一行触发时整批未加载的行用一条 in 查询取回。未绑定加载器时 content 保持为 null。
+ * 与同字段的普通 Blog 相等（equals/hashCode 继承自 Blog，会触发加载）。
+ * 未加载的 content 不算变更，加载回来的值作为 content 的基准值。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:30
+ */
+public class LazyContentBlog extends Blog {
+
+    private transient volatile Runnable contentLoader;
+
+    private volatile boolean contentLoaded;
+
+    @Override
+    public String getContent() {
+        if (!contentLoaded) {
+            Runnable loader = contentLoader;
+            if (loader != null) {
+                loader.run();
+            }
+        }
+        return super.getContent();
+    }
+
+    /**
+     * 显式赋值后不再加载
+     */
+    @Override
+    public void setContent(String content) {
+        super.setContent(content);
+        this.contentLoaded = true;
+        this.contentLoader = null;
+    }
+
+    /**
+     * 加载器回填 content，回填的值不算变更
+     */
+    public void applyLoadedContent(String content) {
+        setContent(content);
+        resetContentChange();
+    }
+
+    public boolean isContentLoaded() {
+        return contentLoaded;
+    }
+
+    public Runnable getContentLoader() {
+        return contentLoader;
+    }
+
+    public void setContentLoader(Runnable contentLoader) {
+        this.contentLoader = contentLoader;
+    }
+
+    /**
+     * 只打印已加载的 content，打日志不应触发回表
+     */
+    @Override
+    public String toString() {
+        return "LazyContentBlog(id=" + getId() + ", title=" + getTitle()
+                + ", content=" + (contentLoaded ? super.getContent() : "<not loaded>")
+                + ", author=" + getAuthor() + ", createTime=" + getCreateTime() + ", updateTime=" + getUpdateTime() + ")";
+    }
+}
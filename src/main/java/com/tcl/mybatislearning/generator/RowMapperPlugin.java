@@ -0,0 +1,258 @@
+package com.tcl.mybatislearning.generator;
+
+import com.tcl.mybatislearning.mapping.RowMapper;
+import com.tcl.mybatislearning.mapping.RowMappers;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.internal.util.JavaBeansUtil;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MyBatis Generator 插件：为每个模型类额外生成一个 {@link RowMapper}，按列序号读取、直接调用 setter。
+ * <p>
+ * 生成的类与模型类同包，名为模型类名加 RowMapper，配合 CompiledRowMapperInterceptor 替代反射映射。
+ * 类型转换在生成代码里展开：包装类型读原始值再用 wasNull 判空，日期读 Timestamp 再转换，
+ * 其余类型用 JDBC 4.1 的 getObject(int, Class)；列上配置了 typeHandler（比如 columnOverride 把 author
+ * 映射成 Author、用 AuthorTypeHandler）时，生成一个该 handler 的静态实例并直接调用。
+ * 每列等价的 TypeHandler 记在 TYPE_HANDLERS 里：配置的 typeHandler，或 MyBatis 默认注册表按 javaType、jdbcType 选出的 handler，
+ * CompiledRowMapperInterceptor 据此确认 resultMap 的映射方式没有变。
+ * <p>
+ * 有单独的 WithBLOBs 类时，基础类和 WithBLOBs 类各生成一个，列分别与 BaseResultMap、ResultMapWithBLOBs 一致。
+ * <pre>{@code
+ * <plugin type="com.tcl.mybatislearning.generator.RowMapperPlugin"/>
+ * }</pre>
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:20
+ */
+public class RowMapperPlugin extends PluginAdapter {
+
+    private static final FullyQualifiedJavaType RESULT_SET = new FullyQualifiedJavaType("java.sql.ResultSet");
+
+    private static final FullyQualifiedJavaType SQL_EXCEPTION = new FullyQualifiedJavaType("java.sql.SQLException");
+
+    private static final FullyQualifiedJavaType STRING_ARRAY = new FullyQualifiedJavaType("java.lang.String[]");
+
+    private static final TypeHandlerRegistry DEFAULT_TYPE_HANDLERS = new TypeHandlerRegistry();
+
+    @Override
+    public boolean validate(List<String> warnings) {
+        return true;
+    }
+
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles(IntrospectedTable table) {
+        List<GeneratedJavaFile> files = new ArrayList<>();
+        if (table.getRules().generateRecordWithBLOBsClass()) {
+            files.add(generate(table, table.getBaseRecordType(), table.getNonBLOBColumns()));
+            files.add(generate(table, table.getRecordWithBLOBsType(), table.getAllColumns()));
+        } else if (table.getRules().generateBaseRecordClass()) {
+            files.add(generate(table, table.getBaseRecordType(), table.getAllColumns()));
+        }
+        return files;
+    }
+
+    private GeneratedJavaFile generate(IntrospectedTable table, String recordType, List<IntrospectedColumn> columns) {
+        FullyQualifiedJavaType modelType = new FullyQualifiedJavaType(recordType);
+        TopLevelClass mapperClass = new TopLevelClass(recordType + RowMappers.SUFFIX);
+        mapperClass.setVisibility(JavaVisibility.PUBLIC);
+        FullyQualifiedJavaType rowMapperType = new FullyQualifiedJavaType(RowMapper.class.getName());
+        rowMapperType.addTypeArgument(modelType);
+        mapperClass.addSuperInterface(rowMapperType);
+        // 与模型类同包，不需要导入模型类
+        mapperClass.addImportedType(rowMapperType);
+        mapperClass.addImportedType(RESULT_SET);
+        mapperClass.addImportedType(SQL_EXCEPTION);
+        context.getCommentGenerator().addJavaFileComment(mapperClass);
+        context.getCommentGenerator().addModelClassComment(mapperClass, table);
+
+        StringBuilder columnNames = new StringBuilder();
+        StringBuilder propertyNames = new StringBuilder();
+        StringBuilder handlerNames = new StringBuilder();
+        for (IntrospectedColumn column : columns) {
+            String separator = columnNames.length() == 0 ? "" : ", ";
+            columnNames.append(separator).append('"').append(MyBatis3FormattingUtilities.getRenamedColumnNameForResultMap(column)).append('"');
+            propertyNames.append(separator).append('"').append(column.getJavaProperty()).append('"');
+            String handler = typeHandlerName(column);
+            handlerNames.append(separator).append(handler == null ? "null" : '"' + handler + '"');
+        }
+        mapperClass.addField(constant("COLUMNS", "{" + columnNames + "}", table));
+        mapperClass.addField(constant("PROPERTIES", "{" + propertyNames + "}", table));
+        mapperClass.addField(constant("TYPE_HANDLERS", "{" + handlerNames + "}", table));
+
+        Method map = new Method("map");
+        map.setVisibility(JavaVisibility.PUBLIC);
+        map.addAnnotation("@Override");
+        map.setReturnType(modelType);
+        map.addParameter(new Parameter(RESULT_SET, "rs"));
+        map.addParameter(new Parameter(new FullyQualifiedJavaType("int[]"), "columnIndexes"));
+        map.addException(SQL_EXCEPTION);
+        context.getCommentGenerator().addGeneralMethodComment(map, table);
+        map.addBodyLine(modelType.getShortName() + " row = new " + modelType.getShortName() + "();");
+        map.addBodyLine("int index;");
+        for (int i = 0; i < columns.size(); i++) {
+            IntrospectedColumn column = columns.get(i);
+            map.addBodyLine("if ((index = columnIndexes[" + i + "]) > 0) {");
+            readColumn(mapperClass, map, column, table);
+            map.addBodyLine("}");
+        }
+        map.addBodyLine("return row;");
+
+        mapperClass.addMethod(arrayGetter("columns", "COLUMNS", table));
+        mapperClass.addMethod(arrayGetter("properties", "PROPERTIES", table));
+        mapperClass.addMethod(arrayGetter("typeHandlers", "TYPE_HANDLERS", table));
+        mapperClass.addMethod(map);
+
+        return new GeneratedJavaFile(mapperClass, context.getJavaModelGeneratorConfiguration().getTargetProject(),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING), context.getJavaFormatter());
+    }
+
+    private void readColumn(TopLevelClass mapperClass, Method map, IntrospectedColumn column, IntrospectedTable table) {
+        FullyQualifiedJavaType type = column.getFullyQualifiedJavaType();
+        String setter = "row." + JavaBeansUtil.getSetterMethodName(column.getJavaProperty());
+        if (column.getTypeHandler() != null) {
+            FullyQualifiedJavaType handlerType = new FullyQualifiedJavaType(column.getTypeHandler());
+            String handler = column.getJavaProperty().toUpperCase(Locale.ENGLISH) + "_HANDLER";
+            Field field = new Field(handler, handlerType);
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setStatic(true);
+            field.setFinal(true);
+            field.setInitializationString("new " + handlerType.getShortName() + "()");
+            context.getCommentGenerator().addFieldComment(field, table);
+            mapperClass.addField(field);
+            mapperClass.addImportedType(handlerType);
+            map.addBodyLine(setter + "(" + handler + ".getResult(rs, index));");
+            return;
+        }
+        String name = type.getFullyQualifiedName();
+        String primitive = primitiveGetter(name);
+        if (primitive != null) {
+            map.addBodyLine(primitive.substring(0, primitive.indexOf(' ')) + " value = rs."
+                    + primitive.substring(primitive.indexOf(' ') + 1) + "(index);");
+            map.addBodyLine(setter + "(rs.wasNull() ? null : value);");
+            return;
+        }
+        switch (name) {
+            case "java.lang.String":
+                map.addBodyLine(setter + "(rs.getString(index));");
+                return;
+            case "java.math.BigDecimal":
+                map.addBodyLine(setter + "(rs.getBigDecimal(index));");
+                return;
+            case "byte[]":
+                map.addBodyLine(setter + "(rs.getBytes(index));");
+                return;
+            case "java.util.Date":
+                readDate(mapperClass, map, setter, column.getJdbcType());
+                return;
+            default:
+                mapperClass.addImportedType(type);
+                map.addBodyLine(setter + "(rs.getObject(index, " + type.getShortNameWithoutTypeArguments() + ".class));");
+        }
+    }
+
+    /**
+     * 列上配置的 typeHandler，否则是 MyBatis 默认注册表给生成的 resultMap（property + jdbcType）解析出的 handler；
+     * 解析不出时返回 null，拦截器不会使用这个 RowMapper
+     */
+    private static String typeHandlerName(IntrospectedColumn column) {
+        if (column.getTypeHandler() != null) {
+            return column.getTypeHandler();
+        }
+        FullyQualifiedJavaType type = column.getFullyQualifiedJavaType();
+        Class<?> javaType;
+        try {
+            javaType = "byte[]".equals(type.getFullyQualifiedName()) ? byte[].class
+                    : Class.forName(type.getFullyQualifiedNameWithoutTypeParameters());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        TypeHandler<?> handler = DEFAULT_TYPE_HANDLERS.getTypeHandler(javaType, JdbcType.forCode(column.getJdbcType()));
+        return handler == null ? null : handler.getClass().getName();
+    }
+
+    /**
+     * @return "原始类型 getter"，不是包装类型时返回 null
+     */
+    private static String primitiveGetter(String type) {
+        switch (type) {
+            case "java.lang.Long":
+                return "long getLong";
+            case "java.lang.Integer":
+                return "int getInt";
+            case "java.lang.Short":
+                return "short getShort";
+            case "java.lang.Byte":
+                return "byte getByte";
+            case "java.lang.Double":
+                return "double getDouble";
+            case "java.lang.Float":
+                return "float getFloat";
+            case "java.lang.Boolean":
+                return "boolean getBoolean";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 与 DateOnlyTypeHandler、TimeOnlyTypeHandler、DateTypeHandler 相同的转换
+     */
+    private static void readDate(TopLevelClass mapperClass, Method map, String setter, int jdbcType) {
+        String sqlType;
+        String getter;
+        if (jdbcType == Types.DATE) {
+            sqlType = "java.sql.Date";
+            getter = "getDate";
+        } else if (jdbcType == Types.TIME) {
+            sqlType = "java.sql.Time";
+            getter = "getTime";
+        } else {
+            sqlType = "java.sql.Timestamp";
+            getter = "getTimestamp";
+        }
+        FullyQualifiedJavaType valueType = new FullyQualifiedJavaType(sqlType);
+        mapperClass.addImportedType(valueType);
+        mapperClass.addImportedType(new FullyQualifiedJavaType("java.util.Date"));
+        map.addBodyLine(valueType.getShortName() + " value = rs." + getter + "(index);");
+        map.addBodyLine(setter + "(value == null ? null : new Date(value.getTime()));");
+    }
+
+    private Field constant(String name, String value, IntrospectedTable table) {
+        Field field = new Field(name, STRING_ARRAY);
+        field.setVisibility(JavaVisibility.PUBLIC);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString(value);
+        context.getCommentGenerator().addFieldComment(field, table);
+        return field;
+    }
+
+    private Method arrayGetter(String name, String constant, IntrospectedTable table) {
+        Method method = new Method(name);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addAnnotation("@Override");
+        method.setReturnType(STRING_ARRAY);
+        method.addBodyLine("return " + constant + ";");
+        context.getCommentGenerator().addGeneralMethodComment(method, table);
+        return method;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tcl.mybatislearning.handler;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.ImmutableAuthor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按作者名规范化 Author 实例的有界缓存（享元），同名作者共享一个 ImmutableAuthor。
+ * <p>
+ * 作者名是一个很小的集合，却在海量 blog 行里重复出现，缓存后结果映射不必每行都分配 Author。
+ * 超过容量上限时按 CLOCK（二次机会）淘汰：命中只设置访问标记，不加锁也不移动节点；
+ * 淘汰时依次检查收录队列，有标记的清除标记放回队尾，没有的移除，长期运行时保留的是最近仍在使用的作者。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:10
+ */
+public class AuthorCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final AuthorCache SHARED = new AuthorCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final ConcurrentMap<String, Entry> authors = new ConcurrentHashMap<>();
+
+    /**
+     * CLOCK 的指针：按收录顺序排列的条目，淘汰时从队头取
+     */
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+
+    private final int maximumSize;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public AuthorCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * CachingAuthorTypeHandler 使用的进程内共享实例
+     */
+    public static AuthorCache shared() {
+        return SHARED;
+    }
+
+    public Author get(String name) {
+        Entry entry = authors.get(name);
+        if (entry != null) {
+            hits.increment();
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.author;
+        }
+        misses.increment();
+        Entry created = new Entry(name, new ImmutableAuthor(name));
+        Entry existing = authors.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing.author;
+        }
+        clock.add(created);
+        if (authors.size() > maximumSize) {
+            evict();
+        }
+        return created.author;
+    }
+
+    private void evict() {
+        synchronized (clock) {
+            while (authors.size() > maximumSize) {
+                Entry candidate = clock.poll();
+                if (candidate == null) {
+                    return;
+                }
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                    clock.add(candidate);
+                } else if (authors.remove(candidate.name, candidate)) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        return authors.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void clear() {
+        synchronized (clock) {
+            authors.clear();
+            clock.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorCache(size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ")";
+    }
+
+    private static final class Entry {
+
+        final String name;
+
+        final Author author;
+
+        /**
+         * 上次被淘汰扫描之后是否命中过
+         */
+        volatile boolean referenced;
+
+        Entry(String name, Author author) {
+            this.name = name;
+            this.author = author;
+        }
+    }
+}
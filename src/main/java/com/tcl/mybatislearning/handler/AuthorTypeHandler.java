@@ -19,6 +19,18 @@ import java.sql.SQLException;
 @MappedJdbcTypes(JdbcType.VARCHAR)
 public class AuthorTypeHandler extends BaseTypeHandler<Author> {
 
+    /**
+     * 为null时每行新建Author；否则同名作者共享缓存中的只读实例
+     */
+    private final AuthorCache cache;
+
+    public AuthorTypeHandler() {
+        this(null);
+    }
+
+    public AuthorTypeHandler(AuthorCache cache) {
+        this.cache = cache;
+    }
 
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i, Author parameter, JdbcType jdbcType) throws SQLException {
@@ -27,25 +39,29 @@ public class AuthorTypeHandler extends BaseTypeHandler<Author> {
 
     @Override
     public Author getNullableResult(ResultSet rs, String columnName) throws SQLException {
-        String name = rs.getString(columnName);
-        Author author = new Author();
-        author.setName(name);
-        return author;
+        return toAuthor(rs.getString(columnName));
     }
 
     @Override
     public Author getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
-        String name = rs.getString(columnIndex);
-        Author author = new Author();
-        author.setName(name);
-        return author;
+        return toAuthor(rs.getString(columnIndex));
     }
 
     @Override
     public Author getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
-        String name = cs.getString(columnIndex);
+        return toAuthor(cs.getString(columnIndex));
+    }
+
+    private Author toAuthor(String name) {
+        if (cache != null && name != null) {
+            return cache.get(name);
+        }
         Author author = new Author();
         author.setName(name);
         return author;
     }
+
+    public AuthorCache getCache() {
+        return cache;
+    }
 }
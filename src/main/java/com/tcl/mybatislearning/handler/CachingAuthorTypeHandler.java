@@ -0,0 +1,23 @@
+package com.tcl.mybatislearning.handler;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+
+/**
+ * 使用共享 AuthorCache 的 AuthorTypeHandler，在映射文件的作者名列上替换 AuthorTypeHandler：
+ * <pre>
+ * &lt;result property="author" column="author" typeHandler="com.tcl.mybatislearning.handler.CachingAuthorTypeHandler"/&gt;
+ * </pre>
+ * 开启后这些列查询得到的 Author 是只读的 ImmutableAuthor。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:10
+ */
+@MappedJdbcTypes(JdbcType.VARCHAR)
+public class CachingAuthorTypeHandler extends AuthorTypeHandler {
+
+    public CachingAuthorTypeHandler() {
+        super(AuthorCache.shared());
+    }
+}
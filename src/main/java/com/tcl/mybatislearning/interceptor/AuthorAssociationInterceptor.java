@@ -0,0 +1,173 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.loader.AuthorBatchLoader;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 结果映射里用 association 映射作者（如 blogAuthorMap，只有 author_id 和冗余的名字）的列表查询返回后，用 {@link AuthorBatchLoader}
+ * 一次 in 查询补全整页的作者，列表页的查询次数与行数无关。
+ * <p>
+ * 配置 identityMap=true 时每个会话（执行器）维护一个作者 id -> Author 的映射，同一会话翻页时已加载的作者
+ * 不再查询，且始终是同一个实例；与一级缓存一样在提交、回滚、关闭以及执行 AuthorMapper 的写语句后清空。
+ * <p>
+ * 游标和 ResultHandler 方式逐行交出结果，没有"一页"可言，这些行保留结果映射给出的只有 id 和名字的 Author。
+ * <p>
+ * BlogMapper 的 insert/update 执行前，参数里只有名字的作者由 {@link AuthorBatchLoader#resolve} 补进 author 表并换成
+ * 带 id 的 Author（每块一次插入加一次查询），新作者写入即有 author_id，不依赖一次性回填。BATCH 执行器上这次查询会先执行
+ * 已攒下的批，大批量写入应像 BlogBatchWriter 那样按块先解析作者。
+ * 需要在 ChangeTrackingInterceptor 之前注册，变更跟踪才会以补全后的作者为基准。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:50
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class AuthorAssociationInterceptor implements Interceptor {
+
+    private static final String AUTHOR_NAMESPACE = "com.tcl.mybatislearning.mapper.AuthorMapper.";
+
+    private static final String BLOG_NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private boolean identityMap;
+
+    /**
+     * 语句 id -> 结果里是否有需要补全的作者
+     */
+    private final ConcurrentMap<String, Boolean> associations = new ConcurrentHashMap<>();
+
+    /**
+     * 执行器 -> 该会话的作者映射；忘记关闭的会话被回收时自动移除
+     */
+    private final Map<Executor, Map<Long, Author>> identityMaps = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final LongAdder queries = new LongAdder();
+
+    private final LongAdder resolves = new LongAdder();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        String method = invocation.getMethod().getName();
+        if (!"query".equals(method)) {
+            if (!"update".equals(method)) {
+                identityMaps.remove(executor);
+            } else {
+                MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+                if (ms.getId().startsWith(AUTHOR_NAMESPACE)) {
+                    identityMaps.remove(executor);
+                } else if (ms.getId().startsWith(BLOG_NAMESPACE) && ms.getSqlCommandType() != SqlCommandType.DELETE) {
+                    resolveAuthors(executor, ms.getConfiguration(), invocation.getArgs()[1]);
+                }
+            }
+            return invocation.proceed();
+        }
+        Object result = invocation.proceed();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (result instanceof Collection && !((Collection<?>) result).isEmpty() && hasAuthorAssociation(ms)) {
+            Configuration configuration = ms.getConfiguration();
+            if (configuration.hasStatement(AuthorBatchLoader.AUTHORS_STATEMENT)) {
+                Map<Long, Author> authors = identityMap
+                        ? identityMaps.computeIfAbsent(executor, k -> new HashMap<>())
+                        : new HashMap<>();
+                queries.add(AuthorBatchLoader.load(executor, configuration.getMappedStatement(AuthorBatchLoader.AUTHORS_STATEMENT),
+                        (Collection<?>) result, authors));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * BlogMapper 的写语句只绑定 author_id，执行前把参数里（单个 Blog 或 blogs 列表）只有名字的作者解析成 author 表里的作者
+     */
+    private void resolveAuthors(Executor executor, Configuration configuration, Object parameter) throws SQLException {
+        Collection<?> rows;
+        if (parameter instanceof Blog) {
+            rows = Collections.singletonList(parameter);
+        } else if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey("blogs")) {
+            rows = (Collection<?>) ((Map<?, ?>) parameter).get("blogs");
+        } else {
+            return;
+        }
+        if (configuration.hasStatement(AuthorBatchLoader.INSERT_NAMES_STATEMENT)) {
+            resolves.add(AuthorBatchLoader.resolve(executor, configuration, rows));
+        }
+    }
+
+    private boolean hasAuthorAssociation(MappedStatement ms) {
+        return associations.computeIfAbsent(ms.getId(), id -> {
+            for (ResultMap resultMap : ms.getResultMaps()) {
+                for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+                    if (Author.class.isAssignableFrom(mapping.getJavaType()) && mapping.getNestedResultMapId() != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 为补全作者执行的查询次数
+     */
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    /**
+     * 写入前解析作者的次数，每次是一条插入加一条查询
+     */
+    public long getResolveCount() {
+        return resolves.sum();
+    }
+
+    public boolean isIdentityMap() {
+        return identityMap;
+    }
+
+    public void setIdentityMap(boolean identityMap) {
+        this.identityMap = identityMap;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String value = properties.getProperty("identityMap");
+        if (value != null) {
+            this.identityMap = Boolean.parseBoolean(value.trim());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.count.BlogCounter;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+/**
+ * 按 insertBlog、insertBatch（及分片用的 insertBlogWithId、insertBatchWithIds）、deleteBlogById 的影响行数维护 {@link BlogCounter}。
+ * <p>
+ * 增量按执行器（即 SqlSession）暂存，提交后才计入，回滚或未提交就关闭时丢弃；autoCommit 的连接上执行后立即计入。
+ * BATCH 执行器的影响行数在 flushStatements 的 BatchResult 里，提交前的隐式刷新在这里显式执行一次以便拿到结果。
+ * 驱动只返回 SUCCESS_NO_INFO、或 BlogMapper 里有其他插入/删除语句时无法算出增量，计数失效到下次对账。
+ * <p>
+ * 计数就绪时 countMaintained 直接返回计数，不访问数据库；计数器随插件实例化，每个 Configuration 各有一个。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 09:30
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class BlogCountInterceptor implements Interceptor {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private static final String COUNT_MAINTAINED = NAMESPACE + "countMaintained";
+
+    private final BlogCounter counter;
+
+    private long reconcileSeconds = BlogCounter.DEFAULT_RECONCILE_SECONDS;
+
+    /**
+     * 执行器 -> 未提交的增量，null 表示无法计算；忘记关闭的会话被回收时自动移除
+     */
+    private final Map<Object, Long> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Long UNKNOWN = null;
+
+    public BlogCountInterceptor() {
+        this(new BlogCounter());
+    }
+
+    public BlogCountInterceptor(BlogCounter counter) {
+        this.counter = counter;
+    }
+
+    public BlogCounter getCounter() {
+        return counter;
+    }
+
+    /**
+     * 启动配置里所有 BlogCountInterceptor 的计数器，在 SqlSessionFactory 创建后调用一次
+     */
+    public static void startCounters(SqlSessionFactory sessionFactory) {
+        for (Interceptor interceptor : sessionFactory.getConfiguration().getInterceptors()) {
+            if (interceptor instanceof BlogCountInterceptor) {
+                BlogCountInterceptor countInterceptor = (BlogCountInterceptor) interceptor;
+                countInterceptor.counter.start(sessionFactory, countInterceptor.reconcileSeconds);
+            }
+        }
+    }
+
+    /**
+     * 停止配置里所有 BlogCountInterceptor 的对账任务，在 SqlSessionFactory 弃用时调用
+     */
+    public static void stopCounters(SqlSessionFactory sessionFactory) {
+        for (Interceptor interceptor : sessionFactory.getConfiguration().getInterceptors()) {
+            if (interceptor instanceof BlogCountInterceptor) {
+                ((BlogCountInterceptor) interceptor).counter.stop();
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        Executor executor = (Executor) invocation.getTarget();
+        if ("query".equals(method)) {
+            Long current = COUNT_MAINTAINED.equals(((MappedStatement) invocation.getArgs()[0]).getId()) ? counter.current() : null;
+            return current != null ? Collections.singletonList(current) : invocation.proceed();
+        }
+        if ("update".equals(method)) {
+            MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+            Object result = invocation.proceed();
+            int sign = sign(ms);
+            if (sign != 0) {
+                int rows = (Integer) result;
+                // BATCH 执行器在刷新时才知道影响行数
+                if (rows != BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+                    record(executor, sign * (long) rows);
+                }
+                applyIfAutoCommit(executor);
+            }
+            return result;
+        }
+        if ("flushStatements".equals(method)) {
+            @SuppressWarnings("unchecked")
+            List<BatchResult> results = (List<BatchResult>) invocation.proceed();
+            record(executor, results);
+            applyIfAutoCommit(executor);
+            return results;
+        }
+        if ("commit".equals(method)) {
+            record(executor, executor.flushStatements());
+            Object result = invocation.proceed();
+            apply(executor);
+            return result;
+        }
+        // rollback 以及未提交就关闭（MyBatis 会回滚）
+        pending.remove(executor);
+        return invocation.proceed();
+    }
+
+    /**
+     * @return 插入为 1、删除为 -1、不影响行数为 0；无法判断时计数失效
+     */
+    private int sign(MappedStatement ms) {
+        String id = ms.getId();
+        if (!id.startsWith(NAMESPACE)) {
+            return 0;
+        }
+        switch (id.substring(NAMESPACE.length())) {
+            case "insertBlog":
+            case "insertBatch":
+            case "insertBlogWithId":
+            case "insertBatchWithIds":
+                return 1;
+            case "deleteBlogById":
+                return -1;
+            default:
+                if (ms.getSqlCommandType() == SqlCommandType.INSERT || ms.getSqlCommandType() == SqlCommandType.DELETE) {
+                    counter.invalidate();
+                }
+                return 0;
+        }
+    }
+
+    private void record(Executor executor, List<BatchResult> results) {
+        for (BatchResult result : results) {
+            int sign = sign(result.getMappedStatement());
+            if (sign == 0) {
+                continue;
+            }
+            long rows = 0;
+            for (int count : result.getUpdateCounts()) {
+                if (count < 0) {
+                    // SUCCESS_NO_INFO / EXECUTE_FAILED：不知道影响了几行
+                    pending.put(executor, UNKNOWN);
+                    return;
+                }
+                rows += count;
+            }
+            record(executor, sign * rows);
+        }
+    }
+
+    private void record(Executor executor, long delta) {
+        synchronized (pending) {
+            if (!pending.containsKey(executor)) {
+                pending.put(executor, delta);
+            } else {
+                Long current = pending.get(executor);
+                if (current != UNKNOWN) {
+                    pending.put(executor, current + delta);
+                }
+            }
+        }
+    }
+
+    private void applyIfAutoCommit(Executor executor) throws SQLException {
+        if (pending.containsKey(executor) && executor.getTransaction().getConnection().getAutoCommit()) {
+            apply(executor);
+        }
+    }
+
+    private void apply(Executor executor) {
+        boolean present = pending.containsKey(executor);
+        Long delta = pending.remove(executor);
+        if (!present) {
+            return;
+        }
+        if (delta == UNKNOWN) {
+            counter.invalidate();
+        } else {
+            counter.add(delta);
+        }
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String value = properties.getProperty("reconcileSeconds");
+        if (value != null) {
+            this.reconcileSeconds = Long.parseLong(value);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.cache.CacheInvalidation;
+import com.tcl.mybatislearning.cache.StatementCacheKey;
+import com.tcl.mybatislearning.cache.TinyLfuCache;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 让 TinyLfuCache 在提交时按 id 局部失效，而不是整个命名空间清空。
+ * <p>
+ * MyBatis 的 flushCache 语义保持不变：写操作后本会话不再读写二级缓存，提交时调用 Cache.clear()。
+ * 这里在 update 时记下每个执行器（即每个 SqlSession）受影响的 id，提交或关闭会话期间把它们绑定到当前线程，
+ * TinyLfuCache.clear() 读到后只驱逐相关条目；回滚时丢弃。
+ * <p>
+ * 使用 TinyLfuCache 的语句查询时，把 CacheKey 包装成带语句 id 的 {@link StatementCacheKey}，
+ * TinyLfuCache 据此给 keyedStatements 的结果打标签。4 个参数的 query 由 CachingExecutor 在内部生成键，
+ * 插件拦截不到，这里照它的做法生成键后改调 6 个参数的 query。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:00
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class CacheInvalidationInterceptor implements Interceptor {
+
+    /**
+     * 执行器 -> 缓存 id -> 待失效的 id；忘记关闭的会话被回收时自动移除
+     */
+    private final Map<Object, Map<String, CacheInvalidation>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 映射语句上的缓存（已被装饰）-> 其中的 TinyLfuCache；不是 TinyLfuCache 时为空
+     */
+    private final ConcurrentMap<Cache, Optional<TinyLfuCache>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        Object executor = invocation.getTarget();
+        if ("query".equals(method)) {
+            return query(invocation);
+        }
+        if ("update".equals(method)) {
+            // 在执行之前记录：语句失败后会话仍可能提交，而 MyBatis 此时已标记了提交时清空
+            record(executor, (MappedStatement) invocation.getArgs()[0], invocation.getArgs()[1]);
+            return invocation.proceed();
+        }
+        Map<String, CacheInvalidation> invalidations = pending.remove(executor);
+        if ("rollback".equals(method) || invalidations == null) {
+            return invocation.proceed();
+        }
+        Map<String, CacheInvalidation> previous = CacheInvalidation.bind(invalidations);
+        try {
+            return invocation.proceed();
+        } finally {
+            CacheInvalidation.restore(previous);
+        }
+    }
+
+    private Object query(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if (!ms.isUseCache() || tinyLfuCache(ms.getCache()) == null) {
+            return invocation.proceed();
+        }
+        if (args.length == 6) {
+            if (!(args[4] instanceof StatementCacheKey)) {
+                args[4] = new StatementCacheKey(ms.getId(), (CacheKey) args[4]);
+            }
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        Object parameter = args[1];
+        RowBounds rowBounds = (RowBounds) args[2];
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        CacheKey key = new StatementCacheKey(ms.getId(), executor.createCacheKey(ms, parameter, rowBounds, boundSql));
+        @SuppressWarnings("unchecked")
+        ResultHandler<Object> resultHandler = (ResultHandler<Object>) args[3];
+        return executor.query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    }
+
+    private TinyLfuCache tinyLfuCache(Cache cache) {
+        if (cache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(cache, c -> Optional.ofNullable(TinyLfuCache.unwrap(c))).orElse(null);
+    }
+
+    private void record(Object executor, MappedStatement ms, Object parameter) {
+        Cache cache = ms.getCache();
+        if (cache == null || !ms.isFlushCacheRequired()) {
+            return;
+        }
+        TinyLfuCache tinyLfuCache = tinyLfuCache(cache);
+        if (tinyLfuCache == null) {
+            return;
+        }
+        pending.computeIfAbsent(executor, k -> new HashMap<>())
+                .computeIfAbsent(cache.getId(), k -> new CacheInvalidation())
+                .add(tinyLfuCache.affectedIds(ms, parameter));
+    }
+}
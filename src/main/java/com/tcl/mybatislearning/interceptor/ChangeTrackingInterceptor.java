@@ -0,0 +1,217 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.entity.BlogColumn;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 查询出来的 Blog 以加载时的值为基准开始跟踪变更，updateBatch 据此只发送真正改过的列。
+ * <p>
+ * 列表结果在返回前处理；传入 ResultHandler 的流式查询包装 handler，游标查询包装游标，
+ * 调用方拿到的每一行都已经开始跟踪。已经在跟踪的对象（一级缓存里同一会话再次查到的）保留原来的基准，
+ * 不会把调用方尚未写回的修改当成已加载的值。二级缓存（TinyLfuCache 默认非只读）每次返回反序列化的副本，
+ * 基准字段是 transient 的，命中缓存的副本以缓存里的值为基准重新开始跟踪，不会共享别的会话的基准。
+ * <p>
+ * updateColumnsByIds 写入的列按执行器（即 SqlSession）暂存，提交成功后才成为新的基准，回滚或未提交就关闭时丢弃，
+ * 对象上的修改仍算作变更，下次 updateBatch 会重新写入；autoCommit 的连接上语句执行后（BATCH 执行器是刷新后）立即生效。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:30
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class ChangeTrackingInterceptor implements Interceptor {
+
+    private static final String UPDATE_COLUMNS = "com.tcl.mybatislearning.mapper.BlogMapper.updateColumnsByIds";
+
+    /**
+     * 执行器 -> 提交后要设置的新基准；忘记关闭的会话被回收时自动移除
+     */
+    private final Map<Object, List<Runnable>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        Executor executor = (Executor) invocation.getTarget();
+        if ("update".equals(method)) {
+            Object result = invocation.proceed();
+            MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+            if (UPDATE_COLUMNS.equals(ms.getId())) {
+                record(executor, ms, invocation.getArgs()[1]);
+                if (!Integer.valueOf(BatchExecutor.BATCH_UPDATE_RETURN_VALUE).equals(result) && isAutoCommit(executor)) {
+                    apply(pending.remove(executor));
+                }
+            }
+            return result;
+        }
+        if ("flushStatements".equals(method)) {
+            Object result = invocation.proceed();
+            if (pending.containsKey(executor) && isAutoCommit(executor)) {
+                apply(pending.remove(executor));
+            }
+            return result;
+        }
+        if ("commit".equals(method)) {
+            Object result = invocation.proceed();
+            apply(pending.remove(executor));
+            return result;
+        }
+        if ("rollback".equals(method) || "close".equals(method)) {
+            // 回滚以及未提交就关闭（MyBatis 会回滚）：写入没有生效，保留原来的基准
+            pending.remove(executor);
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (!returnsBlogs(ms)) {
+            return invocation.proceed();
+        }
+        if ("queryCursor".equals(invocation.getMethod().getName())) {
+            return new TrackingCursor((Cursor<?>) invocation.proceed());
+        }
+        Object[] args = invocation.getArgs();
+        if (args[3] != null) {
+            @SuppressWarnings("unchecked")
+            ResultHandler<Object> handler = (ResultHandler<Object>) args[3];
+            args[3] = (ResultHandler<Object>) context -> {
+                track(context.getResultObject());
+                handler.handleResult(context);
+            };
+        }
+        Object result = invocation.proceed();
+        if (result instanceof Collection) {
+            for (Object row : (Collection<?>) result) {
+                track(row);
+            }
+        }
+        return result;
+    }
+
+    private void record(Executor executor, MappedStatement ms, Object parameter) {
+        MetaObject metaObject = ms.getConfiguration().newMetaObject(parameter);
+        Set<BlogColumn> columns = EnumSet.noneOf(BlogColumn.class);
+        if (Boolean.TRUE.equals(metaObject.getValue("title"))) {
+            columns.add(BlogColumn.TITLE);
+        }
+        if (Boolean.TRUE.equals(metaObject.getValue("content"))) {
+            columns.add(BlogColumn.CONTENT);
+        }
+        if (Boolean.TRUE.equals(metaObject.getValue("author"))) {
+            columns.add(BlogColumn.AUTHOR);
+        }
+        List<Runnable> written = pending.computeIfAbsent(executor, k -> new ArrayList<>());
+        for (Object blog : (Collection<?>) metaObject.getValue("blogs")) {
+            written.add(((Blog) blog).trackWritten(columns));
+        }
+    }
+
+    private static void apply(List<Runnable> written) {
+        if (written != null) {
+            for (Runnable task : written) {
+                task.run();
+            }
+        }
+    }
+
+    private static boolean isAutoCommit(Executor executor) throws SQLException {
+        return executor.getTransaction().getConnection().getAutoCommit();
+    }
+
+    private static boolean returnsBlogs(MappedStatement ms) {
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            if (Blog.class.isAssignableFrom(resultMap.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void track(Object row) {
+        if (row instanceof Blog && !((Blog) row).tracksChanges()) {
+            ((Blog) row).trackChanges();
+        }
+    }
+
+    private static final class TrackingCursor implements Cursor<Object> {
+
+        private final Cursor<?> delegate;
+
+        TrackingCursor(Cursor<?> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return delegate.isConsumed();
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return delegate.getCurrentIndex();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<?> iterator = delegate.iterator();
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    Object row = iterator.next();
+                    track(row);
+                    return row;
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
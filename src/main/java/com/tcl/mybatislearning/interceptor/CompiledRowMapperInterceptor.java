@@ -0,0 +1,173 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.mapping.RowMapper;
+import com.tcl.mybatislearning.mapping.RowMappers;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 结果类型有生成的 {@link RowMapper} 时，用它代替 DefaultResultSetHandler 映射结果集。
+ * <p>
+ * 只接管最简单也最常见的情况：单个扁平 resultMap（无嵌套映射、鉴别器、构造器映射、多结果集），
+ * 没有传入 ResultHandler，RowBounds 为默认值（分页已由 RowBoundsLimitInterceptor 改写进 SQL）。
+ * resultMap 里每个 column/property 对都必须在 RowMapper 里，且解析出的 TypeHandler 与生成时所用的是同一个类，
+ * 否则说明映射被手工改过（或注册了别的 handler），仍走反射路径。
+ * 结果类型自动映射（resultType，没有显式映射）不接管，两条路径对未列出的列处理不同。
+ * <p>
+ * 列名到序号在每个结果集上解析一次，之后每行只有按序号的 getXxx 和 setter 调用。
+ * <p>
+ * 只应注册在结果类型有生成模型的配置上（目前是 com.tcl.generated 的测试和基准），应用的 mybatis-config.xml 不注册：
+ * entity 包没有生成的 RowMapper，注册了也只会每个结果集多一次判断后回到反射路径。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:10
+ */
+@Intercepts(value = {
+        @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class})
+})
+public class CompiledRowMapperInterceptor implements Interceptor {
+
+    private static final Log log = LogFactory.getLog(CompiledRowMapperInterceptor.class);
+
+    /**
+     * DefaultResultSetHandler 的私有字段，启动时取一次；取不到（MyBatis 版本不同）时插件不接管任何结果集
+     */
+    private static final Field MAPPED_STATEMENT = handlerField("mappedStatement");
+
+    private static final Field ROW_BOUNDS = handlerField("rowBounds");
+
+    private static final Field RESULT_HANDLER = handlerField("resultHandler");
+
+    private final ConcurrentMap<ResultMap, Optional<RowMapper<?>>> mappers = new ConcurrentHashMap<>();
+
+    private final LongAdder compiledResultSets = new LongAdder();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!(invocation.getTarget() instanceof DefaultResultSetHandler)
+                || MAPPED_STATEMENT == null || ROW_BOUNDS == null || RESULT_HANDLER == null) {
+            return invocation.proceed();
+        }
+        Object handler = invocation.getTarget();
+        // 先按 resultMap 查缓存的 RowMapper：没有生成 RowMapper 的结果类型（绝大多数）只多一次字段读取
+        MappedStatement ms = (MappedStatement) MAPPED_STATEMENT.get(handler);
+        if (ms.getResultSets() != null || ms.getResultMaps().size() != 1) {
+            return invocation.proceed();
+        }
+        RowMapper<?> mapper = mappers.computeIfAbsent(ms.getResultMaps().get(0),
+                resultMap -> Optional.ofNullable(compatibleMapper(resultMap))).orElse(null);
+        if (mapper == null) {
+            return invocation.proceed();
+        }
+        RowBounds rowBounds = (RowBounds) ROW_BOUNDS.get(handler);
+        if (RESULT_HANDLER.get(handler) != null || rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET
+                || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            return invocation.proceed();
+        }
+        ResultSet rs = ((Statement) invocation.getArgs()[0]).getResultSet();
+        if (rs == null) {
+            return invocation.proceed();
+        }
+        try {
+            int[] columnIndexes = columnIndexes(rs.getMetaData(), mapper.columns());
+            List<Object> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(mapper.map(rs, columnIndexes));
+            }
+            compiledResultSets.increment();
+            return rows;
+        } finally {
+            closeQuietly(rs);
+        }
+    }
+
+    private static Field handlerField(String name) {
+        try {
+            Field field = DefaultResultSetHandler.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot access DefaultResultSetHandler." + name + ", compiled row mapping is disabled: " + e);
+            return null;
+        }
+    }
+
+    private static RowMapper<?> compatibleMapper(ResultMap resultMap) {
+        if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries() || resultMap.getDiscriminator() != null
+                || !resultMap.getConstructorResultMappings().isEmpty() || resultMap.getResultMappings().isEmpty()) {
+            return null;
+        }
+        RowMapper<?> mapper = RowMappers.forType(resultMap.getType());
+        if (mapper == null) {
+            return null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < mapper.columns().length; i++) {
+            columns.put(mapper.columns()[i].toUpperCase(Locale.ENGLISH), i);
+        }
+        for (ResultMapping mapping : resultMap.getResultMappings()) {
+            Integer index = mapping.getColumn() == null ? null : columns.get(mapping.getColumn().toUpperCase(Locale.ENGLISH));
+            if (index == null || !mapping.getProperty().equals(mapper.properties()[index])
+                    || mapping.getTypeHandler() == null
+                    || !mapping.getTypeHandler().getClass().getName().equals(mapper.typeHandlers()[index])) {
+                return null;
+            }
+        }
+        return mapper;
+    }
+
+    private static int[] columnIndexes(ResultSetMetaData metaData, String[] columns) throws SQLException {
+        Map<String, Integer> labels = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            // 重名列取第一个，与 ResultSetWrapper 一致
+            labels.put(metaData.getColumnLabel(i).toUpperCase(Locale.ENGLISH), i);
+        }
+        int[] indexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Integer index = labels.get(columns[i].toUpperCase(Locale.ENGLISH));
+            indexes[i] = index == null ? 0 : index;
+        }
+        return indexes;
+    }
+
+    private static void closeQuietly(ResultSet rs) {
+        try {
+            rs.close();
+        } catch (SQLException ignored) {
+            // 与 DefaultResultSetHandler 一致，关闭失败不影响结果
+        }
+    }
+
+    /**
+     * 由 RowMapper 映射的结果集个数
+     */
+    public long getCompiledResultSetCount() {
+        return compiledResultSets.sum();
+    }
+}
@@ -0,0 +1,54 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.entity.LazyContentBlog;
+import com.tcl.mybatislearning.loader.BlogContentLoader;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Collection;
+
+/**
+ * 结果映射为 {@link LazyContentBlog} 的查询返回后，给整批结果绑定一个 {@link BlogContentLoader}。
+ * <p>
+ * 其他语句只多一次结果映射类型判断。游标和 ResultHandler 方式逐行交出结果，没有"一批"可言，不做绑定。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:40
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class LazyContentInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (result instanceof Collection && isLazy(ms)) {
+            BlogContentLoader.bind(ms.getConfiguration(), (Executor) invocation.getTarget(), (Collection<?>) result);
+        }
+        return result;
+    }
+
+    private static boolean isLazy(MappedStatement ms) {
+        for (ResultMap resultMap : ms.getResultMaps()) {
+            if (LazyContentBlog.class.isAssignableFrom(resultMap.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
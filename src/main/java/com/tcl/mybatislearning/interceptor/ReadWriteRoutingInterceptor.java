@@ -0,0 +1,49 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.datasource.ReadWriteRouting;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * 把 select 语句标记为可读从库，配合 ReadWriteSplittingDataSourceFactory 使用。
+ * <p>
+ * 只是打标记，最终由逻辑连接决定：事务内（非自动提交）或同一会话写过之后的查询仍然走主库。
+ * 使用其他数据源时标记不起作用，可以常驻配置。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:55
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+            return invocation.proceed();
+        }
+        Boolean previous = ReadWriteRouting.markRead();
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadWriteRouting.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.tcl.mybatislearning.interceptor;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 把调用方传入的 RowBounds 改写成 SQL 里的 {@code limit ? offset ?}。
+ * <p>
+ * MyBatis 默认取回全部结果后在内存里跳过 offset 行、截断到 limit 行，翻得越深传输的无用行越多；
+ * 改写后只有需要的行离开数据库。OFFSET 在服务端仍是线性的，深翻页应改用 BlogMapper 的键集分页方法。
+ * <p>
+ * 以下情况不改写，保持原有行为：语句已经带 limit、含嵌套结果映射（limit 会截断 join 出来的子行）、非查询语句。
+ * 判断是否带 limit 之前先抹掉字符串字面量和注释，{@code title <> 'no limit'} 这样的语句照常改写；
+ * 末尾的注释和分号在追加前去掉。limit/offset 作为绑定参数传入，不同页共用同一条 SQL 文本。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:40
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class RowBoundsLimitInterceptor implements Interceptor {
+
+    private static final String LIMIT_PARAMETER = "_rowBoundsLimit";
+
+    private static final String OFFSET_PARAMETER = "_rowBoundsOffset";
+
+    /**
+     * 语句末尾、不在括号内的 limit 子句，用在抹掉字面量和注释之后的文本上
+     */
+    private static final Pattern LIMIT_CLAUSE = Pattern.compile("(?is)\\blimit\\b[^()]*$");
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        Object parameter = args[1];
+        RowBounds rowBounds = (RowBounds) args[2];
+        if (!isBounded(rowBounds) || ms.getSqlCommandType() != SqlCommandType.SELECT || ms.hasNestedResultMaps()) {
+            return invocation.proceed();
+        }
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        String sql = stripTerminator(boundSql.getSql());
+        if (LIMIT_CLAUSE.matcher(code(sql)).find()) {
+            return invocation.proceed();
+        }
+        BoundSql limited = limit(ms.getConfiguration(), boundSql, sql, rowBounds);
+        Executor executor = (Executor) invocation.getTarget();
+        CacheKey cacheKey = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, limited);
+        @SuppressWarnings("unchecked")
+        ResultHandler<Object> resultHandler = (ResultHandler<Object>) args[3];
+        return executor.query(ms, parameter, RowBounds.DEFAULT, resultHandler, cacheKey, limited);
+    }
+
+    private static boolean isBounded(RowBounds rowBounds) {
+        return rowBounds != null && (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT);
+    }
+
+    static BoundSql limit(Configuration configuration, BoundSql boundSql, String sql, RowBounds rowBounds) {
+        List<ParameterMapping> mappings = new ArrayList<>(boundSql.getParameterMappings());
+        StringBuilder limitedSql = new StringBuilder(sql).append(" limit ?");
+        mappings.add(new ParameterMapping.Builder(configuration, LIMIT_PARAMETER, Integer.class).build());
+        if (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET) {
+            limitedSql.append(" offset ?");
+            mappings.add(new ParameterMapping.Builder(configuration, OFFSET_PARAMETER, Integer.class).build());
+        }
+        BoundSql limited = new BoundSql(configuration, limitedSql.toString(), mappings, boundSql.getParameterObject());
+        // foreach 等动态 SQL 生成的附加参数要带过去
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String name = rootName(mapping.getProperty());
+            if (boundSql.hasAdditionalParameter(name)) {
+                limited.setAdditionalParameter(name, boundSql.getAdditionalParameter(name));
+            }
+        }
+        limited.setAdditionalParameter(LIMIT_PARAMETER, rowBounds.getLimit());
+        limited.setAdditionalParameter(OFFSET_PARAMETER, rowBounds.getOffset());
+        return limited;
+    }
+
+    private static String rootName(String property) {
+        int end = property.length();
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (c == '.' || c == '[') {
+                end = i;
+                break;
+            }
+        }
+        return property.substring(0, end);
+    }
+
+    /**
+     * 去掉末尾的分号、注释和空白
+     */
+    static String stripTerminator(String sql) {
+        String code = code(sql);
+        int start = 0;
+        int end = code.length();
+        while (end > 0 && (Character.isWhitespace(code.charAt(end - 1)) || code.charAt(end - 1) == ';')) {
+            end--;
+        }
+        while (start < end && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        return sql.substring(start, end);
+    }
+
+    /**
+     * 把字符串字面量的内容（保留引号）和注释替换成空格，长度不变，位置与原 SQL 一一对应。
+     * 按 MySQL 的规则：单引号、双引号、反引号，重复引号和反斜杠转义，--、# 和块注释
+     */
+    static String code(String sql) {
+        char[] chars = sql.toCharArray();
+        int length = chars.length;
+        int i = 0;
+        while (i < length) {
+            char c = chars[i];
+            if (c == '\'' || c == '"' || c == '`') {
+                int j = i + 1;
+                while (j < length) {
+                    if (chars[j] == '\\' && c != '`' && j + 1 < length) {
+                        chars[j++] = ' ';
+                        chars[j++] = ' ';
+                    } else if (chars[j] == c && j + 1 < length && chars[j + 1] == c) {
+                        chars[j++] = ' ';
+                        chars[j++] = ' ';
+                    } else if (chars[j] == c) {
+                        break;
+                    } else {
+                        chars[j++] = ' ';
+                    }
+                }
+                i = j + 1;
+            } else if (c == '#' || c == '-' && i + 1 < length && chars[i + 1] == '-') {
+                while (i < length && chars[i] != '\n') {
+                    chars[i++] = ' ';
+                }
+            } else if (c == '/' && i + 1 < length && chars[i + 1] == '*') {
+                int close = sql.indexOf("*/", i + 2);
+                int end = close < 0 ? length : close + 2;
+                while (i < end) {
+                    chars[i++] = ' ';
+                }
+            } else {
+                i++;
+            }
+        }
+        return new String(chars);
+    }
+}
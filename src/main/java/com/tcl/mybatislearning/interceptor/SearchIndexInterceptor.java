@@ -0,0 +1,292 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.search.BlogSearchIndex;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 让 {@link BlogSearchIndex} 跟上 BlogMapper 的 insertBlog、insertBatch、updateBlog、updateColumnsByIds、deleteBlogById，
+ * 以及分片写入用的 insertBlogWithId、insertBatchWithIds。
+ * <p>
+ * 索引只能多给候选、不能漏给，所以新值立即加入：插入的行、修改后的值在执行后就可被同一事务查到；
+ * 旧值和删除的行要等提交后才移除，回滚时撤掉本事务插入的行。BATCH 执行器的自增 id 在刷新后才有，
+ * 插入延后到 flushStatements 或提交时处理。autoCommit 的连接上每条语句执行后立即按提交处理。
+ * BlogMapper 里其他写语句无法判断影响了哪些行，索引直接失效。
+ * <p>
+ * 索引从未构建时（{@link BlogSearchIndex.State#EMPTY}）插件什么也不做。索引随插件实例化，每个 Configuration 各有一个。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:25
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class SearchIndexInterceptor implements Interceptor {
+
+    private static final Log log = LogFactory.getLog(SearchIndexInterceptor.class);
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private final BlogSearchIndex index;
+
+    /**
+     * 执行器 -> 本事务未提交的变更；忘记关闭的会话被回收时自动移除
+     */
+    private final Map<Object, Changes> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public SearchIndexInterceptor() {
+        this(new BlogSearchIndex(BlogSearchIndex.DEFAULT_MAX_POSTINGS));
+    }
+
+    public SearchIndexInterceptor(BlogSearchIndex index) {
+        this.index = index;
+    }
+
+    public BlogSearchIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 构建配置里所有 SearchIndexInterceptor 的索引，在 SqlSessionFactory 创建后调用一次。
+     * 索引是可选的，构建失败只记录日志，查询退回 SQL
+     */
+    public static void buildIndexes(SqlSessionFactory sessionFactory) {
+        for (Interceptor interceptor : sessionFactory.getConfiguration().getInterceptors()) {
+            if (interceptor instanceof SearchIndexInterceptor) {
+                try {
+                    ((SearchIndexInterceptor) interceptor).getIndex().rebuild(sessionFactory);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to build blog search index, selectBlogLike falls back to SQL: " + e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        Executor executor = (Executor) invocation.getTarget();
+        if ("update".equals(method)) {
+            Object result = invocation.proceed();
+            if (index.isTracking()) {
+                record(executor, (MappedStatement) invocation.getArgs()[0], invocation.getArgs()[1]);
+            }
+            return result;
+        }
+        if ("flushStatements".equals(method)) {
+            Object result = invocation.proceed();
+            Changes changes = pending.get(executor);
+            if (changes != null) {
+                changes.resolveInserts();
+                if (isAutoCommit(executor)) {
+                    pending.remove(executor).commit();
+                }
+            }
+            return result;
+        }
+        if ("commit".equals(method)) {
+            Object result = invocation.proceed();
+            Changes changes = pending.remove(executor);
+            if (changes != null) {
+                changes.resolveInserts();
+                changes.commit();
+            }
+            return result;
+        }
+        // rollback 以及未提交就关闭（MyBatis 会回滚）
+        Changes changes = pending.remove(executor);
+        if (changes != null) {
+            changes.rollback();
+        }
+        return invocation.proceed();
+    }
+
+    private void record(Executor executor, MappedStatement ms, Object parameter) throws SQLException {
+        String id = ms.getId();
+        if (!id.startsWith(NAMESPACE) || ms.getSqlCommandType() == SqlCommandType.SELECT) {
+            return;
+        }
+        Changes changes = pending.computeIfAbsent(executor, k -> new Changes());
+        String statement = id.substring(NAMESPACE.length());
+        MetaObject metaObject = ms.getConfiguration().newMetaObject(parameter);
+        switch (statement) {
+            case "insertBlog":
+            case "insertBlogWithId":
+                changes.insert(parameter);
+                break;
+            case "insertBatch":
+            case "insertBatchWithIds":
+                for (Object blog : (Collection<?>) metaObject.getValue("blogs")) {
+                    changes.insert(blog);
+                }
+                break;
+            case "updateBlog":
+                changes.update(metaObject);
+                break;
+            case "updateColumnsByIds":
+                changes.updateColumns(metaObject);
+                break;
+            case "deleteBlogById":
+                changes.delete(parameter);
+                break;
+            default:
+                changes.invalid = true;
+        }
+        changes.resolveInserts();
+        // BATCH 执行器的插入等 flushStatements 拿到 id 后再提交
+        if (changes.unresolved.isEmpty() && isAutoCommit(executor)) {
+            pending.remove(executor).commit();
+        }
+    }
+
+    private static boolean isAutoCommit(Executor executor) throws SQLException {
+        return executor.getTransaction().getConnection().getAutoCommit();
+    }
+
+    /**
+     * 一个事务内对 blog 表的变更
+     */
+    private final class Changes {
+
+        /**
+         * 还没拿到自增 id 的插入
+         */
+        private final List<Blog> unresolved = new ArrayList<>();
+
+        private final List<Long> inserted = new ArrayList<>();
+
+        private final List<Update> updated = new ArrayList<>();
+
+        private final List<Long> deleted = new ArrayList<>();
+
+        private boolean invalid;
+
+        void insert(Object blog) {
+            if (blog instanceof Blog) {
+                unresolved.add((Blog) blog);
+            } else {
+                invalid = true;
+            }
+        }
+
+        void resolveInserts() {
+            for (Blog blog : unresolved) {
+                if (blog.getId() == null) {
+                    // BATCH 执行器刷新之前没有 id
+                    return;
+                }
+            }
+            for (Blog blog : unresolved) {
+                index.addRow(blog.getId(), blog.getTitle(), BlogSearchIndex.authorName(blog.getAuthor()));
+                inserted.add(blog.getId());
+            }
+            unresolved.clear();
+        }
+
+        /**
+         * 与 updateBlog 的 if 条件一致：title、author 为 null 时不修改该列
+         */
+        void update(MetaObject parameter) {
+            Object id = parameter.getValue("id");
+            if (!(id instanceof Number)) {
+                invalid = true;
+                return;
+            }
+            Author author = (Author) parameter.getValue("author");
+            String title = (String) parameter.getValue("title");
+            update(new Update(((Number) id).longValue(), title, title != null, author, author != null));
+        }
+
+        /**
+         * updateColumnsByIds：选中的列即使改成 null 也算修改
+         */
+        void updateColumns(MetaObject parameter) {
+            boolean titleSet = (Boolean) parameter.getValue("title");
+            boolean authorSet = (Boolean) parameter.getValue("author");
+            if (!titleSet && !authorSet) {
+                return;
+            }
+            for (Object row : (Collection<?>) parameter.getValue("blogs")) {
+                Blog blog = (Blog) row;
+                update(new Update(blog.getId(), blog.getTitle(), titleSet, blog.getAuthor(), authorSet));
+            }
+        }
+
+        private void update(Update update) {
+            index.addVersion(update.id, update.title, update.titleSet, update.author, update.authorSet);
+            updated.add(update);
+        }
+
+        void delete(Object id) {
+            if (id instanceof Number) {
+                deleted.add(((Number) id).longValue());
+            } else {
+                invalid = true;
+            }
+        }
+
+        void commit() {
+            if (invalid || !unresolved.isEmpty()) {
+                index.invalidate();
+                return;
+            }
+            for (Update update : updated) {
+                index.retainVersion(update.id, update.title, update.titleSet, update.author, update.authorSet);
+            }
+            for (Long id : deleted) {
+                index.removeRow(id);
+            }
+        }
+
+        void rollback() {
+            for (Long id : inserted) {
+                index.removeRow(id);
+            }
+        }
+    }
+
+    private static final class Update {
+
+        private final long id;
+
+        private final String title;
+
+        private final boolean titleSet;
+
+        private final String author;
+
+        private final boolean authorSet;
+
+        Update(long id, String title, boolean titleSet, Author author, boolean authorSet) {
+            this.id = id;
+            this.title = title;
+            this.titleSet = titleSet;
+            this.author = BlogSearchIndex.authorName(author);
+            this.authorSet = authorSet;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.datasource.ReadWriteRouting;
+import com.tcl.mybatislearning.metrics.SlowQuery;
+import com.tcl.mybatislearning.metrics.SlowQuery.ExplainStatus;
+import com.tcl.mybatislearning.metrics.SlowQueryLog;
+import com.tcl.mybatislearning.metrics.TimedCursor;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录执行时间超过阈值的语句：绑定后的 SQL、参数和耗时写入 {@link SlowQueryLog} 环形缓冲，
+ * 查询语句再在后台线程上另取一条连接执行 EXPLAIN，用来发现 selectBlogLike 这类 like 查询的全表扫描。
+ * <p>
+ * 拦截 StatementHandler 而不是 Executor，计时只覆盖真正发到数据库的执行（含结果集映射），二级缓存命中不会被误记。
+ * 游标查询从打开计到关闭（见 {@link TimedCursor}），逐行读取的时间也算在内。
+ * 阈值以下只有两次 System.nanoTime 和一次比较，参数、SQL 等都在超过阈值后才去取。
+ * EXPLAIN 队列满了直接丢弃，不会反压业务线程；读写分离环境下 EXPLAIN 标记为只读，走从库。
+ * <pre>
+ * &lt;plugin interceptor="com.tcl.mybatislearning.interceptor.SlowQueryInterceptor"&gt;
+ *     &lt;property name="thresholdMillis" value="200"/&gt;
+ *     &lt;property name="namespaces" value="com.tcl.mybatislearning.mapper.BlogMapper"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:00
+ */
+@Intercepts(value = {
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SlowQueryInterceptor implements Interceptor {
+
+    private static final Log log = LogFactory.getLog(SlowQueryInterceptor.class);
+
+    /**
+     * 单个参数值记录的最大长度，避免大字段撑爆缓冲
+     */
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private final SlowQueryLog slowQueryLog;
+
+    private volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private volatile boolean explain = true;
+
+    private volatile String[] namespaces = new String[0];
+
+    private volatile ThreadPoolExecutor explainExecutor = explainExecutor(16);
+
+    public SlowQueryInterceptor() {
+        this(SlowQueryLog.getDefault());
+    }
+
+    public SlowQueryInterceptor(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object intercept(Invocation invocation) throws Throwable {
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            recordIfSlow(handler, System.nanoTime() - start);
+            throw e;
+        }
+        if (result instanceof Cursor) {
+            return new TimedCursor<>((Cursor<Object>) result, start, (nanos, rows, failed) -> recordIfSlow(handler, nanos));
+        }
+        recordIfSlow(handler, System.nanoTime() - start);
+        return result;
+    }
+
+    private void recordIfSlow(StatementHandler handler, long elapsed) {
+        if (elapsed >= thresholdNanos) {
+            record(handler, elapsed);
+        }
+    }
+
+    private void record(StatementHandler handler, long elapsed) {
+        MappedStatement ms;
+        try {
+            ms = StreamingFetchSizeInterceptor.mappedStatement(handler);
+        } catch (RuntimeException e) {
+            log.debug("Cannot resolve MappedStatement of slow statement: " + e);
+            return;
+        }
+        if (!matches(ms.getId())) {
+            return;
+        }
+        BoundSql boundSql = handler.getBoundSql();
+        Object parameterObject = handler.getParameterHandler().getParameterObject();
+        boolean select = ms.getSqlCommandType() == SqlCommandType.SELECT;
+        SlowQuery query = new SlowQuery(slowQueryLog.nextSequence(), ms.getId(), boundSql.getSql().trim(),
+                parameters(ms.getConfiguration(), boundSql, parameterObject),
+                TimeUnit.NANOSECONDS.toMicros(elapsed), System.currentTimeMillis(), Thread.currentThread().getName(),
+                explain && select ? ExplainStatus.PENDING : ExplainStatus.NONE, null, null);
+        slowQueryLog.add(query);
+        if (query.getExplainStatus() == ExplainStatus.PENDING) {
+            try {
+                explainExecutor.execute(() -> explain(query, ms, boundSql, parameterObject));
+            } catch (RejectedExecutionException e) {
+                slowQueryLog.replace(query, query.withPlan(ExplainStatus.SKIPPED, null, null));
+            }
+        }
+    }
+
+    private boolean matches(String id) {
+        String[] prefixes = namespaces;
+        if (prefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (id.startsWith(prefix) && id.length() > prefix.length() && id.charAt(prefix.length()) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 与 DefaultParameterHandler 取值方式一致，按占位符顺序取出参数值
+     */
+    static List<String> parameters(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        if (mappings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(mappings.size());
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(property);
+            }
+            values.add(abbreviate(String.valueOf(value)));
+        }
+        return values;
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() <= MAX_PARAMETER_LENGTH ? value : value.substring(0, MAX_PARAMETER_LENGTH) + "...";
+    }
+
+    private void explain(SlowQuery query, MappedStatement ms, BoundSql boundSql, Object parameterObject) {
+        DataSource dataSource = ms.getConfiguration().getEnvironment().getDataSource();
+        String sql = "EXPLAIN " + RowBoundsLimitInterceptor.stripTerminator(boundSql.getSql());
+        Boolean previous = ReadWriteRouting.markRead();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            new DefaultParameterHandler(ms, parameterObject, boundSql).setParameters(statement);
+            List<Map<String, Object>> plan = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnLabel(i), rs.getObject(i));
+                    }
+                    plan.add(row);
+                }
+            }
+            slowQueryLog.replace(query, query.withPlan(ExplainStatus.DONE, plan, isFullScan(plan)));
+        } catch (SQLException | RuntimeException e) {
+            log.debug("EXPLAIN failed for " + query.getId() + ": " + e);
+            slowQueryLog.replace(query, query.withPlan(ExplainStatus.FAILED, null, null));
+        } finally {
+            ReadWriteRouting.restore(previous);
+        }
+    }
+
+    /**
+     * MySQL 的访问类型 ALL、H2 计划文本里的 tableScan 都表示全表扫描
+     */
+    static boolean isFullScan(List<Map<String, Object>> plan) {
+        for (Map<String, Object> row : plan) {
+            for (Map.Entry<String, Object> column : row.entrySet()) {
+                Object value = column.getValue();
+                if (value == null) {
+                    continue;
+                }
+                if ("type".equalsIgnoreCase(column.getKey()) && "ALL".equalsIgnoreCase(value.toString())) {
+                    return true;
+                }
+                if (value.toString().contains("tableScan")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static ThreadPoolExecutor explainExecutor(int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 空闲时线程退出，不用关心插件的生命周期
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String threshold = properties.getProperty("thresholdMillis");
+        if (threshold != null) {
+            this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(threshold));
+        }
+        String explainValue = properties.getProperty("explain");
+        if (explainValue != null) {
+            this.explain = Boolean.parseBoolean(explainValue);
+        }
+        String namespaceValue = properties.getProperty("namespaces");
+        if (namespaceValue != null) {
+            this.namespaces = namespaceValue.trim().isEmpty() ? new String[0] : namespaceValue.trim().split("\\s*,\\s*");
+        }
+        String queueSize = properties.getProperty("explainQueueSize");
+        if (queueSize != null) {
+            this.explainExecutor = explainExecutor(Integer.parseInt(queueSize));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.tcl.mybatislearning.interceptor;
+
+import com.tcl.mybatislearning.metrics.StatementMetrics;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import com.tcl.mybatislearning.metrics.TimedCursor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 按 MappedStatement id 统计耗时分布、返回/影响行数和错误次数，替代 SelectInterceptor 的控制台打印。
+ * <p>
+ * 热路径上只有两次 System.nanoTime 和几次无锁计数；指标通过 JMX 和 /actuator/statements 端点查看。
+ * 游标查询的耗时从打开算到游标关闭，行数是实际读出的行数，见 {@link TimedCursor}。
+ * <p>
+ * 构造时不注册 MBean：在 mybatis-config.xml 中声明时由 {@link #setProperties} 注册默认统计实例，
+ * 可用 jmx=false 关闭；代码里创建的插件需要时自行调用 {@link StatementMetricsRegistry#registerMBean()}。
+ * BATCH 执行器的 update 只是 addBatch，不计调用；耗时和影响行数在 flushStatements 时按 BatchResult 归到各自语句上，
+ * 一次刷新的一条语句记一次调用。提交前的隐式刷新也在这里显式执行一次以便统计；
+ * BatchExecutor 在查询前自己执行的刷新不经过插件，其中的语句不计入。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:55
+ */
+@Intercepts(value = {
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+
+    private final StatementMetricsRegistry registry;
+
+    public StatementMetricsInterceptor() {
+        this(StatementMetricsRegistry.getDefault());
+    }
+
+    public StatementMetricsInterceptor(StatementMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        if ("flushStatements".equals(method)) {
+            return flush(invocation);
+        }
+        if ("commit".equals(method)) {
+            flush((Executor) invocation.getTarget());
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            registry.metrics(ms.getId()).recordError(System.nanoTime() - start);
+            throw e;
+        }
+        if (result instanceof Cursor) {
+            StatementMetrics metrics = registry.metrics(ms.getId());
+            return new TimedCursor<>((Cursor<?>) result, start, (nanos, rows, failed) -> {
+                if (failed) {
+                    metrics.recordError(nanos);
+                } else {
+                    metrics.recordSuccess(nanos, rows);
+                }
+            });
+        }
+        if (isBatched(result)) {
+            // 只是加入了批，留给刷新时统计，否则一个批会多记一次几乎为0耗时的调用
+            return result;
+        }
+        registry.metrics(ms.getId()).recordSuccess(System.nanoTime() - start, rowCount(result));
+        return result;
+    }
+
+    /**
+     * 目标执行器外面还有 CachingExecutor 和其他插件，按 BatchExecutor 的返回值判断，而不是执行器类型
+     */
+    private static boolean isBatched(Object result) {
+        return result instanceof Integer && (Integer) result == BatchExecutor.BATCH_UPDATE_RETURN_VALUE;
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return 0;
+    }
+
+    private Object flush(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            @SuppressWarnings("unchecked")
+            List<BatchResult> results = (List<BatchResult>) invocation.proceed();
+            record(results, System.nanoTime() - start);
+            return results;
+        } catch (BatchExecutorException e) {
+            registry.metrics(e.getFailingStatementId()).recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private void flush(Executor executor) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            record(executor.flushStatements(), System.nanoTime() - start);
+        } catch (BatchExecutorException e) {
+            registry.metrics(e.getFailingStatementId()).recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * 一次刷新包含多条语句时，耗时平均分摊到各语句
+     */
+    private void record(List<BatchResult> results, long nanos) {
+        if (results.isEmpty()) {
+            return;
+        }
+        long share = nanos / results.size();
+        for (BatchResult result : results) {
+            long rows = 0;
+            for (int count : result.getUpdateCounts()) {
+                if (count > 0) {
+                    rows += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    rows++;
+                }
+            }
+            registry.metrics(result.getMappedStatement().getId()).recordSuccess(share, rows);
+        }
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        if (Boolean.parseBoolean(properties.getProperty("jmx", "true").trim())) {
+            registry.registerMBean();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tcl.mybatislearning.interceptor;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * 为声明了 resultSetType="FORWARD_ONLY" 的查询统一设置fetchSize。
+ * <p>
+ * 映射文件里的fetchSize只能写死，而MySQL驱动只有在fetchSize为Integer.MIN_VALUE时才会逐行流式读取，
+ * 其他驱动（如H2）又不接受负数，所以把这个值放到插件属性里按环境配置；
+ * 配置了databaseId时只在databaseIdProvider识别出同一数据库时生效，其他数据库沿用映射文件里的fetchSize：
+ * <pre>
+ * &lt;plugin interceptor="com.tcl.mybatislearning.interceptor.StreamingFetchSizeInterceptor"&gt;
+ *     &lt;property name="fetchSize" value="-2147483648"/&gt;
+ *     &lt;property name="databaseId" value="mysql"/&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:05
+ */
+@Intercepts(value = {
+        @Signature(
+                type = StatementHandler.class,
+                method = "prepare",
+                args = {
+                        Connection.class,
+                        Integer.class
+                }
+        )
+})
+public class StreamingFetchSizeInterceptor implements Interceptor {
+
+    private int fetchSize = Integer.MIN_VALUE;
+
+    private String databaseId;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Statement statement = (Statement) invocation.proceed();
+        MappedStatement ms = mappedStatement(invocation.getTarget());
+        if (ms.getSqlCommandType() == SqlCommandType.SELECT && ms.getResultSetType() == ResultSetType.FORWARD_ONLY
+                && (databaseId == null || databaseId.equals(ms.getConfiguration().getDatabaseId()))) {
+            statement.setFetchSize(fetchSize);
+        }
+        return statement;
+    }
+
+    static MappedStatement mappedStatement(Object statementHandler) {
+        MetaObject metaObject = SystemMetaObject.forObject(statementHandler);
+        // 被其他插件代理过时，先剥掉代理
+        while (metaObject.hasGetter("h")) {
+            metaObject = SystemMetaObject.forObject(metaObject.getValue("h.target"));
+        }
+        return (MappedStatement) metaObject.getValue("delegate.mappedStatement");
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String value = properties.getProperty("fetchSize");
+        if (value != null) {
+            this.fetchSize = Integer.parseInt(value);
+        }
+        this.databaseId = properties.getProperty("databaseId");
+    }
+}
@@ -0,0 +1,16 @@
+package com.tcl.mybatislearning.load;
+
+import com.tcl.mybatislearning.mapper.BlogMapper;
+
+/**
+ * 压测中的一种请求，每次调用在一个独立的自动提交会话里执行
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:00
+ */
+@FunctionalInterface
+public interface BlogOperation {
+
+    void execute(BlogMapper mapper, LoadContext context);
+}
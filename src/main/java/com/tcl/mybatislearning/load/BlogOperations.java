@@ -0,0 +1,77 @@
+package com.tcl.mybatislearning.load;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内置的压测请求，名称与 {@link BlogMapper} 的方法名一致，可以直接写在 {@link WorkloadMix#parse(String)} 的配比里
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:05
+ */
+public final class BlogOperations {
+
+    /**
+     * selectByIds 每次查询的 id 个数
+     */
+    public static final int BATCH_SIZE = 50;
+
+    public static final BlogOperation SELECT_BY_ID = (mapper, context) -> mapper.selectById(context.randomId());
+
+    public static final BlogOperation SELECT_BY_IDS = (mapper, context) -> {
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.add(context.randomId());
+        }
+        mapper.selectByIds(ids);
+    };
+
+    public static final BlogOperation SELECT_BLOG_LIKE =
+            (mapper, context) -> mapper.selectBlogLike(context.randomTitlePrefix(), null);
+
+    /**
+     * 只改 content，title 保持原样，不影响 selectBlogLike 的命中行数
+     */
+    public static final BlogOperation UPDATE_BLOG = (mapper, context) -> {
+        Blog blog = new Blog();
+        blog.setId(context.randomId());
+        blog.setContent("content-" + context.random().nextLong());
+        mapper.updateBlog(blog);
+    };
+
+    private static final Map<String, BlogOperation> OPERATIONS;
+
+    static {
+        Map<String, BlogOperation> operations = new LinkedHashMap<>();
+        operations.put("selectById", SELECT_BY_ID);
+        operations.put("selectByIds", SELECT_BY_IDS);
+        operations.put("selectBlogLike", SELECT_BLOG_LIKE);
+        operations.put("updateBlog", UPDATE_BLOG);
+        OPERATIONS = Collections.unmodifiableMap(operations);
+    }
+
+    private BlogOperations() {
+    }
+
+    /**
+     * @throws IllegalArgumentException 没有该名称的内置请求
+     */
+    public static BlogOperation forName(String name) {
+        BlogOperation operation = OPERATIONS.get(name);
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown operation: " + name + ", expected one of " + OPERATIONS.keySet());
+        }
+        return operation;
+    }
+
+    public static Map<String, BlogOperation> all() {
+        return OPERATIONS;
+    }
+}
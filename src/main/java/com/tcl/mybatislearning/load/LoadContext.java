@@ -0,0 +1,51 @@
+package com.tcl.mybatislearning.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 压测数据集的范围，供 {@link BlogOperation} 挑选要访问的行
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:00
+ */
+public final class LoadContext {
+
+    private final long minId;
+
+    private final long maxId;
+
+    LoadContext(long minId, long maxId) {
+        if (minId > maxId) {
+            throw new IllegalArgumentException("minId must not be greater than maxId");
+        }
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * 均匀分布在 [minId, maxId] 内的 id
+     */
+    public long randomId() {
+        return random().nextLong(minId, maxId + 1);
+    }
+
+    public ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+
+    /**
+     * 形如 {@code title-123%} 的前缀，与 {@code title-<序号>} 格式的数据配合时约命中 1/1000 的行
+     */
+    public String randomTitlePrefix() {
+        return "title-" + random().nextInt(100, 1000) + "%";
+    }
+}
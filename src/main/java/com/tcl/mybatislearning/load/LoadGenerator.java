@@ -0,0 +1,362 @@
+package com.tcl.mybatislearning.load;
+
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.LatencyHistogram;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 多线程混合负载压测：按 {@link WorkloadMix} 的配比对 {@link BlogMapper} 发请求，统计每种请求的吞吐量和尾延迟。
+ * <p>
+ * 两种模式：
+ * <ul>
+ *     <li>开环（rate &gt; 0）：请求按固定速率排好计划发出时刻，均分到各线程。延迟从计划时刻算起，
+ *     前一个请求慢导致后面的请求晚发，晚的这段也计入延迟，不会出现协调遗漏（coordinated omission）。
+ *     测量结束时仍未发出的请求按已等待的时长计入，记为 late</li>
+ *     <li>闭环（rate = 0）：每个线程做完一个请求立即发下一个，测最大吞吐。以预热阶段的平均耗时作为期望间隔，
+ *     用 {@link LatencyHistogram#recordWithExpectedInterval(long, long)} 补录被慢请求挡住的样本；没有预热时不修正</li>
+ * </ul>
+ * 每个请求在独立的自动提交会话里执行，包含从连接池取连接的耗时，用来比较连接池及其配置。
+ * 请求种类在排定计划时刻时就抽好，晚发或没发出的请求仍计在当时抽中的种类上。
+ * 失败的请求不计入 response/service 分布（快速失败会拉低分位数），单独记录从计划时刻算起的 error 分布。
+ * 预热阶段的请求照常执行但不计入报告。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:20
+ */
+public class LoadGenerator {
+
+    private static final Log log = LogFactory.getLog(LoadGenerator.class);
+
+    public static final String DEFAULT_MIX = "selectById=95,updateBlog=5";
+
+    /**
+     * 各线程在 run 之后统一从这个时刻开始，留出创建线程的时间
+     */
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final SqlSessionFactory sessionFactory;
+
+    private WorkloadMix mix = WorkloadMix.parse(DEFAULT_MIX);
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private double rate;
+
+    private long warmupMillis = 5_000;
+
+    private long durationMillis = 30_000;
+
+    private Long minId;
+
+    private Long maxId;
+
+    public LoadGenerator(SqlSessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public LoadGenerator mix(WorkloadMix mix) {
+        if (mix.totalWeight() == 0) {
+            throw new IllegalArgumentException("Workload mix has no positive weight: " + mix);
+        }
+        this.mix = mix;
+        return this;
+    }
+
+    public LoadGenerator mix(String spec) {
+        return mix(WorkloadMix.parse(spec));
+    }
+
+    public LoadGenerator threads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * 所有线程合计的请求速率（次/秒），0 表示闭环
+     */
+    public LoadGenerator rate(double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("rate must not be negative");
+        }
+        this.rate = rate;
+        return this;
+    }
+
+    public LoadGenerator warmup(long time, TimeUnit unit) {
+        if (time < 0) {
+            throw new IllegalArgumentException("warmup must not be negative");
+        }
+        this.warmupMillis = unit.toMillis(time);
+        return this;
+    }
+
+    public LoadGenerator duration(long time, TimeUnit unit) {
+        if (time <= 0) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+        this.durationMillis = unit.toMillis(time);
+        return this;
+    }
+
+    /**
+     * 请求访问的 id 范围，不指定时取 blog 表当前的最小和最大 id
+     */
+    public LoadGenerator ids(long minId, long maxId) {
+        this.minId = minId;
+        this.maxId = maxId;
+        return this;
+    }
+
+    public LoadReport run() {
+        try {
+            return new Run(context()).run();
+        } catch (SQLException e) {
+            throw ExceptionFactory.wrapException("Error reading the id range of blog.", e);
+        } finally {
+            ErrorContext.instance().reset();
+        }
+    }
+
+    private LoadContext context() throws SQLException {
+        if (minId != null) {
+            return new LoadContext(minId, maxId);
+        }
+        try (SqlSession session = sessionFactory.openSession(true);
+             Statement statement = session.getConnection().createStatement();
+             ResultSet rs = statement.executeQuery("select min(id), max(id) from blog")) {
+            rs.next();
+            long min = rs.getLong(1);
+            if (rs.wasNull()) {
+                throw new IllegalStateException("Table blog is empty, seed it before running the load");
+            }
+            return new LoadContext(min, rs.getLong(2));
+        }
+    }
+
+    /**
+     * 一次压测的状态
+     */
+    private final class Run {
+
+        private final LoadContext context;
+
+        private final int operations = mix.size();
+
+        private final boolean openLoop = rate > 0;
+
+        /**
+         * 开环时每个线程相邻两次请求的计划间隔
+         */
+        private final long intervalNanos = openLoop ? (long) (threads * TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+
+        private final long start = System.nanoTime() + START_DELAY_NANOS;
+
+        private final long measureStart = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+
+        private final long end = measureStart + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+        private final LatencyHistogram[] responseTimes = histograms();
+
+        private final LatencyHistogram[] serviceTimes = histograms();
+
+        private final LatencyHistogram[] errorTimes = histograms();
+
+        /**
+         * 预热阶段所有请求的耗时，闭环时用来估计期望间隔
+         */
+        private final LatencyHistogram warmupTimes = new LatencyHistogram();
+
+        private final AtomicLong expectedInterval = new AtomicLong(-1);
+
+        private final LongAdder[] completed = adders();
+
+        private final LongAdder[] errors = adders();
+
+        private final LongAdder[] late = adders();
+
+        private final AtomicInteger loggedErrors = new AtomicInteger();
+
+        Run(LoadContext context) {
+            this.context = context;
+        }
+
+        private LatencyHistogram[] histograms() {
+            LatencyHistogram[] histograms = new LatencyHistogram[mix.size()];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+            return histograms;
+        }
+
+        private LongAdder[] adders() {
+            LongAdder[] adders = new LongAdder[mix.size()];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+
+        LoadReport run() {
+            AtomicInteger sequence = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "blog-load-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            List<Future<?>> workers = new ArrayList<>(threads);
+            try {
+                for (int i = 0; i < threads; i++) {
+                    int index = i;
+                    workers.add(pool.submit(() -> work(index)));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ExceptionFactory.wrapException("Interrupted while generating load.", e);
+            } catch (ExecutionException e) {
+                throw ExceptionFactory.wrapException("Error generating load.",
+                        e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            } finally {
+                pool.shutdownNow();
+            }
+            return report();
+        }
+
+        private void work(int index) {
+            Random random = ThreadLocalRandom.current();
+            // 各线程的计划时刻错开，合起来是均匀的 rate
+            long intended = start + (openLoop ? intervalNanos * index / threads : 0);
+            int operation = mix.pick(random);
+            while (!Thread.currentThread().isInterrupted()) {
+                long now = System.nanoTime();
+                if (now >= end || intended >= end) {
+                    if (openLoop) {
+                        recordLate(random, operation, intended, now);
+                    }
+                    return;
+                }
+                if (intended > now) {
+                    LockSupport.parkNanos(intended - now);
+                    continue;
+                }
+                long begin = System.nanoTime();
+                boolean succeeded = execute(operation);
+                long finish = System.nanoTime();
+                record(operation, succeeded, openLoop ? intended : begin, begin, finish);
+                intended = openLoop ? intended + intervalNanos : finish;
+                operation = mix.pick(random);
+            }
+        }
+
+        private boolean execute(int operation) {
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                mix.operation(operation).execute(session.getMapper(BlogMapper.class), context);
+                return true;
+            } catch (RuntimeException e) {
+                if (loggedErrors.getAndIncrement() < 10) {
+                    log.warn("Load operation " + mix.getNames().get(operation) + " failed: " + e);
+                }
+                return false;
+            }
+        }
+
+        private void record(int operation, boolean succeeded, long scheduled, long begin, long finish) {
+            if (scheduled < measureStart) {
+                if (succeeded) {
+                    warmupTimes.record(finish - begin);
+                }
+                return;
+            }
+            if (!succeeded) {
+                errors[operation].increment();
+                errorTimes[operation].record(finish - scheduled);
+                return;
+            }
+            completed[operation].increment();
+            serviceTimes[operation].record(finish - begin);
+            if (openLoop) {
+                responseTimes[operation].record(finish - scheduled);
+            } else {
+                responseTimes[operation].recordWithExpectedInterval(finish - begin, expectedInterval());
+            }
+        }
+
+        /**
+         * 测量结束时落后于计划的请求不再发出，按已经等待的时长计入分布；
+         * 第一个是已经排定的 operation，之后的按计划时刻依次抽取
+         */
+        private void recordLate(Random random, int operation, long intended, long now) {
+            for (long scheduled = intended; scheduled < end && scheduled < now; scheduled += intervalNanos) {
+                if (scheduled > intended) {
+                    operation = mix.pick(random);
+                }
+                if (scheduled >= measureStart) {
+                    late[operation].increment();
+                    responseTimes[operation].record(now - scheduled);
+                }
+            }
+        }
+
+        private long expectedInterval() {
+            long interval = expectedInterval.get();
+            if (interval < 0) {
+                // 第一个进入测量阶段的请求负责计算，其余线程此时基本都已结束预热
+                expectedInterval.compareAndSet(-1, (long) warmupTimes.getMean());
+                interval = expectedInterval.get();
+            }
+            return interval;
+        }
+
+        private LoadReport report() {
+            List<OperationReport> reports = new ArrayList<>(operations);
+            for (int i = 0; i < operations; i++) {
+                LatencyHistogram response = responseTimes[i];
+                LatencyHistogram service = serviceTimes[i];
+                LatencyHistogram error = errorTimes[i];
+                long count = completed[i].sum();
+                reports.add(new OperationReport(mix.getNames().get(i), count, errors[i].sum(), late[i].sum(),
+                        count * 1000.0 / durationMillis,
+                        micros(response.getValueAtQuantile(0.5)), micros(response.getValueAtQuantile(0.99)),
+                        micros(response.getValueAtQuantile(0.999)), micros(response.getMax()),
+                        micros(service.getValueAtQuantile(0.5)), micros(service.getValueAtQuantile(0.99)),
+                        micros(service.getValueAtQuantile(0.999)),
+                        micros(error.getValueAtQuantile(0.5)), micros(error.getValueAtQuantile(0.99))));
+            }
+            boolean corrected = openLoop || warmupTimes.getCount() > 0;
+            return new LoadReport(threads, rate, durationMillis, corrected, Collections.unmodifiableList(reports));
+        }
+
+        private double micros(long nanos) {
+            return nanos / 1000.0;
+        }
+    }
+}
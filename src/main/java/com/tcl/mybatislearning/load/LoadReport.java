@@ -0,0 +1,75 @@
+package com.tcl.mybatislearning.load;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 一次压测的结果
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:10
+ */
+@Value
+public class LoadReport {
+
+    int threads;
+
+    /**
+     * 计划的总请求速率（次/秒），0 表示闭环
+     */
+    double targetRate;
+
+    long durationMillis;
+
+    /**
+     * response 分位数是否修正了协调遗漏：开环总是修正，闭环需要预热阶段估计期望间隔
+     */
+    boolean coordinatedOmissionCorrected;
+
+    List<OperationReport> operations;
+
+    public OperationReport getOperation(String name) {
+        for (OperationReport operation : operations) {
+            if (operation.getName().equals(name)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    public long getCompleted() {
+        long completed = 0;
+        for (OperationReport operation : operations) {
+            completed += operation.getCompleted();
+        }
+        return completed;
+    }
+
+    public double getThroughput() {
+        return durationMillis == 0 ? 0 : getCompleted() * 1000.0 / durationMillis;
+    }
+
+    /**
+     * 按请求一行的文本表格
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "threads=%d, rate=%s, duration=%dms, throughput=%.1f/s, CO corrected=%s%n",
+                threads, targetRate > 0 ? String.format(Locale.ROOT, "%.0f/s", targetRate) : "closed-loop",
+                durationMillis, getThroughput(), coordinatedOmissionCorrected));
+        builder.append(String.format(Locale.ROOT, "%-16s %10s %7s %7s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "completed", "errors", "late", "ops/s", "p50(us)", "p99(us)", "p999(us)", "max(us)",
+                "svc p50", "svc p99", "err p99"));
+        for (OperationReport operation : operations) {
+            builder.append(String.format(Locale.ROOT, "%-16s %10d %7d %7d %10.1f %10.0f %10.0f %10.0f %10.0f %10.0f %10.0f %10.0f%n",
+                    operation.getName(), operation.getCompleted(), operation.getErrors(), operation.getLate(),
+                    operation.getThroughput(), operation.getResponseP50Micros(), operation.getResponseP99Micros(),
+                    operation.getResponseP999Micros(), operation.getResponseMaxMicros(),
+                    operation.getServiceP50Micros(), operation.getServiceP99Micros(), operation.getErrorP99Micros()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.tcl.mybatislearning.load;
+
+import lombok.Value;
+
+/**
+ * 一种请求在测量阶段的统计，耗时单位为微秒。
+ * <p>
+ * response 是从计划发出时刻到完成的耗时，包含排队等待，已修正协调遗漏；
+ * service 是从实际发出到完成的耗时，即数据库和连接池本身的耗时。二者差距大说明压测端已经排队。
+ * 二者只统计成功的请求；失败请求从计划时刻到失败的耗时单独记在 error 里，没有失败时为 0。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:10
+ */
+@Value
+public class OperationReport {
+
+    String name;
+
+    long completed;
+
+    long errors;
+
+    /**
+     * 测量结束时仍未发出的请求数，它们以结束时刻计入 response 分布（下界）
+     */
+    long late;
+
+    double throughput;
+
+    double responseP50Micros;
+
+    double responseP99Micros;
+
+    double responseP999Micros;
+
+    double responseMaxMicros;
+
+    double serviceP50Micros;
+
+    double serviceP99Micros;
+
+    double serviceP999Micros;
+
+    double errorP50Micros;
+
+    double errorP99Micros;
+}
@@ -0,0 +1,130 @@
+package com.tcl.mybatislearning.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按权重混合的请求配比，如 {@code selectById=95,updateBlog=5}
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:05
+ */
+public class WorkloadMix {
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<BlogOperation> operations = new ArrayList<>();
+
+    /**
+     * 累计权重，pick 时二分查找
+     */
+    private long[] cumulativeWeights = new long[0];
+
+    /**
+     * 解析 {@code 名称=权重} 的逗号分隔列表，名称见 {@link BlogOperations}
+     */
+    public static WorkloadMix parse(String spec) {
+        WorkloadMix mix = new WorkloadMix();
+        for (String part : spec.split(",")) {
+            String entry = part.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected name=weight but was '" + entry + "'");
+            }
+            String name = entry.substring(0, eq).trim();
+            int weight;
+            try {
+                weight = Integer.parseInt(entry.substring(eq + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight in '" + entry + "'", e);
+            }
+            mix.add(name, weight, BlogOperations.forName(name));
+        }
+        if (mix.names.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix is empty: '" + spec + "'");
+        }
+        if (mix.totalWeight() == 0) {
+            throw new IllegalArgumentException("Workload mix has no positive weight: '" + spec + "'");
+        }
+        return mix;
+    }
+
+    /**
+     * 追加一种请求；weight 为 0 的请求不会被选中，但仍出现在报告里
+     */
+    public WorkloadMix add(String name, int weight, BlogOperation operation) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Duplicate operation: " + name);
+        }
+        long total = cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+        long[] weights = new long[cumulativeWeights.length + 1];
+        System.arraycopy(cumulativeWeights, 0, weights, 0, cumulativeWeights.length);
+        weights[weights.length - 1] = total + weight;
+        names.add(name);
+        operations.add(operation);
+        cumulativeWeights = weights;
+        return this;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    BlogOperation operation(int index) {
+        return operations.get(index);
+    }
+
+    /**
+     * @return 按权重随机选中的请求下标
+     * @throws IllegalStateException 总权重为 0，没有可选的请求
+     */
+    int pick(Random random) {
+        long total = totalWeight();
+        if (total == 0) {
+            throw new IllegalStateException("Workload mix has no positive weight: " + this);
+        }
+        long point = (long) (random.nextDouble() * total);
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] > point) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    long totalWeight() {
+        return cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        long previous = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(names.get(i)).append('=').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return builder.toString();
+    }
+}
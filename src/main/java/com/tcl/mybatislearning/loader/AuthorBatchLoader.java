@@ -0,0 +1,144 @@
+package com.tcl.mybatislearning.loader;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 为一页 Blog 批量加载 author 表里的作者，替代 MyBatis 嵌套查询（association select）每行一次的 N+1。
+ * <p>
+ * 结果映射只给出 Author 的 id 和冗余的名字（见 BlogMapper.xml 的 blogAuthorMap），这里收集整页去重后的作者 id，
+ * 按 {@link BlogIdsLoader#DEFAULT_BUCKETS} 补齐后用 selectByIds 一次 in 查询取回（超过最大档位才拆成多次），
+ * 同一作者的各行共享同一个 Author 实例。查询在当前执行器上执行，与列表查询同一个连接和事务。
+ * <p>
+ * 传入的 identityMap 记录已经加载过的作者，命中的 id 不再查询；author 表里找不到的 id 保留结果映射给出的 Author。
+ * <p>
+ * 写入方向由 {@link #resolve} 完成：写 blog 之前把只有名字的作者补进 author 表并换成带 id 的 Author，
+ * 同样按档位补齐、一块一次插入加一次 in 查询，写语句只绑定 author_id，不再带按名字查询的子查询。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:40
+ */
+public final class AuthorBatchLoader {
+
+    public static final String AUTHORS_STATEMENT = "com.tcl.mybatislearning.mapper.AuthorMapper.selectByIds";
+
+    public static final String AUTHORS_BY_NAME_STATEMENT = "com.tcl.mybatislearning.mapper.AuthorMapper.selectByNames";
+
+    public static final String INSERT_NAMES_STATEMENT = "com.tcl.mybatislearning.mapper.AuthorMapper.insertNames";
+
+    /**
+     * 补齐并取回一块作者名对应的作者，见 AuthorMapper 的 insertNames 和 selectByNames
+     */
+    public interface AuthorLookup<E extends Exception> {
+
+        List<Author> lookup(List<String> names) throws E;
+    }
+
+    private AuthorBatchLoader() {
+    }
+
+    /**
+     * @param identityMap 作者 id -> 已加载的作者，加载到的作者会放进去
+     * @return 执行的查询次数
+     */
+    public static int load(Executor executor, MappedStatement authors, Collection<?> rows,
+                           Map<Long, Author> identityMap) throws SQLException {
+        Map<Long, List<Blog>> pending = new LinkedHashMap<>();
+        for (Object row : rows) {
+            if (!(row instanceof Blog)) {
+                continue;
+            }
+            Blog blog = (Blog) row;
+            Author author = blog.getAuthor();
+            if (author == null || author.getId() == null) {
+                continue;
+            }
+            Author known = identityMap.get(author.getId());
+            if (known != null) {
+                if (known != author) {
+                    blog.setAuthor(known);
+                }
+            } else {
+                pending.computeIfAbsent(author.getId(), id -> new ArrayList<>()).add(blog);
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int queries = 0;
+        for (List<Long> chunk : BlogIdsLoader.chunks(pending.keySet(), BlogIdsLoader.DEFAULT_BUCKETS)) {
+            List<Author> loaded = executor.query(authors, Collections.singletonMap("ids", chunk), RowBounds.DEFAULT,
+                    Executor.NO_RESULT_HANDLER);
+            queries++;
+            for (Author author : loaded) {
+                identityMap.put(author.getId(), author);
+                for (Blog blog : pending.get(author.getId())) {
+                    blog.setAuthor(author);
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * 把 rows 中只有名字、没有 id 的作者换成 author 表里的作者，表里还没有的名字先插入
+     *
+     * @return 调用 lookup 的次数
+     */
+    public static <E extends Exception> int resolve(Collection<?> rows, AuthorLookup<E> lookup) throws E {
+        // 按名字排序，并发写入时各事务以相同顺序锁 author 的唯一键
+        Map<String, List<Blog>> pending = new TreeMap<>();
+        for (Object row : rows) {
+            if (!(row instanceof Blog)) {
+                continue;
+            }
+            Blog blog = (Blog) row;
+            Author author = blog.getAuthor();
+            if (author == null || author.getId() != null || author.getName() == null) {
+                continue;
+            }
+            pending.computeIfAbsent(author.getName(), name -> new ArrayList<>()).add(blog);
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int lookups = 0;
+        for (List<String> chunk : BlogIdsLoader.chunks(pending.keySet(), BlogIdsLoader.DEFAULT_BUCKETS)) {
+            List<Author> found = lookup.lookup(chunk);
+            lookups++;
+            for (Author author : found) {
+                for (Blog blog : pending.getOrDefault(author.getName(), Collections.emptyList())) {
+                    blog.setAuthor(author);
+                }
+            }
+        }
+        return lookups;
+    }
+
+    /**
+     * 在当前执行器上执行 {@link #resolve(Collection, AuthorLookup)}，与随后的写语句同一个连接和事务
+     */
+    public static int resolve(Executor executor, Configuration configuration, Collection<?> rows) throws SQLException {
+        MappedStatement insert = configuration.getMappedStatement(INSERT_NAMES_STATEMENT);
+        MappedStatement select = configuration.getMappedStatement(AUTHORS_BY_NAME_STATEMENT);
+        return resolve(rows, names -> {
+            Map<String, Object> parameter = Collections.singletonMap("names", names);
+            executor.update(insert, parameter);
+            return executor.query(select, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.tcl.mybatislearning.loader;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.entity.LazyContentBlog;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为 {@link LazyContentBlog} 批量加载 content。
+ * <p>
+ * 一次摘要查询的结果共用一个加载器，任意一行调用 getContent() 时，同批所有尚未加载的行一起用
+ * selectContentByIds 取回，N 行列表最多 1 次（按 {@link BlogIdsLoader#DEFAULT_BUCKETS} 拆块后每块 1 次）回表，
+ * 而不是每行一次。与 MyBatis 自带的延迟加载（ResultLoader）一样，原会话未关闭时在它的执行器上查询，
+ * 处于同一事务、能看到未提交的修改；原会话关闭后改用新的自动提交会话，仍可加载。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:35
+ */
+public class BlogContentLoader implements Runnable {
+
+    public static final String CONTENT_STATEMENT = "com.tcl.mybatislearning.mapper.BlogMapper.selectContentByIds";
+
+    private final Configuration configuration;
+
+    /**
+     * 执行摘要查询的执行器，加载完成后释放
+     */
+    private Executor executor;
+
+    private List<LazyContentBlog> pending;
+
+    private BlogContentLoader(Configuration configuration, Executor executor, List<LazyContentBlog> pending) {
+        this.configuration = configuration;
+        this.executor = executor;
+        this.pending = pending;
+    }
+
+    /**
+     * 给结果中尚未绑定加载器的 LazyContentBlog 绑定同一个加载器
+     *
+     * @param executor 执行摘要查询的执行器，content 优先在它上面加载
+     * @return 绑定的行数
+     */
+    public static int bind(Configuration configuration, Executor executor, Collection<?> rows) {
+        List<LazyContentBlog> unbound = new ArrayList<>();
+        for (Object row : rows) {
+            if (row instanceof LazyContentBlog) {
+                LazyContentBlog blog = (LazyContentBlog) row;
+                if (!blog.isContentLoaded() && blog.getContentLoader() == null) {
+                    unbound.add(blog);
+                }
+            }
+        }
+        if (unbound.isEmpty()) {
+            return 0;
+        }
+        BlogContentLoader loader = new BlogContentLoader(configuration, executor, unbound);
+        for (LazyContentBlog blog : unbound) {
+            blog.setContentLoader(loader);
+        }
+        return unbound.size();
+    }
+
+    /**
+     * 预先加载一组 Blog 的 content，每个加载器一次批量查询；普通 Blog 和已加载的行跳过
+     */
+    public static void loadContents(Collection<? extends Blog> blogs) {
+        Set<Runnable> loaders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Blog blog : blogs) {
+            if (blog instanceof LazyContentBlog && !((LazyContentBlog) blog).isContentLoaded()) {
+                Runnable loader = ((LazyContentBlog) blog).getContentLoader();
+                if (loader != null) {
+                    loaders.add(loader);
+                }
+            }
+        }
+        loaders.forEach(Runnable::run);
+    }
+
+    @Override
+    public synchronized void run() {
+        if (pending == null) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (LazyContentBlog blog : pending) {
+            if (!blog.isContentLoaded()) {
+                ids.add(blog.getId());
+            }
+        }
+        Map<Long, String> contents = new HashMap<>(ids.size() * 4 / 3 + 1);
+        List<List<Long>> chunks = BlogIdsLoader.chunks(ids, BlogIdsLoader.DEFAULT_BUCKETS);
+        if (executor != null && !executor.isClosed()) {
+            MappedStatement ms = configuration.getMappedStatement(CONTENT_STATEMENT);
+            for (List<Long> chunk : chunks) {
+                try {
+                    List<Blog> rows = executor.query(ms, Collections.singletonMap("ids", chunk), RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+                    collect(rows, contents);
+                } catch (SQLException e) {
+                    throw ExceptionFactory.wrapException("Error loading blog content.  Cause: " + e, e);
+                }
+            }
+        } else {
+            try (SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(true)) {
+                for (List<Long> chunk : chunks) {
+                    collect(session.selectList(CONTENT_STATEMENT, Collections.singletonMap("ids", chunk)), contents);
+                }
+            }
+        }
+        for (LazyContentBlog blog : pending) {
+            // 查询期间已被显式赋值的行不覆盖；已删除的行 content 为 null
+            if (!blog.isContentLoaded()) {
+                blog.applyLoadedContent(contents.get(blog.getId()));
+            }
+        }
+        // 加载完成后不再持有整批结果和原会话的引用
+        pending = null;
+        executor = null;
+    }
+
+    private static void collect(List<Blog> rows, Map<Long, String> contents) {
+        for (Blog row : rows) {
+            contents.put(row.getId(), row.getContent());
+        }
+    }
+}
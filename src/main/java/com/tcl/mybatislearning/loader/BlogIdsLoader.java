@@ -0,0 +1,214 @@
+package com.tcl.mybatislearning.loader;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 大批量按 id 查询 Blog，替代直接调用 selectByIds 传入任意长度的 id 列表。
+ * <p>
+ * id 先去重，再按块拆分，每块补齐到固定的几档大小（重复最后一个 id 填充），
+ * 这样 {@code in (...)} 只会生成 {@link #DEFAULT_BUCKETS} 这几种 SQL 文本，
+ * 能留在驱动的预编译语句缓存里（hikariCP.properties 的 prepStmtCacheSize=250）。
+ * selectByIds 的 foreach 每个 id 约占 26 个字符（未压缩空白），512 一档实测约 13k 字符，
+ * 因此 prepStmtCacheSqlLimit 配成 {@link #MAX_SQL_LENGTH}，否则大档位不会被驱动缓存。
+ * <p>
+ * 多个块并行执行，每块一个 SqlSession，即各自从连接池借一个连接；并行度不应超过连接池大小。
+ * 结果按调用方传入的 id 顺序返回，不存在的 id 直接跳过。整体超过 timeout 时取消未完成的块并抛出异常。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 17:20
+ */
+public class BlogIdsLoader implements Closeable {
+
+    public static final int[] DEFAULT_BUCKETS = {1, 4, 16, 64, 256, 512};
+
+    /**
+     * 与 hikariCP.properties、readwrite.properties 中的 prepStmtCacheSqlLimit 保持一致
+     */
+    public static final int MAX_SQL_LENGTH = 16384;
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private final SqlSessionFactory sessionFactory;
+
+    private final ExecutorService executor;
+
+    private final boolean ownsExecutor;
+
+    private final int[] buckets;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param parallelism 同时执行的块数，自建守护线程池
+     */
+    public BlogIdsLoader(SqlSessionFactory sessionFactory, int parallelism) {
+        this(sessionFactory, Executors.newFixedThreadPool(parallelism, daemonThreads()), true,
+                DEFAULT_BUCKETS, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param executor 由调用方管理生命周期，close() 不会关闭它
+     * @param buckets  升序的块大小档位，最后一档即最大块大小
+     */
+    public BlogIdsLoader(SqlSessionFactory sessionFactory, ExecutorService executor, int[] buckets, long timeoutMillis) {
+        this(sessionFactory, executor, false, buckets, timeoutMillis);
+    }
+
+    private BlogIdsLoader(SqlSessionFactory sessionFactory, ExecutorService executor, boolean ownsExecutor,
+                          int[] buckets, long timeoutMillis) {
+        if (buckets.length == 0 || buckets[0] <= 0) {
+            throw new IllegalArgumentException("buckets must be positive: " + Arrays.toString(buckets));
+        }
+        for (int i = 1; i < buckets.length; i++) {
+            if (buckets[i] <= buckets[i - 1]) {
+                throw new IllegalArgumentException("buckets must be ascending: " + Arrays.toString(buckets));
+            }
+        }
+        this.sessionFactory = sessionFactory;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.buckets = buckets.clone();
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return 按 ids 中首次出现的顺序排列的 Blog，重复 id 只返回一次
+     */
+    public List<Blog> load(Collection<Long> ids) {
+        Map<Long, Blog> found = loadAsMap(ids);
+        List<Blog> blogs = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Blog blog = found.get(id);
+            if (blog != null) {
+                blogs.add(blog);
+            }
+        }
+        return blogs;
+    }
+
+    public Map<Long, Blog> loadAsMap(Collection<Long> ids) {
+        List<List<Long>> chunks = chunks(ids);
+        Map<Long, Blog> found = new HashMap<>(ids.size() * 4 / 3 + 1);
+        if (chunks.size() == 1) {
+            collect(found, query(chunks.get(0)));
+            return found;
+        }
+        List<Future<List<Blog>>> futures = new ArrayList<>(chunks.size());
+        try {
+            for (List<Long> chunk : chunks) {
+                futures.add(executor.submit(() -> query(chunk)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (Future<List<Blog>> future : futures) {
+                collect(found, future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+            return found;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionFactory.wrapException("Interrupted while loading blogs by ids.", e);
+        } catch (ExecutionException e) {
+            throw ExceptionFactory.wrapException("Error loading blogs by ids.", (Exception) unwrap(e));
+        } catch (TimeoutException e) {
+            throw ExceptionFactory.wrapException("Loading " + ids.size() + " blogs by ids timed out after "
+                    + timeoutMillis + " ms.", e);
+        } finally {
+            for (Future<List<Blog>> future : futures) {
+                future.cancel(true);
+            }
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 去重后按最大档位拆块，每块补齐到不小于块大小的最小档位
+     */
+    List<List<Long>> chunks(Collection<Long> ids) {
+        return chunks(ids, buckets);
+    }
+
+    /**
+     * 按给定档位拆块并补齐，供其他按 id（或作者名等）列表查询的地方复用同样稳定的 in 语句
+     */
+    public static <T> List<List<T>> chunks(Collection<T> ids, int[] buckets) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        int maxChunk = buckets[buckets.length - 1];
+        List<List<T>> chunks = new ArrayList<>(distinct.size() / maxChunk + 1);
+        for (int from = 0; from < distinct.size(); from += maxChunk) {
+            int to = Math.min(distinct.size(), from + maxChunk);
+            List<T> chunk = new ArrayList<>(distinct.subList(from, to));
+            int padded = bucketFor(buckets, chunk.size());
+            T last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < padded) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static int bucketFor(int[] buckets, int size) {
+        for (int bucket : buckets) {
+            if (bucket >= size) {
+                return bucket;
+            }
+        }
+        return buckets[buckets.length - 1];
+    }
+
+    private List<Blog> query(List<Long> chunk) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectByIds(chunk);
+        }
+    }
+
+    private static void collect(Map<Long, Blog> found, List<Blog> blogs) {
+        for (Blog blog : blogs) {
+            found.put(blog.getId(), blog);
+        }
+    }
+
+    private static Throwable unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof Exception ? cause : e;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "blog-ids-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}
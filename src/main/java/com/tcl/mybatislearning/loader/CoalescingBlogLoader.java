@@ -0,0 +1,205 @@
+package com.tcl.mybatislearning.loader;
+
+import com.tcl.mybatislearning.entity.Blog;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataLoader 式的请求合并：把短时间内并发的 selectById 合成一次 selectByIds。
+ * <p>
+ * 一批的第一个请求启动 window 计时，计时到期或凑满 maxBatchSize 时整批发出；
+ * 同一批内相同 id 的请求共享同一个 future。查询交给 {@link BlogIdsLoader}，
+ * 批大小不超过其最大档位时只发一条补齐过的 in 语句，SQL 文本同样稳定。
+ * <p>
+ * 代价是每个请求最多多等一个 window，适合高 QPS 下的热点读；低流量时每批往往只有一个 id。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:10
+ */
+public class CoalescingBlogLoader implements Closeable {
+
+    public static final long DEFAULT_WINDOW_MICROS = 1000;
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final BlogIdsLoader idsLoader;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService workers;
+
+    private final long windowMicros;
+
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+
+    private Map<Long, CompletableFuture<Blog>> batch = new HashMap<>();
+
+    private ScheduledFuture<?> timer;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    public CoalescingBlogLoader(SqlSessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_WINDOW_MICROS, DEFAULT_MAX_BATCH_SIZE, 4);
+    }
+
+    /**
+     * @param windowMicros 一批最长等待时间
+     * @param maxBatchSize 一批最多的不同 id 数
+     * @param parallelism  同时执行的批数，即最多占用的连接数
+     */
+    public CoalescingBlogLoader(SqlSessionFactory sessionFactory, long windowMicros, int maxBatchSize, int parallelism) {
+        if (windowMicros < 0 || maxBatchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("windowMicros must be non-negative, maxBatchSize and parallelism positive");
+        }
+        // 一批只能是一个块：多块时 BlogIdsLoader 会在 worker 线程里再向 workers 提交并等待
+        int maxChunk = BlogIdsLoader.DEFAULT_BUCKETS[BlogIdsLoader.DEFAULT_BUCKETS.length - 1];
+        if (maxBatchSize > maxChunk) {
+            throw new IllegalArgumentException("maxBatchSize must not exceed " + maxChunk + ": " + maxBatchSize);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("coalescing-blog-loader-timer-"));
+        this.workers = Executors.newFixedThreadPool(parallelism, daemonThreads("coalescing-blog-loader-"));
+        this.idsLoader = new BlogIdsLoader(sessionFactory, workers, BlogIdsLoader.DEFAULT_BUCKETS,
+                BlogIdsLoader.DEFAULT_TIMEOUT_MILLIS);
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return 完成值为对应的 Blog，不存在时为 null
+     */
+    public CompletableFuture<Blog> load(Long id) {
+        requests.increment();
+        CompletableFuture<Blog> future;
+        Map<Long, CompletableFuture<Blog>> full = null;
+        synchronized (lock) {
+            future = batch.get(id);
+            if (future != null) {
+                deduplicated.increment();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            batch.put(id, future);
+            if (batch.size() >= maxBatchSize) {
+                full = takeBatch();
+            } else if (batch.size() == 1) {
+                Map<Long, CompletableFuture<Blog>> scheduled = batch;
+                timer = scheduler.schedule(() -> flush(scheduled), windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * 同步版本，调用线程等待所在批次完成
+     */
+    public Blog get(Long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    private void flush(Map<Long, CompletableFuture<Blog>> scheduled) {
+        Map<Long, CompletableFuture<Blog>> taken;
+        synchronized (lock) {
+            // 该批已因凑满被取走
+            if (batch != scheduled || batch.isEmpty()) {
+                return;
+            }
+            taken = takeBatch();
+        }
+        dispatch(taken);
+    }
+
+    private Map<Long, CompletableFuture<Blog>> takeBatch() {
+        Map<Long, CompletableFuture<Blog>> taken = batch;
+        batch = new HashMap<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return taken;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Blog>> taken) {
+        batches.increment();
+        try {
+            workers.execute(() -> execute(taken));
+        } catch (RuntimeException e) {
+            taken.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void execute(Map<Long, CompletableFuture<Blog>> taken) {
+        try {
+            Map<Long, Blog> found = idsLoader.loadAsMap(taken.keySet());
+            taken.forEach((id, future) -> future.complete(found.get(id)));
+        } catch (RuntimeException e) {
+            taken.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 立即发出未满的批次，等它们执行完后关闭线程
+     */
+    @Override
+    public void close() {
+        Map<Long, CompletableFuture<Blog>> taken;
+        synchronized (lock) {
+            taken = takeBatch();
+        }
+        if (!taken.isEmpty()) {
+            dispatch(taken);
+        }
+        scheduler.shutdownNow();
+        workers.shutdown();
+    }
+}
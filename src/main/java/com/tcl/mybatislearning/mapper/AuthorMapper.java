@@ -0,0 +1,53 @@
+package com.tcl.mybatislearning.mapper;
+
+import com.tcl.mybatislearning.entity.Author;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * author 表，blog.author_id 引用它的 id；建表和迁移脚本见 db/author.sql
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:30
+ */
+@Mapper
+public interface AuthorMapper {
+
+    Author selectById(Long id);
+
+    Author selectByName(String name);
+
+    /**
+     * 供 {@link com.tcl.mybatislearning.loader.AuthorBatchLoader} 按页批量加载
+     */
+    List<Author> selectByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 供 {@link com.tcl.mybatislearning.loader.AuthorBatchLoader} 在写入 blog 前按名字解析 author_id
+     */
+    List<Author> selectByNames(@Param("names") List<String> names);
+
+    void insertAuthor(Author author);
+
+    /**
+     * 插入 author 表里还没有的作者名，已有的不变；names 可以有重复
+     */
+    void insertNames(@Param("names") List<String> names);
+
+    /**
+     * 把 blog.author 中还没有记录的作者名插入 author 表
+     *
+     * @return 新增的作者数
+     */
+    int insertMissingAuthors();
+
+    /**
+     * 按作者名回填 author_id 为空的 blog 行
+     *
+     * @return 回填的行数
+     */
+    int linkBlogAuthors();
+}
@@ -1,9 +1,15 @@
 package com.tcl.mybatislearning.mapper;
 
+import com.tcl.mybatislearning.batch.BlogBatchUpdater;
+import com.tcl.mybatislearning.count.BlogCounter;
+import com.tcl.mybatislearning.count.CountMode;
 import com.tcl.mybatislearning.entity.Author;
 import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.page.KeysetPage;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -25,12 +31,122 @@ public interface BlogMapper {
 
     List<Blog> selectAll();
 
+    /**
+     * 流式读取全表，游标随SqlSession关闭
+     */
+    Cursor<Blog> selectAllCursor();
+
+    /**
+     * 流式读取全表，每行回调一次handler，不在内存中累积结果
+     */
+    void selectAllStream(ResultHandler<Blog> handler);
+
     Integer count();
 
+    /**
+     * 表统计信息里的估算行数，MySQL下即InnoDB采样得到的table_rows
+     */
+    Long countEstimate();
+
+    /**
+     * 当前Configuration上BlogCountInterceptor维护的已提交行数，计数不可用时执行count(id)
+     */
+    Long countMaintained();
+
+    /**
+     * 按mode取行数，见{@link BlogCounter}
+     */
+    default long count(CountMode mode) {
+        return BlogCounter.count(this, mode);
+    }
+
+    /**
+     * 按id升序取afterId之后的limit行，afterId为null时从头开始
+     */
+    List<Blog> selectAllAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 键集分页读取全表，深翻页与第一页代价相同
+     *
+     * @param token 上一页的{@link KeysetPage#getNextToken()}，第一页传null
+     * @param limit 每页行数，1到{@link KeysetPage#MAX_LIMIT}，不合法时不执行查询直接抛IllegalArgumentException
+     */
+    default KeysetPage<Blog> selectAllPage(String token, int limit) {
+        return KeysetPage.of(selectAllAfter(KeysetPage.decode(token), KeysetPage.fetchSize(limit)), limit, Blog::getId);
+    }
+
+    /**
+     * 作者取自author表，整页结果的作者由{@link com.tcl.mybatislearning.interceptor.AuthorAssociationInterceptor}一次in查询加载
+     */
+    List<Blog> selectAllWithAuthors();
+
+    /**
+     * selectAllAfter的author表版本，作者加载同{@link #selectAllWithAuthors()}
+     */
+    List<Blog> selectAllAfterWithAuthors(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * selectAllPage的author表版本，每页最多2次查询：blog一次、author一次
+     */
+    default KeysetPage<Blog> selectAllPageWithAuthors(String token, int limit) {
+        return KeysetPage.of(selectAllAfterWithAuthors(KeysetPage.decode(token), KeysetPage.fetchSize(limit)), limit, Blog::getId);
+    }
+
     List<Blog> selectBlogLike(@Param("title") String title, @Param("author") Author author);
 
+    /**
+     * selectAll的摘要版本：不取content，返回的{@link com.tcl.mybatislearning.entity.LazyContentBlog}在getContent()时整批加载
+     */
+    List<Blog> selectAllSummary();
+
+    /**
+     * selectBlogLike的摘要版本，content延迟加载同{@link #selectAllSummary()}
+     */
+    List<Blog> selectBlogLikeSummary(@Param("title") String title, @Param("author") Author author);
+
+    /**
+     * 只取id和content，供{@link com.tcl.mybatislearning.loader.BlogContentLoader}批量回表
+     */
+    List<Blog> selectContentByIds(@Param("ids") List<Long> ids);
+
+    List<Blog> selectBlogLikeAfter(@Param("title") String title, @Param("author") Author author,
+                                   @Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * selectBlogLike的键集分页版本
+     */
+    default KeysetPage<Blog> selectBlogLikePage(String title, Author author, String token, int limit) {
+        return KeysetPage.of(selectBlogLikeAfter(title, author, KeysetPage.decode(token), KeysetPage.fetchSize(limit)), limit, Blog::getId);
+    }
+
     List<Blog> selectByIds(@Param("ids") List<Long> ids);
 
+    /**
+     * 流式读取id、title、author，供{@link com.tcl.mybatislearning.search.BlogSearchIndex}建立索引
+     */
+    void selectSearchColumns(ResultHandler<Blog> handler);
+
+    /**
+     * selectBlogLike限定在ids范围内，由{@link com.tcl.mybatislearning.search.BlogSearchIndex}复核候选行
+     */
+    List<Blog> selectBlogLikeByIds(@Param("title") String title, @Param("author") Author author,
+                                   @Param("ids") List<Long> ids);
+
     void insertBatch(@Param("blogs") List<Blog> blogs);
 
+    /**
+     * 只写回各行改过的列，变更列相同的行合成一条语句，见{@link BlogBatchUpdater}
+     *
+     * @return 影响行数
+     */
+    default int updateBatch(List<? extends Blog> blogs) {
+        return BlogBatchUpdater.updateBatch(this, blogs);
+    }
+
+    /**
+     * 按id把blogs的选中列改成各行自己的值，一条case when语句；由{@link #updateBatch(List)}分组后调用
+     */
+    int updateColumnsByIds(@Param("blogs") List<Blog> blogs, @Param("title") boolean title,
+                           @Param("content") boolean content, @Param("author") boolean author);
+
 }
@@ -0,0 +1,41 @@
+package com.tcl.mybatislearning.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 编译好的结果行映射：按列序号读取、直接调用 setter，替代 DefaultResultSetHandler 经 MetaObject 按列名反射赋值。
+ * <p>
+ * 由 {@link com.tcl.mybatislearning.generator.RowMapperPlugin} 为每个生成的模型类生成，
+ * 类名为模型类名加 RowMapper，放在模型类同一个包里，{@link RowMappers} 按这个约定查找。
+ * 实现必须无状态、线程安全。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:00
+ */
+public interface RowMapper<T> {
+
+    /**
+     * 能映射的列名，与 resultMap 里的 column 一致
+     */
+    String[] columns();
+
+    /**
+     * 与 {@link #columns()} 一一对应的属性名
+     */
+    String[] properties();
+
+    /**
+     * 与 {@link #columns()} 一一对应，生成代码的读取方式所对应的 TypeHandler 类名；
+     * resultMap 里解析出的 handler 不是这个类时映射结果可能不同，不能使用这个 RowMapper
+     */
+    String[] typeHandlers();
+
+    /**
+     * 映射当前行
+     *
+     * @param columnIndexes 与 {@link #columns()} 一一对应的列序号（从 1 开始），结果集中没有的列为 0
+     */
+    T map(ResultSet rs, int[] columnIndexes) throws SQLException;
+}
@@ -0,0 +1,57 @@
+package com.tcl.mybatislearning.mapping;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.util.Optional;
+
+/**
+ * 按约定（模型类名 + RowMapper）查找编译好的 {@link RowMapper}，每个类型只查找一次
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:05
+ */
+public final class RowMappers {
+
+    private static final Log log = LogFactory.getLog(RowMappers.class);
+
+    public static final String SUFFIX = "RowMapper";
+
+    private static final ClassValue<Optional<RowMapper<?>>> MAPPERS = new ClassValue<Optional<RowMapper<?>>>() {
+        @Override
+        protected Optional<RowMapper<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private RowMappers() {
+    }
+
+    /**
+     * @return 没有生成 RowMapper 的类型返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> forType(Class<T> type) {
+        return (RowMapper<T>) MAPPERS.get(type).orElse(null);
+    }
+
+    private static RowMapper<?> load(Class<?> type) {
+        Class<?> mapperType;
+        try {
+            mapperType = Resources.classForName(type.getName() + SUFFIX);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!RowMapper.class.isAssignableFrom(mapperType)) {
+            return null;
+        }
+        try {
+            return (RowMapper<?>) mapperType.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot instantiate " + mapperType.getName() + ", " + type.getName() + " uses reflective mapping: " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tcl.mybatislearning.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数-线性桶直方图，记录纳秒级耗时。
+ * <p>
+ * 小于 2^(PRECISION_BITS+1) 的值每个值一个桶；更大的值按二进制数量级分段，
+ * 每段再均分 2^PRECISION_BITS 个桶，因此分位数的相对误差不超过 1/32。
+ * 记录只是一次 AtomicLongArray 自增，多线程并发写入不需要加锁。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public class LatencyHistogram {
+
+    private static final int PRECISION_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+
+    private static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+        return (shift << PRECISION_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶的代表值（桶区间的中点）
+     */
+    static long bucketValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index >> PRECISION_BITS) - 1;
+        long mantissa = index - ((long) shift << PRECISION_BITS);
+        return (mantissa << shift) + (1L << shift >> 1);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * 按期望间隔补录被阻塞期间本应发生的样本，用于修正协调遗漏（coordinated omission）
+     */
+    public void recordWithExpectedInterval(long nanos, long expectedIntervalNanos) {
+        record(nanos);
+        if (expectedIntervalNanos <= 0) {
+            return;
+        }
+        for (long missing = nanos - expectedIntervalNanos; missing >= expectedIntervalNanos; missing -= expectedIntervalNanos) {
+            record(missing);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @param quantile 0~1之间，如0.99
+     * @return 纳秒；没有样本时为0
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(bucketValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 清零；与并发写入之间不保证原子性
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,60 @@
+package com.tcl.mybatislearning.metrics;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一条慢语句记录，耗时单位为微秒。
+ * <p>
+ * 记录本身不可变，EXPLAIN 异步完成后用 {@link #withPlan} 生成新实例替换环形缓冲里的旧实例。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:45
+ */
+@Value
+public class SlowQuery {
+
+    public enum ExplainStatus {
+        /**
+         * 非查询语句或关闭了 EXPLAIN
+         */
+        NONE,
+        PENDING,
+        DONE,
+        /**
+         * EXPLAIN 队列已满，丢弃
+         */
+        SKIPPED,
+        FAILED
+    }
+
+    long sequence;
+
+    String id;
+
+    String sql;
+
+    List<String> parameters;
+
+    long elapsedMicros;
+
+    long timestamp;
+
+    String thread;
+
+    ExplainStatus explainStatus;
+
+    List<Map<String, Object>> plan;
+
+    /**
+     * 执行计划里出现全表扫描（MySQL 的 type=ALL、H2 的 tableScan），EXPLAIN 完成前为 null
+     */
+    Boolean fullScan;
+
+    public SlowQuery withPlan(ExplainStatus status, List<Map<String, Object>> plan, Boolean fullScan) {
+        return new SlowQuery(sequence, id, sql, parameters, elapsedMicros, timestamp, thread, status, plan, fullScan);
+    }
+}
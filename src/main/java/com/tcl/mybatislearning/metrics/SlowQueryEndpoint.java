@@ -0,0 +1,38 @@
+package com.tcl.mybatislearning.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/slowqueries：查看（或清空）最近的慢语句及其执行计划
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:50
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog log = SlowQueryLog.getDefault();
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return log.getQueries();
+    }
+
+    @ReadOperation
+    public SlowQuery slowQuery(@Selector long sequence) {
+        return log.find(sequence);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        log.clear();
+    }
+}
@@ -0,0 +1,112 @@
+package com.tcl.mybatislearning.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 定长无锁环形缓冲，保存最近的慢语句。
+ * <p>
+ * 写入只有一次 getAndIncrement 和一次 CAS，满了覆盖最老的记录；读取时按序号过滤掉已被覆盖的槽位。
+ * 插件由 MyBatis 实例化、端点由 Spring 管理，两者通过默认实例 {@link #getDefault()} 共享数据。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:45
+ */
+public class SlowQueryLog {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final SlowQueryLog DEFAULT = new SlowQueryLog(DEFAULT_CAPACITY);
+
+    private final AtomicReferenceArray<SlowQuery> slots;
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity 向上取整到2的幂
+     */
+    public SlowQueryLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public static SlowQueryLog getDefault() {
+        return DEFAULT;
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * 分配序号，记录用这个序号创建后再 {@link #add} 进来
+     */
+    public long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    /**
+     * 只覆盖序号更小的记录：取到序号后迟迟才写入的线程不会盖掉同一槽位上更新的记录
+     */
+    public void add(SlowQuery query) {
+        int index = index(query.getSequence());
+        SlowQuery current = slots.get(index);
+        while (current == null || current.getSequence() < query.getSequence()) {
+            if (slots.compareAndSet(index, current, query)) {
+                return;
+            }
+            current = slots.get(index);
+        }
+    }
+
+    /**
+     * 槽位仍是 expected 时替换成 update，已被新记录覆盖则放弃
+     */
+    public boolean replace(SlowQuery expected, SlowQuery update) {
+        return slots.compareAndSet(index(expected.getSequence()), expected, update);
+    }
+
+    /**
+     * 按时间从新到旧返回当前保留的记录
+     */
+    public List<SlowQuery> getQueries() {
+        long end = sequence.get();
+        long start = Math.max(0, end - slots.length());
+        List<SlowQuery> queries = new ArrayList<>();
+        for (long seq = end - 1; seq >= start; seq--) {
+            SlowQuery query = slots.get(index(seq));
+            // 序号已分配但还没写入，或者已被更新的记录覆盖
+            if (query != null && query.getSequence() == seq) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+
+    public SlowQuery find(long seq) {
+        SlowQuery query = slots.get(index(seq));
+        return query != null && query.getSequence() == seq ? query : null;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tcl.mybatislearning.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个 MappedStatement 的调用次数、耗时分布、影响行数和错误次数
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public class StatementMetrics {
+
+    private final String id;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    public StatementMetrics(String id) {
+        this.id = id;
+    }
+
+    public void recordSuccess(long nanos, long rowCount) {
+        latency.record(nanos);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    public void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public StatementSnapshot snapshot() {
+        return new StatementSnapshot(id,
+                latency.getCount(),
+                errors.sum(),
+                rows.sum(),
+                latency.getMean() / 1000,
+                latency.getValueAtQuantile(0.5) / 1000.0,
+                latency.getValueAtQuantile(0.99) / 1000.0,
+                latency.getValueAtQuantile(0.999) / 1000.0,
+                latency.getMax() / 1000.0);
+    }
+
+    public void reset() {
+        latency.reset();
+        rows.reset();
+        errors.reset();
+    }
+}
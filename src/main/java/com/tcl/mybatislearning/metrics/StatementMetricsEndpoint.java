@@ -0,0 +1,39 @@
+package com.tcl.mybatislearning.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/statements：查看（或清零）各 MappedStatement 的耗时分布和行数
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:10
+ */
+@Component
+@Endpoint(id = "statements")
+public class StatementMetricsEndpoint {
+
+    private final StatementMetricsRegistry registry = StatementMetricsRegistry.getDefault();
+
+    @ReadOperation
+    public List<StatementSnapshot> statements() {
+        return registry.getStatements();
+    }
+
+    @ReadOperation
+    public StatementSnapshot statement(@Selector String id) {
+        StatementMetrics metrics = registry.find(id);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
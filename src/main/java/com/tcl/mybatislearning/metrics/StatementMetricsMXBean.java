@@ -0,0 +1,17 @@
+package com.tcl.mybatislearning.metrics;
+
+import java.util.List;
+
+/**
+ * 通过JMX暴露语句指标：com.tcl.mybatislearning:type=StatementMetrics
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public interface StatementMetricsMXBean {
+
+    List<StatementSnapshot> getStatements();
+
+    void reset();
+}
@@ -0,0 +1,72 @@
+package com.tcl.mybatislearning.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按 MappedStatement id 汇总的语句指标。
+ * 插件由 MyBatis 实例化、端点由 Spring 管理，两者通过默认实例 {@link #getDefault()} 共享数据。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public class StatementMetricsRegistry implements StatementMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.tcl.mybatislearning:type=StatementMetrics";
+
+    private static final StatementMetricsRegistry DEFAULT = new StatementMetricsRegistry();
+
+    private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+
+    public static StatementMetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public StatementMetrics metrics(String id) {
+        StatementMetrics metrics = statements.get(id);
+        if (metrics == null) {
+            metrics = statements.computeIfAbsent(id, StatementMetrics::new);
+        }
+        return metrics;
+    }
+
+    public StatementMetrics find(String id) {
+        return statements.get(id);
+    }
+
+    @Override
+    public List<StatementSnapshot> getStatements() {
+        List<StatementSnapshot> snapshots = new ArrayList<>(statements.size());
+        statements.values().forEach(metrics -> snapshots.add(metrics.snapshot()));
+        snapshots.sort(Comparator.comparing(StatementSnapshot::getId));
+        return snapshots;
+    }
+
+    @Override
+    public void reset() {
+        statements.values().forEach(StatementMetrics::reset);
+    }
+
+    /**
+     * 注册到平台MBeanServer，重复调用无副作用
+     */
+    public synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register " + OBJECT_NAME, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.tcl.mybatislearning.metrics;
+
+import lombok.Value;
+
+/**
+ * 语句指标的只读快照，耗时单位为微秒
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+@Value
+public class StatementSnapshot {
+
+    String id;
+
+    long calls;
+
+    long errors;
+
+    long rows;
+
+    double meanMicros;
+
+    double p50Micros;
+
+    double p99Micros;
+
+    double p999Micros;
+
+    double maxMicros;
+}
@@ -0,0 +1,103 @@
+package com.tcl.mybatislearning.metrics;
+
+import org.apache.ibatis.cursor.Cursor;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 包装 Cursor，把打开游标到关闭之间的时间（包括调用方逐行读取的时间）和读出的行数交给回调。
+ * <p>
+ * 游标查询在 queryCursor 返回时只执行了语句，行还没有读；只计打开的耗时会把逐行拉取的开销漏掉。
+ * 会话关闭时 DefaultSqlSession 关闭的是返回给它的游标，即这个包装，所以忘记关闭的游标也会随会话结束计时。
+ * 回调只调用一次；迭代中抛出的异常记为失败。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:30
+ */
+public class TimedCursor<T> implements Cursor<T> {
+
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param nanos  从打开到关闭的耗时
+         * @param rows   读出的行数
+         * @param failed 迭代时是否抛出过异常
+         */
+        void closed(long nanos, long rows, boolean failed);
+    }
+
+    private final Cursor<T> delegate;
+
+    private final long start;
+
+    private final Listener listener;
+
+    private boolean failed;
+
+    private boolean reported;
+
+    /**
+     * @param start 打开游标前的 System.nanoTime()
+     */
+    public TimedCursor(Cursor<T> delegate, long start, Listener listener) {
+        this.delegate = delegate;
+        this.start = start;
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return delegate.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return delegate.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = delegate.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return iterator.hasNext();
+                } catch (RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return iterator.next();
+                } catch (RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            if (!reported) {
+                reported = true;
+                listener.closed(System.nanoTime() - start, delegate.getCurrentIndex() + 1L, failed);
+            }
+        }
+    }
+}
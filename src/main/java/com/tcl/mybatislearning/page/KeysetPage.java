@@ -0,0 +1,90 @@
+package com.tcl.mybatislearning.page;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 键集（seek）分页的一页结果。
+ * <p>
+ * 下一页从上一页最后一行的 id 之后开始，用 {@code where id > ? order by id limit ?} 走主键索引定位，
+ * 第几页的代价都相同，不像 OFFSET 或 RowBounds 那样越往后越慢。
+ * 续页令牌对调用方不透明，目前是最后一个 id 的 Base64 编码。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:30
+ */
+@Value
+public class KeysetPage<T> {
+
+    /**
+     * 每页行数上限，避免一次取回过多行，也保证 limit + 1 不溢出
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    List<T> items;
+
+    /**
+     * 下一页的令牌；已是最后一页时为 null
+     */
+    String nextToken;
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    /**
+     * @param rows  按键升序、多取了一行（limit + 1）的查询结果，多出的一行只用来判断是否还有下一页
+     * @param limit 每页行数
+     * @param key   取排序键
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<? super T, Long> key) {
+        checkLimit(limit);
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(Collections.unmodifiableList(rows), null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(Collections.unmodifiableList(items), encode(key.apply(items.get(limit - 1))));
+    }
+
+    /**
+     * 校验每页行数并返回实际要查询的行数，须在执行查询之前调用
+     *
+     * @return limit + 1，多出的一行用来判断是否还有下一页
+     * @throws IllegalArgumentException limit 不在 1 到 {@link #MAX_LIMIT} 之间
+     */
+    public static int fetchSize(int limit) {
+        checkLimit(limit);
+        return limit + 1;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+    }
+
+    public static String encode(Long afterId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 令牌对应的 id；null 或空令牌表示第一页
+     * @throws IllegalArgumentException 令牌不合法
+     */
+    public static Long decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tcl.mybatislearning.scripting;
+
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+
+/**
+ * IfSqlNode 的编译版本，when 也用它；test 不在支持范围内或运行时遇到不支持的情形时按 OGNL 求值
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:55
+ */
+class CompiledIfSqlNode implements SqlNode {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private final String test;
+
+    private final Expression expression;
+
+    private final SqlNode contents;
+
+    /**
+     * @param expression 为 null 时始终使用 OGNL
+     */
+    CompiledIfSqlNode(String test, Expression expression, SqlNode contents) {
+        this.test = test;
+        this.expression = expression;
+        this.contents = contents;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        if (evaluate(context)) {
+            contents.apply(context);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean evaluate(DynamicContext context) {
+        if (expression != null) {
+            try {
+                return ExpressionCompiler.toBoolean(expression.evaluate(context.getBindings()));
+            } catch (RuntimeException e) {
+                if (e != Expression.UNSUPPORTED) {
+                    throw e;
+                }
+            }
+        }
+        return evaluator.evaluateBoolean(test, context.getBindings());
+    }
+}
@@ -0,0 +1,200 @@
+package com.tcl.mybatislearning.scripting;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DynamicSqlSource 的编译版本：SqlNode 树中的 OGNL 条件已预先编译。
+ * <p>
+ * 原实现每次调用都要把生成的 SQL 里的 #{} 重新解析成参数映射，foreach 展开后这一步比条件求值还贵。
+ * 这里按生成的 SQL 文本缓存解析结果（每条语句最多 {@value #MAX_CACHED_SHAPES} 种），
+ * 并记录解析时每个参数根名在 bindings 中的取值类型，只有参数类型和这些取值类型都相同时才复用，保证参数映射与重新解析一致。
+ * <p>
+ * 开启校验时每次调用都同时用原始的 DynamicSqlSource 生成一遍，SQL 文本或参数映射不同即抛出 BuilderException。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:10
+ */
+public class CompiledSqlSource implements SqlSource {
+
+    private static final int MAX_CACHED_SHAPES = 256;
+
+    private final Configuration configuration;
+
+    private final String id;
+
+    private final SqlNode rootSqlNode;
+
+    private final List<String> interpreted;
+
+    private final SqlSource verifier;
+
+    private final Map<String, ParsedSql> parsed = new ConcurrentHashMap<>();
+
+    CompiledSqlSource(Configuration configuration, String id, SqlNode rootSqlNode, List<String> interpreted, SqlSource verifier) {
+        this.configuration = configuration;
+        this.id = id;
+        this.rootSqlNode = rootSqlNode;
+        this.interpreted = Collections.unmodifiableList(interpreted);
+        this.verifier = verifier;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        DynamicContext context = new DynamicContext(configuration, parameterObject);
+        rootSqlNode.apply(context);
+        String sql = context.getSql();
+        Map<String, Object> bindings = context.getBindings();
+        Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        ParsedSql cached = parsed.get(sql);
+        BoundSql boundSql;
+        if (cached != null && cached.matches(parameterType, bindings)) {
+            boundSql = new BoundSql(configuration, cached.sql, cached.parameterMappings, parameterObject);
+        } else {
+            SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+            SqlSource sqlSource = sqlSourceParser.parse(sql, parameterType, bindings);
+            boundSql = sqlSource.getBoundSql(parameterObject);
+            if (parsed.size() < MAX_CACHED_SHAPES) {
+                ParsedSql entry = ParsedSql.of(parameterType, boundSql, bindings);
+                if (entry != null) {
+                    parsed.put(sql, entry);
+                }
+            }
+        }
+        bindings.forEach(boundSql::setAdditionalParameter);
+        if (verifier != null) {
+            verify(boundSql, verifier.getBoundSql(parameterObject));
+        }
+        return boundSql;
+    }
+
+    /**
+     * 仍按 OGNL 求值的表达式，全部编译成功时为空
+     */
+    public List<String> getInterpretedExpressions() {
+        return interpreted;
+    }
+
+    public boolean isVerifying() {
+        return verifier != null;
+    }
+
+    private void verify(BoundSql compiled, BoundSql expected) {
+        if (!compiled.getSql().equals(expected.getSql())) {
+            throw new BuilderException("Compiled SQL of " + id + " differs from OGNL:\n" + compiled.getSql() + "\n---\n" + expected.getSql());
+        }
+        List<ParameterMapping> actualMappings = compiled.getParameterMappings();
+        List<ParameterMapping> expectedMappings = expected.getParameterMappings();
+        boolean same = actualMappings.size() == expectedMappings.size();
+        for (int i = 0; same && i < actualMappings.size(); i++) {
+            ParameterMapping actual = actualMappings.get(i);
+            ParameterMapping wanted = expectedMappings.get(i);
+            String property = actual.getProperty();
+            same = property.equals(wanted.getProperty()) && actual.getJavaType() == wanted.getJavaType()
+                    && Objects.equals(actual.getTypeHandler().getClass(), wanted.getTypeHandler().getClass())
+                    && compiled.hasAdditionalParameter(property) == expected.hasAdditionalParameter(property)
+                    && (!compiled.hasAdditionalParameter(property)
+                    || Objects.equals(compiled.getAdditionalParameter(property), expected.getAdditionalParameter(property)));
+        }
+        if (!same) {
+            throw new BuilderException("Compiled parameter mappings of " + id + " differ from OGNL: "
+                    + actualMappings + " vs " + expectedMappings);
+        }
+    }
+
+    /**
+     * 一种 SQL 形状的解析结果。SqlSourceBuilder 推断参数类型时只看参数对象的类型，
+     * 以及 #{} 根名是否在 bindings 中、对应值的类型（嵌套属性沿值的类型继续解析），因此这些相同则结果相同。
+     */
+    private static final class ParsedSql {
+
+        private static final Object ABSENT = new Object();
+
+        private final Class<?> parameterType;
+
+        private final String sql;
+
+        private final List<ParameterMapping> parameterMappings;
+
+        private final String[] roots;
+
+        /**
+         * 与 roots 对应：值的类型，值为 null 时为 null，不在 bindings 中时为 ABSENT
+         */
+        private final Object[] types;
+
+        private ParsedSql(Class<?> parameterType, BoundSql boundSql, String[] roots, Object[] types) {
+            this.parameterType = parameterType;
+            this.sql = boundSql.getSql();
+            this.parameterMappings = boundSql.getParameterMappings();
+            this.roots = roots;
+            this.types = types;
+        }
+
+        /**
+         * @return 无法确定复用是否安全时（下标访问、多级属性、_parameter、Map 类型的值）返回 null，不缓存
+         */
+        static ParsedSql of(Class<?> parameterType, BoundSql boundSql, Map<String, Object> bindings) {
+            Map<String, Object> types = new LinkedHashMap<>();
+            for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+                String property = mapping.getProperty();
+                int dot = property == null ? -1 : property.indexOf('.');
+                // 两级以上的属性类型取决于中间值的运行时类型
+                if (property == null || property.indexOf('[') >= 0 || dot >= 0 && property.indexOf('.', dot + 1) >= 0) {
+                    return null;
+                }
+                String root = dot < 0 ? property : property.substring(0, dot);
+                if (DynamicContext.PARAMETER_OBJECT_KEY.equals(root)) {
+                    return null;
+                }
+                if (!bindings.containsKey(root)) {
+                    types.put(root, ABSENT);
+                    continue;
+                }
+                Object value = bindings.get(root);
+                if (value instanceof Map) {
+                    return null;
+                }
+                types.put(root, value == null ? null : value.getClass());
+            }
+            return new ParsedSql(parameterType, boundSql, types.keySet().toArray(new String[0]), types.values().toArray());
+        }
+
+        boolean matches(Class<?> parameterType, Map<String, Object> bindings) {
+            if (this.parameterType != parameterType) {
+                return false;
+            }
+            for (int i = 0; i < roots.length; i++) {
+                boolean present = bindings.containsKey(roots[i]);
+                if (types[i] == ABSENT) {
+                    if (present) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (!present) {
+                    return false;
+                }
+                Object value = bindings.get(roots[i]);
+                if ((value == null ? null : value.getClass()) != types[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
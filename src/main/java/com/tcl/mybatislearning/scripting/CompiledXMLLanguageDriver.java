@@ -0,0 +1,39 @@
+package com.tcl.mybatislearning.scripting;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 把 mapper XML 中 if/choose/when/foreach 的 OGNL 表达式在解析时编译成 Java 的 XMLLanguageDriver。
+ * <p>
+ * 生成的 SQL、参数映射和附加参数与默认驱动完全相同；编译不了的表达式及运行时遇到的少见类型转换自动回退到 OGNL。
+ * 启用方式：{@code <setting name="defaultScriptingLanguage" value="com.tcl.mybatislearning.scripting.CompiledXMLLanguageDriver"/>}，
+ * 或在单条语句上写 {@code lang="..."}。
+ * <p>
+ * 配置变量 {@value #VERIFY_PROPERTY}=true 时每次调用都与 OGNL 结果比对，不一致抛出 BuilderException，用于测试和灰度。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:15
+ */
+public class CompiledXMLLanguageDriver extends XMLLanguageDriver {
+
+    public static final String VERIFY_PROPERTY = "compiledSql.verify";
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+        SqlSource interpreted = super.createSqlSource(configuration, script, parameterType);
+        if (!(interpreted instanceof DynamicSqlSource)) {
+            return interpreted;
+        }
+        CompiledScriptBuilder builder = new CompiledScriptBuilder(configuration);
+        MixedSqlNode root = builder.parse(script);
+        boolean verify = Boolean.parseBoolean(configuration.getVariables().getProperty(VERIFY_PROPERTY, "false"));
+        return new CompiledSqlSource(configuration, script.getStringAttribute("id"), root, builder.getInterpreted(),
+                verify ? interpreted : null);
+    }
+}
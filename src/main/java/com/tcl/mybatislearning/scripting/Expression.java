@@ -0,0 +1,25 @@
+package com.tcl.mybatislearning.scripting;
+
+import java.util.Map;
+
+/**
+ * 预先编译好的 OGNL 表达式，直接在 DynamicContext 的 bindings 上求值。
+ * 遇到没有按 OGNL 语义实现的情况（类型转换、集合伪属性、空指针等）抛出 {@link #UNSUPPORTED}，调用方改用 OGNL 重新求值，
+ * 因此结果总与 OGNL 一致。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:40
+ */
+@FunctionalInterface
+interface Expression {
+
+    /**
+     * 不带堆栈的单例，回退路径上不产生额外开销
+     */
+    RuntimeException UNSUPPORTED = new RuntimeException("Not supported by compiled expression", null, false, false) {
+        private static final long serialVersionUID = 1L;
+    };
+
+    Object evaluate(Map<String, Object> bindings);
+}
@@ -0,0 +1,493 @@
+package com.tcl.mybatislearning.scripting;
+
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把 if/when 的 test、foreach 的 collection 中常见的 OGNL 子集编译成 {@link Expression}：
+ * <ul>
+ *     <li>属性路径 {@code author.name}，无参方法调用 {@code ids.size()}</li>
+ *     <li>null/true/false、整数、小数、字符串字面量</li>
+ *     <li>{@code == != < > <= >=} 及 eq/neq/lt/gt/lte/gte，{@code and or not && || !}，括号</li>
+ * </ul>
+ * 其余语法（算术、in、三元、单字符字面量 'a' 等）编译时抛出 IllegalArgumentException，由调用方保留 OGNL。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:45
+ */
+final class ExpressionCompiler {
+
+    private static final String PARAMETER_OBJECT_KEY = DynamicContext.PARAMETER_OBJECT_KEY;
+
+    private final ReflectorFactory reflectorFactory;
+
+    private final String source;
+
+    private final List<String> tokens;
+
+    private int position;
+
+    private ExpressionCompiler(ReflectorFactory reflectorFactory, String source) {
+        this.reflectorFactory = reflectorFactory;
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    /**
+     * @throws IllegalArgumentException 表达式超出支持的子集
+     */
+    static Expression compile(ReflectorFactory reflectorFactory, String source) {
+        ExpressionCompiler compiler = new ExpressionCompiler(reflectorFactory, source);
+        Expression expression = compiler.or();
+        if (compiler.position != compiler.tokens.size()) {
+            throw compiler.unsupported();
+        }
+        return expression;
+    }
+
+    /**
+     * ExpressionEvaluator#evaluateBoolean 的转换规则
+     */
+    static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(String.valueOf(value)).compareTo(BigDecimal.ZERO) != 0;
+        }
+        return value != null;
+    }
+
+    private Expression or() {
+        Expression left = and();
+        while (accept("or") || accept("||")) {
+            Expression l = left;
+            Expression r = and();
+            // OGNL 的 and/or 返回操作数本身而不是布尔值
+            left = bindings -> {
+                Object value = l.evaluate(bindings);
+                return ognlBoolean(value) ? value : r.evaluate(bindings);
+            };
+        }
+        return left;
+    }
+
+    private Expression and() {
+        Expression left = equality();
+        while (accept("and") || accept("&&")) {
+            Expression l = left;
+            Expression r = equality();
+            left = bindings -> {
+                Object value = l.evaluate(bindings);
+                return ognlBoolean(value) ? r.evaluate(bindings) : value;
+            };
+        }
+        return left;
+    }
+
+    private Expression equality() {
+        Expression left = relational();
+        while (true) {
+            boolean negate;
+            if (accept("==") || accept("eq")) {
+                negate = false;
+            } else if (accept("!=") || accept("neq")) {
+                negate = true;
+            } else {
+                return left;
+            }
+            Expression l = left;
+            Expression r = relational();
+            left = bindings -> equal(l.evaluate(bindings), r.evaluate(bindings)) != negate;
+        }
+    }
+
+    private Expression relational() {
+        Expression left = unary();
+        while (true) {
+            int expected;
+            boolean orEqual;
+            if (accept("<") || accept("lt")) {
+                expected = -1;
+                orEqual = false;
+            } else if (accept(">") || accept("gt")) {
+                expected = 1;
+                orEqual = false;
+            } else if (accept("<=") || accept("lte")) {
+                expected = -1;
+                orEqual = true;
+            } else if (accept(">=") || accept("gte")) {
+                expected = 1;
+                orEqual = true;
+            } else {
+                return left;
+            }
+            Expression l = left;
+            Expression r = unary();
+            left = bindings -> {
+                int compared = Integer.signum(compare(l.evaluate(bindings), r.evaluate(bindings)));
+                return compared == expected || orEqual && compared == 0;
+            };
+        }
+    }
+
+    private Expression unary() {
+        if (accept("!") || accept("not")) {
+            Expression operand = unary();
+            return bindings -> !ognlBoolean(operand.evaluate(bindings));
+        }
+        return postfix();
+    }
+
+    private Expression postfix() {
+        Expression target = primary();
+        while (accept(".")) {
+            String name = identifier();
+            if (accept("(")) {
+                expect(")");
+                target = methodCall(target, name);
+            } else {
+                target = property(target, name);
+            }
+        }
+        return target;
+    }
+
+    private Expression primary() {
+        String token = next();
+        if ("(".equals(token)) {
+            Expression expression = or();
+            expect(")");
+            return expression;
+        }
+        if ("null".equals(token)) {
+            return bindings -> null;
+        }
+        if ("true".equals(token) || "false".equals(token)) {
+            Boolean value = Boolean.valueOf(token);
+            return bindings -> value;
+        }
+        char first = token.charAt(0);
+        if (first == '"' || first == '\'') {
+            // OGNL 里单引号的单个字符是 Character，与字符串比较时有类型转换，留给 OGNL
+            String value = token.substring(1, token.length() - 1);
+            if (first == '\'' && value.length() == 1) {
+                throw unsupported();
+            }
+            return bindings -> value;
+        }
+        if (Character.isDigit(first)) {
+            Object value = number(token);
+            return bindings -> value;
+        }
+        if (Character.isJavaIdentifierStart(first) && !isKeyword(token)) {
+            return root(token);
+        }
+        throw unsupported();
+    }
+
+    /**
+     * 与 DynamicContext.ContextAccessor 相同：先查 bindings，再查 Map 类型的参数对象
+     */
+    private static Expression root(String name) {
+        return bindings -> {
+            Object value = bindings.get(name);
+            if (value != null || bindings.containsKey(name)) {
+                return value;
+            }
+            Object parameterObject = bindings.get(PARAMETER_OBJECT_KEY);
+            if (parameterObject instanceof Map) {
+                return ((Map<?, ?>) parameterObject).get(name);
+            }
+            return null;
+        };
+    }
+
+    private Expression property(Expression target, String name) {
+        ReflectorFactory factory = reflectorFactory;
+        return new Expression() {
+
+            private volatile Reflector reflector;
+
+            @Override
+            public Object evaluate(Map<String, Object> bindings) {
+                Object object = target.evaluate(bindings);
+                if (object instanceof Map) {
+                    // size、keys 等是 OGNL 对 Map 的伪属性
+                    if (isMapPseudoProperty(name)) {
+                        throw UNSUPPORTED;
+                    }
+                    return ((Map<?, ?>) object).get(name);
+                }
+                if (object == null || object instanceof Collection || object.getClass().isArray()) {
+                    throw UNSUPPORTED;
+                }
+                Reflector cached = reflector;
+                if (cached == null || cached.getType() != object.getClass()) {
+                    cached = factory.findForClass(object.getClass());
+                    reflector = cached;
+                }
+                if (!cached.hasGetter(name)) {
+                    throw UNSUPPORTED;
+                }
+                Invoker invoker = cached.getGetInvoker(name);
+                try {
+                    return invoker.invoke(object, null);
+                } catch (Exception e) {
+                    throw UNSUPPORTED;
+                }
+            }
+        };
+    }
+
+    private static Expression methodCall(Expression target, String name) {
+        return new Expression() {
+
+            private volatile Method method;
+
+            @Override
+            public Object evaluate(Map<String, Object> bindings) {
+                Object object = target.evaluate(bindings);
+                if (object == null) {
+                    throw UNSUPPORTED;
+                }
+                Method cached = method;
+                if (cached == null || !cached.getDeclaringClass().isInstance(object)) {
+                    cached = publicMethod(object.getClass(), name);
+                    method = cached;
+                }
+                try {
+                    return cached.invoke(object);
+                } catch (Exception e) {
+                    throw UNSUPPORTED;
+                }
+            }
+        };
+    }
+
+    /**
+     * 沿接口找到可访问的声明，避免对 Arrays$ArrayList 等非公开类反射调用失败
+     */
+    private static Method publicMethod(Class<?> type, String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (Modifier.isPublic(c.getModifiers())) {
+                try {
+                    return c.getMethod(name);
+                } catch (NoSuchMethodException e) {
+                    throw Expression.UNSUPPORTED;
+                }
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                try {
+                    return i.getMethod(name);
+                } catch (NoSuchMethodException ignored) {
+                    // 继续找下一个接口
+                }
+            }
+        }
+        throw Expression.UNSUPPORTED;
+    }
+
+    private static boolean isMapPseudoProperty(String name) {
+        return "size".equals(name) || "isEmpty".equals(name) || "keys".equals(name)
+                || "keySet".equals(name) || "values".equals(name);
+    }
+
+    /**
+     * OgnlOps#booleanValue
+     */
+    private static boolean ognlBoolean(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Character) {
+            return (Character) value != 0;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        return true;
+    }
+
+    /**
+     * 只实现与 OgnlOps#equal 结果确定相同的情形，其余交给 OGNL
+     */
+    private static boolean equal(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right) == 0;
+        }
+        if (left.getClass() == right.getClass() && !left.getClass().isArray()) {
+            return left.equals(right);
+        }
+        throw Expression.UNSUPPORTED;
+    }
+
+    private static int compare(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right);
+        }
+        if (left instanceof String && right instanceof String) {
+            return ((String) left).compareTo((String) right);
+        }
+        throw Expression.UNSUPPORTED;
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        if (left instanceof Double || left instanceof Float || right instanceof Double || right instanceof Float) {
+            double l = left.doubleValue();
+            double r = right.doubleValue();
+            if (Double.isNaN(l) || Double.isNaN(r)) {
+                throw Expression.UNSUPPORTED;
+            }
+            return Double.compare(l, r);
+        }
+        // BigDecimal、BigInteger 等
+        throw Expression.UNSUPPORTED;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private Object number(String token) {
+        try {
+            if (token.endsWith("L") || token.endsWith("l")) {
+                return Long.valueOf(token.substring(0, token.length() - 1));
+            }
+            if (token.indexOf('.') >= 0) {
+                return Double.valueOf(token);
+            }
+            return Integer.valueOf(token);
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    private static boolean isKeyword(String token) {
+        switch (token) {
+            case "and":
+            case "or":
+            case "not":
+            case "eq":
+            case "neq":
+            case "lt":
+            case "gt":
+            case "lte":
+            case "gte":
+            case "in":
+            case "instanceof":
+            case "new":
+            case "this":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private String identifier() {
+        String token = next();
+        if (!Character.isJavaIdentifierStart(token.charAt(0)) || isKeyword(token)) {
+            throw unsupported();
+        }
+        return token;
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private String next() {
+        if (position >= tokens.size()) {
+            throw unsupported();
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw unsupported();
+        }
+    }
+
+    private IllegalArgumentException unsupported() {
+        return new IllegalArgumentException("Unsupported expression: " + source);
+    }
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(source.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                if (i < source.length() && (source.charAt(i) == 'L' || source.charAt(i) == 'l')) {
+                    i++;
+                }
+                if (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    throw new IllegalArgumentException("Unsupported expression: " + source);
+                }
+                tokens.add(source.substring(start, i));
+            } else if (c == '"' || c == '\'') {
+                int end = source.indexOf(c, i + 1);
+                // 不处理转义
+                if (end < 0 || source.substring(i + 1, end).indexOf('\\') >= 0) {
+                    throw new IllegalArgumentException("Unsupported expression: " + source);
+                }
+                tokens.add(source.substring(i, end + 1));
+                i = end + 1;
+            } else {
+                String two = i + 1 < source.length() ? source.substring(i, i + 2) : "";
+                if ("==".equals(two) || "!=".equals(two) || "<=".equals(two) || ">=".equals(two)
+                        || "&&".equals(two) || "||".equals(two)) {
+                    tokens.add(two);
+                    i += 2;
+                } else if ("!<>().".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("Unsupported expression: " + source);
+                }
+            }
+        }
+        return tokens;
+    }
+}
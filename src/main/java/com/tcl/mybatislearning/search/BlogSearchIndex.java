@@ -0,0 +1,317 @@
+package com.tcl.mybatislearning.search;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.SearchIndexInterceptor;
+import com.tcl.mybatislearning.loader.BlogIdsLoader;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * selectBlogLike 的内存三元组索引，覆盖 title 和 author 两列。
+ * <p>
+ * 启动时 {@link #rebuild} 流式读取整表建立索引，之后由 SearchIndexInterceptor 跟踪 BlogMapper 的增删改。
+ * 查询时索引只给出候选 id，再用 selectBlogLikeByIds 按主键取回并由数据库执行原来的 LIKE 条件复核，
+ * 所以结果与 selectBlogLike 完全一致（排序规则、转义、NULL 都由数据库决定），区别只是不再扫全表。
+ * <p>
+ * 以下情况退回 selectBlogLike：索引未就绪或已失效；模式里没有长度不小于 3 的字面片段（如 {@code %ab%}）；
+ * 候选超过总行数的 {@link #DEFAULT_MAX_CANDIDATE_RATIO}，此时按主键逐块取回不比全表扫描便宜。
+ * 倒排表总条目超过 maxPostings 时索引清空并失效，内存有上限。
+ * <p>
+ * 不经过 BlogMapper 的写入（其他程序、手写 SQL）无法感知，需要调用 {@link #rebuild} 或 {@link #invalidate}。
+ * 每个 SearchIndexInterceptor 持有自己的索引，即按 Configuration（数据库）各自建索引，用 {@link #of} 取得。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:15
+ */
+public class BlogSearchIndex {
+
+    public enum State {
+        /**
+         * 从未构建，插件不跟踪写入
+         */
+        EMPTY,
+        BUILDING,
+        READY,
+        /**
+         * 有无法跟踪的写入或超出内存上限，查询全部退回 SQL
+         */
+        INVALID
+    }
+
+    public static final long DEFAULT_MAX_POSTINGS = 8_000_000;
+
+    public static final double DEFAULT_MAX_CANDIDATE_RATIO = 0.25;
+
+    public static final String STREAM_STATEMENT = "com.tcl.mybatislearning.mapper.BlogMapper.selectSearchColumns";
+
+    private static final Log log = LogFactory.getLog(BlogSearchIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NgramIndex titles = new NgramIndex();
+
+    private final NgramIndex authors = new NgramIndex();
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.EMPTY);
+
+    private final long maxPostings;
+
+    private volatile double maxCandidateRatio = DEFAULT_MAX_CANDIDATE_RATIO;
+
+    public BlogSearchIndex(long maxPostings) {
+        this.maxPostings = maxPostings;
+    }
+
+    /**
+     * @return configuration 上注册的 SearchIndexInterceptor 的索引，没有注册时为 null
+     */
+    public static BlogSearchIndex of(Configuration configuration) {
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof SearchIndexInterceptor) {
+                return ((SearchIndexInterceptor) interceptor).getIndex();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 清空后流式读取整表重建；构建期间的写入同样会被跟踪，结束前如被 {@link #invalidate()} 则保持失效
+     *
+     * @return 索引的行数
+     */
+    public int rebuild(SqlSessionFactory sessionFactory) {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+            state.set(State.BUILDING);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (SqlSession session = sessionFactory.openSession()) {
+            session.select(STREAM_STATEMENT, context -> {
+                Blog blog = (Blog) context.getResultObject();
+                addRow(blog.getId(), blog.getTitle(), authorName(blog.getAuthor()));
+                if (state.get() != State.BUILDING) {
+                    context.stop();
+                }
+            });
+        } catch (RuntimeException e) {
+            invalidate();
+            throw e;
+        }
+        if (state.compareAndSet(State.BUILDING, State.READY)) {
+            log.debug("Blog search index built: " + getRows() + " rows, " + getPostings() + " postings");
+        }
+        return getRows();
+    }
+
+    /**
+     * 与 BlogMapper.selectBlogLike 结果相同（行按 id 升序），能用索引时不做全表扫描
+     */
+    public List<Blog> selectBlogLike(BlogMapper mapper, String title, Author author) {
+        long[] candidates = candidates(title, author);
+        if (candidates == null) {
+            return mapper.selectBlogLike(title, author);
+        }
+        if (candidates.length == 0) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>(candidates.length);
+        for (long id : candidates) {
+            ids.add(id);
+        }
+        List<Blog> blogs = new ArrayList<>();
+        for (List<Long> chunk : BlogIdsLoader.chunks(ids, BlogIdsLoader.DEFAULT_BUCKETS)) {
+            blogs.addAll(mapper.selectBlogLikeByIds(title, author, chunk));
+        }
+        blogs.sort(Comparator.comparing(Blog::getId));
+        return blogs;
+    }
+
+    /**
+     * 与 selectBlogLike 的 choose 分支一致：title 优先，其次 author.name
+     *
+     * @return 有序候选 id；不能或不值得用索引时返回 null
+     */
+    long[] candidates(String title, Author author) {
+        if (state.get() != State.READY) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            long[] candidates;
+            int rows;
+            if (title != null) {
+                candidates = titles.candidates(title);
+                rows = titles.rows();
+            } else if (author != null && author.getName() != null) {
+                candidates = authors.candidates(author.getName());
+                rows = authors.rows();
+            } else {
+                return null;
+            }
+            if (candidates != null && candidates.length > 64 && candidates.length > rows * maxCandidateRatio) {
+                return null;
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新插入的行
+     */
+    public void addRow(long id, String title, String author) {
+        if (!isTracking()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            titles.add(id, title);
+            authors.add(id, author);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        checkBound();
+    }
+
+    /**
+     * 未提交的修改：新值先加入索引，旧值保留到提交，事务内外查询都不会漏行
+     *
+     * @param titleSet  为 false 表示这次没有修改 title
+     * @param authorSet 为 false 表示这次没有修改 author
+     */
+    public void addVersion(long id, String title, boolean titleSet, String author, boolean authorSet) {
+        if (!isTracking()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (titleSet) {
+                titles.add(id, title);
+            }
+            if (authorSet) {
+                authors.add(id, author);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        checkBound();
+    }
+
+    /**
+     * 修改已提交，只保留新值
+     */
+    public void retainVersion(long id, String title, boolean titleSet, String author, boolean authorSet) {
+        if (!isTracking()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (titleSet) {
+                titles.retain(id, title);
+            }
+            if (authorSet) {
+                authors.retain(id, author);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRow(long id) {
+        if (!isTracking()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            titles.remove(id);
+            authors.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 出现无法跟踪的写入时调用，释放内存，查询退回 SQL 直到下次 {@link #rebuild}
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            if (state.getAndSet(State.INVALID) != State.INVALID) {
+                log.debug("Blog search index invalidated");
+            }
+            titles.clear();
+            authors.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkBound() {
+        if (getPostings() > maxPostings) {
+            log.warn("Blog search index exceeded " + maxPostings + " postings, falling back to SQL");
+            invalidate();
+        }
+    }
+
+    public boolean isTracking() {
+        State current = state.get();
+        return current == State.BUILDING || current == State.READY;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getRows() {
+        lock.readLock().lock();
+        try {
+            return Math.max(titles.rows(), authors.rows());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getGrams() {
+        lock.readLock().lock();
+        try {
+            return titles.grams() + authors.grams();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getPostings() {
+        lock.readLock().lock();
+        try {
+            return titles.postingCount() + authors.postingCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setMaxCandidateRatio(double maxCandidateRatio) {
+        this.maxCandidateRatio = maxCandidateRatio;
+    }
+
+    public static String authorName(Author author) {
+        return author == null ? null : author.getName();
+    }
+}
@@ -0,0 +1,57 @@
+package com.tcl.mybatislearning.search;
+
+import java.util.Arrays;
+
+/**
+ * 从 LIKE 模式中提取匹配行必然包含的三元组。
+ * <p>
+ * {@code %} 和 {@code _} 把模式切成若干字面片段，反斜杠（MySQL 和 H2 的默认转义符）后的字符按字面处理。
+ * 匹配的行必然依次包含每个片段，所以片段里每个连续三个 ASCII 字符组成的三元组都是必要条件；
+ * 含非 ASCII 字符的窗口跳过，排序规则下它可能等于别的字符。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:10
+ */
+final class LikePattern {
+
+    private static final char ESCAPE = '\\';
+
+    private LikePattern() {
+    }
+
+    /**
+     * @return 去重后的必要三元组，一个也提取不出来时返回 null
+     */
+    static int[] requiredGrams(String pattern) {
+        int[] grams = new int[pattern.length()];
+        int count = 0;
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == ESCAPE && i + 1 < pattern.length()) {
+                segment.append(pattern.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                count = collect(segment, grams, count);
+                segment.setLength(0);
+            } else {
+                segment.append(c);
+            }
+        }
+        count = collect(segment, grams, count);
+        if (count == 0) {
+            return null;
+        }
+        return NgramIndex.distinct(Arrays.copyOf(grams, count));
+    }
+
+    private static int collect(StringBuilder segment, int[] grams, int count) {
+        String normalized = NgramIndex.normalize(segment.toString());
+        for (int i = 0; i + NgramIndex.GRAM <= normalized.length(); i++) {
+            if (NgramIndex.isAscii(normalized.subSequence(i, i + NgramIndex.GRAM))) {
+                grams[count++] = NgramIndex.gram(normalized, i);
+            }
+        }
+        return count;
+    }
+}
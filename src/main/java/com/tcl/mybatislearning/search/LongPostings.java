@@ -0,0 +1,123 @@
+package com.tcl.mybatislearning.search;
+
+import java.util.Arrays;
+
+/**
+ * 有序、去重的 long 倒排表，直接存在 long[] 里，每个 id 只占 8 字节。
+ * 自增 id 按顺序写入时是追加；乱序写入和删除用二分查找定位后移动数组。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:00
+ */
+final class LongPostings {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+
+    private int size;
+
+    /**
+     * @return 是否新增
+     */
+    boolean add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return true;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return 是否存在并已删除
+     */
+    boolean remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        if (size < ids.length / 4) {
+            ids = Arrays.copyOf(ids, Math.max(size * 2, 4));
+        }
+        return true;
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+    }
+
+    /**
+     * 从最短的表开始逐个求交，结果有序
+     */
+    static long[] intersect(LongPostings[] lists) {
+        LongPostings[] sorted = lists.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size, b.size));
+        long[] result = sorted[0].toArray();
+        int length = result.length;
+        for (int i = 1; i < sorted.length && length > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < length; j++) {
+                if (sorted[i].contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            length = kept;
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 合并两个有序数组并去重
+     */
+    static long[] union(long[] a, long[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        long[] result = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j == b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (k == 0 || result[k - 1] != next) {
+                result[k++] = next;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
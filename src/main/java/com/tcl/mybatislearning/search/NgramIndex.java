@@ -0,0 +1,204 @@
+package com.tcl.mybatislearning.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个列的三元组倒排索引，只负责给出候选 id，是否真的匹配由数据库按原 LIKE 条件复核。
+ * <p>
+ * 为保证候选集不漏行：三元组按 ASCII 小写折叠，大小写敏感和不敏感的排序规则下都成立；
+ * 含非 ASCII 字符的值（重音不敏感的排序规则下 é 与 e 相等）不拆分，放进每次查询都返回的 {@code alwaysCandidates}。
+ * 修改未提交前同一个 id 可能同时挂着新旧两个值，候选集是两者的并集，提交后 {@link #retain} 收敛为一个值。
+ * <p>
+ * 非线程安全，由 {@link BlogSearchIndex} 加锁。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:05
+ */
+final class NgramIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<Integer, LongPostings> postings = new HashMap<>();
+
+    private LongPostings alwaysCandidates = new LongPostings();
+
+    /**
+     * id -> 已索引的值（小写）；未提交的修改期间会有多个
+     */
+    private final Map<Long, Object> values = new HashMap<>();
+
+    private long postingCount;
+
+    void add(long id, String value) {
+        if (value == null) {
+            return;
+        }
+        String normalized = normalize(value);
+        Object current = values.get(id);
+        if (current == null) {
+            values.put(id, normalized);
+        } else if (current instanceof String) {
+            if (current.equals(normalized)) {
+                return;
+            }
+            values.put(id, new String[]{(String) current, normalized});
+        } else {
+            String[] versions = (String[]) current;
+            if (Arrays.asList(versions).contains(normalized)) {
+                return;
+            }
+            String[] grown = Arrays.copyOf(versions, versions.length + 1);
+            grown[versions.length] = normalized;
+            values.put(id, grown);
+        }
+        index(id, normalized);
+    }
+
+    /**
+     * 提交后只保留 value（null 表示列已置空），去掉其他版本独有的三元组
+     */
+    void retain(long id, String value) {
+        remove(id);
+        add(id, value);
+    }
+
+    void remove(long id) {
+        Object current = values.remove(id);
+        if (current == null) {
+            return;
+        }
+        String[] versions = current instanceof String ? new String[]{(String) current} : (String[]) current;
+        for (String version : versions) {
+            if (!isAscii(version)) {
+                if (alwaysCandidates.remove(id)) {
+                    postingCount--;
+                }
+                continue;
+            }
+            for (int gram : grams(version)) {
+                LongPostings list = postings.get(gram);
+                if (list != null && list.remove(id)) {
+                    postingCount--;
+                    if (list.size() == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 有序的候选 id；模式里没有长度不小于 {@link #GRAM} 的 ASCII 字面片段时无法过滤，返回 null
+     */
+    long[] candidates(String pattern) {
+        int[] required = LikePattern.requiredGrams(pattern);
+        if (required == null) {
+            return null;
+        }
+        LongPostings[] lists = new LongPostings[required.length];
+        long[] matched = new long[0];
+        boolean missing = false;
+        for (int i = 0; i < required.length; i++) {
+            lists[i] = postings.get(required[i]);
+            if (lists[i] == null) {
+                missing = true;
+                break;
+            }
+        }
+        if (!missing) {
+            matched = LongPostings.intersect(lists);
+        }
+        return LongPostings.union(matched, alwaysCandidates.toArray());
+    }
+
+    int rows() {
+        return values.size();
+    }
+
+    int grams() {
+        return postings.size();
+    }
+
+    long postingCount() {
+        return postingCount;
+    }
+
+    void clear() {
+        postings.clear();
+        alwaysCandidates = new LongPostings();
+        values.clear();
+        postingCount = 0;
+    }
+
+    private void index(long id, String normalized) {
+        if (!isAscii(normalized)) {
+            if (alwaysCandidates.add(id)) {
+                postingCount++;
+            }
+            return;
+        }
+        for (int gram : grams(normalized)) {
+            if (postings.computeIfAbsent(gram, k -> new LongPostings()).add(id)) {
+                postingCount++;
+            }
+        }
+    }
+
+    /**
+     * 值中所有不重复的三元组
+     */
+    static int[] grams(String normalized) {
+        if (normalized.length() < GRAM) {
+            return new int[0];
+        }
+        int[] grams = new int[normalized.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(normalized, i);
+        }
+        return distinct(grams);
+    }
+
+    static int[] distinct(int[] grams) {
+        Arrays.sort(grams);
+        int length = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (length == 0 || grams[length - 1] != grams[i]) {
+                grams[length++] = grams[i];
+            }
+        }
+        return length == grams.length ? grams : Arrays.copyOf(grams, length);
+    }
+
+    /**
+     * 三个 7 位 ASCII 字符拼成一个 int
+     */
+    static int gram(CharSequence normalized, int from) {
+        return normalized.charAt(from) << 14 | normalized.charAt(from + 1) << 7 | normalized.charAt(from + 2);
+    }
+
+    static String normalize(String value) {
+        StringBuilder normalized = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (normalized == null) {
+                    normalized = new StringBuilder(value);
+                }
+                normalized.setCharAt(i, (char) (c + ('a' - 'A')));
+            }
+        }
+        return normalized == null ? value : normalized.toString();
+    }
+
+    static boolean isAscii(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tcl.mybatislearning.session;
+
+import com.tcl.mybatislearning.datasource.WarmingSqlSessionFactoryBuilder;
+import com.tcl.mybatislearning.interceptor.BlogCountInterceptor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 应用启动时由 mybatis-config.xml 构建 SqlSessionFactory，经 {@link WarmingSqlSessionFactoryBuilder}
+ * 预编译映射语句，各阶段耗时记入 {@link StartupReport}，可在 /actuator/mybatisstartup 查看；配置里注册了 SearchIndexInterceptor、BlogCountInterceptor 时还会构建搜索索引、启动行数计数器（默认都不注册）。
+ * <p>
+ * 数据源由 mybatis-config.xml 的 environment 配置，不走 Spring 的 DataSourceAutoConfiguration，
+ * 所以 mybatis-spring-boot-starter 的自动配置不会生效，这里直接注册 SqlSessionFactory。
+ * 配置文件和环境可用 mybatis-learning.config-location、mybatis-learning.environment 覆盖，环境缺省为配置里的 default。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:50
+ */
+@Configuration
+public class SqlSessionFactoryConfiguration {
+
+    @Bean
+    public StartupReport mybatisStartupReport() {
+        return new StartupReport();
+    }
+
+    @Bean
+    public SqlSessionFactory sqlSessionFactory(@Value("${mybatis-learning.config-location:mybatis-config.xml}") String configLocation,
+                                               @Value("${mybatis-learning.environment:}") String environment,
+                                               StartupReport mybatisStartupReport) throws IOException {
+        try (InputStream inputStream = Resources.getResourceAsStream(configLocation)) {
+            return new WarmingSqlSessionFactoryBuilder(mybatisStartupReport)
+                    .build(inputStream, environment.isEmpty() ? null : environment);
+        }
+    }
+
+    /**
+     * 关闭时停止行数计数器的定期对账
+     */
+    @Bean
+    public DisposableBean blogCounterShutdown(SqlSessionFactory sqlSessionFactory) {
+        return () -> BlogCountInterceptor.stopCounters(sqlSessionFactory);
+    }
+}
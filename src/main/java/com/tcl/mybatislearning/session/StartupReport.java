@@ -0,0 +1,47 @@
+package com.tcl.mybatislearning.session;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SqlSessionFactory 启动各阶段耗时，按记录顺序排列，单位毫秒。
+ * 由 {@link com.tcl.mybatislearning.datasource.WarmingSqlSessionFactoryBuilder} 在构建时记录，每个 mapper 单独一项。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:05
+ */
+public class StartupReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * 同名阶段耗时累加
+     */
+    public synchronized void record(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    public synchronized Map<String, Double> getPhases() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        phases.forEach((phase, nanos) -> millis.put(phase, nanos / NANOS_PER_MILLI));
+        return millis;
+    }
+
+    public synchronized double getTotalMillis() {
+        long total = 0;
+        for (long nanos : phases.values()) {
+            total += nanos;
+        }
+        return total / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder("SqlSessionFactory startup:");
+        getPhases().forEach((phase, millis) -> report.append(String.format("%n  %-50s %10.2f ms", phase, millis)));
+        return report.append(String.format("%n  %-50s %10.2f ms", "total", getTotalMillis())).toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.tcl.mybatislearning.session;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/mybatisstartup：查看应用启动时构建 SqlSessionFactory 各阶段的耗时。
+ * 不用 startup 作为 id，较新的 Spring Boot 用它查看应用上下文的启动步骤。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:25
+ */
+@Component
+@Endpoint(id = "mybatisstartup")
+public class StartupReportEndpoint {
+
+    private final StartupReport report;
+
+    public StartupReportEndpoint(StartupReport report) {
+        this.report = report;
+    }
+
+    @ReadOperation
+    public StartupReport startup() {
+        return report;
+    }
+}
@@ -0,0 +1,146 @@
+package com.tcl.mybatislearning.session;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.io.ResolverUtil;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * 解析 mybatis-config.xml，结果与 XMLConfigBuilder 相同，但各阶段分别计入 {@link StartupReport}：
+ * 读取配置文件、构建 Configuration（含数据源和连接池预热）、每个 mapper 的加载。
+ * <p>
+ * 先把 {@code <mappers>} 从配置中摘掉交给 XMLConfigBuilder，再按 XMLConfigBuilder#mapperElement 的规则逐个加载 mapper，
+ * 每个 mapper 单独计时，package 下的接口按接口名、XML 资源按资源路径记录。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:20
+ */
+public class TimedXMLConfigBuilder {
+
+    private final Supplier<XPathParser> parser;
+
+    private final String environment;
+
+    private final Properties properties;
+
+    private final StartupReport report;
+
+    public TimedXMLConfigBuilder(InputStream inputStream, String environment, Properties properties, StartupReport report) {
+        this(() -> new XPathParser(inputStream, false, null, new XMLMapperEntityResolver()), environment, properties, report);
+    }
+
+    public TimedXMLConfigBuilder(Reader reader, String environment, Properties properties, StartupReport report) {
+        this(() -> new XPathParser(reader, false, null, new XMLMapperEntityResolver()), environment, properties, report);
+    }
+
+    private TimedXMLConfigBuilder(Supplier<XPathParser> parser, String environment, Properties properties, StartupReport report) {
+        this.parser = parser;
+        this.environment = environment;
+        this.properties = properties;
+        this.report = report;
+    }
+
+    public Configuration parse() throws Exception {
+        long start = System.nanoTime();
+        XNode root = parser.get().evalNode("/configuration");
+        List<XNode> mapperNodes = new ArrayList<>();
+        XNode mappersNode = root.evalNode("mappers");
+        if (mappersNode != null) {
+            mapperNodes.addAll(mappersNode.getChildren());
+            root.getNode().removeChild(mappersNode.getNode());
+        }
+        String config = serialize(root.getNode().getOwnerDocument());
+        report.record("parse configuration", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        Configuration configuration = new XMLConfigBuilder(new StringReader(config), environment, properties).parse();
+        report.record("configure", System.nanoTime() - start);
+
+        for (XNode child : mapperNodes) {
+            loadMappers(child, configuration);
+        }
+        return configuration;
+    }
+
+    private void loadMappers(XNode child, Configuration configuration) throws Exception {
+        Properties variables = configuration.getVariables();
+        if ("package".equals(child.getName())) {
+            ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<>();
+            resolverUtil.find(new ResolverUtil.IsA(Object.class), attribute(child, "name", variables));
+            for (Class<?> type : resolverUtil.getClasses()) {
+                if (type.isInterface()) {
+                    long start = System.nanoTime();
+                    configuration.addMapper(type);
+                    report.record("mapper " + type.getName(), System.nanoTime() - start);
+                }
+            }
+            return;
+        }
+        String resource = attribute(child, "resource", variables);
+        String url = attribute(child, "url", variables);
+        String mapperClass = attribute(child, "class", variables);
+        long start = System.nanoTime();
+        if (resource != null && url == null && mapperClass == null) {
+            ErrorContext.instance().resource(resource);
+            try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+            report.record("mapper " + resource, System.nanoTime() - start);
+        } else if (resource == null && url != null && mapperClass == null) {
+            ErrorContext.instance().resource(url);
+            try (InputStream inputStream = Resources.getUrlAsStream(url)) {
+                new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments()).parse();
+            }
+            report.record("mapper " + url, System.nanoTime() - start);
+        } else if (resource == null && url == null && mapperClass != null) {
+            configuration.addMapper(Resources.classForName(mapperClass));
+            report.record("mapper " + mapperClass, System.nanoTime() - start);
+        } else {
+            throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+        }
+    }
+
+    private static String attribute(XNode node, String name, Properties variables) {
+        String value = node.getStringAttribute(name);
+        return value == null ? null : PropertyParser.parse(value, variables);
+    }
+
+    /**
+     * 去掉 mappers 后重新序列化；保留 DOCTYPE，XMLConfigBuilder 才能照常按 DTD 校验
+     */
+    private static String serialize(Document document) throws Exception {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        DocumentType doctype = document.getDoctype();
+        if (doctype != null) {
+            transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, doctype.getPublicId());
+            transformer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, doctype.getSystemId());
+        }
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        return writer.toString();
+    }
+}
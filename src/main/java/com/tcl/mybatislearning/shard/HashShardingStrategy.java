@@ -0,0 +1,28 @@
+package com.tcl.mybatislearning.shard;
+
+/**
+ * 按 id 的散列值取模，数据均匀分布，但范围查询要访问所有分片，增减分片需要迁移大部分数据。
+ * <p>
+ * 雪花 id 的低位是序列号，低并发时多为 0，直接取模会严重倾斜，所以先用 MurmurHash3 的 fmix64 打散。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:10
+ */
+public class HashShardingStrategy implements ShardingStrategy {
+
+    @Override
+    public int shardOf(long id, int shards) {
+        return (int) Long.remainderUnsigned(mix(id), shards);
+    }
+
+    static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
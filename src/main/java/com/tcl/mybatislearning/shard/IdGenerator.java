@@ -0,0 +1,14 @@
+package com.tcl.mybatislearning.shard;
+
+/**
+ * 跨分片唯一的 blog id，分片后不能再依赖各库自己的自增列
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:15
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,44 @@
+package com.tcl.mybatislearning.shard;
+
+import java.util.Arrays;
+
+/**
+ * 按 id 区间分片：第 i 个分片存放 [upperBounds[i-1], upperBounds[i]) 内的 id，最后一个分片没有上界。
+ * <p>
+ * 配合 {@link SnowflakeIdGenerator} 时相当于按时间分片（边界可用 {@link SnowflakeIdGenerator#minIdAt(long)} 计算），
+ * 新数据集中在最后一个分片，扩容只需追加分片，但写入热点也在最后一个分片。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:10
+ */
+public class RangeShardingStrategy implements ShardingStrategy {
+
+    private final long[] upperBounds;
+
+    /**
+     * @param upperBounds 严格递增，个数比分片数少一
+     */
+    public RangeShardingStrategy(long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("upperBounds must be strictly increasing: " + Arrays.toString(upperBounds));
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+    }
+
+    @Override
+    public int shardOf(long id, int shards) {
+        int index = Arrays.binarySearch(upperBounds, id);
+        // 等于某个上界时属于下一个分片
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @Override
+    public void check(int shards) {
+        if (upperBounds.length + 1 != shards) {
+            throw new IllegalArgumentException(upperBounds.length + " upper bounds cannot split " + shards + " shards");
+        }
+    }
+}
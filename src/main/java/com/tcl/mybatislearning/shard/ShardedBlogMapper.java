@@ -0,0 +1,414 @@
+package com.tcl.mybatislearning.shard;
+
+import com.tcl.mybatislearning.count.CountMode;
+import com.tcl.mybatislearning.datasource.PoolSizes;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 把 blog 表按 id 水平拆到 N 个库上的 BlogMapper 实现，调用方的代码不用改。
+ * <p>
+ * 每个分片是一个独立的 SqlSessionFactory（各自的数据源和插件），路由规则：
+ * <ul>
+ *     <li>按 id 的单行操作（selectById、updateBlog、deleteBlogById）只访问 {@link ShardingStrategy} 选出的分片</li>
+ *     <li>插入前由 {@link IdGenerator} 生成全局唯一的 id（已有 id 的保留），经 insertBlogWithId/insertBatchWithIds
+ *     显式写入，不再使用各库的自增列</li>
+ *     <li>带 id 列表的操作按分片拆开，只访问涉及的分片</li>
+ *     <li>其他查询并行发往所有分片（scatter-gather），结果合并后按 id 升序返回；
+ *     带 limit 的键集分页在每个分片取 limit 行，合并后再截断，翻页结果与单库一致；count 为各分片之和</li>
+ *     <li>游标和流式读取按分片依次进行，不保证全局 id 顺序；handler 调用 ResultContext.stop() 后不再读后面的分片</li>
+ * </ul>
+ * 每次调用在各分片上独立打开会话：读自动提交，写在分片内是一个事务。跨分片的批量写不是原子的，
+ * 某个分片失败时其余分片的写入已经提交。
+ * <p>
+ * 分片开启二级缓存时，各分片的 environment id 必须不同，否则同一条查询在不同分片上的缓存键会相同。
+ * <p>
+ * author 表不分片，而是假设每个分片上都有一份完全相同的 author 表（同样的 id 和名字），由调用方同步维护：
+ * selectAllWithAuthors/selectAllAfterWithAuthors 在各分片上用该分片的 author 表补全作者，
+ * 写入时也按名字在本分片的 author 表里查 author_id。某个分片缺少作者时，该分片的行只有名字、没有 id。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:40
+ */
+public class ShardedBlogMapper implements BlogMapper, Closeable {
+
+    private static final String NAMESPACE = BlogMapper.class.getName() + ".";
+
+    private static final String INSERT_WITH_ID = NAMESPACE + "insertBlogWithId";
+
+    private static final String INSERT_BATCH_WITH_IDS = NAMESPACE + "insertBatchWithIds";
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final Comparator<Blog> BY_ID = Comparator.comparing(Blog::getId);
+
+    private final List<SqlSessionFactory> shards;
+
+    /**
+     * scatter 的目标：所有分片下标
+     */
+    private final Map<Integer, Integer> allShards = new LinkedHashMap<>();
+
+    private final ShardingStrategy strategy;
+
+    private final IdGenerator idGenerator;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * @param executor 执行 scatter-gather 的线程池，由调用方管理生命周期
+     */
+    public ShardedBlogMapper(List<SqlSessionFactory> shards, ShardingStrategy strategy, IdGenerator idGenerator,
+                             Executor executor) {
+        this(shards, strategy, idGenerator, executor, null);
+    }
+
+    private ShardedBlogMapper(List<SqlSessionFactory> shards, ShardingStrategy strategy, IdGenerator idGenerator,
+                              Executor executor, ExecutorService ownedExecutor) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        strategy.check(shards.size());
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        for (int shard = 0; shard < shards.size(); shard++) {
+            allShards.put(shard, shard);
+        }
+        this.strategy = strategy;
+        this.idGenerator = idGenerator;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * 线程池大小为各分片最大连接数之和，close() 时关闭
+     */
+    public static ShardedBlogMapper create(List<SqlSessionFactory> shards, ShardingStrategy strategy,
+                                           IdGenerator idGenerator) {
+        int poolSize = 0;
+        for (SqlSessionFactory shard : shards) {
+            poolSize += PoolSizes.maximumPoolSize(shard.getConfiguration().getEnvironment().getDataSource(),
+                    DEFAULT_POOL_SIZE);
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, poolSize), runnable -> {
+            Thread thread = new Thread(runnable, "sharded-blog-mapper-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new ShardedBlogMapper(shards, strategy, idGenerator, executor, executor);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(long id) {
+        return strategy.shardOf(id, shards.size());
+    }
+
+    @Override
+    public Blog selectById(Long id) {
+        return id == null ? null : read(shardOf(id), mapper -> mapper.selectById(id));
+    }
+
+    @Override
+    public void insertBlog(Blog blog) {
+        assignId(blog);
+        write(shardOf(blog.getId()), session -> session.insert(INSERT_WITH_ID, blog));
+    }
+
+    @Override
+    public void updateBlog(Blog blog) {
+        // 与单库一致：没有 id 时不影响任何行
+        if (blog.getId() != null) {
+            write(shardOf(blog.getId()), session -> {
+                session.getMapper(BlogMapper.class).updateBlog(blog);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void deleteBlogById(Long id) {
+        if (id != null) {
+            write(shardOf(id), session -> {
+                session.getMapper(BlogMapper.class).deleteBlogById(id);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public List<Blog> selectAll() {
+        return merge(scatter(BlogMapper::selectAll), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Cursor<Blog> selectAllCursor() {
+        return new ShardedCursor<>(shards, session -> session.getMapper(BlogMapper.class).selectAllCursor());
+    }
+
+    @Override
+    public void selectAllStream(ResultHandler<Blog> handler) {
+        stream(BlogMapper::selectAllStream, handler);
+    }
+
+    @Override
+    public Integer count() {
+        int count = 0;
+        for (Integer shardCount : scatter(BlogMapper::count)) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    /**
+     * 各分片按 mode 取行数之和，每个分片各自退回 EXACT，不会把有估算值和没有估算值的分片混在一起
+     */
+    @Override
+    public long count(CountMode mode) {
+        long count = 0;
+        for (Long shardCount : scatter(mapper -> mapper.count(mode))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    /**
+     * 各分片维护计数之和，计数不可用的分片各自执行 count(id)
+     */
+    @Override
+    public Long countMaintained() {
+        long count = 0;
+        for (Long shardCount : scatter(BlogMapper::countMaintained)) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    /**
+     * 各分片估算值之和，都没有估算值时为 null
+     */
+    @Override
+    public Long countEstimate() {
+        Long estimate = null;
+        for (Long shardEstimate : scatter(BlogMapper::countEstimate)) {
+            if (shardEstimate != null) {
+                estimate = estimate == null ? shardEstimate : estimate + shardEstimate;
+            }
+        }
+        return estimate;
+    }
+
+    @Override
+    public List<Blog> selectAllAfter(Long afterId, int limit) {
+        return merge(scatter(mapper -> mapper.selectAllAfter(afterId, limit)), limit);
+    }
+
+    /**
+     * 作者由各分片自己的 author 表补全，假设所有分片上的 author 表相同，见类注释
+     */
+    @Override
+    public List<Blog> selectAllWithAuthors() {
+        return merge(scatter(BlogMapper::selectAllWithAuthors), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 与 {@link #selectAllWithAuthors()} 相同的 author 表假设
+     */
+    @Override
+    public List<Blog> selectAllAfterWithAuthors(Long afterId, int limit) {
+        return merge(scatter(mapper -> mapper.selectAllAfterWithAuthors(afterId, limit)), limit);
+    }
+
+    @Override
+    public List<Blog> selectBlogLike(String title, Author author) {
+        return merge(scatter(mapper -> mapper.selectBlogLike(title, author)), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Blog> selectAllSummary() {
+        return merge(scatter(BlogMapper::selectAllSummary), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Blog> selectBlogLikeSummary(String title, Author author) {
+        return merge(scatter(mapper -> mapper.selectBlogLikeSummary(title, author)), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Blog> selectContentByIds(List<Long> ids) {
+        return merge(scatterByIds(ids, BlogMapper::selectContentByIds), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Blog> selectBlogLikeAfter(String title, Author author, Long afterId, int limit) {
+        return merge(scatter(mapper -> mapper.selectBlogLikeAfter(title, author, afterId, limit)), limit);
+    }
+
+    @Override
+    public List<Blog> selectByIds(List<Long> ids) {
+        return merge(scatterByIds(ids, BlogMapper::selectByIds), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void selectSearchColumns(ResultHandler<Blog> handler) {
+        stream(BlogMapper::selectSearchColumns, handler);
+    }
+
+    @Override
+    public List<Blog> selectBlogLikeByIds(String title, Author author, List<Long> ids) {
+        return merge(scatterByIds(ids, (mapper, shardIds) -> mapper.selectBlogLikeByIds(title, author, shardIds)),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按分片拆开后各分片在自己的事务里并行插入
+     */
+    @Override
+    public void insertBatch(List<Blog> blogs) {
+        for (Blog blog : blogs) {
+            assignId(blog);
+        }
+        gather(groupByShard(blogs, Blog::getId), (shard, shardBlogs) -> write(shard,
+                session -> session.insert(INSERT_BATCH_WITH_IDS, Collections.singletonMap("blogs", shardBlogs))));
+    }
+
+    @Override
+    public int updateColumnsByIds(List<Blog> blogs, boolean title, boolean content, boolean author) {
+        int updated = 0;
+        for (Integer count : gather(groupByShard(blogs, Blog::getId), (shard, shardBlogs) -> write(shard,
+                session -> session.getMapper(BlogMapper.class).updateColumnsByIds(shardBlogs, title, content, author)))) {
+            updated += count;
+        }
+        return updated;
+    }
+
+    private void assignId(Blog blog) {
+        if (blog.getId() == null) {
+            blog.setId(idGenerator.nextId());
+        }
+    }
+
+    /**
+     * 分片下标 -> 该分片上的元素，保持原有顺序
+     */
+    private <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, Long> id) {
+        Map<Integer, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf(id.apply(item)), k -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    private <T> List<T> scatter(Function<BlogMapper, T> call) {
+        return gather(allShards, (shard, ignored) -> read(shard, call));
+    }
+
+    private <T> List<T> scatterByIds(List<Long> ids, BiFunction<BlogMapper, List<Long>, T> call) {
+        return gather(groupByShard(ids, Function.identity()), (shard, shardIds) -> read(shard, mapper -> call.apply(mapper, shardIds)));
+    }
+
+    /**
+     * 对每个分片执行 call，只涉及一个分片时在调用线程上直接执行；任何一个失败都原样抛出它的异常
+     */
+    private <K, T> List<T> gather(Map<Integer, K> targets, BiFunction<Integer, K, T> call) {
+        if (targets.size() == 1) {
+            Map.Entry<Integer, K> target = targets.entrySet().iterator().next();
+            return Collections.singletonList(call.apply(target.getKey(), target.getValue()));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size());
+        targets.forEach((shard, argument) -> futures.add(CompletableFuture.supplyAsync(() -> call.apply(shard, argument), executor)));
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * 合并各分片的结果，按 id 升序取前 limit 行
+     */
+    private static List<Blog> merge(List<List<Blog>> results, int limit) {
+        List<Blog> merged = new ArrayList<>();
+        for (List<Blog> result : results) {
+            merged.addAll(result);
+        }
+        merged.sort(BY_ID);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * 依次在各分片上流式读取；每个分片的 ResultContext 是独立的，handler 在某个分片上 stop 后不再读后面的分片
+     */
+    private void stream(BiConsumer<BlogMapper, ResultHandler<Blog>> call, ResultHandler<Blog> handler) {
+        AtomicBoolean stopped = new AtomicBoolean();
+        ResultHandler<Blog> tracking = context -> {
+            handler.handleResult(context);
+            if (context.isStopped()) {
+                stopped.set(true);
+            }
+        };
+        for (int shard = 0; shard < shards.size() && !stopped.get(); shard++) {
+            read(shard, mapper -> {
+                call.accept(mapper, tracking);
+                return null;
+            });
+        }
+    }
+
+    private <T> T read(int shard, Function<BlogMapper, T> call) {
+        try (SqlSession session = shards.get(shard).openSession(true)) {
+            return call.apply(session.getMapper(BlogMapper.class));
+        }
+    }
+
+    private <T> T write(int shard, Function<SqlSession, T> call) {
+        try (SqlSession session = shards.get(shard).openSession(false)) {
+            T result = call.apply(session);
+            session.commit();
+            return result;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+}
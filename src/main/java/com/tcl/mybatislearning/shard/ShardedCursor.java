@@ -0,0 +1,149 @@
+package com.tcl.mybatislearning.shard;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * 依次读取各分片游标的组合游标，同一时刻只占用一个分片的一个连接。
+ * 按分片顺序输出，不保证全局 id 顺序。与 MyBatis 的游标一样只能迭代一次。
+ * <p>
+ * 创建时就在第一个分片上打开游标，和单库的 selectAllCursor 一样返回时语句已经执行、出错立即抛出；
+ * 从创建到读完或关闭之前 isOpen 都为 true。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:30
+ */
+class ShardedCursor<T> implements Cursor<T> {
+
+    private final List<SqlSessionFactory> shards;
+
+    private final Function<SqlSession, Cursor<T>> open;
+
+    private int shard = -1;
+
+    private SqlSession session;
+
+    private Cursor<T> current;
+
+    private Iterator<T> currentIterator;
+
+    private boolean iteratorRetrieved;
+
+    private boolean closed;
+
+    private boolean consumed;
+
+    private int index = -1;
+
+    ShardedCursor(List<SqlSessionFactory> shards, Function<SqlSession, Cursor<T>> open) {
+        this.shards = shards;
+        this.open = open;
+        openNextShard();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed && !consumed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return index;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iteratorRetrieved) {
+            throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+        }
+        if (closed) {
+            throw new IllegalStateException("A Cursor is already closed.");
+        }
+        iteratorRetrieved = true;
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return advance();
+            }
+
+            @Override
+            public T next() {
+                if (!advance()) {
+                    throw new NoSuchElementException();
+                }
+                index++;
+                return currentIterator.next();
+            }
+        };
+    }
+
+    /**
+     * 当前分片读完就关闭它、打开下一个，直到有数据或所有分片都读完
+     */
+    private boolean advance() {
+        while (!closed && !consumed) {
+            if (currentIterator != null && currentIterator.hasNext()) {
+                return true;
+            }
+            closeShard();
+            if (!openNextShard()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 还有分片可读；没有时标记为已读完
+     */
+    private boolean openNextShard() {
+        if (shard + 1 >= shards.size()) {
+            consumed = true;
+            return false;
+        }
+        shard++;
+        session = shards.get(shard).openSession(true);
+        try {
+            current = open.apply(session);
+            currentIterator = current.iterator();
+        } catch (RuntimeException e) {
+            session.close();
+            session = null;
+            current = null;
+            throw e;
+        }
+        return true;
+    }
+
+    private void closeShard() {
+        if (session != null) {
+            try {
+                current.close();
+            } catch (Exception ignored) {
+                // 随会话一起关闭
+            }
+            session.close();
+            session = null;
+            current = null;
+            currentIterator = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeShard();
+    }
+}
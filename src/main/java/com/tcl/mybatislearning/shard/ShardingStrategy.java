@@ -0,0 +1,22 @@
+package com.tcl.mybatislearning.shard;
+
+/**
+ * 按 blog id 决定所在分片
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:10
+ */
+public interface ShardingStrategy {
+
+    /**
+     * @return [0, shards) 之间的分片下标，同一个 id 必须总是落在同一个分片
+     */
+    int shardOf(long id, int shards);
+
+    /**
+     * 检查策略能否用于 shards 个分片，不能时抛出 IllegalArgumentException
+     */
+    default void check(int shards) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.tcl.mybatislearning.shard;
+
+/**
+ * 雪花算法：41 位毫秒时间戳（自 2026-01-01 起）+ 10 位节点号 + 12 位毫秒内序列号。
+ * <p>
+ * 同一节点内严格递增，不同节点只要节点号不同就不会重复，每个节点每毫秒最多 4096 个，用完时等到下一毫秒。
+ * 时钟回拨时沿用上次的时间戳继续分配序列号，不会生成重复或变小的 id。
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:15
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /**
+     * 2026-01-01T00:00:00Z
+     */
+    public static final long EPOCH = 1767225600000L;
+
+    public static final int NODE_BITS = 10;
+
+    public static final int SEQUENCE_BITS = 12;
+
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+
+    private long lastMillis = -1;
+
+    private long sequence;
+
+    public SnowflakeIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    @Override
+    public synchronized long nextId() {
+        long now = Math.max(currentMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = waitUntilAfter(lastMillis);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * timeMillis 时刻及之后生成的 id 都不小于返回值，可作为按时间划分的 {@link RangeShardingStrategy} 边界
+     */
+    public static long minIdAt(long timeMillis) {
+        return (timeMillis - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    /**
+     * id 的生成时刻（毫秒）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    long currentMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private long waitUntilAfter(long millis) {
+        long now = currentMillis();
+        while (now <= millis) {
+            Thread.yield();
+            now = currentMillis();
+        }
+        return now;
+    }
+}
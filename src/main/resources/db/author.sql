@@ -0,0 +1,26 @@
+-- 作者拆成独立的author表，blog.author_id引用author.id（MySQL）
+-- blog.author在迁移期间保留为冗余的作者名；迁移后新作者由写入路径补进author表并写入author_id
+-- （AuthorAssociationInterceptor、BlogBatchWriter，见AuthorBatchLoader.resolve），下面的回填只需在迁移时执行一次
+
+create table if not exists author
+(
+    id   bigint auto_increment primary key,
+    name varchar(64) not null,
+    unique key uk_author_name (name)
+);
+
+alter table blog
+    add column author_id bigint null after author,
+    add index idx_blog_author_id (author_id);
+
+-- 回填：与AuthorMapper.insertMissingAuthors、linkBlogAuthors相同，可重复执行
+insert into author (name)
+select distinct b.author
+from blog b
+where b.author is not null
+  and not exists(select 1 from author a where a.name = b.author);
+
+update blog b
+    join author a on a.name = b.author
+set b.author_id = a.id
+where b.author_id is null;
@@ -0,0 +1,110 @@
+package com.tcl.generated.model;
+
+import com.tcl.generated.model.Blog;
+import com.tcl.mybatislearning.mapping.RowMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * This class was generated by MyBatis Generator.
+ * This class corresponds to the database table blog
+ *
+ * @mbg.generated do_not_delete_during_merge Sun Oct 18 21:48:28 CST 2026
+ */
+public class BlogRowMapper implements RowMapper<Blog> {
+    /**
+     *
+     * This field was generated by MyBatis Generator.
+     * This field corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    public static final String[] COLUMNS = {"id", "title", "author", "create_time", "update_time", "content"};
+
+    /**
+     *
+     * This field was generated by MyBatis Generator.
+     * This field corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    public static final String[] PROPERTIES = {"id", "title", "author", "createTime", "updateTime", "content"};
+
+    /**
+     *
+     * This field was generated by MyBatis Generator.
+     * This field corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    public static final String[] TYPE_HANDLERS = {"org.apache.ibatis.type.LongTypeHandler", "org.apache.ibatis.type.StringTypeHandler", "org.apache.ibatis.type.StringTypeHandler", "org.apache.ibatis.type.DateTypeHandler", "org.apache.ibatis.type.DateTypeHandler", "org.apache.ibatis.type.StringTypeHandler"};
+
+    /**
+     * This method was generated by MyBatis Generator.
+     * This method corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    @Override
+    public String[] columns() {
+        return COLUMNS;
+    }
+
+    /**
+     * This method was generated by MyBatis Generator.
+     * This method corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    @Override
+    public String[] properties() {
+        return PROPERTIES;
+    }
+
+    /**
+     * This method was generated by MyBatis Generator.
+     * This method corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    @Override
+    public String[] typeHandlers() {
+        return TYPE_HANDLERS;
+    }
+
+    /**
+     * This method was generated by MyBatis Generator.
+     * This method corresponds to the database table blog
+     *
+     * @mbg.generated Sun Oct 18 21:48:28 CST 2026
+     */
+    @Override
+    public Blog map(ResultSet rs, int[] columnIndexes) throws SQLException {
+        Blog row = new Blog();
+        int index;
+        if ((index = columnIndexes[0]) > 0) {
+            long value = rs.getLong(index);
+            row.setId(rs.wasNull() ? null : value);
+        }
+        if ((index = columnIndexes[1]) > 0) {
+            row.setTitle(rs.getString(index));
+        }
+        if ((index = columnIndexes[2]) > 0) {
+            row.setAuthor(rs.getString(index));
+        }
+        if ((index = columnIndexes[3]) > 0) {
+            Timestamp value = rs.getTimestamp(index);
+            row.setCreateTime(value == null ? null : new Date(value.getTime()));
+        }
+        if ((index = columnIndexes[4]) > 0) {
+            Timestamp value = rs.getTimestamp(index);
+            row.setUpdateTime(value == null ? null : new Date(value.getTime()));
+        }
+        if ((index = columnIndexes[5]) > 0) {
+            row.setContent(rs.getString(index));
+        }
+        return row;
+    }
+}
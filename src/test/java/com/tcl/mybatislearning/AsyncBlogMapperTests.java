@@ -0,0 +1,112 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.async.AsyncBlogMapper;
+import com.tcl.mybatislearning.entity.Blog;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:00
+ */
+class AsyncBlogMapperTests {
+
+    private static PooledDataSource dataSource;
+
+    private static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("async_blog_mapper");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        EmbeddedDatabase.seed(sessionFactory, 100);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testFanOut() throws Exception {
+        try (AsyncBlogMapper mapper = AsyncBlogMapper.create(sessionFactory)) {
+            // PooledDataSource默认10个连接
+            Assertions.assertEquals(10 * AsyncBlogMapper.DEFAULT_IN_FLIGHT_PER_CONNECTION, mapper.getMaxInFlight());
+            List<CompletableFuture<Blog>> futures = new ArrayList<>();
+            for (long id = 1; id <= 30; id++) {
+                futures.add(mapper.selectById(id));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                Assertions.assertEquals(i + 1L, futures.get(i).get().getId());
+            }
+            Assertions.assertEquals(3, mapper.selectByIds(Arrays.asList(1L, 2L, 3L)).get().size());
+
+            Blog blog = EmbeddedDatabase.blogs(1000, 1).get(0);
+            Assertions.assertNotNull(mapper.insertBlog(blog).get().getId());
+            Assertions.assertEquals(101, mapper.count().get());
+            mapper.deleteBlogById(blog.getId()).get();
+            Assertions.assertEquals(100, mapper.count().get());
+            Assertions.assertEquals(0, mapper.getInFlight());
+        }
+    }
+
+    @Test
+    void testBackpressure() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try (AsyncBlogMapper mapper = new AsyncBlogMapper(sessionFactory, executor, 2)) {
+            CompletableFuture<Integer> first = mapper.read(m -> await(release, m.count()));
+            CompletableFuture<Integer> second = mapper.read(m -> await(release, m.count()));
+            CompletableFuture<Blog> rejected = mapper.selectById(1L);
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, rejected::get);
+            Assertions.assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+            release.countDown();
+            Assertions.assertEquals(100, first.get());
+            Assertions.assertEquals(100, second.get());
+            // 许可在future完成之前已经归还
+            Assertions.assertEquals(0, mapper.getInFlight());
+            Assertions.assertEquals(1L, mapper.selectById(1L).get().getId());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testWriteRollsBackOnFailure() throws Exception {
+        try (AsyncBlogMapper mapper = AsyncBlogMapper.create(sessionFactory)) {
+            CompletableFuture<Object> failed = mapper.write(m -> {
+                m.insertBlog(EmbeddedDatabase.blogs(2000, 1).get(0));
+                throw new IllegalStateException("boom");
+            });
+            Assertions.assertThrows(ExecutionException.class, failed::get);
+            Assertions.assertEquals(100, mapper.count().get());
+        }
+    }
+
+    private static <T> T await(CountDownLatch latch, T value) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
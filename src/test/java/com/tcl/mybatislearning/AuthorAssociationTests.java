@@ -0,0 +1,286 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogBatchWriter;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.AuthorAssociationInterceptor;
+import com.tcl.mybatislearning.interceptor.ChangeTrackingInterceptor;
+import com.tcl.mybatislearning.mapper.AuthorMapper;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.page.KeysetPage;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:00
+ */
+class AuthorAssociationTests {
+
+    private PooledDataSource dataSource;
+
+    private SqlSessionFactory sessionFactory;
+
+    private AuthorAssociationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("author_association");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        interceptor = new AuthorAssociationInterceptor();
+        sessionFactory.getConfiguration().addInterceptor(interceptor);
+        sessionFactory.getConfiguration().addInterceptor(new ChangeTrackingInterceptor());
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("delete from author");
+        }
+        EmbeddedDatabase.seed(sessionFactory, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testMigrationAndBatchedLoading() throws Exception {
+        // 退回迁移前的状态：种子数据写入时补进author表的作者和author_id都清掉
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("update blog set author_id = null");
+            statement.execute("delete from author");
+        }
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            AuthorMapper authors = session.getMapper(AuthorMapper.class);
+            // 迁移前的作者还没有进author表：只有名字
+            Blog unlinked = session.getMapper(BlogMapper.class).selectAllWithAuthors().get(0);
+            Assertions.assertNull(unlinked.getAuthor().getId());
+            Assertions.assertEquals("author-0", unlinked.getAuthor().getName());
+            Assertions.assertEquals(0, interceptor.getQueryCount());
+
+            Assertions.assertEquals(10, authors.insertMissingAuthors());
+            Assertions.assertEquals(0, authors.insertMissingAuthors());
+            Assertions.assertEquals(100, authors.linkBlogAuthors());
+            Assertions.assertEquals(0, authors.linkBlogAuthors());
+        }
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            List<Blog> blogs = session.getMapper(BlogMapper.class).selectAllWithAuthors();
+            Assertions.assertEquals(100, blogs.size());
+            // 100行只多一次in查询
+            Assertions.assertEquals(1, interceptor.getQueryCount());
+            Set<Author> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Blog blog : blogs) {
+                Author author = blog.getAuthor();
+                Assertions.assertNotNull(author.getId());
+                int i = Integer.parseInt(blog.getTitle().substring("title-".length()));
+                Assertions.assertEquals("author-" + i % 10, author.getName());
+                distinct.add(author);
+                // 补全作者发生在变更跟踪之前
+                Assertions.assertTrue(blog.changedColumns().isEmpty());
+            }
+            Assertions.assertEquals(10, distinct.size());
+            Author loaded = session.getMapper(AuthorMapper.class).selectByName("author-3");
+            Assertions.assertNotNull(loaded.getId());
+            Assertions.assertEquals("author-3", loaded.getName());
+            Assertions.assertEquals(loaded, session.getMapper(AuthorMapper.class).selectById(loaded.getId()));
+        }
+    }
+
+    /**
+     * Author没有全局注册TypeHandler，作者名列靠显式的typeHandler，author表靠association
+     */
+    @Test
+    void testExplicitMappings() {
+        Assertions.assertFalse(sessionFactory.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(Author.class));
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            Blog blog = new Blog();
+            blog.setTitle("no-author");
+            mapper.insertBlog(blog);
+            Blog loaded = mapper.selectById(blog.getId());
+            Assertions.assertEquals("author-0", mapper.selectAll().get(0).getAuthor().getName());
+            // 作者名列经AuthorTypeHandler映射，null列是没有名字的Author；association在author_id和名字都为null时为null
+            Assertions.assertNull(loaded.getAuthor().getName());
+            for (Blog withAuthor : mapper.selectAllWithAuthors()) {
+                if (withAuthor.getId().equals(blog.getId())) {
+                    Assertions.assertNull(withAuthor.getAuthor());
+                } else {
+                    Assertions.assertNotNull(withAuthor.getAuthor().getName());
+                }
+            }
+            loaded.setAuthor(author("author-7"));
+            mapper.updateBlog(loaded);
+            Assertions.assertEquals("author-7", mapper.selectById(blog.getId()).getAuthor().getName());
+        }
+    }
+
+    @Test
+    void testPagesWithAndWithoutIdentityMap() {
+        link();
+        Assertions.assertEquals(5, pageThrough());
+        interceptor.setIdentityMap(true);
+        // 第一页加载全部10个作者，之后的页都命中会话内的映射
+        Assertions.assertEquals(1, pageThrough());
+
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            Author first = mapper.selectAllAfterWithAuthors(null, 1).get(0).getAuthor();
+            Assertions.assertSame(first, mapper.selectAllAfterWithAuthors(null, 1).get(0).getAuthor());
+            long before = interceptor.getQueryCount();
+            // author表的写语句清空映射
+            Author author = new Author();
+            author.setName("new-author");
+            session.getMapper(AuthorMapper.class).insertAuthor(author);
+            mapper.selectAllAfterWithAuthors(null, 1);
+            Assertions.assertEquals(before + 1, interceptor.getQueryCount());
+        }
+    }
+
+    @Test
+    void testWritesKeepAuthorIdInSync() {
+        link();
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            AuthorMapper authors = session.getMapper(AuthorMapper.class);
+            Author created = new Author();
+            created.setName("created");
+            authors.insertAuthor(created);
+
+            // 只给名字：按名字关联
+            Blog byName = blog("by-name", "author-4");
+            mapper.insertBlog(byName);
+            // 给了id：直接使用
+            Blog byId = blog("by-id", null);
+            byId.setAuthor(created);
+            mapper.insertBlog(byId);
+            // author表里没有：写入时补进author表
+            Blog unknown = blog("unknown", "nobody");
+            mapper.insertBlog(unknown);
+            mapper.insertBatch(Arrays.asList(blog("batch", "author-5"), blog("batch-new", "newcomer")));
+
+            Map<String, Author> byTitle = authorsByTitle(mapper);
+            Assertions.assertEquals(authors.selectByName("author-4"), byTitle.get("by-name"));
+            Assertions.assertEquals(created, byTitle.get("by-id"));
+            Author nobody = authors.selectByName("nobody");
+            Assertions.assertNotNull(nobody.getId());
+            Assertions.assertEquals(nobody, byTitle.get("unknown"));
+            Assertions.assertEquals(authors.selectByName("author-5"), byTitle.get("batch"));
+            Assertions.assertEquals(authors.selectByName("newcomer"), byTitle.get("batch-new"));
+            Assertions.assertNotNull(byTitle.get("batch-new").getId());
+            // 参数里的作者换成了author表里的作者
+            Assertions.assertEquals(nobody, unknown.getAuthor());
+
+            Blog update = new Blog();
+            update.setId(byName.getId());
+            update.setAuthor(author("created"));
+            mapper.updateBlog(update);
+            Assertions.assertEquals(created, authorsByTitle(mapper).get("by-name"));
+
+            List<Blog> page = mapper.selectAllAfterWithAuthors(null, 3);
+            for (Blog blog : page) {
+                blog.setAuthor(author("author-9"));
+            }
+            Assertions.assertEquals(3, mapper.updateBatch(page));
+            Author author9 = authors.selectByName("author-9");
+            for (Blog blog : mapper.selectAllAfterWithAuthors(null, 3)) {
+                Assertions.assertEquals(author9, blog.getAuthor());
+            }
+        }
+    }
+
+    @Test
+    void testBatchWriterCreatesAuthorsPerChunk() {
+        List<Blog> blogs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            blogs.add(blog("written-" + i, "writer-" + i % 5));
+        }
+        long resolves = interceptor.getResolveCount();
+        try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 20, 1)) {
+            writer.writeAll(blogs);
+        }
+        // 写入器按块自己解析作者，逐条insertBlog时作者已带id，拦截器不再查询
+        Assertions.assertEquals(resolves, interceptor.getResolveCount());
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            AuthorMapper authors = session.getMapper(AuthorMapper.class);
+            Map<String, Author> byTitle = authorsByTitle(session.getMapper(BlogMapper.class));
+            for (int i = 0; i < 50; i++) {
+                Author author = byTitle.get("written-" + i);
+                Assertions.assertNotNull(author.getId());
+                Assertions.assertEquals(authors.selectByName("writer-" + i % 5), author);
+            }
+        }
+    }
+
+    private void link() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            AuthorMapper authors = session.getMapper(AuthorMapper.class);
+            authors.insertMissingAuthors();
+            authors.linkBlogAuthors();
+        }
+    }
+
+    /**
+     * 每页20行翻完100行
+     *
+     * @return 补全作者的查询次数
+     */
+    private long pageThrough() {
+        long before = interceptor.getQueryCount();
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            String token = null;
+            int rows = 0;
+            do {
+                KeysetPage<Blog> page = mapper.selectAllPageWithAuthors(token, 20);
+                for (Blog blog : page.getItems()) {
+                    Assertions.assertNotNull(blog.getAuthor().getId());
+                    rows++;
+                }
+                token = page.getNextToken();
+            } while (token != null);
+            Assertions.assertEquals(100, rows);
+        }
+        return interceptor.getQueryCount() - before;
+    }
+
+    private static Map<String, Author> authorsByTitle(BlogMapper mapper) {
+        Map<String, Author> authors = new HashMap<>();
+        for (Blog blog : mapper.selectAllWithAuthors()) {
+            authors.put(blog.getTitle(), blog.getAuthor());
+        }
+        return authors;
+    }
+
+    private static Blog blog(String title, String authorName) {
+        Blog blog = new Blog();
+        blog.setTitle(title);
+        blog.setContent(title);
+        if (authorName != null) {
+            blog.setAuthor(author(authorName));
+        }
+        return blog;
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setName(name);
+        return author;
+    }
+}
@@ -0,0 +1,74 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.handler.AuthorCache;
+import com.tcl.mybatislearning.handler.AuthorTypeHandler;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:25
+ */
+class AuthorCacheTests {
+
+    @Test
+    void testCanonicalize() {
+        AuthorCache cache = new AuthorCache(2);
+        Author a1 = cache.get("a");
+        Assertions.assertSame(a1, cache.get("a"));
+        Author b1 = cache.get("b");
+        // 超出容量后淘汰没有再命中过的b，a有访问标记得以保留
+        Author c1 = cache.get("c");
+        Assertions.assertSame(c1, cache.get("c"));
+        Assertions.assertSame(a1, cache.get("a"));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        Assertions.assertNotSame(b1, cache.get("b"));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(2, cache.getEvictionCount());
+        Assertions.assertEquals(3, cache.getHitCount());
+        Assertions.assertEquals(4, cache.getMissCount());
+
+        // 共享实例只读，但与同名普通Author相等
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> a1.setName("x"));
+        Author plain = new Author();
+        plain.setName("a");
+        Assertions.assertEquals(plain, a1);
+        Assertions.assertEquals(a1, plain);
+    }
+
+    @Test
+    void testSelectAllSharesAuthors() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("author_cache");
+        try {
+            AuthorCache cache = new AuthorCache(100);
+            // resultMap 里的 typeHandler=AuthorTypeHandler 优先使用配置里已注册的同类实例
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource, "h2", configuration ->
+                    configuration.getTypeHandlerRegistry().register(Author.class, new AuthorTypeHandler(cache)));
+            EmbeddedDatabase.seed(sessionFactory, 200);
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                List<Blog> blogs = session.getMapper(BlogMapper.class).selectAll();
+                Map<Author, Boolean> distinct = new IdentityHashMap<>();
+                blogs.forEach(blog -> distinct.put(blog.getAuthor(), true));
+                // 测试数据只有10个作者
+                Assertions.assertEquals(10, distinct.size());
+                Assertions.assertEquals(10, cache.getMissCount());
+                Assertions.assertEquals(190, cache.getHitCount());
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogBatchWriter;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:55
+ */
+class BatchWriterTests {
+    static PooledDataSource dataSource;
+    static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setup() {
+        dataSource = EmbeddedDatabase.dataSource("batch_writer");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @BeforeEach
+    void truncate() throws Exception {
+        EmbeddedDatabase.truncate(dataSource);
+    }
+
+    private int count() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).count();
+        }
+    }
+
+    @Test
+    void testWriteInChunks() {
+        List<Blog> blogs = EmbeddedDatabase.blogs(0, 2_500);
+        try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 500, 2)) {
+            writer.writeAll(blogs);
+            Assertions.assertEquals(2_500, writer.getWrittenCount());
+            // 每两块提交一次，最后半个提交间隔尚未提交
+            Assertions.assertEquals(2_000, writer.getCommittedCount());
+        }
+        Assertions.assertEquals(2_500, count());
+
+        // 主键已回填且互不相同
+        Set<Long> ids = new HashSet<>();
+        for (Blog blog : blogs) {
+            Assertions.assertNotNull(blog.getId());
+            ids.add(blog.getId());
+        }
+        Assertions.assertEquals(2_500, ids.size());
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            Blog last = blogs.get(blogs.size() - 1);
+            Assertions.assertEquals(last.getTitle(), session.getMapper(BlogMapper.class).selectById(last.getId()).getTitle());
+        }
+    }
+
+    @Test
+    void testRollbackUncommitted() {
+        try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 100, 5)) {
+            writer.writeAll(EmbeddedDatabase.blogs(0, 500));
+            writer.writeAll(EmbeddedDatabase.blogs(500, 150));
+            writer.rollback();
+            Assertions.assertEquals(500, writer.getWrittenCount());
+        }
+        Assertions.assertEquals(500, count());
+    }
+
+    @Test
+    void testFailedChunkNotCommittedOnClose() {
+        Blog tooLong = tooLong(20);
+        try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 10, 100)) {
+            writer.writeAll(EmbeddedDatabase.blogs(0, 10));
+            writer.writeAll(EmbeddedDatabase.blogs(10, 9));
+            Assertions.assertThrows(RuntimeException.class, () -> writer.write(tooLong));
+            Assertions.assertTrue(writer.isFailed());
+            // 即使错误是暂时的（这里改短标题来模拟），失败的块也不会在close时重新执行并提交
+            tooLong.setTitle("title-20");
+            Assertions.assertThrows(IllegalStateException.class, writer::commit);
+        }
+        Assertions.assertEquals(0, count());
+
+        // rollback后可以继续写入
+        try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 1, 100)) {
+            Assertions.assertThrows(RuntimeException.class, () -> writer.write(tooLong(0)));
+            writer.rollback();
+            Assertions.assertFalse(writer.isFailed());
+            writer.writeAll(EmbeddedDatabase.blogs(0, 5));
+        }
+        Assertions.assertEquals(5, count());
+    }
+
+    private static Blog tooLong(int i) {
+        Blog blog = EmbeddedDatabase.blogs(i, 1).get(0);
+        blog.setTitle(String.join("", Collections.nCopies(300, "x")));
+        return blog;
+    }
+}
@@ -0,0 +1,190 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogBatchWriter;
+import com.tcl.mybatislearning.count.BlogCounter;
+import com.tcl.mybatislearning.count.CountMode;
+import com.tcl.mybatislearning.interceptor.BlogCountInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 09:45
+ */
+class BlogCountTests {
+
+    @Test
+    void testMaintainedCount() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("blog_count");
+        BlogCounter counter = new BlogCounter();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new BlogCountInterceptor(counter));
+            EmbeddedDatabase.seed(sessionFactory, 100);
+            Assertions.assertFalse(counter.isReady());
+            BlogCountInterceptor.startCounters(sessionFactory);
+            Assertions.assertTrue(counter.isReady());
+            Assertions.assertEquals(100, count(sessionFactory, counter));
+            counter.stop();
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).insertBlog(EmbeddedDatabase.blogs(0, 1).get(0));
+            }
+            Assertions.assertEquals(101, count(sessionFactory, counter));
+
+            // 提交前不计入，回滚丢弃
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.insertBatch(EmbeddedDatabase.blogs(0, 5));
+                Assertions.assertEquals(101, mapper.count(CountMode.MAINTAINED));
+                Assertions.assertEquals(106, mapper.count(CountMode.EXACT));
+                session.commit();
+            }
+            Assertions.assertEquals(106, count(sessionFactory, counter));
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                session.getMapper(BlogMapper.class).deleteBlogById(1L);
+                session.rollback();
+            }
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.deleteBlogById(2L);
+                mapper.deleteBlogById(-1L);
+            }
+            Assertions.assertEquals(106, count(sessionFactory, counter));
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.deleteBlogById(2L);
+                mapper.deleteBlogById(-1L);
+                session.commit();
+            }
+            Assertions.assertEquals(105, count(sessionFactory, counter));
+
+            // BATCH执行器的影响行数来自刷新结果
+            try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 10, 2)) {
+                writer.writeAll(EmbeddedDatabase.blogs(0, 35));
+            }
+            Assertions.assertEquals(140, count(sessionFactory, counter));
+
+            // 绕过MyBatis的写入在对账时修正
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("delete from blog where id between 3 and 12");
+            }
+            Assertions.assertEquals(140, count(sessionFactory, counter));
+            Assertions.assertEquals(-10, counter.reconcile(sessionFactory));
+            Assertions.assertEquals(130, count(sessionFactory, counter));
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals(130, session.getMapper(BlogMapper.class).count());
+            }
+
+            counter.invalidate();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("delete from blog where id between 13 and 22");
+            }
+            Assertions.assertEquals(120, count(sessionFactory, counter));
+        } finally {
+            counter.stop();
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testReconcileBypassesCache() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("blog_count_uncached");
+        BlogCounter counter = new BlogCounter();
+        try {
+            // 与mybatis-config.xml一样开启二级缓存
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource, "h2",
+                    configuration -> configuration.setCacheEnabled(true));
+            sessionFactory.getConfiguration().addInterceptor(new BlogCountInterceptor(counter));
+            EmbeddedDatabase.seed(sessionFactory, 10);
+            Assertions.assertEquals(0, counter.reconcile(sessionFactory));
+            // 提交后count的结果若进了二级缓存，绕过BlogMapper的写入不会驱逐它
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals(10, session.getMapper(BlogMapper.class).count(CountMode.EXACT));
+            }
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("insert into blog (title, author_id, content) values ('raw', 1, 'raw')");
+            }
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals(11, session.getMapper(BlogMapper.class).count(CountMode.EXACT));
+            }
+            Assertions.assertEquals(1, counter.reconcile(sessionFactory));
+            Assertions.assertEquals(11, counter.current());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testCounterPerConfiguration() throws Exception {
+        PooledDataSource first = EmbeddedDatabase.dataSource("blog_count_first");
+        PooledDataSource second = EmbeddedDatabase.dataSource("blog_count_second");
+        SqlSessionFactory firstFactory = EmbeddedDatabase.sessionFactory(first);
+        SqlSessionFactory secondFactory = EmbeddedDatabase.sessionFactory(second);
+        try {
+            firstFactory.getConfiguration().addInterceptor(new BlogCountInterceptor());
+            secondFactory.getConfiguration().addInterceptor(new BlogCountInterceptor());
+            EmbeddedDatabase.seed(firstFactory, 10);
+            EmbeddedDatabase.seed(secondFactory, 20);
+            BlogCountInterceptor.startCounters(firstFactory);
+            BlogCountInterceptor.startCounters(secondFactory);
+            try (SqlSession session = firstFactory.openSession(true)) {
+                Assertions.assertEquals(10, session.getMapper(BlogMapper.class).count(CountMode.MAINTAINED));
+            }
+            try (SqlSession session = secondFactory.openSession(true)) {
+                Assertions.assertEquals(20, session.getMapper(BlogMapper.class).count(CountMode.MAINTAINED));
+            }
+        } finally {
+            BlogCountInterceptor.stopCounters(firstFactory);
+            BlogCountInterceptor.stopCounters(secondFactory);
+            EmbeddedDatabase.close(first);
+            EmbeddedDatabase.close(second);
+        }
+    }
+
+    @Test
+    void testApproximateCount() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("blog_count_estimate");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 1000);
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                Assertions.assertEquals(1000, mapper.count(CountMode.EXACT));
+                // 没有注册BlogCountInterceptor，退回精确计数
+                Assertions.assertEquals(1000, mapper.count(CountMode.MAINTAINED));
+                long estimate = mapper.count(CountMode.APPROXIMATE);
+                Assertions.assertEquals(1000, estimate, 100);
+            }
+
+            // 没有对应databaseId的语句时退回精确计数
+            SqlSessionFactory withoutEstimate = EmbeddedDatabase.sessionFactory(dataSource, null);
+            try (SqlSession session = withoutEstimate.openSession(true)) {
+                Assertions.assertEquals(1000, session.getMapper(BlogMapper.class).count(CountMode.APPROXIMATE));
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    private static long count(SqlSessionFactory sessionFactory, BlogCounter counter) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            long count = session.getMapper(BlogMapper.class).count(CountMode.MAINTAINED);
+            Long current = counter.current();
+            Assertions.assertTrue(current == null || current == count, current + " != " + count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.loader.BlogIdsLoader;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 17:30
+ */
+class BlogIdsLoaderTests {
+
+    private static final Set<String> SQL_TEXTS = ConcurrentHashMap.newKeySet();
+
+    private static PooledDataSource dataSource;
+
+    private static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("blog_ids_loader");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        EmbeddedDatabase.seed(sessionFactory, 3000);
+        sessionFactory.getConfiguration().addInterceptor(new SqlTextCapture());
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testCallerOrder() {
+        try (BlogIdsLoader loader = new BlogIdsLoader(sessionFactory, 4)) {
+            List<Blog> blogs = loader.load(Arrays.asList(7L, 3L, 99_999L, 7L, 1L));
+            Assertions.assertEquals(3, blogs.size());
+            Assertions.assertEquals(7L, blogs.get(0).getId());
+            Assertions.assertEquals(3L, blogs.get(1).getId());
+            Assertions.assertEquals(1L, blogs.get(2).getId());
+            Assertions.assertTrue(loader.load(Collections.emptyList()).isEmpty());
+        }
+    }
+
+    @Test
+    void testLargeLookup() {
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            ids.add(1L + random.nextInt(5000));
+        }
+        SQL_TEXTS.clear();
+        try (BlogIdsLoader loader = new BlogIdsLoader(sessionFactory, 4)) {
+            List<Blog> blogs = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> loader.load(ids));
+            List<Long> expected = new ArrayList<>(new LinkedHashSet<>(ids));
+            expected.removeIf(id -> id > 3000);
+            Assertions.assertEquals(expected.size(), blogs.size());
+            for (int i = 0; i < blogs.size(); i++) {
+                Assertions.assertEquals(expected.get(i), blogs.get(i).getId());
+            }
+        }
+        // 所有块都补齐到固定档位，SQL文本种类不超过档位数
+        Assertions.assertTrue(SQL_TEXTS.size() <= BlogIdsLoader.DEFAULT_BUCKETS.length, SQL_TEXTS.size() + " texts");
+        // 最大一档也要能进驱动的预编译语句缓存
+        int longest = SQL_TEXTS.stream().mapToInt(String::length).max().orElse(0);
+        Assertions.assertTrue(longest <= BlogIdsLoader.MAX_SQL_LENGTH, longest + " chars");
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class SqlTextCapture implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            SQL_TEXTS.add(((StatementHandler) invocation.getTarget()).getBoundSql().getSql());
+            return invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogImporter;
+import com.tcl.mybatislearning.batch.ImportProgress;
+import com.tcl.mybatislearning.batch.ImportResult;
+import com.tcl.mybatislearning.batch.RejectedRow;
+import com.tcl.mybatislearning.entity.Blog;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:00
+ */
+class BlogImportTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper";
+
+    static PooledDataSource dataSource;
+    static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setup() {
+        dataSource = EmbeddedDatabase.dataSource("blog_import");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @BeforeEach
+    void truncate() throws Exception {
+        EmbeddedDatabase.truncate(dataSource);
+    }
+
+    private static Map<String, Blog> byTitle() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            Map<String, Blog> blogs = new HashMap<>();
+            for (Blog blog : session.<Blog>selectList(NAMESPACE + ".selectAll")) {
+                blogs.put(blog.getTitle(), blog);
+            }
+            return blogs;
+        }
+    }
+
+    private static Path write(String suffix, String text) throws IOException {
+        Path path = Files.createTempFile("blog-import", suffix);
+        path.toFile().deleteOnExit();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void testCsv() throws Exception {
+        StringBuilder csv = new StringBuilder("﻿id,Title,content,author\r\n");
+        for (int i = 0; i < 3_000; i++) {
+            // 引号内的换行和逗号会落在块、窗口边界上
+            csv.append(i).append(",title-").append(i).append(",\"line 1, \"\"quoted\"\"\nline 2 of ").append(i)
+                    .append("\",author-").append(i % 7).append("\r\n");
+        }
+        // 每条记录占两个物理行，第6002行：标题超长；6003行：字段数不对；6004行：未加引号的字段里有引号
+        csv.append("x,").append(repeat('t', 256)).append(",c,a\r\n");
+        csv.append("x,short\r\n");
+        csv.append("x,bad\"quote,c,a\r\n");
+        // 空行跳过；空字段为 null，"" 为空字符串；最后一行没有换行
+        csv.append("\r\n");
+        csv.append("x,title-null,,\r\n");
+        csv.append("x,title-empty,\"\",");
+
+        List<ImportProgress> reports = new CopyOnWriteArrayList<>();
+        ImportResult result = new BlogImporter(sessionFactory)
+                .parsers(3).writers(2).chunkSize(100).chunksPerCommit(3)
+                .chunkBytes(512).window(4096).queueCapacity(2)
+                .maxRejectedSamples(2)
+                .progress(reports::add, 10)
+                .run(write(".csv", csv.toString()));
+
+        ImportProgress progress = result.getProgress();
+        Assertions.assertEquals(3_002, progress.getParsedRows());
+        Assertions.assertEquals(3, progress.getRejectedRows());
+        Assertions.assertEquals(3_002, progress.getWrittenRows());
+        Assertions.assertEquals(3_002, progress.getCommittedRows());
+        Assertions.assertEquals(progress.getTotalBytes(), progress.getParsedBytes());
+        Assertions.assertEquals(1.0, progress.getFraction());
+        Assertions.assertEquals(progress, reports.get(reports.size() - 1));
+
+        // 样本数受限，多个解析线程下取到哪两条不确定
+        Assertions.assertEquals(2, result.getRejected().size());
+        for (RejectedRow row : result.getRejected()) {
+            Assertions.assertTrue(row.getLine() >= 6_002 && row.getLine() <= 6_004, row.toString());
+        }
+
+        Map<String, Blog> blogs = byTitle();
+        Assertions.assertEquals(3_002, blogs.size());
+        Blog blog = blogs.get("title-1234");
+        Assertions.assertEquals("line 1, \"quoted\"\nline 2 of 1234", blog.getContent());
+        Assertions.assertEquals("author-" + 1234 % 7, blog.getAuthor().getName());
+        Assertions.assertNull(blogs.get("title-null").getContent());
+        // AuthorTypeHandler 把 null 列映射成没有名字的 Author
+        Assertions.assertNull(blogs.get("title-null").getAuthor().getName());
+        Assertions.assertEquals("", blogs.get("title-empty").getContent());
+    }
+
+    @Test
+    void testJsonl() throws Exception {
+        StringBuilder jsonl = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            if (i % 2 == 0) {
+                jsonl.append("{\"title\":\"title-").append(i).append("\",\"content\":\"内容\\n").append(i)
+                        .append("\",\"author\":\"author-").append(i % 3).append("\"}\n");
+            } else {
+                jsonl.append("{\"title\":\"title-").append(i).append("\",\"author\":{\"name\":\"author-")
+                        .append(i % 3).append("\"}}\n");
+            }
+        }
+        jsonl.append("\n");
+        jsonl.append("{\"title\": \"broken\"\n");
+        jsonl.append("{\"title\": 42}\n");
+        jsonl.append("[1, 2]\n");
+        jsonl.append("{\"title\": \"no-author\", \"author\": null}");
+
+        ImportResult result = new BlogImporter(sessionFactory)
+                .parsers(2).writers(3).chunkSize(64).chunkBytes(1024)
+                .run(write(".jsonl", jsonl.toString()));
+
+        Assertions.assertEquals(1_001, result.getProgress().getCommittedRows());
+        List<Long> lines = new ArrayList<>();
+        for (RejectedRow row : result.getRejected()) {
+            lines.add(row.getLine());
+        }
+        lines.sort(null);
+        Assertions.assertEquals(Arrays.asList(1_002L, 1_003L, 1_004L), lines);
+
+        Map<String, Blog> blogs = byTitle();
+        Assertions.assertEquals(1_001, blogs.size());
+        Assertions.assertEquals("内容\n10", blogs.get("title-10").getContent());
+        Assertions.assertEquals("author-1", blogs.get("title-10").getAuthor().getName());
+        Assertions.assertNull(blogs.get("title-11").getContent());
+        Assertions.assertEquals("author-2", blogs.get("title-11").getAuthor().getName());
+        Assertions.assertNull(blogs.get("no-author").getAuthor().getName());
+    }
+
+    @Test
+    void testStrayQuote() throws Exception {
+        // 第3行未加引号的字段里有引号，只拒绝这一行；后面多行带引号的记录跨越块和窗口边界
+        StringBuilder csv = new StringBuilder("title,content\n");
+        csv.append("first,c\n");
+        csv.append("bad\"quote,c\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("title-").append(i).append(",\"line 1\nline 2 of ").append(i).append("\"\n");
+        }
+        // 第404行的引号到文件末尾都没有闭合，在下一行重新同步
+        csv.append("unterminated,\"never closed\n");
+        csv.append("last,c\n");
+        ImportResult result = new BlogImporter(sessionFactory)
+                .parsers(2).chunkBytes(128).window(512)
+                .run(write(".csv", csv.toString()));
+
+        Assertions.assertEquals(202, result.getProgress().getCommittedRows());
+        List<Long> lines = new ArrayList<>();
+        for (RejectedRow row : result.getRejected()) {
+            lines.add(row.getLine());
+        }
+        lines.sort(null);
+        Assertions.assertEquals(Arrays.asList(3L, 404L), lines);
+        Map<String, Blog> blogs = byTitle();
+        Assertions.assertEquals("line 1\nline 2 of 199", blogs.get("title-199").getContent());
+        Assertions.assertEquals("c", blogs.get("last").getContent());
+    }
+
+    @Test
+    void testEmptyCsv() throws Exception {
+        for (String csv : Arrays.asList("", "\uFEFF")) {
+            PersistenceException e = Assertions.assertThrows(PersistenceException.class,
+                    () -> new BlogImporter(sessionFactory).run(write(".csv", csv)));
+            Assertions.assertTrue(e.getMessage().contains("CSV header has none of title, content, author"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testRecordLongerThanWindow() throws Exception {
+        String csv = "title,content\nshort,c\nlong,\"" + repeat('c', 200) + "\"\n";
+        PersistenceException e = Assertions.assertThrows(PersistenceException.class,
+                () -> new BlogImporter(sessionFactory).window(64).run(write(".csv", csv)));
+        Assertions.assertTrue(e.getMessage().contains("longer than 64 bytes"), e.getMessage());
+    }
+}
@@ -0,0 +1,65 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.factory.CachingObjectFactory;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:05
+ */
+class CachingObjectFactoryTests {
+
+    private final CachingObjectFactory factory = new CachingObjectFactory();
+
+    static class PackagePrivateBean {
+        final String name;
+
+        private PackagePrivateBean() {
+            this("none");
+        }
+
+        PackagePrivateBean(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    void testCreate() {
+        Assertions.assertEquals(Blog.class, factory.create(Blog.class).getClass());
+        Assertions.assertNotSame(factory.create(Blog.class), factory.create(Blog.class));
+        Assertions.assertEquals(ArrayList.class, factory.create(List.class).getClass());
+        Assertions.assertEquals(HashMap.class, factory.create(Map.class).getClass());
+        Assertions.assertEquals("none", factory.create(PackagePrivateBean.class).name);
+    }
+
+    @Test
+    void testCreateWithArgs() {
+        PackagePrivateBean bean = factory.create(PackagePrivateBean.class,
+                Collections.singletonList(String.class), Collections.singletonList("li"));
+        Assertions.assertEquals("li", bean.name);
+
+        StringBuilder builder = factory.create(StringBuilder.class,
+                Collections.singletonList(int.class), Collections.singletonList(16));
+        Assertions.assertEquals(16, builder.capacity());
+    }
+
+    @Test
+    void testErrors() {
+        Assertions.assertThrows(ReflectionException.class, () -> factory.create(Runnable.class));
+        Assertions.assertThrows(ReflectionException.class, () -> factory.create(PackagePrivateBean.class,
+                Arrays.asList(String.class, String.class), Arrays.asList("a", "b")));
+        Assertions.assertThrows(ReflectionException.class, () -> factory.create(StringBuilder.class,
+                Collections.singletonList(int.class), Collections.singletonList("x")));
+    }
+}
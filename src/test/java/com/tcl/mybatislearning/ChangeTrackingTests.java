@@ -0,0 +1,262 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.cache.TinyLfuCache;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.entity.BlogColumn;
+import com.tcl.mybatislearning.entity.LazyContentBlog;
+import com.tcl.mybatislearning.interceptor.ChangeTrackingInterceptor;
+import com.tcl.mybatislearning.interceptor.LazyContentInterceptor;
+import com.tcl.mybatislearning.interceptor.StatementMetricsInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:50
+ */
+class ChangeTrackingTests {
+
+    private static final String UPDATE_STATEMENT = "com.tcl.mybatislearning.mapper.BlogMapper.updateColumnsByIds";
+
+    static PooledDataSource dataSource;
+    static SqlSessionFactory sessionFactory;
+    static StatementMetricsRegistry registry = new StatementMetricsRegistry();
+
+    @BeforeAll
+    static void setup() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("change_tracking");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        sessionFactory.getConfiguration().addInterceptor(new LazyContentInterceptor());
+        sessionFactory.getConfiguration().addInterceptor(new ChangeTrackingInterceptor());
+        sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+        EmbeddedDatabase.seed(sessionFactory, 400);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    private static long updateCalls() {
+        return registry.find(UPDATE_STATEMENT) == null ? 0 : registry.find(UPDATE_STATEMENT).snapshot().getCalls();
+    }
+
+    private static Blog select(Long id) {
+        return select(sessionFactory, id);
+    }
+
+    private static Blog select(SqlSessionFactory sessionFactory, Long id) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectById(id);
+        }
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setName(name);
+        return author;
+    }
+
+    @Test
+    void testUpdateBatchSendsOnlyChangedColumns() throws Exception {
+        List<Blog> blogs;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            blogs = session.getMapper(BlogMapper.class).selectAll();
+        }
+        blogs.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        for (Blog blog : blogs) {
+            Assertions.assertTrue(blog.tracksChanges());
+            Assertions.assertTrue(blog.changedColumns().isEmpty());
+        }
+        // 300行只改标题（256一块 + 44补齐到64），50行改标题和作者，1行把作者改成同名的新实例，1行改了又改回去
+        for (int i = 0; i < 300; i++) {
+            blogs.get(i).setTitle("retagged-" + i);
+        }
+        for (int i = 300; i < 350; i++) {
+            blogs.get(i).setTitle("moved-" + i);
+            blogs.get(i).setAuthor(author("new-author"));
+        }
+        Blog sameAuthor = blogs.get(350);
+        sameAuthor.setAuthor(author(sameAuthor.getAuthor().getName()));
+        Blog reverted = blogs.get(351);
+        String title = reverted.getTitle();
+        reverted.setTitle("changed");
+        reverted.setTitle(title);
+        Assertions.assertTrue(sameAuthor.changedColumns().isEmpty());
+        Assertions.assertTrue(reverted.changedColumns().isEmpty());
+        Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE, BlogColumn.AUTHOR), blogs.get(300).changedColumns());
+
+        // 加载之后别人改了content，只写标题不会覆盖它
+        Blog first = blogs.get(0);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("update blog set content = 'concurrent' where id = " + first.getId());
+        }
+
+        long calls = updateCalls();
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            Assertions.assertEquals(350, session.getMapper(BlogMapper.class).updateBatch(blogs));
+        }
+        Assertions.assertEquals(3, updateCalls() - calls);
+        for (Blog blog : blogs) {
+            Assertions.assertTrue(blog.changedColumns().isEmpty());
+        }
+
+        Blog updated = select(first.getId());
+        Assertions.assertEquals("retagged-0", updated.getTitle());
+        Assertions.assertEquals("concurrent", updated.getContent());
+        Blog moved = select(blogs.get(320).getId());
+        Assertions.assertEquals("moved-320", moved.getTitle());
+        Assertions.assertEquals("new-author", moved.getAuthor().getName());
+        Assertions.assertEquals(blogs.get(320).getContent(), moved.getContent());
+
+        // 没有变更时不发送任何语句
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            Assertions.assertEquals(0, session.getMapper(BlogMapper.class).updateBatch(blogs));
+        }
+        Assertions.assertEquals(3, updateCalls() - calls);
+    }
+
+    @Test
+    void testRebaseOnlyAfterCommit() {
+        List<Blog> blogs;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            blogs = session.getMapper(BlogMapper.class).selectAll();
+        }
+        blogs.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        List<Blog> changed = new ArrayList<>(blogs.subList(360, 362));
+        String title = changed.get(0).getTitle();
+        for (Blog blog : changed) {
+            blog.setTitle("rolled-back");
+        }
+
+        // 回滚后仍然是变更状态，数据库里也没有写入
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            Assertions.assertEquals(2, session.getMapper(BlogMapper.class).updateBatch(changed));
+            Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE), changed.get(0).changedColumns());
+            session.rollback();
+        }
+        Assertions.assertEquals(title, select(changed.get(0).getId()).getTitle());
+        Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE), changed.get(0).changedColumns());
+
+        // 未提交就关闭同样不改基准
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            session.getMapper(BlogMapper.class).updateBatch(changed);
+        }
+        Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE), changed.get(1).changedColumns());
+
+        // BATCH执行器在提交时才真正执行，之前保持变更状态；中途再改的content不算已写入
+        try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+            session.getMapper(BlogMapper.class).updateBatch(changed);
+            changed.get(0).setContent("after-update");
+            Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE, BlogColumn.CONTENT), changed.get(0).changedColumns());
+            session.commit();
+        }
+        Assertions.assertEquals(EnumSet.of(BlogColumn.CONTENT), changed.get(0).changedColumns());
+        Assertions.assertTrue(changed.get(1).changedColumns().isEmpty());
+        Assertions.assertEquals("rolled-back", select(changed.get(0).getId()).getTitle());
+    }
+
+    @Test
+    void testCachedBlogsAreCopies() {
+        Long id;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            List<Blog> blogs = session.getMapper(BlogMapper.class).selectAll();
+            blogs.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            id = blogs.get(370).getId();
+        }
+        SqlSessionFactory cached = EmbeddedDatabase.sessionFactory(dataSource, "h2",
+                configuration -> configuration.setCacheEnabled(true));
+        cached.getConfiguration().addInterceptor(new ChangeTrackingInterceptor());
+        // 第一次查询提交后进入二级缓存，之后两个会话命中缓存
+        Blog loaded = select(cached, id);
+        Blog first = select(cached, id);
+        Blog second = select(cached, id);
+        TinyLfuCache cache = TinyLfuCache.unwrap(cached.getConfiguration().getCache(BlogMapper.class.getName()));
+        Assertions.assertEquals(2, cache.getStats().getHits());
+        Assertions.assertNotSame(first, second);
+        first.setTitle("edited-in-first");
+        Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE), first.changedColumns());
+        Assertions.assertTrue(second.tracksChanges());
+        Assertions.assertTrue(second.changedColumns().isEmpty());
+        Assertions.assertEquals(loaded.getTitle(), second.getTitle());
+    }
+
+    @Test
+    void testStreamingResultsAreTracked() throws Exception {
+        List<Blog> blogs = new ArrayList<>();
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            mapper.selectAllStream(context -> blogs.add(context.getResultObject()));
+            try (Cursor<Blog> cursor = mapper.selectAllCursor()) {
+                cursor.forEach(blogs::add);
+            }
+        }
+        Assertions.assertEquals(800, blogs.size());
+        for (Blog blog : blogs) {
+            Assertions.assertTrue(blog.tracksChanges());
+        }
+    }
+
+    @Test
+    void testLazyContentAndNewObjects() {
+        List<Blog> summaries;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            summaries = session.getMapper(BlogMapper.class).selectBlogLikeSummary("title-39%", null);
+        }
+        Blog summary = summaries.get(0);
+        Assertions.assertTrue(summary.changedColumns().isEmpty());
+        Assertions.assertFalse(((LazyContentBlog) summary).isContentLoaded());
+        // 延迟加载回来的content是基准值，不算变更
+        Assertions.assertNotNull(summary.getContent());
+        Assertions.assertTrue(summary.changedColumns().isEmpty());
+        summary.setContent("edited");
+        Assertions.assertEquals(EnumSet.of(BlogColumn.CONTENT), summary.changedColumns());
+
+        // 自己new的对象没有基准，非null的列都写回
+        Blog blog = new Blog();
+        blog.setId(summaries.get(1).getId());
+        blog.setTitle("untracked");
+        Assertions.assertFalse(blog.tracksChanges());
+        Assertions.assertEquals(EnumSet.of(BlogColumn.TITLE), blog.changedColumns());
+
+        try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            mapper.updateBatch(summaries.subList(0, 1));
+            mapper.updateBatch(Collections.singletonList(blog));
+            session.commit();
+        }
+        Assertions.assertEquals("edited", select(summary.getId()).getContent());
+        Blog untracked = select(blog.getId());
+        Assertions.assertEquals("untracked", untracked.getTitle());
+        Assertions.assertNotNull(untracked.getContent());
+        Assertions.assertTrue(blog.tracksChanges());
+
+        // updateBlog只设置部分字段时set子句不再留下多余的逗号
+        Blog partial = new Blog();
+        partial.setId(blog.getId());
+        partial.setTitle("partial");
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            session.getMapper(BlogMapper.class).updateBlog(partial);
+        }
+        Assertions.assertEquals("partial", select(blog.getId()).getTitle());
+    }
+}
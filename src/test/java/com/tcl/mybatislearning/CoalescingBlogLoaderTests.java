@@ -0,0 +1,97 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.StatementMetricsInterceptor;
+import com.tcl.mybatislearning.loader.CoalescingBlogLoader;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 18:20
+ */
+class CoalescingBlogLoaderTests {
+
+    private static final String SELECT_BY_IDS = "com.tcl.mybatislearning.mapper.BlogMapper.selectByIds";
+
+    private static final StatementMetricsRegistry REGISTRY = new StatementMetricsRegistry();
+
+    private static PooledDataSource dataSource;
+
+    private static SqlSessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("coalescing_loader");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        EmbeddedDatabase.seed(sessionFactory, 500);
+        sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(REGISTRY));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testBatchesAndDeduplicates() throws Exception {
+        REGISTRY.reset();
+        try (CoalescingBlogLoader loader = new CoalescingBlogLoader(sessionFactory, 50_000, 64, 2)) {
+            List<CompletableFuture<Blog>> futures = new ArrayList<>();
+            for (long id = 1; id <= 100; id++) {
+                futures.add(loader.load(id));
+                futures.add(loader.load(id));
+            }
+            futures.add(loader.load(10_000L));
+            for (int i = 0; i < 200; i++) {
+                Assertions.assertEquals(i / 2 + 1L, futures.get(i).get(5, TimeUnit.SECONDS).getId());
+            }
+            Assertions.assertNull(futures.get(200).get(5, TimeUnit.SECONDS));
+            Assertions.assertSame(futures.get(0), futures.get(1));
+            Assertions.assertEquals(201, loader.getRequestCount());
+            // 第二次请求id=64时第一批已凑满发出，它进入下一批，不算重复
+            Assertions.assertEquals(99, loader.getDeduplicatedCount());
+            // 凑满64个id发一批，其余38个等窗口到期
+            Assertions.assertEquals(2, loader.getBatchCount());
+            Assertions.assertEquals(2, REGISTRY.find(SELECT_BY_IDS).snapshot().getCalls());
+        }
+    }
+
+    @Test
+    void testConcurrentCallers() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(32);
+        try (CoalescingBlogLoader loader = new CoalescingBlogLoader(sessionFactory)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Blog>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                long id = 1 + i % 500;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return loader.get(id);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                Assertions.assertEquals(1L + i % 500, results.get(i).get(10, TimeUnit.SECONDS).getId());
+            }
+            Assertions.assertTrue(loader.getBatchCount() < 2000, loader.getBatchCount() + " batches");
+        } finally {
+            callers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.datasource.C3P0DataSourceFactory;
+import com.tcl.mybatislearning.datasource.DruidDataSourceFactory;
+import com.tcl.mybatislearning.datasource.HikariDataSourceFactory;
+import com.tcl.mybatislearning.datasource.ManagedPool;
+import com.tcl.mybatislearning.datasource.ManagedPoolDataSourceFactory;
+import com.tcl.mybatislearning.datasource.PoolRegistry;
+import com.tcl.mybatislearning.datasource.PoolSnapshot;
+import com.tcl.mybatislearning.datasource.PoolSizes;
+import com.tcl.mybatislearning.datasource.PoolWarmer;
+import com.tcl.mybatislearning.datasource.WarmingSqlSessionFactoryBuilder;
+import com.tcl.mybatislearning.loader.BlogIdsLoader;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:40
+ */
+class ConnectionPoolTests {
+
+    @Test
+    void testDruidPool() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("poolName", "druid-test");
+        properties.setProperty("url", EmbeddedDatabase.url("pool_druid"));
+        properties.setProperty("minIdle", "2");
+        properties.setProperty("maxActive", "4");
+        assertManagedPool(new DruidDataSourceFactory(), properties, "druid", 2, 4);
+    }
+
+    @Test
+    void testHikariPool() throws Exception {
+        // HikariDataSource在构造时就已启动，连接池属性只能写在hikariCP.properties里
+        Properties properties = new Properties();
+        properties.setProperty("poolName", "hikari-test");
+        properties.setProperty("warmUpConnections", "3");
+        assertManagedPool(new HikariDataSourceFactory(), properties, "hikari", 3, 10);
+    }
+
+    @Test
+    void testC3P0Pool() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("poolName", "c3p0-test");
+        properties.setProperty("jdbcUrl", EmbeddedDatabase.url("pool_c3p0"));
+        properties.setProperty("minPoolSize", "2");
+        properties.setProperty("maxPoolSize", "4");
+        // c3p0默认异步归还连接，统计会滞后
+        properties.setProperty("forceSynchronousCheckins", "true");
+        assertManagedPool(new C3P0DataSourceFactory(), properties, "c3p0", 2, 4);
+    }
+
+    private static void assertManagedPool(ManagedPoolDataSourceFactory factory, Properties properties,
+                                          String type, int warmUp, int maximum) throws Exception {
+        factory.setProperties(properties);
+        DataSource dataSource = factory.getDataSource();
+        try {
+            ManagedPool pool = factory.getManagedPool();
+            String name = properties.getProperty("poolName");
+            Assertions.assertSame(pool, PoolRegistry.getDefault().find(name));
+            Assertions.assertSame(pool, PoolRegistry.getDefault().find(dataSource));
+            Assertions.assertEquals(maximum, PoolSizes.maximumPoolSize(dataSource, -1));
+
+            // 预热直接向连接池借连接，不计入借连接统计
+            PoolSnapshot warmed = pool.snapshot();
+            Assertions.assertEquals(type, warmed.getType());
+            Assertions.assertEquals(maximum, warmed.getMaximum());
+            Assertions.assertEquals(0, warmed.getActive());
+            Assertions.assertTrue(warmed.getIdle() >= warmUp, "idle " + warmed.getIdle());
+            Assertions.assertEquals(0, warmed.getAcquires());
+
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < 3; i++) {
+                    connections.add(dataSource.getConnection());
+                }
+                PoolSnapshot busy = pool.snapshot();
+                Assertions.assertEquals(3, busy.getActive());
+                Assertions.assertEquals(3, busy.getAcquires());
+                Assertions.assertEquals(0, busy.getAcquireErrors());
+                Assertions.assertTrue(busy.getAcquireMaxMicros() >= busy.getAcquireP50Micros());
+            } finally {
+                for (Connection connection : connections) {
+                    connection.close();
+                }
+            }
+            Assertions.assertEquals(0, pool.snapshot().getActive());
+            Assertions.assertTrue(PoolRegistry.getDefault().getPools().stream().anyMatch(p -> name.equals(p.getName())));
+            Assertions.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(PoolRegistry.OBJECT_NAME)));
+
+            pool.resetStats();
+            Assertions.assertEquals(0, pool.snapshot().getAcquires());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+        Assertions.assertNull(PoolRegistry.getDefault().find(dataSource));
+    }
+
+    @Test
+    void testSameNamePools() throws Exception {
+        DataSource first = sameNamePool("pool_same_name_1");
+        DataSource second = sameNamePool("pool_same_name_2");
+        ManagedPool firstPool = PoolRegistry.getDefault().find(first);
+        ManagedPool secondPool = PoolRegistry.getDefault().find(second);
+        try {
+            Assertions.assertNotNull(firstPool);
+            Assertions.assertNotNull(secondPool);
+            Assertions.assertEquals("druid-same-name", firstPool.getId());
+            Assertions.assertEquals("druid-same-name-2", secondPool.getId());
+            Assertions.assertSame(secondPool, PoolRegistry.getDefault().find("druid-same-name-2"));
+        } finally {
+            EmbeddedDatabase.close(first);
+        }
+        // 关闭后移除，名称可被重新使用
+        Assertions.assertNull(PoolRegistry.getDefault().find(first));
+        Assertions.assertSame(secondPool, PoolRegistry.getDefault().find(second));
+        DataSource third = sameNamePool("pool_same_name_3");
+        try {
+            Assertions.assertEquals("druid-same-name", PoolRegistry.getDefault().find(third).getId());
+        } finally {
+            EmbeddedDatabase.close(second);
+            EmbeddedDatabase.close(third);
+        }
+        Assertions.assertNull(PoolRegistry.getDefault().find("druid-same-name"));
+        Assertions.assertNull(PoolRegistry.getDefault().find("druid-same-name-2"));
+    }
+
+    private static DataSource sameNamePool(String database) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("poolName", "druid-same-name");
+        properties.setProperty("url", EmbeddedDatabase.url(database));
+        DruidDataSourceFactory factory = new DruidDataSourceFactory();
+        factory.setProperties(properties);
+        return factory.getDataSource();
+    }
+
+    @Test
+    void testStatementWarmUp() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("poolName", "druid-warm-up");
+        properties.setProperty("url", EmbeddedDatabase.url("pool_warm_up"));
+        properties.setProperty("minIdle", "2");
+        DruidDataSourceFactory factory = new DruidDataSourceFactory();
+        factory.setProperties(properties);
+        DataSource dataSource = factory.getDataSource();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            List<String> sqls = PoolWarmer.preparableSql(sessionFactory.getConfiguration());
+            // id列表按档位各预编译一条，与运行时补齐后的in列表文本相同
+            for (int size : BlogIdsLoader.DEFAULT_BUCKETS) {
+                List<Long> ids = new ArrayList<>(Collections.nCopies(size, 1L));
+                String expected = sessionFactory.getConfiguration().getMappedStatement(BlogMapper.class.getName() + ".selectByIds")
+                        .getBoundSql(Collections.singletonMap("ids", ids)).getSql().trim();
+                Assertions.assertTrue(sqls.contains(expected), expected);
+            }
+            // updateBlog用所有字段都有值的参数生成，不会出现运行时发不出的"update blog where id = ?"
+            Assertions.assertTrue(sqls.stream().anyMatch(sql -> sql.startsWith("update blog") && sql.contains("author_id")));
+            Assertions.assertFalse(sqls.stream().anyMatch(sql -> sql.replaceAll("\\s+", " ").startsWith("update blog where")));
+            // 文本随调用方变化的insertBatch跳过
+            Assertions.assertFalse(sqls.stream().anyMatch(sql -> sql.startsWith("insert into blog") && sql.contains("),")));
+            // 返回两个预热连接上的总数
+            int prepared = PoolWarmer.warmUp(sessionFactory);
+            Assertions.assertEquals(2 * sqls.size(), prepared);
+
+            ManagedPool pool = factory.getManagedPool();
+            Assertions.assertThrows(Exception.class, () -> dataSource.getConnection("nobody", "nobody"));
+            Assertions.assertEquals(1, pool.snapshot().getAcquireErrors());
+            pool.resetStats();
+            Assertions.assertEquals(0, pool.snapshot().getAcquireErrors());
+            sessionFactory = new WarmingSqlSessionFactoryBuilder().build(sessionFactory.getConfiguration());
+            Assertions.assertEquals(0, pool.snapshot().getAcquires());
+            Assertions.assertEquals(0, pool.snapshot().getActive());
+
+            EmbeddedDatabase.seed(sessionFactory, 10);
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals("title-0", session.getMapper(BlogMapper.class).selectById(1L).getTitle());
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.scripting.CompiledSqlSource;
+import com.tcl.mybatislearning.scripting.CompiledXMLLanguageDriver;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:20
+ */
+class DynamicSqlTests {
+
+    private static final String LIVE_MAPPER = "com/tcl/mybatislearning/mapper/BlogMapper.xml";
+
+    /**
+     * src/main/resources 下的旧副本，应与 mapper 包下的版本保持一致
+     */
+    private static final String COPY_MAPPER = "mapper/BlogMapper.xml";
+
+    /**
+     * 接口上没有方法的语句 -> 参数相同的方法
+     */
+    private static final Map<String, String> STATEMENT_SIGNATURES = new HashMap<>();
+
+    static {
+        STATEMENT_SIGNATURES.put("insertBlogWithId", "insertBlog");
+        STATEMENT_SIGNATURES.put("insertBatchWithIds", "insertBatch");
+    }
+
+    @Test
+    void testCompiledSqlMatchesOgnl() throws Exception {
+        for (String resource : Arrays.asList(LIVE_MAPPER, COPY_MAPPER)) {
+            Configuration compiled = configuration(CompiledXMLLanguageDriver.class, resource);
+            Configuration interpreted = configuration(XMLLanguageDriver.class, resource);
+            int dynamic = 0;
+            for (String id : statementIds(compiled)) {
+                MappedStatement ms = compiled.getMappedStatement(id);
+                if (ms.getSqlSource() instanceof CompiledSqlSource) {
+                    dynamic++;
+                    CompiledSqlSource sqlSource = (CompiledSqlSource) ms.getSqlSource();
+                    Assertions.assertTrue(sqlSource.isVerifying());
+                    Assertions.assertEquals(Collections.emptyList(), sqlSource.getInterpretedExpressions(), id);
+                }
+                // 第二遍命中按SQL形状缓存的参数映射
+                for (Object parameter : concat(parameters(compiled, id), parameters(compiled, id))) {
+                    BoundSql expected = interpreted.getMappedStatement(id).getBoundSql(parameter);
+                    BoundSql actual = ms.getBoundSql(parameter);
+                    Assertions.assertEquals(expected.getSql(), actual.getSql(), id);
+                    Assertions.assertEquals(properties(expected), properties(actual), id);
+                }
+            }
+            Assertions.assertTrue(dynamic >= 3, resource);
+        }
+    }
+
+    @Test
+    void testParsedSqlCacheChecksBindingTypes() throws Exception {
+        MappedStatement ms = configuration(CompiledXMLLanguageDriver.class, LIVE_MAPPER)
+                .getMappedStatement(BlogMapper.class.getName() + ".selectByIds");
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("ids", Arrays.asList(1L, 2L));
+        BoundSql longs = ms.getBoundSql(parameter);
+        parameter.put("ids", Arrays.asList(3L, 4L));
+        Assertions.assertSame(longs.getParameterMappings(), ms.getBoundSql(parameter).getParameterMappings());
+        // 同样的SQL形状、不同的元素类型不能复用缓存的参数映射
+        parameter.put("ids", Arrays.asList(1, 2));
+        BoundSql integers = ms.getBoundSql(parameter);
+        Assertions.assertEquals(longs.getSql(), integers.getSql());
+        Assertions.assertEquals(Long.class, longs.getParameterMappings().get(0).getJavaType());
+        Assertions.assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    }
+
+    @Test
+    void testMapperCopiesDoNotDrift() throws Exception {
+        Configuration live = configuration(CompiledXMLLanguageDriver.class, LIVE_MAPPER);
+        Configuration copy = configuration(CompiledXMLLanguageDriver.class, COPY_MAPPER);
+        Set<String> liveIds = statementIds(live);
+        Set<String> copyIds = statementIds(copy);
+        Assertions.assertTrue(liveIds.containsAll(copyIds), "statements only in the copy: " + copyIds);
+        for (String id : copyIds) {
+            Assertions.assertEquals(live.getMappedStatement(id).getSqlCommandType(), copy.getMappedStatement(id).getSqlCommandType(), id);
+            for (Object parameter : parameters(live, id)) {
+                BoundSql expected = live.getMappedStatement(id).getBoundSql(parameter);
+                BoundSql actual = copy.getMappedStatement(id).getBoundSql(parameter);
+                // 副本没有blogColumns片段，列清单不同是允许的，条件和参数必须一致
+                Assertions.assertEquals(normalize(expected.getSql()), normalize(actual.getSql()), id);
+                Assertions.assertEquals(properties(expected), properties(actual), id);
+            }
+        }
+    }
+
+    @Test
+    void testOgnlFallback() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+                + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+                + "<mapper namespace=\"fallback\">\n"
+                + "  <select id=\"select\" resultType=\"map\">\n"
+                + "    select * from blog where 1 = 1\n"
+                + "    <if test=\"flag == 'Y'\">and a = 1</if>\n"
+                + "    <if test=\"size * 2 > 4\">and b = 2</if>\n"
+                + "    <if test=\"code == 1\">and c = 3</if>\n"
+                + "    <if test=\"title != null and title != '' and title.length() >= 2\">and title = #{title}</if>\n"
+                + "    <if test=\"!(ids == null or ids.isEmpty())\">and id in\n"
+                + "      <foreach collection=\"ids\" item=\"id\" open=\"(\" close=\")\" separator=\",\">#{id}</foreach>\n"
+                + "    </if>\n"
+                + "  </select>\n"
+                + "</mapper>";
+        Configuration configuration = configuration(CompiledXMLLanguageDriver.class, null);
+        try (InputStream inputStream = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))) {
+            new XMLMapperBuilder(inputStream, configuration, "fallback.xml", configuration.getSqlFragments()).parse();
+        }
+        MappedStatement ms = configuration.getMappedStatement("fallback.select");
+        Assertions.assertEquals(Arrays.asList("flag == 'Y'", "size * 2 > 4"),
+                ((CompiledSqlSource) ms.getSqlSource()).getInterpretedExpressions());
+
+        Map<String, Object> parameter = new HashMap<>();
+        // OGNL中'Y'是Character
+        parameter.put("flag", 'Y');
+        parameter.put("size", 3);
+        // 字符串与数字比较需要OGNL的类型转换，运行时回退
+        parameter.put("code", "1");
+        parameter.put("title", "ab");
+        parameter.put("ids", Arrays.asList(1L, 2L));
+        Assertions.assertEquals("select * from blog where 1 = 1 and a = 1 and b = 2 and c = 3 and title = ? and id in ( ? , ? )",
+                ms.getBoundSql(parameter).getSql().replaceAll("\\s+", " ").trim());
+        parameter.put("title", "a");
+        parameter.put("ids", Collections.emptyList());
+        parameter.put("code", 2L);
+        Assertions.assertEquals("select * from blog where 1 = 1 and a = 1 and b = 2",
+                ms.getBoundSql(parameter).getSql().replaceAll("\\s+", " ").trim());
+    }
+
+    private static List<Object> concat(List<Object> first, List<Object> second) {
+        List<Object> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static Configuration configuration(Class<? extends LanguageDriver> driver, String resource) throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.getVariables().setProperty(CompiledXMLLanguageDriver.VERIFY_PROPERTY, "true");
+        configuration.setDefaultScriptingLanguage(driver);
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.getTypeAliasRegistry().registerAliases("com.tcl.mybatislearning.entity");
+        if (resource != null) {
+            try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        return configuration;
+    }
+
+    private static Set<String> statementIds(Configuration configuration) {
+        return configuration.getMappedStatementNames().stream()
+                .filter(id -> id.startsWith(BlogMapper.class.getName() + "."))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static List<String> properties(BoundSql boundSql) {
+        return boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(Collectors.toList());
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim().replaceFirst("(?i)^select .*? from ", "select * from ");
+    }
+
+    /**
+     * 按 BlogMapper 方法签名枚举每个参数取 null 与典型值的全部组合，转换方式与 MapperMethod 相同
+     */
+    private static List<Object> parameters(Configuration configuration, String id) {
+        String statement = id.substring(id.lastIndexOf('.') + 1);
+        String name = STATEMENT_SIGNATURES.getOrDefault(statement, statement);
+        Method method = Arrays.stream(BlogMapper.class.getMethods())
+                .filter(m -> m.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("no mapper method for " + id));
+        List<Object[]> combinations = Collections.singletonList(new Object[0]);
+        for (Type type : method.getGenericParameterTypes()) {
+            List<Object[]> next = new ArrayList<>();
+            for (Object[] prefix : combinations) {
+                for (Object candidate : candidates(type)) {
+                    Object[] args = Arrays.copyOf(prefix, prefix.length + 1);
+                    args[prefix.length] = candidate;
+                    next.add(args);
+                }
+            }
+            combinations = next;
+        }
+        ParamNameResolver resolver = new ParamNameResolver(configuration, method);
+        return combinations.stream().map(resolver::getNamedParams).collect(Collectors.toList());
+    }
+
+    private static List<Object> candidates(Type type) {
+        if (type == Long.class) {
+            return Arrays.asList(null, 7L);
+        }
+        if (type == int.class) {
+            return Collections.singletonList(20);
+        }
+        if (type == String.class) {
+            return Arrays.asList(null, "title%");
+        }
+        if (type == Author.class) {
+            return Arrays.asList(null, author(null), author("author%"));
+        }
+        if (type == Blog.class) {
+            List<Object> blogs = new ArrayList<>();
+            for (int mask = 0; mask < 8; mask++) {
+                Blog blog = new Blog();
+                blog.setId(3L);
+                blog.setTitle((mask & 1) == 0 ? null : "title");
+                blog.setContent((mask & 2) == 0 ? null : "content");
+                blog.setAuthor((mask & 4) == 0 ? null : author("author"));
+                blogs.add(blog);
+            }
+            return blogs;
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+            Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (element == Long.class) {
+                return Arrays.asList(Collections.emptyList(), Collections.singletonList(1L), Arrays.asList(1L, 2L, 3L));
+            }
+            return Arrays.asList(EmbeddedDatabase.blogs(0, 1), EmbeddedDatabase.blogs(0, 3));
+        }
+        // ResultHandler等特殊参数
+        return Collections.singletonList(null);
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setName(name);
+        return author;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.datasource.InstrumentedDataSource;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.scripting.CompiledXMLLanguageDriver;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 测试和基准共用的内嵌数据库：H2 的 MySQL 兼容模式，表结构见 db/schema.sql
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:30
+ */
+public final class EmbeddedDatabase {
+
+    private EmbeddedDatabase() {
+    }
+
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/schema.sql'";
+    }
+
+    public static PooledDataSource dataSource(String name) {
+        return new PooledDataSource("org.h2.Driver", url(name), "sa", "");
+    }
+
+    /**
+     * 与mybatis-config.xml等价的Java配置，但不注册只做打印的插件和对象工厂
+     */
+    public static SqlSessionFactory sessionFactory(DataSource dataSource) {
+        return sessionFactory(dataSource, "h2");
+    }
+
+    /**
+     * @param databaseId 决定加载哪些带databaseId的语句，null时只加载通用语句
+     */
+    public static SqlSessionFactory sessionFactory(DataSource dataSource, String databaseId) {
+        return sessionFactory(dataSource, databaseId, configuration -> {
+        });
+    }
+
+    /**
+     * @param customizer 在加载映射文件之前调用，比如注册 resultMap 里 typeHandler 要用的实例
+     */
+    public static SqlSessionFactory sessionFactory(DataSource dataSource, String databaseId, Consumer<Configuration> customizer) {
+        Environment environment = new Environment("embedded", new JdbcTransactionFactory(), dataSource);
+        Configuration configuration = new Configuration(environment);
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setCacheEnabled(false);
+        configuration.setDefaultScriptingLanguage(CompiledXMLLanguageDriver.class);
+        configuration.setDatabaseId(databaseId);
+        configuration.getTypeAliasRegistry().registerAliases("com.tcl.mybatislearning.entity");
+        customizer.accept(configuration);
+        configuration.addMappers("com.tcl.mybatislearning.mapper");
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    public static List<Blog> blogs(int from, int count) {
+        List<Blog> blogs = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            Author author = new Author();
+            author.setName("author-" + (i % 10));
+            Blog blog = new Blog();
+            blog.setTitle("title-" + i);
+            blog.setContent("content-" + i);
+            blog.setAuthor(author);
+            blogs.add(blog);
+        }
+        return blogs;
+    }
+
+    /**
+     * 清空blog表并插入rows条数据
+     */
+    public static void seed(SqlSessionFactory sessionFactory, int rows) throws SQLException {
+        truncate(sessionFactory.getConfiguration().getEnvironment().getDataSource());
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            for (int from = 0; from < rows; from += 500) {
+                mapper.insertBatch(blogs(from, Math.min(500, rows - from)));
+            }
+            session.commit();
+        }
+    }
+
+    public static void truncate(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("delete from blog");
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    public static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof InstrumentedDataSource) {
+            // 先经包装关闭，由ManagedPool创建的会同时取消登记
+            ((InstrumentedDataSource) dataSource).close();
+            close(((InstrumentedDataSource) dataSource).getDelegate());
+        } else if (dataSource instanceof PooledDataSource) {
+            ((PooledDataSource) dataSource).forceCloseAll();
+        } else if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
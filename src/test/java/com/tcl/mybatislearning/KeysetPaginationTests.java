@@ -0,0 +1,172 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.RowBoundsLimitInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.page.KeysetPage;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:50
+ */
+class KeysetPaginationTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private static PooledDataSource dataSource;
+
+    private static SqlSessionFactory sessionFactory;
+
+    private static final SqlCapture SQL = new SqlCapture();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("keyset_pagination");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        sessionFactory.getConfiguration().addInterceptor(SQL);
+        sessionFactory.getConfiguration().addInterceptor(new RowBoundsLimitInterceptor());
+        EmbeddedDatabase.seed(sessionFactory, 100);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testSelectAllPages() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            List<Long> ids = new ArrayList<>();
+            int pages = 0;
+            String token = null;
+            do {
+                KeysetPage<Blog> page = mapper.selectAllPage(token, 30);
+                page.getItems().forEach(blog -> ids.add(blog.getId()));
+                token = page.getNextToken();
+                pages++;
+            } while (token != null);
+            Assertions.assertEquals(4, pages);
+            Assertions.assertEquals(100, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Assertions.assertEquals(i + 1, ids.get(i));
+            }
+            // 恰好整页时最后一页没有令牌
+            Assertions.assertFalse(mapper.selectAllPage(KeysetPage.encode(50L), 50).hasNext());
+        }
+    }
+
+    @Test
+    void testSelectBlogLikePages() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            KeysetPage<Blog> first = mapper.selectBlogLikePage("title-1%", null, null, 5);
+            KeysetPage<Blog> second = mapper.selectBlogLikePage("title-1%", null, first.getNextToken(), 5);
+            KeysetPage<Blog> third = mapper.selectBlogLikePage("title-1%", null, second.getNextToken(), 5);
+            Assertions.assertEquals(5, first.getItems().size());
+            Assertions.assertEquals(5, second.getItems().size());
+            Assertions.assertEquals(1, third.getItems().size());
+            Assertions.assertFalse(third.hasNext());
+            Assertions.assertTrue(first.getItems().get(4).getId() < second.getItems().get(0).getId());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> KeysetPage.decode("not a token"));
+    }
+
+    @Test
+    void testInvalidLimit() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            SQL.last = null;
+            for (int limit : new int[]{0, -1, KeysetPage.MAX_LIMIT + 1, Integer.MAX_VALUE}) {
+                Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.selectAllPage(null, limit));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.selectAllPageWithAuthors(null, limit));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.selectBlogLikePage("title-1%", null, null, limit));
+            }
+            // 校验在查询之前
+            Assertions.assertNull(SQL.last);
+            KeysetPage<Blog> all = mapper.selectAllPage(null, KeysetPage.MAX_LIMIT);
+            Assertions.assertEquals(100, all.getItems().size());
+            Assertions.assertFalse(all.hasNext());
+        }
+    }
+
+    @Test
+    void testRowBoundsRewrite() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            List<Blog> blogs = session.selectList(NAMESPACE + "selectAll", null, new RowBounds(10, 5));
+            Assertions.assertEquals(5, blogs.size());
+            Assertions.assertEquals(11L, blogs.get(0).getId());
+            Assertions.assertTrue(SQL.last.endsWith("limit ? offset ?"), SQL.last);
+
+            // foreach生成的附加参数要保留
+            List<Blog> byIds = session.selectList(NAMESPACE + "selectByIds",
+                    Collections.singletonMap("ids", Arrays.asList(3L, 4L, 5L, 6L)), new RowBounds(0, 2));
+            Assertions.assertEquals(2, byIds.size());
+            Assertions.assertTrue(SQL.last.endsWith("limit ?"), SQL.last);
+
+            // 末尾带分号的语句先去掉分号再追加
+            session.selectList(NAMESPACE + "count", null, new RowBounds(0, 1));
+            Assertions.assertFalse(SQL.last.contains(";"), SQL.last);
+
+            // 已经带limit的语句不改写
+            session.selectList(NAMESPACE + "selectAllAfter", Collections.singletonMap("limit", 3), new RowBounds(1, 1));
+            Assertions.assertFalse(SQL.last.contains("offset"), SQL.last);
+
+            // 字面量和注释里的limit不算，末尾的行注释去掉后再追加
+            List<Blog> literal = session.selectList(statement("selectLiteralLimit",
+                    "select * from blog where title <> 'no limit 1' /* limit 1 */ order by id -- limit 1\n"),
+                    null, new RowBounds(0, 3));
+            Assertions.assertEquals(3, literal.size());
+            Assertions.assertTrue(SQL.last.endsWith("order by id limit ?"), SQL.last);
+        }
+    }
+
+    private static String statement(String name, String sql) {
+        Configuration configuration = sessionFactory.getConfiguration();
+        String id = NAMESPACE + name;
+        if (!configuration.hasStatement(id, false)) {
+            ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", Blog.class, new ArrayList<>()).build();
+            configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+                    new StaticSqlSource(configuration, sql), SqlCommandType.SELECT)
+                    .resultMaps(Collections.singletonList(resultMap)).build());
+        }
+        return id;
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class SqlCapture implements Interceptor {
+
+        private volatile String last;
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            last = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql().trim();
+            return invocation.proceed();
+        }
+    }
+}
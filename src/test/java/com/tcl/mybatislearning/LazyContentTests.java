@@ -0,0 +1,144 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.entity.LazyContentBlog;
+import com.tcl.mybatislearning.interceptor.LazyContentInterceptor;
+import com.tcl.mybatislearning.interceptor.StatementMetricsInterceptor;
+import com.tcl.mybatislearning.loader.BlogContentLoader;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.StatementMetrics;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:45
+ */
+class LazyContentTests {
+
+    @Test
+    void testLazyContent() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("lazy_content");
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new LazyContentInterceptor());
+            sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+            EmbeddedDatabase.seed(sessionFactory, 600);
+
+            List<Blog> blogs;
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                blogs = session.getMapper(BlogMapper.class).selectAllSummary();
+            }
+            Assertions.assertEquals(600, blogs.size());
+            for (Blog blog : blogs) {
+                Assertions.assertFalse(((LazyContentBlog) blog).isContentLoaded());
+                Assertions.assertTrue(blog.getTitle().startsWith("title-"));
+            }
+            Assertions.assertNull(registry.find(BlogContentLoader.CONTENT_STATEMENT));
+
+            // 会话关闭后第一次访问触发整批加载：600行拆成512和88（补齐到256）两块
+            Blog first = blogs.get(5);
+            Assertions.assertEquals(first.getTitle().replace("title-", "content-"), first.getContent());
+            for (Blog blog : blogs) {
+                Assertions.assertTrue(((LazyContentBlog) blog).isContentLoaded());
+                Assertions.assertEquals(blog.getTitle().replace("title-", "content-"), blog.getContent());
+            }
+            StatementMetrics metrics = registry.find(BlogContentLoader.CONTENT_STATEMENT);
+            Assertions.assertEquals(2, metrics.snapshot().getCalls());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testLoadContents() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("lazy_content_batch");
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new LazyContentInterceptor());
+            sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+            EmbeddedDatabase.seed(sessionFactory, 50);
+
+            List<Blog> blogs = new ArrayList<>();
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                blogs.addAll(mapper.selectBlogLikeSummary("title-1%", null));
+                blogs.addAll(mapper.selectBlogLikeSummary("title-2%", null));
+                blogs.add(mapper.selectById(blogs.get(0).getId()));
+            }
+            Assertions.assertEquals(23, blogs.size());
+            Blog assigned = blogs.get(1);
+            assigned.setContent("assigned");
+
+            // 两次查询各一个加载器，各一次回表；显式赋值的行和普通Blog保持原样
+            BlogContentLoader.loadContents(blogs);
+            Assertions.assertEquals(2, registry.find(BlogContentLoader.CONTENT_STATEMENT).snapshot().getCalls());
+            Assertions.assertEquals("assigned", assigned.getContent());
+            Blog plain = blogs.get(22);
+            Assertions.assertFalse(plain instanceof LazyContentBlog);
+            Assertions.assertEquals(blogs.get(0).getContent(), plain.getContent());
+            for (Blog blog : blogs) {
+                if (blog != assigned) {
+                    Assertions.assertEquals(blog.getTitle().replace("title-", "content-"), blog.getContent());
+                }
+            }
+            BlogContentLoader.loadContents(blogs);
+            Assertions.assertEquals(2, registry.find(BlogContentLoader.CONTENT_STATEMENT).snapshot().getCalls());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testLoadInOriginatingTransaction() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("lazy_content_transaction");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new LazyContentInterceptor());
+            EmbeddedDatabase.seed(sessionFactory, 3);
+            // 会话未关闭时在同一事务里加载，能看到未提交的修改
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                Blog update = new Blog();
+                update.setId(1L);
+                update.setContent("uncommitted");
+                mapper.updateBlog(update);
+                List<Blog> blogs = mapper.selectAllSummary();
+                Assertions.assertEquals("uncommitted", blogs.get(0).getContent());
+                session.rollback();
+            }
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals("content-0", session.getMapper(BlogMapper.class).selectAllSummary().get(0).getContent());
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testWithoutLoader() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("lazy_content_unbound");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 3);
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                List<Blog> blogs = session.getMapper(BlogMapper.class).selectAllSummary();
+                Assertions.assertEquals(3, blogs.size());
+                Assertions.assertNull(blogs.get(0).getContent());
+                Assertions.assertTrue(blogs.get(0).toString().contains("content=<not loaded>"));
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.load.BlogOperations;
+import com.tcl.mybatislearning.load.LoadGenerator;
+import com.tcl.mybatislearning.load.LoadReport;
+import com.tcl.mybatislearning.load.OperationReport;
+import com.tcl.mybatislearning.load.WorkloadMix;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:50
+ */
+class LoadGeneratorTests {
+
+    @Test
+    void testWorkloadMix() {
+        WorkloadMix mix = WorkloadMix.parse(" selectById=95, updateBlog=5 ");
+        Assertions.assertEquals("selectById=95,updateBlog=5", mix.toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("selectById"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("dropTable=1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("selectById=-1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse(","));
+        // 总权重为0时没有可选的请求
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("selectById=0,updateBlog=0"));
+        WorkloadMix zero = new WorkloadMix().add("selectById", 0, BlogOperations.SELECT_BY_ID);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(null).mix(zero));
+    }
+
+    /**
+     * 失败的请求不进response/service分布，但耗时单独统计
+     */
+    @Test
+    void testErrorLatency() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("load_errors");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 10);
+            WorkloadMix mix = new WorkloadMix().add("failing", 1, (mapper, context) -> {
+                sleep(2);
+                throw new IllegalStateException("failing on purpose");
+            });
+            LoadReport report = new LoadGenerator(sessionFactory)
+                    .mix(mix)
+                    .threads(2)
+                    .warmup(0, TimeUnit.MILLISECONDS)
+                    .duration(200, TimeUnit.MILLISECONDS)
+                    .run();
+            OperationReport failing = report.getOperation("failing");
+            Assertions.assertEquals(0, failing.getCompleted());
+            Assertions.assertTrue(failing.getErrors() > 0);
+            Assertions.assertEquals(0, failing.getResponseP99Micros());
+            Assertions.assertTrue(failing.getErrorP50Micros() >= 2000);
+            Assertions.assertTrue(failing.getErrorP50Micros() <= failing.getErrorP99Micros());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testClosedLoopMix() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("load_closed");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 1000);
+            LoadReport report = new LoadGenerator(sessionFactory)
+                    .mix("selectById=80,selectBlogLike=10,updateBlog=10,selectByIds=0")
+                    .threads(4)
+                    .warmup(200, TimeUnit.MILLISECONDS)
+                    .duration(500, TimeUnit.MILLISECONDS)
+                    .run();
+            Assertions.assertTrue(report.isCoordinatedOmissionCorrected());
+            Assertions.assertEquals(4, report.getOperations().size());
+            OperationReport selectById = report.getOperation("selectById");
+            OperationReport updateBlog = report.getOperation("updateBlog");
+            Assertions.assertTrue(selectById.getCompleted() > 0);
+            Assertions.assertTrue(updateBlog.getCompleted() > 0);
+            Assertions.assertTrue(selectById.getCompleted() > updateBlog.getCompleted());
+            Assertions.assertEquals(0, report.getOperation("selectByIds").getCompleted());
+            Assertions.assertEquals(0, selectById.getErrors());
+            Assertions.assertTrue(selectById.getResponseP50Micros() <= selectById.getResponseP99Micros());
+            Assertions.assertTrue(selectById.getResponseP99Micros() <= selectById.getResponseMaxMicros());
+            Assertions.assertTrue(report.format().contains("selectBlogLike"));
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    /**
+     * 开环模式下一次长停顿会推迟后续所有请求，这段排队时间要体现在response分布里，而service分布不受影响
+     */
+    @Test
+    void testOpenLoopCorrectsCoordinatedOmission() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("load_open");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 100);
+            AtomicBoolean stalled = new AtomicBoolean();
+            WorkloadMix mix = new WorkloadMix().add("selectById", 1, (mapper, context) -> {
+                if (stalled.compareAndSet(false, true)) {
+                    sleep(300);
+                }
+                BlogOperations.SELECT_BY_ID.execute(mapper, context);
+            });
+            LoadReport report = new LoadGenerator(sessionFactory)
+                    .mix(mix)
+                    .threads(1)
+                    .rate(200)
+                    .warmup(0, TimeUnit.MILLISECONDS)
+                    .duration(1, TimeUnit.SECONDS)
+                    .run();
+            OperationReport selectById = report.getOperation("selectById");
+            // 计划200次，停顿期间积压的请求随后补发
+            Assertions.assertTrue(selectById.getCompleted() + selectById.getLate() >= 190);
+            Assertions.assertTrue(selectById.getCompleted() + selectById.getLate() <= 200);
+            // 约60个请求被停顿挡住，排队时间从0到300ms，p50之上都在10ms以上
+            Assertions.assertTrue(selectById.getResponseP99Micros() > 200_000);
+            Assertions.assertTrue(selectById.getResponseP50Micros() < selectById.getResponseP99Micros());
+            Assertions.assertTrue(selectById.getServiceP99Micros() < selectById.getResponseP99Micros());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
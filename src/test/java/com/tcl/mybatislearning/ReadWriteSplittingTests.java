@@ -0,0 +1,109 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.datasource.ReadWriteRoutingDataSource;
+import com.tcl.mybatislearning.datasource.ReadWriteSplittingDataSourceFactory;
+import com.tcl.mybatislearning.interceptor.ReadWriteRoutingInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 主库和两个从库是三个独立的内嵌H2实例，行数各不相同，以此判断查询落在哪个库上
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 19:00
+ */
+class ReadWriteSplittingTests {
+
+    @Test
+    void testRouting() throws Exception {
+        seedReplica("rw_replica_0", 5);
+        seedReplica("rw_replica_1", 7);
+        ReadWriteRoutingDataSource dataSource = (ReadWriteRoutingDataSource) new ReadWriteSplittingDataSourceFactory().getDataSource();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new ReadWriteRoutingInterceptor());
+            EmbeddedDatabase.seed(sessionFactory, 3);
+
+            // 不可达的从库在启动时的健康检查中被摘除
+            Assertions.assertFalse(dataSource.getReplicaHealth().get("replica-2"));
+            Assertions.assertTrue(dataSource.getReplicaHealth().get("replica-0"));
+
+            // 自动提交的读按权重1:2轮询两个从库
+            List<Integer> counts = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                try (SqlSession session = sessionFactory.openSession(true)) {
+                    BlogMapper mapper = session.getMapper(BlogMapper.class);
+                    int count = mapper.count();
+                    // 同一会话内的读使用同一个从库连接
+                    Assertions.assertEquals(count, mapper.selectAll().size());
+                    counts.add(count);
+                }
+            }
+            Collections.sort(counts);
+            Assertions.assertEquals(Arrays.asList(5, 7, 7), counts);
+
+            // 事务内的读走主库
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                Assertions.assertEquals(3, session.getMapper(BlogMapper.class).count());
+            }
+
+            // 写之后的读留在主库，读到自己的写入
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.insertBlog(EmbeddedDatabase.blogs(100, 1).get(0));
+                Assertions.assertEquals(4, mapper.count());
+            }
+            Assertions.assertEquals(1L, dataSource.getReplicaBorrows().get("replica-0"));
+            Assertions.assertEquals(2L, dataSource.getReplicaBorrows().get("replica-1"));
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void testReadOnlySessionKeepsOffPrimary() throws Exception {
+        ReadWriteRoutingDataSource dataSource = (ReadWriteRoutingDataSource) new ReadWriteSplittingDataSourceFactory().getDataSource();
+        try {
+            HikariPoolMXBean primary = dataSource.getPrimary().unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            try (Connection connection = dataSource.getConnection()) {
+                // 隔离级别、元数据等都由从库连接回答，不借主库
+                Assertions.assertEquals(Connection.TRANSACTION_READ_COMMITTED, connection.getTransactionIsolation());
+                Assertions.assertTrue(connection.getMetaData().getURL().contains("rw_replica"));
+                Assertions.assertTrue(connection.isValid(1));
+                Assertions.assertEquals(0, primary.getActiveConnections());
+
+                // 保存点属于事务控制，走主库
+                connection.setAutoCommit(false);
+                connection.setSavepoint();
+                Assertions.assertEquals(1, primary.getActiveConnections());
+                Assertions.assertTrue(connection.getMetaData().getURL().contains("rw_primary"));
+                connection.rollback();
+            }
+            Assertions.assertEquals(0, primary.getActiveConnections());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    private static void seedReplica(String name, int rows) throws Exception {
+        PooledDataSource replica = EmbeddedDatabase.dataSource(name);
+        try {
+            EmbeddedDatabase.seed(EmbeddedDatabase.sessionFactory(replica), rows);
+        } finally {
+            EmbeddedDatabase.close(replica);
+        }
+    }
+}
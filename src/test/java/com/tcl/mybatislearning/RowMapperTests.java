@@ -0,0 +1,179 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.generated.mapper.BlogMapper;
+import com.tcl.generated.model.Blog;
+import com.tcl.generated.model.BlogRowMapper;
+import com.tcl.mybatislearning.interceptor.CompiledRowMapperInterceptor;
+import com.tcl.mybatislearning.mapping.RowMappers;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.internal.DefaultShellCallback;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:30
+ */
+class RowMapperTests {
+
+    static PooledDataSource dataSource;
+    static SqlSessionFactory reflective;
+    static SqlSessionFactory compiled;
+    static CompiledRowMapperInterceptor interceptor = new CompiledRowMapperInterceptor();
+
+    @BeforeAll
+    static void setup() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("row_mapper");
+        reflective = EmbeddedDatabase.sessionFactory(dataSource);
+        reflective.getConfiguration().addMapper(BlogMapper.class);
+        compiled = EmbeddedDatabase.sessionFactory(dataSource);
+        compiled.getConfiguration().addMapper(BlogMapper.class);
+        compiled.getConfiguration().addInterceptor(interceptor);
+        EmbeddedDatabase.seed(compiled, 100);
+        try (SqlSession session = compiled.openSession(true)) {
+            com.tcl.mybatislearning.entity.Blog blog = new com.tcl.mybatislearning.entity.Blog();
+            blog.setTitle("nulls");
+            session.getMapper(com.tcl.mybatislearning.mapper.BlogMapper.class).insertBlog(blog);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    private static List<Blog> selectAll(SqlSessionFactory sessionFactory) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            List<Blog> blogs = new ArrayList<>(session.getMapper(BlogMapper.class).selectAll());
+            blogs.sort(Comparator.comparing(Blog::getId));
+            return blogs;
+        }
+    }
+
+    @Test
+    void testCompiledMappingMatchesReflective() {
+        Assertions.assertTrue(RowMappers.forType(Blog.class) instanceof BlogRowMapper);
+        Assertions.assertNull(RowMappers.forType(com.tcl.mybatislearning.entity.Blog.class));
+
+        long before = interceptor.getCompiledResultSetCount();
+        List<Blog> expected = selectAll(reflective);
+        List<Blog> actual = selectAll(compiled);
+        Assertions.assertEquals(before + 1, interceptor.getCompiledResultSetCount());
+        Assertions.assertEquals(101, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Blog e = expected.get(i);
+            Blog a = actual.get(i);
+            Assertions.assertEquals(e.getId(), a.getId());
+            Assertions.assertEquals(e.getTitle(), a.getTitle());
+            Assertions.assertEquals(e.getContent(), a.getContent());
+            Assertions.assertEquals(e.getAuthor(), a.getAuthor());
+            Assertions.assertEquals(e.getCreateTime(), a.getCreateTime());
+            Assertions.assertEquals(e.getUpdateTime(), a.getUpdateTime());
+        }
+        Blog nulls = actual.get(actual.size() - 1);
+        Assertions.assertEquals("nulls", nulls.getTitle());
+        Assertions.assertNull(nulls.getContent());
+        Assertions.assertNull(nulls.getAuthor());
+
+        try (SqlSession session = compiled.openSession(true)) {
+            Blog blog = session.getMapper(BlogMapper.class).selectByPrimaryKey(actual.get(3).getId());
+            Assertions.assertEquals(actual.get(3).getTitle(), blog.getTitle());
+        }
+        Assertions.assertEquals(before + 2, interceptor.getCompiledResultSetCount());
+
+        // 没有生成RowMapper的结果类型不接管
+        try (SqlSession session = compiled.openSession(true)) {
+            session.getMapper(com.tcl.mybatislearning.mapper.BlogMapper.class).selectAll();
+        }
+        Assertions.assertEquals(before + 2, interceptor.getCompiledResultSetCount());
+    }
+
+    /**
+     * 把 VARCHAR 读成大写的 handler，模拟配置里替换了生成时所用的 handler
+     */
+    static class UpperCaseStringTypeHandler extends StringTypeHandler {
+
+        @Override
+        public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            String value = rs.getString(columnName);
+            return value == null ? null : value.toUpperCase();
+        }
+    }
+
+    @Test
+    void testDifferentTypeHandlerFallsBack() throws Exception {
+        SqlSessionFactory customized = EmbeddedDatabase.sessionFactory(dataSource);
+        customized.getConfiguration().getTypeHandlerRegistry()
+                .register(String.class, JdbcType.VARCHAR, new UpperCaseStringTypeHandler());
+        customized.getConfiguration().addMapper(BlogMapper.class);
+        CompiledRowMapperInterceptor customizedInterceptor = new CompiledRowMapperInterceptor();
+        customized.getConfiguration().addInterceptor(customizedInterceptor);
+
+        List<Blog> blogs = selectAll(customized);
+        Assertions.assertEquals(0, customizedInterceptor.getCompiledResultSetCount());
+        Assertions.assertEquals(selectAll(reflective).get(0).getTitle().toUpperCase(), blogs.get(0).getTitle());
+    }
+
+    @Test
+    void testPluginGeneratesRowMapper() throws Exception {
+        Path target = Files.createTempDirectory("row-mapper-plugin");
+        String xml = "<!DOCTYPE generatorConfiguration PUBLIC \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""
+                + " \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">"
+                + "<generatorConfiguration><context id=\"h2\" targetRuntime=\"MyBatis3Simple\">"
+                + "<plugin type=\"com.tcl.mybatislearning.generator.RowMapperPlugin\"/>"
+                + "<commentGenerator><property name=\"suppressAllComments\" value=\"true\"/></commentGenerator>"
+                + "<jdbcConnection driverClass=\"org.h2.Driver\" connectionURL=\"" + EmbeddedDatabase.url("row_mapper")
+                .replace("'", "&apos;") + "\" userId=\"sa\" password=\"\"/>"
+                + "<javaModelGenerator targetPackage=\"gen.model\" targetProject=\"" + target + "\"/>"
+                + "<sqlMapGenerator targetPackage=\"gen.mapper\" targetProject=\"" + target + "\"/>"
+                + "<javaClientGenerator type=\"XMLMAPPER\" targetPackage=\"gen.mapper\" targetProject=\"" + target + "\"/>"
+                + "<table tableName=\"blog\">"
+                + "<columnOverride column=\"author\" javaType=\"com.tcl.mybatislearning.entity.Author\""
+                + " typeHandler=\"com.tcl.mybatislearning.handler.AuthorTypeHandler\"/>"
+                + "</table></context></generatorConfiguration>";
+        List<String> warnings = new ArrayList<>();
+        Configuration config = new ConfigurationParser(warnings)
+                .parseConfiguration(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        new MyBatisGenerator(config, new DefaultShellCallback(true), warnings).generate(null);
+
+        Path generated = target.resolve("gen/model/BlogRowMapper.java");
+        Assertions.assertTrue(Files.exists(generated), warnings.toString());
+        String source = new String(Files.readAllBytes(generated), StandardCharsets.UTF_8);
+        Assertions.assertTrue(source.contains("public class BlogRowMapper implements RowMapper<Blog>"), source);
+        Assertions.assertTrue(source.contains("long value = rs.getLong(index);"), source);
+        Assertions.assertTrue(source.contains("row.setTitle(rs.getString(index));"), source);
+        Assertions.assertTrue(source.contains("private static final AuthorTypeHandler AUTHOR_HANDLER = new AuthorTypeHandler();"), source);
+        Assertions.assertTrue(source.contains("row.setAuthor(AUTHOR_HANDLER.getResult(rs, index));"), source);
+        Assertions.assertTrue(source.contains("new Date(value.getTime())"), source);
+        Assertions.assertTrue(source.contains("\"org.apache.ibatis.type.LongTypeHandler\""), source);
+        Assertions.assertTrue(source.contains("\"com.tcl.mybatislearning.handler.AuthorTypeHandler\""), source);
+        Assertions.assertTrue(source.contains("public String[] typeHandlers()"), source);
+        try (Stream<Path> files = Files.walk(target)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogBatchWriter;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.SearchIndexInterceptor;
+import com.tcl.mybatislearning.interceptor.StatementMetricsInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.StatementMetrics;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import com.tcl.mybatislearning.search.BlogSearchIndex;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 23:40
+ */
+class SearchIndexTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    private static final String[] TITLES = {"%itle-1%", "title-1_", "%-19%", "%TITLE-2%", "title-42", "%e-1\\_%",
+            "%zzz%", "%ab%", "%", "t_tle-3%", "%Café%", "%cafe%", "%é au l%", "%50%0"};
+
+    private static final String[] AUTHORS = {"%thor-3%", "author-_", "%OR-7", "%x%"};
+
+    @Test
+    void testMatchesSql() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("search_index");
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+            EmbeddedDatabase.seed(sessionFactory, 600);
+            List<Blog> special = EmbeddedDatabase.blogs(0, 2);
+            special.get(0).setTitle("Café au lait");
+            special.get(1).setTitle("50% off_sale");
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).insertBatch(special);
+            }
+            BlogSearchIndex index = new BlogSearchIndex(BlogSearchIndex.DEFAULT_MAX_POSTINGS);
+            Assertions.assertEquals(602, index.rebuild(sessionFactory));
+            Assertions.assertEquals(BlogSearchIndex.State.READY, index.getState());
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                for (String title : TITLES) {
+                    assertSameRows(mapper.selectBlogLike(title, null), index.selectBlogLike(mapper, title, null), title);
+                }
+                for (String name : AUTHORS) {
+                    Author author = new Author();
+                    author.setName(name);
+                    assertSameRows(mapper.selectBlogLike(null, author), index.selectBlogLike(mapper, null, author), name);
+                }
+            }
+            // 没有三个字符以上的片段（"%"、"%ab%"、"%50%0"、"%x%"）或候选过多（"author-_"）时走原语句
+            StatementMetrics byIds = registry.find(NAMESPACE + "selectBlogLikeByIds");
+            Assertions.assertTrue(byIds.snapshot().getCalls() >= 8);
+            long fallbacks = registry.find(NAMESPACE + "selectBlogLike").snapshot().getCalls();
+            Assertions.assertEquals(TITLES.length + AUTHORS.length + 5, fallbacks, "fallbacks");
+
+            // 超出倒排表上限时失效，查询退回SQL
+            BlogSearchIndex bounded = new BlogSearchIndex(1000);
+            bounded.rebuild(sessionFactory);
+            Assertions.assertEquals(BlogSearchIndex.State.INVALID, bounded.getState());
+            Assertions.assertEquals(0, bounded.getPostings());
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                assertSameRows(mapper.selectBlogLike("title-42", null), bounded.selectBlogLike(mapper, "title-42", null), "bounded");
+            }
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testTracksWrites() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("search_index_writes");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            BlogSearchIndex index = new BlogSearchIndex(BlogSearchIndex.DEFAULT_MAX_POSTINGS);
+            sessionFactory.getConfiguration().addInterceptor(new SearchIndexInterceptor(index));
+            EmbeddedDatabase.seed(sessionFactory, 100);
+            SearchIndexInterceptor.buildIndexes(sessionFactory);
+            Assertions.assertEquals(100, index.getRows());
+            Assertions.assertSame(index, BlogSearchIndex.of(sessionFactory.getConfiguration()));
+
+            // 每个Configuration的插件各有一个索引
+            SqlSessionFactory other = EmbeddedDatabase.sessionFactory(dataSource);
+            Assertions.assertNull(BlogSearchIndex.of(other.getConfiguration()));
+            other.getConfiguration().addInterceptor(new SearchIndexInterceptor());
+            Assertions.assertNotSame(index, BlogSearchIndex.of(other.getConfiguration()));
+            Assertions.assertEquals(BlogSearchIndex.State.EMPTY, BlogSearchIndex.of(other.getConfiguration()).getState());
+
+            Blog blog = EmbeddedDatabase.blogs(0, 1).get(0);
+            blog.setTitle("unique-alpha");
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).insertBlog(blog);
+            }
+            Assertions.assertEquals(1, search(sessionFactory, index, "%alpha%").size());
+
+            // 未提交的修改在本事务内可见，提交后旧值不再命中
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                Blog update = new Blog();
+                update.setId(blog.getId());
+                update.setTitle("unique-beta");
+                update.setAuthor(blog.getAuthor());
+                mapper.updateBlog(update);
+                Assertions.assertEquals(1, index.selectBlogLike(mapper, "%beta%", null).size());
+                session.commit();
+            }
+            Assertions.assertEquals(1, search(sessionFactory, index, "%beta%").size());
+            Assertions.assertTrue(search(sessionFactory, index, "%alpha%").isEmpty());
+
+            // 回滚的删除不影响索引，回滚的插入撤出索引
+            try (SqlSession session = sessionFactory.openSession(false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.deleteBlogById(blog.getId());
+                Blog inserted = EmbeddedDatabase.blogs(0, 1).get(0);
+                inserted.setTitle("unique-gamma");
+                mapper.insertBlog(inserted);
+                Assertions.assertEquals(1, index.selectBlogLike(mapper, "%gamma%", null).size());
+                session.rollback();
+            }
+            Assertions.assertEquals(1, search(sessionFactory, index, "%beta%").size());
+            Assertions.assertTrue(search(sessionFactory, index, "%gamma%").isEmpty());
+            int rows = index.getRows();
+            Assertions.assertEquals(101, rows);
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).deleteBlogById(blog.getId());
+            }
+            Assertions.assertEquals(100, index.getRows());
+
+            // BATCH执行器刷新后才拿到id
+            List<Blog> batch = EmbeddedDatabase.blogs(0, 30);
+            batch.forEach(b -> b.setTitle("batched-" + b.getTitle()));
+            try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 10, 2)) {
+                writer.writeAll(batch);
+            }
+            Assertions.assertEquals(30, search(sessionFactory, index, "batched-%").size());
+            Assertions.assertEquals(130, index.getRows());
+            Assertions.assertEquals(BlogSearchIndex.State.READY, index.getState());
+
+            index.invalidate();
+            Assertions.assertEquals(30, search(sessionFactory, index, "batched-%").size());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    private static List<Blog> search(SqlSessionFactory sessionFactory, BlogSearchIndex index, String title) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return index.selectBlogLike(session.getMapper(BlogMapper.class), title, null);
+        }
+    }
+
+    private static void assertSameRows(List<Blog> expected, List<Blog> actual, String message) {
+        List<Blog> sorted = new ArrayList<>(expected);
+        sorted.sort(Comparator.comparing(Blog::getId));
+        Assertions.assertEquals(ids(sorted), ids(actual), message);
+        Assertions.assertEquals(sorted, actual, message);
+    }
+
+    private static List<Long> ids(List<Blog> blogs) {
+        return blogs.stream().map(Blog::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,224 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.count.CountMode;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.page.KeysetPage;
+import com.tcl.mybatislearning.shard.HashShardingStrategy;
+import com.tcl.mybatislearning.shard.RangeShardingStrategy;
+import com.tcl.mybatislearning.shard.ShardedBlogMapper;
+import com.tcl.mybatislearning.shard.SnowflakeIdGenerator;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 15:00
+ */
+class ShardingTests {
+
+    @Test
+    void testSnowflakeIds() throws Exception {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                SnowflakeIdGenerator generator = t % 2 == 0 ? first : second;
+                futures.add(pool.submit(() -> {
+                    long previous = -1;
+                    for (int i = 0; i < 20_000; i++) {
+                        long id = generator.nextId();
+                        // 同一节点严格递增
+                        Assertions.assertTrue(id > previous);
+                        ids.add(id);
+                        previous = id;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertEquals(80_000, ids.size());
+
+        long before = System.currentTimeMillis();
+        long id = first.nextId();
+        Assertions.assertTrue(id >= SnowflakeIdGenerator.minIdAt(before));
+        Assertions.assertTrue(SnowflakeIdGenerator.timestampOf(id) >= before);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE + 1));
+    }
+
+    @Test
+    void testRangeStrategy() {
+        RangeShardingStrategy strategy = new RangeShardingStrategy(100, 200);
+        Assertions.assertEquals(0, strategy.shardOf(-5, 3));
+        Assertions.assertEquals(0, strategy.shardOf(99, 3));
+        Assertions.assertEquals(1, strategy.shardOf(100, 3));
+        Assertions.assertEquals(1, strategy.shardOf(199, 3));
+        Assertions.assertEquals(2, strategy.shardOf(200, 3));
+        Assertions.assertEquals(2, strategy.shardOf(Long.MAX_VALUE, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> strategy.check(2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RangeShardingStrategy(200, 100));
+
+        HashShardingStrategy hash = new HashShardingStrategy();
+        int[] counts = new int[4];
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        for (int i = 0; i < 4000; i++) {
+            counts[hash.shardOf(generator.nextId(), 4)]++;
+        }
+        for (int count : counts) {
+            Assertions.assertTrue(count > 800, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void testShardedMapper() throws Exception {
+        List<PooledDataSource> dataSources = new ArrayList<>();
+        List<SqlSessionFactory> factories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PooledDataSource dataSource = EmbeddedDatabase.dataSource("shard_" + i);
+            dataSources.add(dataSource);
+            factories.add(EmbeddedDatabase.sessionFactory(dataSource));
+            EmbeddedDatabase.truncate(dataSource);
+        }
+        try (ShardedBlogMapper mapper = ShardedBlogMapper.create(factories, new HashShardingStrategy(),
+                new SnowflakeIdGenerator(7))) {
+            List<Blog> single = EmbeddedDatabase.blogs(0, 10);
+            for (Blog blog : single) {
+                mapper.insertBlog(blog);
+                Assertions.assertNotNull(blog.getId());
+            }
+            List<Blog> batch = EmbeddedDatabase.blogs(10, 50);
+            mapper.insertBatch(batch);
+
+            // 每行只在它的分片上
+            List<Blog> all = new ArrayList<>(single);
+            all.addAll(batch);
+            for (Blog blog : all) {
+                int shard = mapper.shardOf(blog.getId());
+                for (int i = 0; i < factories.size(); i++) {
+                    try (SqlSession session = factories.get(i).openSession(true)) {
+                        Blog found = session.getMapper(BlogMapper.class).selectById(blog.getId());
+                        Assertions.assertEquals(i == shard, found != null);
+                    }
+                }
+            }
+            for (SqlSessionFactory factory : factories) {
+                try (SqlSession session = factory.openSession(true)) {
+                    Assertions.assertTrue(session.getMapper(BlogMapper.class).count() > 0);
+                }
+            }
+
+            List<Long> ids = all.stream().map(Blog::getId).sorted().collect(Collectors.toList());
+            Assertions.assertEquals(60, mapper.count());
+            Assertions.assertEquals(60, mapper.count(CountMode.EXACT));
+            Assertions.assertEquals(ids, mapper.selectAll().stream().map(Blog::getId).collect(Collectors.toList()));
+            Assertions.assertEquals("title-15", mapper.selectById(batch.get(5).getId()).getTitle());
+            Assertions.assertNull(mapper.selectById(-1L));
+
+            List<Long> wanted = Arrays.asList(ids.get(40), ids.get(3), ids.get(22), -1L);
+            Assertions.assertEquals(Arrays.asList(ids.get(3), ids.get(22), ids.get(40)),
+                    mapper.selectByIds(wanted).stream().map(Blog::getId).collect(Collectors.toList()));
+            Assertions.assertTrue(mapper.selectByIds(Collections.emptyList()).isEmpty());
+
+            // title-1, title-10..title-19
+            List<Blog> like = mapper.selectBlogLike("title-1%", null);
+            Assertions.assertEquals(11, like.size());
+            Assertions.assertEquals(like.stream().map(Blog::getId).sorted().collect(Collectors.toList()),
+                    like.stream().map(Blog::getId).collect(Collectors.toList()));
+
+            // 跨分片的键集分页与全表顺序一致
+            List<Long> paged = new ArrayList<>();
+            String token = null;
+            do {
+                KeysetPage<Blog> page = mapper.selectAllPage(token, 7);
+                page.getItems().forEach(blog -> paged.add(blog.getId()));
+                token = page.getNextToken();
+            } while (token != null);
+            Assertions.assertEquals(ids, paged);
+
+            Blog update = new Blog();
+            update.setId(ids.get(0));
+            update.setTitle("updated");
+            mapper.updateBlog(update);
+            Assertions.assertEquals("updated", mapper.selectById(ids.get(0)).getTitle());
+
+            List<Blog> changed = mapper.selectByIds(ids.subList(10, 30));
+            for (Blog blog : changed) {
+                blog.trackChanges();
+                Author author = new Author();
+                author.setName("batch-author");
+                blog.setAuthor(author);
+            }
+            Assertions.assertEquals(20, mapper.updateBatch(changed));
+            Assertions.assertEquals(20, mapper.selectBlogLike(null, changed.get(0).getAuthor()).size());
+
+            mapper.deleteBlogById(ids.get(1));
+            Assertions.assertNull(mapper.selectById(ids.get(1)));
+            Assertions.assertEquals(59, mapper.count());
+            // 每个分片各自按mode取行数再相加
+            Assertions.assertEquals(59, mapper.count(CountMode.APPROXIMATE));
+            Assertions.assertEquals(59, mapper.count(CountMode.MAINTAINED));
+
+            // handler停止后不再读后面的分片
+            AtomicInteger handled = new AtomicInteger();
+            mapper.selectAllStream(context -> {
+                if (handled.incrementAndGet() == 5) {
+                    context.stop();
+                }
+            });
+            Assertions.assertEquals(5, handled.get());
+            handled.set(0);
+            mapper.selectSearchColumns(context -> {
+                handled.incrementAndGet();
+                context.stop();
+            });
+            Assertions.assertEquals(1, handled.get());
+
+            Cursor<Blog> unused = mapper.selectAllCursor();
+            Assertions.assertTrue(unused.isOpen());
+            unused.close();
+            Assertions.assertFalse(unused.isOpen());
+
+            Set<Long> streamed = new HashSet<>();
+            try (Cursor<Blog> cursor = mapper.selectAllCursor()) {
+                Assertions.assertTrue(cursor.isOpen());
+                for (Blog blog : cursor) {
+                    streamed.add(blog.getId());
+                }
+                Assertions.assertTrue(cursor.isConsumed());
+                Assertions.assertFalse(cursor.isOpen());
+                Assertions.assertEquals(58, cursor.getCurrentIndex());
+            }
+            Assertions.assertEquals(59, streamed.size());
+        } finally {
+            for (PooledDataSource dataSource : dataSources) {
+                EmbeddedDatabase.close(dataSource);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.SlowQueryInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.SlowQuery;
+import com.tcl.mybatislearning.metrics.SlowQuery.ExplainStatus;
+import com.tcl.mybatislearning.metrics.SlowQueryLog;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 22:10
+ */
+class SlowQueryTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper";
+
+    @Test
+    void testRingBufferOverwrite() {
+        SlowQueryLog log = new SlowQueryLog(3);
+        Assertions.assertEquals(4, log.getCapacity());
+        for (int i = 0; i < 10; i++) {
+            log.add(new SlowQuery(log.nextSequence(), "q" + i, "select 1", null, i, 0, "main",
+                    ExplainStatus.NONE, null, null));
+        }
+        List<SlowQuery> queries = log.getQueries();
+        Assertions.assertEquals(4, queries.size());
+        Assertions.assertEquals("q9", queries.get(0).getId());
+        Assertions.assertEquals("q6", queries.get(3).getId());
+        Assertions.assertNull(log.find(5));
+        Assertions.assertEquals("q7", log.find(7).getId());
+        log.clear();
+        Assertions.assertTrue(log.getQueries().isEmpty());
+
+        // 取到序号后写入慢了的线程不覆盖同一槽位上更新的记录
+        long stale = log.nextSequence();
+        for (int i = 0; i < 4; i++) {
+            log.nextSequence();
+        }
+        SlowQuery newer = new SlowQuery(stale + 4, "newer", "select 1", null, 0, 0, "main", ExplainStatus.NONE, null, null);
+        log.add(newer);
+        log.add(new SlowQuery(stale, "stale", "select 1", null, 0, 0, "main", ExplainStatus.NONE, null, null));
+        Assertions.assertSame(newer, log.find(stale + 4));
+        Assertions.assertNull(log.find(stale));
+    }
+
+    @Test
+    void testCaptureAndExplain() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("slow_query");
+        SlowQueryLog log = new SlowQueryLog(64);
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            EmbeddedDatabase.seed(sessionFactory, 100);
+            SlowQueryInterceptor interceptor = new SlowQueryInterceptor(log);
+            Properties properties = new Properties();
+            properties.setProperty("thresholdMillis", "0");
+            properties.setProperty("namespaces", NAMESPACE);
+            interceptor.setProperties(properties);
+            sessionFactory.getConfiguration().addInterceptor(interceptor);
+
+            // 游标读完关闭时才记录，耗时包括逐行读取
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Cursor<Blog> cursor = session.getMapper(BlogMapper.class).selectAllCursor();
+                cursor.forEach(blog -> {
+                });
+                Assertions.assertTrue(log.getQueries().isEmpty());
+                cursor.close();
+                Assertions.assertEquals(NAMESPACE + ".selectAllCursor", log.getQueries().get(0).getId());
+            }
+            awaitExplained(log, 1);
+            log.clear();
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.selectById(7L);
+                mapper.selectBlogLike("%title-1%", null);
+                mapper.selectByIds(Arrays.asList(1L, 2L, 3L));
+                mapper.deleteBlogById(100L);
+            }
+
+            List<SlowQuery> queries = awaitExplained(log, 4);
+            Assertions.assertEquals(4, queries.size());
+            SlowQuery delete = queries.get(0);
+            Assertions.assertEquals(NAMESPACE + ".deleteBlogById", delete.getId());
+            Assertions.assertEquals(ExplainStatus.NONE, delete.getExplainStatus());
+            Assertions.assertEquals(Arrays.asList("100"), delete.getParameters());
+
+            SlowQuery byIds = queries.get(1);
+            Assertions.assertEquals(Arrays.asList("1", "2", "3"), byIds.getParameters());
+            Assertions.assertEquals(ExplainStatus.DONE, byIds.getExplainStatus());
+
+            SlowQuery like = queries.get(2);
+            Assertions.assertEquals(NAMESPACE + ".selectBlogLike", like.getId());
+            Assertions.assertTrue(like.getSql().contains("title like ?"));
+            Assertions.assertEquals(Arrays.asList("%title-1%"), like.getParameters());
+            Assertions.assertEquals(ExplainStatus.DONE, like.getExplainStatus());
+            Assertions.assertTrue(like.getFullScan());
+
+            SlowQuery byId = queries.get(3);
+            Assertions.assertEquals(ExplainStatus.DONE, byId.getExplainStatus());
+            Assertions.assertFalse(byId.getFullScan());
+            Assertions.assertFalse(byId.getPlan().isEmpty());
+
+            // 阈值以上才记录，命名空间以外的语句不记录
+            log.clear();
+            properties.setProperty("thresholdMillis", "60000");
+            interceptor.setProperties(properties);
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).selectAll();
+            }
+            properties.setProperty("thresholdMillis", "0");
+            properties.setProperty("namespaces", "com.tcl.mybatislearning.mapper.AuthorMapper");
+            interceptor.setProperties(properties);
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).selectAll();
+            }
+            Assertions.assertTrue(log.getQueries().isEmpty());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    private static List<SlowQuery> awaitExplained(SlowQueryLog log, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            List<SlowQuery> queries = log.getQueries();
+            boolean pending = queries.stream().anyMatch(query -> query.getExplainStatus() == ExplainStatus.PENDING);
+            if ((queries.size() >= count && !pending) || System.currentTimeMillis() > deadline) {
+                return queries;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.count.CountMode;
+import com.tcl.mybatislearning.interceptor.BlogCountInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.search.BlogSearchIndex;
+import com.tcl.mybatislearning.session.StartupReport;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:55
+ */
+@SpringBootTest
+class SqlSessionFactoryConfigurationTests {
+
+    @Autowired
+    SqlSessionFactory sessionFactory;
+
+    @Autowired
+    StartupReport startupReport;
+
+    @Test
+    void testStartup() {
+        // 搜索索引和维护的计数都是可选的，默认配置不注册，启动时不读整表、不启动对账线程
+        Assertions.assertNull(BlogSearchIndex.of(sessionFactory.getConfiguration()));
+        for (Interceptor interceptor : sessionFactory.getConfiguration().getInterceptors()) {
+            Assertions.assertFalse(interceptor instanceof BlogCountInterceptor);
+        }
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            BlogMapper mapper = session.getMapper(BlogMapper.class);
+            // 没有计数器时MAINTAINED退回count(id)
+            Assertions.assertEquals(mapper.count().longValue(), mapper.count(CountMode.MAINTAINED));
+        }
+        // 应用实际使用的构建过程记录了各阶段耗时
+        Assertions.assertTrue(startupReport.getPhases().containsKey("configure"));
+        Assertions.assertTrue(startupReport.getPhases().containsKey("mapper " + BlogMapper.class.getName()));
+        Assertions.assertTrue(startupReport.getPhases().containsKey("warm up statements"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.datasource.WarmingSqlSessionFactoryBuilder;
+import com.tcl.mybatislearning.mapper.AuthorMapper;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.session.StartupReport;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 20:30
+ */
+class StartupReportTests {
+
+    private static final String CONFIG = "mybatis-config.xml";
+
+    @Test
+    void testStartupReport() throws Exception {
+        WarmingSqlSessionFactoryBuilder builder = new WarmingSqlSessionFactoryBuilder();
+        SqlSessionFactory sessionFactory;
+        try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+            sessionFactory = builder.build(inputStream);
+        }
+        SqlSessionFactory parsed;
+        try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+            parsed = new SqlSessionFactoryBuilder().build(inputStream);
+        }
+        try {
+            Map<String, Double> phases = builder.getStartupReport().getPhases();
+            Assertions.assertTrue(phases.containsKey("parse configuration"), phases.toString());
+            Assertions.assertTrue(phases.containsKey("configure"), phases.toString());
+            Assertions.assertTrue(phases.containsKey("mapper " + BlogMapper.class.getName()), phases.toString());
+            Assertions.assertTrue(phases.containsKey("mapper " + AuthorMapper.class.getName()), phases.toString());
+            Assertions.assertTrue(phases.containsKey("warm up statements"), phases.toString());
+            Assertions.assertTrue(builder.getStartupReport().toString().contains("total"));
+
+            // 分阶段加载得到的语句和结果映射与原生构建相同
+            Assertions.assertEquals(new HashSet<>(parsed.getConfiguration().getMappedStatementNames()),
+                    new HashSet<>(sessionFactory.getConfiguration().getMappedStatementNames()));
+            Assertions.assertEquals(names(parsed.getConfiguration().getResultMapNames()),
+                    names(sessionFactory.getConfiguration().getResultMapNames()));
+            Assertions.assertTrue(sessionFactory.getConfiguration().isMapUnderscoreToCamelCase());
+        } finally {
+            EmbeddedDatabase.close(sessionFactory.getConfiguration().getEnvironment().getDataSource());
+            EmbeddedDatabase.close(parsed.getConfiguration().getEnvironment().getDataSource());
+        }
+    }
+
+    private static Set<String> names(Iterable<String> names) {
+        Set<String> set = new HashSet<>();
+        names.forEach(set::add);
+        return set;
+    }
+}
@@ -0,0 +1,139 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.batch.BlogBatchWriter;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.StatementMetricsInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.metrics.LatencyHistogram;
+import com.tcl.mybatislearning.metrics.StatementMetricsRegistry;
+import com.tcl.mybatislearning.metrics.StatementSnapshot;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Properties;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:15
+ */
+class StatementMetricsTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    @Test
+    void testHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+        Assertions.assertEquals(10_000, histogram.getCount());
+        Assertions.assertEquals(5_000_000, histogram.getValueAtQuantile(0.5), 5_000_000 / 32.0);
+        Assertions.assertEquals(9_900_000, histogram.getValueAtQuantile(0.99), 9_900_000 / 32.0);
+        Assertions.assertEquals(10_000_000, histogram.getValueAtQuantile(1.0), 10_000_000 / 32.0);
+        Assertions.assertEquals(10_000_000, histogram.getMax());
+    }
+
+    @Test
+    void testStatementMetrics() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("statement_metrics");
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+            EmbeddedDatabase.seed(sessionFactory, 100);
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.selectAll();
+                mapper.selectBlogLike("title-1%", null);
+                try (Cursor<Blog> cursor = mapper.selectAllCursor()) {
+                    Iterator<Blog> iterator = cursor.iterator();
+                    for (int i = 0; i < 40; i++) {
+                        iterator.next();
+                    }
+                    // 游标关闭之前不计入
+                    Assertions.assertEquals(0, registry.find(NAMESPACE + "selectAllCursor").snapshot().getCalls());
+                }
+                Assertions.assertEquals(40, registry.find(NAMESPACE + "selectAllCursor").snapshot().getRows());
+                Assertions.assertThrows(RuntimeException.class, () -> session.selectList(NAMESPACE + "selectById", "not-a-number"));
+            }
+            try (BlogBatchWriter writer = new BlogBatchWriter(sessionFactory, 30, 10)) {
+                writer.writeAll(EmbeddedDatabase.blogs(0, 70));
+            }
+
+            Assertions.assertEquals(100, registry.find(NAMESPACE + "insertBatch").snapshot().getRows());
+            StatementSnapshot selectAll = registry.find(NAMESPACE + "selectAll").snapshot();
+            Assertions.assertEquals(1, selectAll.getCalls());
+            Assertions.assertEquals(100, selectAll.getRows());
+            Assertions.assertTrue(selectAll.getP99Micros() > 0);
+            Assertions.assertEquals(11, registry.find(NAMESPACE + "selectBlogLike").snapshot().getRows());
+            Assertions.assertEquals(1, registry.find(NAMESPACE + "selectById").snapshot().getErrors());
+            // BATCH模式下行数在刷新时统计：两次显式刷新加上提交前的一次
+            StatementSnapshot insertBlog = registry.find(NAMESPACE + "insertBlog").snapshot();
+            Assertions.assertEquals(3, insertBlog.getCalls());
+            Assertions.assertEquals(70, insertBlog.getRows());
+            Assertions.assertEquals(0, insertBlog.getErrors());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testBatchSessionCountsFlushesOnly() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("statement_metrics_batch");
+        StatementMetricsRegistry registry = new StatementMetricsRegistry();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().addInterceptor(new StatementMetricsInterceptor(registry));
+            EmbeddedDatabase.truncate(dataSource);
+            try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                for (Blog blog : EmbeddedDatabase.blogs(0, 1_000)) {
+                    mapper.insertBlog(blog);
+                }
+                // addBatch不计调用
+                Assertions.assertNull(registry.find(NAMESPACE + "insertBlog"));
+                session.flushStatements();
+                StatementSnapshot flushed = registry.find(NAMESPACE + "insertBlog").snapshot();
+                Assertions.assertEquals(1, flushed.getCalls());
+                Assertions.assertEquals(1_000, flushed.getRows());
+
+                for (Blog blog : EmbeddedDatabase.blogs(1_000, 500)) {
+                    mapper.insertBlog(blog);
+                }
+                // 提交前的隐式刷新同样只记一次
+                session.commit();
+            }
+            StatementSnapshot insertBlog = registry.find(NAMESPACE + "insertBlog").snapshot();
+            Assertions.assertEquals(2, insertBlog.getCalls());
+            Assertions.assertEquals(1_500, insertBlog.getRows());
+            Assertions.assertEquals(0, insertBlog.getErrors());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    @Test
+    void testJmx() throws Exception {
+        // 构造时不注册，配置插件属性时才注册
+        new StatementMetricsInterceptor().setProperties(new Properties());
+        StatementMetricsRegistry.getDefault().metrics("jmx.test").recordSuccess(1000, 1);
+        Object statements = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(StatementMetricsRegistry.OBJECT_NAME), "Statements");
+        boolean found = false;
+        for (CompositeData data : (CompositeData[]) statements) {
+            found |= "jmx.test".equals(data.get("id"));
+        }
+        Assertions.assertTrue(found);
+    }
+}
@@ -0,0 +1,136 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.StreamingFetchSizeInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:20
+ */
+class StreamingQueryTests {
+    static PooledDataSource dataSource;
+    static SqlSessionFactory sessionFactory;
+    static FetchSizeProbe probe = new FetchSizeProbe();
+
+    @BeforeAll
+    static void setup() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("streaming");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        // H2不接受负数fetchSize，这里用正数验证插件生效路径
+        StreamingFetchSizeInterceptor interceptor = new StreamingFetchSizeInterceptor();
+        Properties props = new Properties();
+        props.setProperty("fetchSize", "16");
+        interceptor.setProperties(props);
+        sessionFactory.getConfiguration().addInterceptor(interceptor);
+        // 后注册的插件在外层，看到的是StreamingFetchSizeInterceptor设置之后的Statement
+        sessionFactory.getConfiguration().addInterceptor(probe);
+        EmbeddedDatabase.seed(sessionFactory, 300);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Test
+    void testCursor() {
+        Cursor<Blog> cursor;
+        int count = 0;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            cursor = session.getMapper(BlogMapper.class).selectAllCursor();
+            for (Blog blog : cursor) {
+                Assertions.assertNotNull(blog.getAuthor());
+                count++;
+            }
+            Assertions.assertEquals(300, count);
+        }
+        // 会话关闭时游标随之关闭
+        Assertions.assertFalse(cursor.isOpen());
+        Assertions.assertEquals(16, probe.fetchSize("selectAllCursor"));
+    }
+
+    @Test
+    void testCursorClosedBySessionMidway() {
+        Cursor<Blog> cursor;
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            cursor = session.getMapper(BlogMapper.class).selectAllCursor();
+            Assertions.assertTrue(cursor.iterator().hasNext());
+            Assertions.assertTrue(cursor.isOpen());
+        }
+        Assertions.assertFalse(cursor.isOpen());
+    }
+
+    @Test
+    void testResultHandler() {
+        AtomicInteger count = new AtomicInteger();
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            session.getMapper(BlogMapper.class).selectAllStream(context -> {
+                Assertions.assertNotNull(context.getResultObject().getId());
+                count.incrementAndGet();
+            });
+        }
+        Assertions.assertEquals(300, count.get());
+        Assertions.assertEquals(16, probe.fetchSize("selectAllStream"));
+    }
+
+    @Test
+    void testFetchSizeOnlyForForwardOnly() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            session.getMapper(BlogMapper.class).selectAll();
+        }
+        // selectAll没有声明resultSetType，保持驱动默认值
+        Assertions.assertNotEquals(16, probe.fetchSize("selectAll"));
+    }
+
+    /**
+     * 记录每条语句prepare之后Statement上的fetchSize
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class FetchSizeProbe implements Interceptor {
+
+        private final Map<String, Integer> fetchSizes = new ConcurrentHashMap<>();
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            Statement statement = (Statement) invocation.proceed();
+            MetaObject metaObject = SystemMetaObject.forObject(invocation.getTarget());
+            while (metaObject.hasGetter("h")) {
+                metaObject = SystemMetaObject.forObject(metaObject.getValue("h.target"));
+            }
+            String id = ((MappedStatement) metaObject.getValue("delegate.mappedStatement")).getId();
+            fetchSizes.put(id.substring(id.lastIndexOf('.') + 1), statement.getFetchSize());
+            return statement;
+        }
+
+        int fetchSize(String statement) {
+            Integer fetchSize = fetchSizes.get(statement);
+            Assertions.assertNotNull(fetchSize, statement + " was not prepared");
+            return fetchSize;
+        }
+    }
+}
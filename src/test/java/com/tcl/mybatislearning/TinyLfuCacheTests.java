@@ -0,0 +1,150 @@
+package com.tcl.mybatislearning;
+
+import com.tcl.mybatislearning.cache.CacheStats;
+import com.tcl.mybatislearning.cache.TinyLfuCache;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.CacheInvalidationInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 16:10
+ */
+class TinyLfuCacheTests {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper";
+
+    @Test
+    void testFrequencyAwareEviction() {
+        TinyLfuCache cache = new TinyLfuCache("eviction");
+        cache.setSize(100);
+        cache.initialize();
+        // 每个热点每隔200次写入才访问一次，间隔超过容量，纯LRU会把它们挤掉
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 20 == 0) {
+                int hot = i / 20 % 10;
+                if (cache.getObject("hot-" + hot) == null) {
+                    cache.putObject("hot-" + hot, hot);
+                }
+            }
+            cache.putObject("cold-" + i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(i, cache.getObject("hot-" + i));
+        }
+        Assertions.assertEquals(100, cache.getSize());
+        CacheStats stats = cache.getStats();
+        Assertions.assertEquals(10_000 + stats.getMisses() - 100, stats.getEvictions());
+        Assertions.assertTrue(stats.getHitRate() > 0.95);
+    }
+
+    @Test
+    void testTimeToLive() throws Exception {
+        TinyLfuCache cache = new TinyLfuCache("ttl");
+        cache.setTimeToLiveSeconds(1);
+        cache.initialize();
+        cache.putObject("k", "v");
+        Assertions.assertEquals("v", cache.getObject("k"));
+        Thread.sleep(1100);
+        Assertions.assertNull(cache.getObject("k"));
+        Assertions.assertEquals(1, cache.getStats().getExpirations());
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testSelectiveInvalidation() throws Exception {
+        PooledDataSource dataSource = EmbeddedDatabase.dataSource("tiny_lfu_cache");
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+            sessionFactory.getConfiguration().setCacheEnabled(true);
+            sessionFactory.getConfiguration().addInterceptor(new CacheInvalidationInterceptor());
+            TinyLfuCache cache = TinyLfuCache.unwrap(sessionFactory.getConfiguration().getCache(NAMESPACE));
+            EmbeddedDatabase.seed(sessionFactory, 20);
+            cache.clear();
+
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.selectById(1L);
+                mapper.selectById(2L);
+                mapper.selectByIds(Arrays.asList(1L, 2L));
+            }
+            Assertions.assertEquals(3, cache.getSize());
+
+            // 每次命中得到的是副本，修改不影响缓存和其他会话
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Blog cached = session.getMapper(BlogMapper.class).selectById(2L);
+                cached.setTitle("changed");
+            }
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Assertions.assertEquals("title-1", session.getMapper(BlogMapper.class).selectById(2L).getTitle());
+            }
+
+            try (SqlSession session = sessionFactory.openSession()) {
+                Blog blog = new Blog();
+                blog.setId(1L);
+                blog.setTitle("updated");
+                blog.setContent("updated");
+                blog.setAuthor(author("updated"));
+                session.getMapper(BlogMapper.class).updateBlog(blog);
+                session.commit();
+            }
+            // 只驱逐id=1的selectById和未打标签的selectByIds
+            Assertions.assertEquals(1, cache.getSize());
+            cache.resetStats();
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                Assertions.assertEquals("title-1", mapper.selectById(2L).getTitle());
+                Assertions.assertEquals("updated", mapper.selectById(1L).getTitle());
+            }
+            Assertions.assertEquals(1, cache.getStats().getHits());
+
+            // 回滚不影响缓存
+            try (SqlSession session = sessionFactory.openSession()) {
+                session.getMapper(BlogMapper.class).deleteBlogById(2L);
+                session.rollback();
+            }
+            Assertions.assertEquals(2, cache.getSize());
+
+            // 插入只驱逐查询结果，按id缓存的条目保留
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                BlogMapper mapper = session.getMapper(BlogMapper.class);
+                mapper.selectByIds(Collections.singletonList(3L));
+            }
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                session.getMapper(BlogMapper.class).insertBatch(EmbeddedDatabase.blogs(100, 1));
+            }
+            Assertions.assertEquals(2, cache.getSize());
+
+            // 参数里找不到id时清空整个命名空间
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                Map<String, Object> parameter = new HashMap<>();
+                parameter.put("title", "x");
+                parameter.put("content", "x");
+                parameter.put("author", author("x"));
+                parameter.put("id", null);
+                session.update(NAMESPACE + ".updateBlog", parameter);
+            }
+            Assertions.assertEquals(0, cache.getSize());
+        } finally {
+            EmbeddedDatabase.close(dataSource);
+        }
+    }
+
+    private static Author author(String name) {
+        Author author = new Author();
+        author.setName(name);
+        return author;
+    }
+}
@@ -0,0 +1,77 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.load.LoadGenerator;
+import com.tcl.mybatislearning.load.LoadReport;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在内嵌H2(MySQL模式)上运行 {@link LoadGenerator}，比较连接池及其配置（test/resources 下的同名properties文件）。
+ * <p>
+ * 运行：mvn -Pload test-compile exec:exec -Dload.args="--pool hikari --threads 16 --rate 5000 --mix selectById=95,updateBlog=5"
+ * <p>
+ * 参数（均可省略）：
+ * <ul>
+ *     <li>--pool：druid、hikari、c3p0、pooled，缺省 hikari</li>
+ *     <li>--rows：预置的行数，缺省 10000</li>
+ *     <li>--threads：压测线程数，缺省 8</li>
+ *     <li>--rate：总请求速率（次/秒），0 为闭环，缺省 0</li>
+ *     <li>--mix：请求配比，缺省 {@value LoadGenerator#DEFAULT_MIX}</li>
+ *     <li>--warmup、--duration：预热和测量的秒数，缺省 5 和 30</li>
+ * </ul>
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 13:40
+ */
+public class BlogLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        String poolName = options.getOrDefault("pool", "hikari");
+        int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        DataSource pool = BlogMapperBenchmark.newDataSourceFactory(poolName).getDataSource();
+        try {
+            SqlSessionFactory sessionFactory = EmbeddedDatabase.sessionFactory(pool);
+            EmbeddedDatabase.seed(sessionFactory, rows);
+            LoadReport report = new LoadGenerator(sessionFactory)
+                    .mix(options.getOrDefault("mix", LoadGenerator.DEFAULT_MIX))
+                    .threads(Integer.parseInt(options.getOrDefault("threads", "8")))
+                    .rate(Double.parseDouble(options.getOrDefault("rate", "0")))
+                    .warmup(Long.parseLong(options.getOrDefault("warmup", "5")), TimeUnit.SECONDS)
+                    .duration(Long.parseLong(options.getOrDefault("duration", "30")), TimeUnit.SECONDS)
+                    .run();
+            System.out.println("pool=" + poolName + ", rows=" + rows);
+            System.out.print(report.format());
+        } finally {
+            EmbeddedDatabase.close(pool);
+        }
+    }
+
+    /**
+     * 解析 --name value 和 --name=value
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+        }
+        return options;
+    }
+}
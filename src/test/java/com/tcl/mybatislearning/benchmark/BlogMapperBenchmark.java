@@ -0,0 +1,169 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.datasource.C3P0DataSourceFactory;
+import com.tcl.mybatislearning.datasource.DruidDataSourceFactory;
+import com.tcl.mybatislearning.datasource.HikariDataSourceFactory;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BlogMapper热点语句在各数据源实现下的吞吐量和延迟分布。
+ * 数据库为内嵌H2(MySQL模式)，各连接池的连接配置取自test/resources下的同名properties文件。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="BlogMapperBenchmark -p dataSource=hikari"
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 11:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BlogMapperBenchmark {
+
+    @Param({"druid", "hikari", "c3p0", "pooled"})
+    private String dataSource;
+
+    @Param("1000")
+    private int rows;
+
+    @Param("50")
+    private int batchSize;
+
+    private DataSource pool;
+
+    private SqlSessionFactory sessionFactory;
+
+    private long minId;
+
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        pool = newDataSourceFactory(dataSource).getDataSource();
+        sessionFactory = EmbeddedDatabase.sessionFactory(pool);
+        EmbeddedDatabase.seed(sessionFactory, rows);
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            List<Blog> blogs = session.getMapper(BlogMapper.class).selectAll();
+            minId = blogs.get(0).getId();
+            maxId = blogs.get(blogs.size() - 1).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        EmbeddedDatabase.close(pool);
+    }
+
+    static DataSourceFactory newDataSourceFactory(String name) throws Exception {
+        switch (name) {
+            case "druid":
+                return new DruidDataSourceFactory();
+            case "hikari":
+                return new HikariDataSourceFactory();
+            case "c3p0":
+                return new C3P0DataSourceFactory();
+            case "pooled":
+                PooledDataSourceFactory factory = new PooledDataSourceFactory();
+                Properties props = new Properties();
+                props.setProperty("driver", "org.h2.Driver");
+                props.setProperty("url", EmbeddedDatabase.url("mybatis_learning"));
+                props.setProperty("username", "sa");
+                props.setProperty("password", "");
+                factory.setProperties(props);
+                return factory;
+            default:
+                throw new IllegalArgumentException("Unknown dataSource: " + name);
+        }
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+
+    @Benchmark
+    public Blog selectById() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectById(randomId());
+        }
+    }
+
+    @Benchmark
+    public List<Blog> selectAll() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectAll();
+        }
+    }
+
+    @Benchmark
+    public List<Blog> selectByIds() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ids.add(randomId());
+        }
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectByIds(ids);
+        }
+    }
+
+    @Benchmark
+    public List<Blog> selectBlogLike() {
+        // 约命中rows/1000行，避免退化成selectAll
+        String title = "title-" + ThreadLocalRandom.current().nextInt(100, 1000) + "%";
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectBlogLike(title, null);
+        }
+    }
+
+    /**
+     * 在事务中插入后回滚，保证各轮迭代的表大小一致
+     */
+    @Benchmark
+    public List<Blog> insertBatch() {
+        List<Blog> blogs = EmbeddedDatabase.blogs(0, batchSize);
+        try (SqlSession session = sessionFactory.openSession(false)) {
+            session.getMapper(BlogMapper.class).insertBatch(blogs);
+            session.rollback(true);
+        }
+        return blogs;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BlogMapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
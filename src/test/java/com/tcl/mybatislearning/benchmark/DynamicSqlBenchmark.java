@@ -0,0 +1,129 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.entity.Author;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.scripting.CompiledXMLLanguageDriver;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 默认 XMLLanguageDriver（OGNL）与 CompiledXMLLanguageDriver 生成 BoundSql 的耗时，不访问数据库。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="DynamicSqlBenchmark"
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 21:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class DynamicSqlBenchmark {
+
+    private static final String NAMESPACE = "com.tcl.mybatislearning.mapper.BlogMapper.";
+
+    @Param({"ognl", "compiled"})
+    private String driver;
+
+    @Param("64")
+    private int batchSize;
+
+    private MappedStatement updateBlog;
+
+    private MappedStatement selectBlogLike;
+
+    private MappedStatement selectByIds;
+
+    private MappedStatement insertBatch;
+
+    private Blog blog;
+
+    private Map<String, Object> likeParameter;
+
+    private Map<String, Object> idsParameter;
+
+    private Map<String, Object> blogsParameter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setDefaultScriptingLanguage("compiled".equals(driver) ? CompiledXMLLanguageDriver.class : XMLLanguageDriver.class);
+        configuration.getTypeAliasRegistry().registerAliases("com.tcl.mybatislearning.entity");
+        String resource = "com/tcl/mybatislearning/mapper/BlogMapper.xml";
+        try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+        }
+        updateBlog = configuration.getMappedStatement(NAMESPACE + "updateBlog");
+        selectBlogLike = configuration.getMappedStatement(NAMESPACE + "selectBlogLike");
+        selectByIds = configuration.getMappedStatement(NAMESPACE + "selectByIds");
+        insertBatch = configuration.getMappedStatement(NAMESPACE + "insertBatch");
+
+        Author author = new Author();
+        author.setName("author-1");
+        blog = new Blog();
+        blog.setId(1L);
+        blog.setTitle("title-1");
+        blog.setContent("content-1");
+        blog.setAuthor(author);
+
+        // 走第二个when分支，两个条件都要求值
+        likeParameter = new HashMap<>();
+        likeParameter.put("title", null);
+        likeParameter.put("author", author);
+        List<Long> ids = new ArrayList<>(batchSize);
+        for (long i = 1; i <= batchSize; i++) {
+            ids.add(i);
+        }
+        idsParameter = new HashMap<>();
+        idsParameter.put("ids", ids);
+        blogsParameter = new HashMap<>();
+        blogsParameter.put("blogs", EmbeddedDatabase.blogs(0, batchSize));
+    }
+
+    @Benchmark
+    public BoundSql updateBlog() {
+        return updateBlog.getBoundSql(blog);
+    }
+
+    @Benchmark
+    public BoundSql selectBlogLike() {
+        return selectBlogLike.getBoundSql(likeParameter);
+    }
+
+    @Benchmark
+    public BoundSql selectByIds() {
+        return selectByIds.getBoundSql(idsParameter);
+    }
+
+    @Benchmark
+    public BoundSql insertBatch() {
+        return insertBatch.getBoundSql(blogsParameter);
+    }
+}
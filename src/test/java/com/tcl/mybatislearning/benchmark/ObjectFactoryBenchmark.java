@@ -0,0 +1,91 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.factory.CachingObjectFactory;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultObjectFactory 与 CachingObjectFactory 的对比：单次创建对象，以及 selectAll 的每行开销。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="ObjectFactoryBenchmark"
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 14:55
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ObjectFactoryBenchmark {
+
+    @Param({"default", "caching"})
+    private String objectFactory;
+
+    @Param("1000")
+    private int rows;
+
+    private ObjectFactory factory;
+
+    private PooledDataSource dataSource;
+
+    private SqlSessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        factory = "caching".equals(objectFactory) ? new CachingObjectFactory() : new DefaultObjectFactory();
+        dataSource = EmbeddedDatabase.dataSource("object_factory");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        sessionFactory.getConfiguration().setObjectFactory(factory);
+        EmbeddedDatabase.seed(sessionFactory, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Benchmark
+    public Blog createBlog() {
+        return factory.create(Blog.class);
+    }
+
+    @Benchmark
+    public List<?> createList() {
+        return factory.create(List.class);
+    }
+
+    /**
+     * 结果除以rows即每行成本
+     */
+    @Benchmark
+    public List<Blog> selectAll() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectAll();
+        }
+    }
+}
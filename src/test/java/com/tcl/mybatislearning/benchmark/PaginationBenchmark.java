@@ -0,0 +1,103 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.entity.Blog;
+import com.tcl.mybatislearning.interceptor.RowBoundsLimitInterceptor;
+import com.tcl.mybatislearning.mapper.BlogMapper;
+import com.tcl.mybatislearning.page.KeysetPage;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同翻页深度下，内存RowBounds、改写成limit/offset和键集分页的单页耗时。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="PaginationBenchmark"
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 17:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class PaginationBenchmark {
+
+    private static final String SELECT_ALL = "com.tcl.mybatislearning.mapper.BlogMapper.selectAll";
+
+    @Param("50000")
+    private int rows;
+
+    @Param({"0", "10000", "45000"})
+    private int offset;
+
+    @Param("20")
+    private int pageSize;
+
+    private PooledDataSource dataSource;
+
+    private SqlSessionFactory plain;
+
+    private SqlSessionFactory rewriting;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("pagination_benchmark");
+        plain = EmbeddedDatabase.sessionFactory(dataSource);
+        rewriting = EmbeddedDatabase.sessionFactory(dataSource);
+        rewriting.getConfiguration().addInterceptor(new RowBoundsLimitInterceptor());
+        EmbeddedDatabase.seed(plain, rows);
+        try (SqlSession session = plain.openSession(true)) {
+            List<Blog> skipped = session.selectList(SELECT_ALL, null, new RowBounds(0, Math.max(offset, 1)));
+            token = offset == 0 ? null : KeysetPage.encode(skipped.get(offset - 1).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Benchmark
+    public List<Blog> rowBoundsInMemory() {
+        try (SqlSession session = plain.openSession(true)) {
+            return session.selectList(SELECT_ALL, null, new RowBounds(offset, pageSize));
+        }
+    }
+
+    @Benchmark
+    public List<Blog> rowBoundsRewritten() {
+        try (SqlSession session = rewriting.openSession(true)) {
+            return session.selectList(SELECT_ALL, null, new RowBounds(offset, pageSize));
+        }
+    }
+
+    @Benchmark
+    public KeysetPage<Blog> keyset() {
+        try (SqlSession session = plain.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectAllPage(token, pageSize);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tcl.mybatislearning.benchmark;
+
+import com.tcl.generated.mapper.BlogMapper;
+import com.tcl.generated.model.Blog;
+import com.tcl.mybatislearning.EmbeddedDatabase;
+import com.tcl.mybatislearning.factory.CachingObjectFactory;
+import com.tcl.mybatislearning.interceptor.CompiledRowMapperInterceptor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成的 BlogMapper.selectAll：DefaultResultSetHandler 反射映射与生成的 BlogRowMapper 对比。
+ * <p>
+ * 两组都使用 CachingObjectFactory，差别只在结果映射；结果除以 rows 即每行成本，其中包含 H2 读取结果集本身的开销。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.args="RowMapperBenchmark"
+ *
+ * @author li
+ * @version 1.0
+ * @date 2026/10/18 12:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class RowMapperBenchmark {
+
+    @Param({"reflective", "compiled"})
+    private String mapping;
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private PooledDataSource dataSource;
+
+    private SqlSessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dataSource = EmbeddedDatabase.dataSource("row_mapper_benchmark");
+        sessionFactory = EmbeddedDatabase.sessionFactory(dataSource);
+        sessionFactory.getConfiguration().setObjectFactory(new CachingObjectFactory());
+        sessionFactory.getConfiguration().addMapper(BlogMapper.class);
+        if ("compiled".equals(mapping)) {
+            sessionFactory.getConfiguration().addInterceptor(new CompiledRowMapperInterceptor());
+        }
+        EmbeddedDatabase.seed(sessionFactory, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        EmbeddedDatabase.close(dataSource);
+    }
+
+    @Benchmark
+    public List<Blog> selectAll() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(BlogMapper.class).selectAll();
+        }
+    }
+}
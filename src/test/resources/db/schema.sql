@@ -0,0 +1,18 @@
+create table if not exists author
+(
+    id   bigint auto_increment primary key,
+    name varchar(64) not null unique
+);
+
+create table if not exists blog
+(
+    id          bigint auto_increment primary key,
+    title       varchar(255),
+    content     text,
+    author      varchar(64),
+    author_id   bigint,
+    create_time timestamp default current_timestamp,
+    update_time timestamp default current_timestamp on update current_timestamp
+);
+
+create index if not exists idx_blog_author_id on blog (author_id);